@@ -21,8 +21,14 @@ interface Pledge {
     nextScheduledRun?: string;
     stakeCents: number;
     lastStatus?: 'MET' | 'VIOLATED' | 'PENDING';
+    active: boolean;
 }
 
+/* Last list + its ETag; an unchanged list comes back as a bodiless 304 */
+let cachedPledges: Pledge[] = [];
+let cachedEtag: string | null = null;
+let cachedFor: string | null = null;
+
 export default function PledgeListScreen() {
     const { userToken, isLoading, signOut } = useAuth();
     const router = useRouter();
@@ -43,10 +49,23 @@ export default function PledgeListScreen() {
         const fetch = async () => {
             try {
                 setLoading(true);
-                const { data } = await api.get<Pledge[]>('/api/pledges', {
-                    headers: { Authorization: `Bearer ${userToken}` },
+                if (cachedFor !== userToken) {
+                    cachedPledges = [];
+                    cachedEtag = null;
+                    cachedFor = userToken;
+                }
+                const res = await api.get<Pledge[]>('/api/pledges', {
+                    headers: {
+                        Authorization: `Bearer ${userToken}`,
+                        ...(cachedEtag ? { 'If-None-Match': cachedEtag } : {}),
+                    },
+                    validateStatus: (s) => (s >= 200 && s < 300) || s === 304,
                 });
-                setPledges(data);
+                if (res.status !== 304) {
+                    cachedPledges = res.data;
+                    cachedEtag = res.headers['etag'] ?? null;
+                }
+                setPledges(cachedPledges);
             } catch (err: any) {
                 if (err.response?.status === 401 || err.response?.status === 403) {
                     await signOut();
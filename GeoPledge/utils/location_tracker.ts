@@ -4,6 +4,57 @@ import api from "@/utils/api";
 
 const TASK = "pledge-location-task";
 
+// cadence bounds; the server's hint picks a value in between
+const MIN_INTERVAL_MS = 60 * 1000;          // around a scheduled slot
+const BASE_INTERVAL_MS = 5 * 60 * 1000;     // default
+const MAX_INTERVAL_MS = 60 * 60 * 1000;     // nothing due for a long while
+const LEAD_S = 10 * 60;                     // wake up this long before a slot
+const BASE_DISTANCE_M = 50;                 // movement that triggers a fix near a slot
+const MAX_DISTANCE_M = 5000;                // ... and the most it grows to while sleeping
+
+type NextFixHint = {
+    secondsUntilNextPledge: number | null;
+    nearestGeofenceMeters: number | null;
+};
+
+let currentInterval = BASE_INTERVAL_MS;
+let currentDistance = BASE_DISTANCE_M;
+
+function trackingOptions(timeInterval: number, distanceInterval: number): Location.LocationTaskOptions {
+    return {
+        accuracy: Location.Accuracy.High,          // GPS / fused
+        timeInterval,                              // ms (Android only)
+        distanceInterval,                          // m
+        showsBackgroundLocationIndicator: true,    // iOS blue bar
+        foregroundService: {                       // Android 10+
+            notificationTitle: "GeoPledge",
+            notificationBody: "Tracking your pledge location"
+        }
+    };
+}
+
+/**
+ * Sleep until shortly before the next pledge slot, poll fast once it is close.
+ * While sleeping, movement triggers a fix only after half the way to the nearest
+ * fence – iOS ignores timeInterval, so this is what keeps it quiet.
+ */
+async function applyHint(hint: NextFixHint | undefined) {
+    if (!hint || hint.secondsUntilNextPledge == null) return;
+    const untilLeadMs = (hint.secondsUntilNextPledge - LEAD_S) * 1000;
+    const sleeping = untilLeadMs > 0;
+    const next = sleeping
+        ? Math.min(MAX_INTERVAL_MS, Math.max(BASE_INTERVAL_MS, untilLeadMs))
+        : MIN_INTERVAL_MS;
+    const distance = sleeping && hint.nearestGeofenceMeters != null
+        ? Math.round(Math.min(MAX_DISTANCE_M, Math.max(BASE_DISTANCE_M, hint.nearestGeofenceMeters / 2)))
+        : BASE_DISTANCE_M;
+    if (next === currentInterval && distance === currentDistance) return;
+    currentInterval = next;
+    currentDistance = distance;
+    // restarting with the same task name just updates its options
+    await Location.startLocationUpdatesAsync(TASK, trackingOptions(next, distance));
+}
+
 // 1️⃣ background callback ----------------------------------------------------
 TaskManager.defineTask(TASK, async ({ data, error }) => {
     if (error || !data) return;                 // bail on errors
@@ -13,11 +64,13 @@ TaskManager.defineTask(TASK, async ({ data, error }) => {
     // pick the newest fix
     const fix = locations[locations.length - 1];
     try {
-        await api.post("/api/pledges/check", {
+        const res = await api.post<NextFixHint>("/api/pledges/check", {
             lat: fix.coords.latitude,
             lon: fix.coords.longitude,
+            accuracy: fix.coords.accuracy ?? undefined,
             at: new Date().toISOString()
         });
+        await applyHint(res.data);
     } catch { /* network errors are fine – will retry next fix */ }
 });
 
@@ -32,17 +85,10 @@ export async function startTracking() {
     const running = await Location.hasStartedLocationUpdatesAsync(TASK);
     if (running) return true;
 
-    // tune cadence – ≈ 5 min or when user moves ≥50 m
-    await Location.startLocationUpdatesAsync(TASK, {
-        accuracy: Location.Accuracy.High,          // GPS / fused
-        timeInterval: 5 * 60 * 1000,               // ms
-        distanceInterval: 50,                      // m
-        showsBackgroundLocationIndicator: true,    // iOS blue bar
-        foregroundService: {                       // Android 10+
-            notificationTitle: "GeoPledge",
-            notificationBody: "Tracking your pledge location"
-        }
-    });
+    // start at ≈ 5 min or when user moves ≥50 m; server hints adjust it from there
+    currentInterval = BASE_INTERVAL_MS;
+    currentDistance = BASE_DISTANCE_M;
+    await Location.startLocationUpdatesAsync(TASK, trackingOptions(currentInterval, currentDistance));
     return true;
 }
 
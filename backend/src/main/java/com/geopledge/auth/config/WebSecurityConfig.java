@@ -1,8 +1,13 @@
 package com.geopledge.auth.config;
 
+import com.geopledge.auth.security.AdminGuard;
 import com.geopledge.auth.security.JwtAuthTokenFilter;
+import com.geopledge.auth.security.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -24,8 +29,15 @@ import java.util.Arrays;
 public class WebSecurityConfig {
 
     private final JwtAuthTokenFilter jwtAuthTokenFilter;
-    public WebSecurityConfig(JwtAuthTokenFilter jwtAuthTokenFilter) {
+    private final RateLimitFilter rateLimitFilter;
+    private final AdminGuard adminGuard;
+    private final Environment env;
+    public WebSecurityConfig(JwtAuthTokenFilter jwtAuthTokenFilter, RateLimitFilter rateLimitFilter,
+                             AdminGuard adminGuard, Environment env) {
         this.jwtAuthTokenFilter = jwtAuthTokenFilter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.adminGuard = adminGuard;
+        this.env = env;
     }
 
     @Bean
@@ -48,17 +60,31 @@ public class WebSecurityConfig {
                 // Configure authorization
                 .authorizeHttpRequests(authz -> authz
                         // Allow public access to auth endpoints
+                        // (/ws/** checks the JWT itself during the handshake)
                         .requestMatchers(
                                 "/api/auth/**",
+                                "/ws/**",
                                 "/error",
-                                "/error/**"
+                                "/error/**",
+                                "/actuator/health"
                         ).permitAll()
+                        // the separate management port (management.server.port) is internal:
+                        // Prometheus scrapes it without a token
+                        .requestMatchers(request -> String.valueOf(request.getLocalPort())
+                                .equals(env.getProperty("local.management.port"))).permitAll()
+                        // anywhere else the remaining actuator endpoints are for admins only
+                        .requestMatchers("/actuator/**").access((auth, context) ->
+                                new AuthorizationDecision(adminGuard.isAdmin(auth.get())))
+                        // SSE completions re-dispatch after the original request was authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // All other endpoints require authentication
                         .anyRequest().authenticated()
                 )
 
                 // insert our own JWT filter
-                .addFilterBefore(jwtAuthTokenFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthTokenFilter, UsernamePasswordAuthenticationFilter.class)
+                // throttle per user id, so it needs to run after the JWT filter
+                .addFilterAfter(rateLimitFilter, JwtAuthTokenFilter.class);
 
         return http.build();
     }
@@ -80,6 +106,7 @@ public class WebSecurityConfig {
         ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("ETag"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,37 @@
+package com.geopledge.auth.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Who may call the /api/admin endpoints: authenticated users whose id is listed in
+ * app.admin.user-ids (comma-separated). Empty list = nobody.
+ */
+@Component
+public class AdminGuard {
+
+    private final Set<UUID> adminIds;
+
+    public AdminGuard(@Value("${app.admin.user-ids:}") String adminIds) {
+        this.adminIds = Arrays.stream(adminIds.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(UUID::fromString)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean isAdmin(Authentication auth) {
+        if (auth == null || !auth.isAuthenticated()) return false;
+        try {
+            return adminIds.contains(UUID.fromString(auth.getName()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.geopledge.auth.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Verifies the JWT once, at the WebSocket handshake. The token comes from the
+ * Authorization header or, for clients that cannot set headers, a "token" query param.
+ * The user id and token expiry are kept as session attributes.
+ */
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ID = "userId";
+    public static final String EXPIRES_AT = "expiresAt";
+
+    private final JwtUtils jwtUtils;
+
+    public JwtHandshakeInterceptor(JwtUtils jwtUtils) {
+        this.jwtUtils = jwtUtils;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = null;
+        String header = request.getHeaders().getFirst("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            token = header.substring(7);
+        } else {
+            token = UriComponentsBuilder.fromUri(request.getURI()).build()
+                    .getQueryParams().getFirst("token");
+        }
+
+        if (token == null || !jwtUtils.validateJwtToken(token)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        attributes.put(USER_ID, jwtUtils.getUserIdFromJwtToken(token));
+        attributes.put(EXPIRES_AT, jwtUtils.getExpirationFromJwtToken(token).getTime());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.geopledge.auth.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets in front of the endpoints that cost a write on SQLite's
+ * single writer. Runs right after {@link JwtAuthTokenFilter}: the client is the
+ * authenticated user id, or the remote address for anonymous requests (login, signup).
+ * IPv6 addresses count per /64, the block a single subscriber is usually handed, so
+ * rotating through it earns no fresh buckets. Other entry points into the same work
+ * (the WebSocket fix stream) take their tokens through {@link #acquire}.
+ *
+ * Each rule in app.ratelimit.rules is {@code METHOD /path BURST/SECONDSs}: a
+ * bucket of BURST tokens that refills completely over SECONDS. A bucket is a single
+ * long, the nanoTime at which it will be full again; taking a token pushes it one
+ * refill interval later, with a CAS and no lock. A request that would push it more
+ * than BURST intervals ahead is refused with 429 and a Retry-After.
+ *
+ * A bucket whose full-again time has passed holds nothing a new bucket wouldn't, so
+ * the eviction sweep drops those. A rule at max-buckets reclaims such buckets itself
+ * (at most once a second); if every bucket is still in use, only the client that
+ * found no room is refused – clients with a bucket keep theirs, and nobody shares one.
+ */
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String TOO_MANY = "{\"message\":\"Too many requests\"}";
+    private static final long RECLAIM_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final List<Rule> rules = new ArrayList<>();
+
+    public RateLimitFilter(MeterRegistry registry,
+                           @Value("${app.ratelimit.enabled:true}") boolean enabled,
+                           @Value("${app.ratelimit.rules:}") List<String> rules,
+                           @Value("${app.ratelimit.max-buckets:100000}") int maxBuckets) {
+        this.enabled = enabled;
+        this.maxBuckets = maxBuckets;
+        PathPatternParser parser = new PathPatternParser();
+        for (String spec : rules) {
+            if (!spec.isBlank()) this.rules.add(Rule.parse(spec.trim(), parser, registry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || rules.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Rule rule = match(request.getMethod(),
+                request.getRequestURI().substring(request.getContextPath().length()));
+        if (rule != null) {
+            long waitNanos = rule.acquire(clientKey(request), maxBuckets, System.nanoTime());
+            if (waitNanos > 0) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader("Retry-After", Long.toString((waitNanos + 999_999_999) / 1_000_000_000));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write(TOO_MANY);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Takes a token from the bucket {@code method path} requests of {@code userId} draw
+     * on, for work that arrives outside an HTTP request.
+     *
+     * @return 0 if allowed (also when no rule covers the route), else nanos until a token frees up
+     */
+    public long acquire(String method, String path, UUID userId) {
+        if (!enabled) return 0;
+        Rule rule = match(method, path);
+        return rule != null ? rule.acquire(userId.toString(), maxBuckets, System.nanoTime()) : 0;
+    }
+
+    private Rule match(String method, String requestPath) {
+        PathContainer path = null;
+        for (Rule r : rules) {
+            if (!r.method.equalsIgnoreCase(method)) continue;
+            if (path == null) path = PathContainer.parsePath(requestPath);
+            if (r.pattern.matches(path)) return r;
+        }
+        return null;
+    }
+
+    /** The user id set by {@link JwtAuthTokenFilter}, else the remote address. */
+    private static String clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return auth.getName();
+        }
+        return addressKey(request.getRemoteAddr());
+    }
+
+    /** IPv4 by address, IPv6 by its /64. */
+    static String addressKey(String remoteAddr) {
+        if (remoteAddr == null || remoteAddr.indexOf(':') < 0) return "ip:" + remoteAddr;
+        try {
+            InetAddress address = InetAddress.getByName(remoteAddr); // an IPv6 literal: no lookup
+            if (address instanceof Inet4Address) return "ip:" + address.getHostAddress(); // IPv4-mapped
+            byte[] b = address.getAddress();
+            StringBuilder key = new StringBuilder("ip6:");
+            for (int i = 0; i < 8; i += 2) {
+                key.append(Integer.toHexString((b[i] & 0xff) << 8 | (b[i + 1] & 0xff))).append(':');
+            }
+            return key.append(":/64").toString();
+        } catch (UnknownHostException e) {
+            return "ip:" + remoteAddr;
+        }
+    }
+
+    public int bucketCount() {
+        int n = 0;
+        for (Rule r : rules) n += r.buckets.size();
+        return n;
+    }
+
+    /** Drop buckets that have refilled; a fresh one would be identical. */
+    @Scheduled(fixedDelayString = "${app.ratelimit.evict-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int before = bucketCount();
+        for (Rule r : rules) {
+            // a take racing the removal is forgiven; the next request starts a full bucket anyway
+            r.buckets.values().removeIf(b -> b.get() - now <= 0);
+        }
+        int evicted = before - bucketCount();
+        if (evicted > 0) log.debug("Rate limiter evicted {} idle buckets, {} left", evicted, bucketCount());
+    }
+
+    private static final class Rule {
+        final String method;
+        final PathPattern pattern;
+        final long intervalNanos;   // one token's refill time
+        final long burstNanos;      // how far ahead of now a bucket may run: BURST intervals
+        final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        final AtomicLong lastReclaim = new AtomicLong(System.nanoTime() - RECLAIM_NANOS);
+        final Counter rejected;
+
+        private Rule(String method, PathPattern pattern, int burst, long seconds, Counter rejected) {
+            this.method = method;
+            this.pattern = pattern;
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(seconds) / burst;
+            this.burstNanos = intervalNanos * burst;
+            this.rejected = rejected;
+        }
+
+        /** e.g. "POST /api/pledges/check 30/60s" */
+        static Rule parse(String spec, PathPatternParser parser, MeterRegistry registry) {
+            String[] parts = spec.split("\\s+");
+            if (parts.length != 3 || !parts[2].matches("\\d+/\\d+s")) {
+                throw new IllegalArgumentException("app.ratelimit.rules: expected 'METHOD /path BURST/SECONDSs', got '" + spec + "'");
+            }
+            String[] limit = parts[2].substring(0, parts[2].length() - 1).split("/");
+            int burst = Integer.parseInt(limit[0]);
+            long seconds = Long.parseLong(limit[1]);
+            if (burst < 1 || seconds < 1) {
+                throw new IllegalArgumentException("app.ratelimit.rules: burst and seconds must be positive in '" + spec + "'");
+            }
+            Counter rejected = Counter.builder("geopledge.ratelimit.rejected")
+                    .tag("route", parts[0] + " " + parts[1])
+                    .description("Requests refused with 429")
+                    .register(registry);
+            return new Rule(parts[0], parser.parse(parts[1]), burst, seconds, rejected);
+        }
+
+        /** Takes a token; returns 0, or how long until one is available. */
+        long acquire(String client, int maxBuckets, long now) {
+            AtomicLong bucket = buckets.get(client);
+            if (bucket == null) {
+                if (buckets.size() >= maxBuckets && !reclaim(now, maxBuckets)) {
+                    rejected.increment();
+                    return RECLAIM_NANOS; // every bucket in use: only the newcomer waits
+                }
+                bucket = buckets.computeIfAbsent(client, k -> new AtomicLong(now));
+            }
+            while (true) {
+                long fullAt = bucket.get();
+                long next = Math.max(fullAt - now, 0) + intervalNanos;
+                if (next > burstNanos) {
+                    rejected.increment();
+                    return next - burstNanos;
+                }
+                if (bucket.compareAndSet(fullAt, now + next)) return 0;
+            }
+        }
+
+        /** Drop refilled buckets ahead of the sweep; one caller per second. Returns whether there is room. */
+        private boolean reclaim(long now, int maxBuckets) {
+            long last = lastReclaim.get();
+            if (now - last >= RECLAIM_NANOS && lastReclaim.compareAndSet(last, now)) {
+                buckets.values().removeIf(b -> b.get() - now <= 0);
+            }
+            return buckets.size() < maxBuckets;
+        }
+    }
+}
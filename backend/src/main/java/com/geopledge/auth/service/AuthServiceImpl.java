@@ -12,6 +12,7 @@ import com.geopledge.auth.security.JwtUtils;
 import com.geopledge.exception.UserNotFoundException;
 import com.geopledge.exception.InvalidPasswordException;
 import com.geopledge.exception.EmailAlreadyExistsException;
+import com.geopledge.service.PledgeMetrics;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -24,14 +25,17 @@ public class AuthServiceImpl implements AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
+    private final PledgeMetrics metrics;
 
     @Autowired
     public AuthServiceImpl(UserRepository userRepository,
                            PasswordEncoder passwordEncoder,
-                           JwtUtils jwtUtils) {
+                           JwtUtils jwtUtils,
+                           PledgeMetrics metrics) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtils = jwtUtils;
+        this.metrics = metrics;
     }
 
     /**
@@ -60,6 +64,15 @@ public class AuthServiceImpl implements AuthService {
     @Override
     @Transactional(readOnly = true)
     public JwtResponse authenticateUser(LoginRequest loginRequest) throws UserNotFoundException, InvalidPasswordException {
+        long start = System.nanoTime();
+        try {
+            return authenticate(loginRequest);
+        } finally {
+            metrics.loggedIn(System.nanoTime() - start);
+        }
+    }
+
+    private JwtResponse authenticate(LoginRequest loginRequest) throws UserNotFoundException, InvalidPasswordException {
         String email = loginRequest.getEmail().toLowerCase().trim();
         String rawPassword = loginRequest.getPassword();
 
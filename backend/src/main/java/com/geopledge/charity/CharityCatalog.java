@@ -0,0 +1,57 @@
+package com.geopledge.charity;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The charity list, cached with a content version so clients can skip re-downloading
+ * it. Charities are seeded rather than edited in the app, so a copy at most
+ * cache-seconds old is fine.
+ */
+@Component
+public class CharityCatalog {
+
+    /** version is a hash of every id and name in name order, stable across restarts. */
+    public record Snapshot(long version, List<CharityDTO> charities, long loadedAt) {}
+
+    private final CharityRepository repo;
+    private final Clock clock;
+    private final long ttlMs;
+
+    private volatile Snapshot snapshot;
+
+    public CharityCatalog(CharityRepository repo,
+                          Clock clock,
+                          @Value("${app.charities.cache-seconds:300}") long cacheSeconds) {
+        this.repo = repo;
+        this.clock = clock;
+        this.ttlMs = TimeUnit.SECONDS.toMillis(cacheSeconds);
+    }
+
+    public Snapshot current() {
+        Snapshot s = snapshot;
+        long now = clock.millis();
+        if (s == null || now - s.loadedAt() >= ttlMs) {
+            s = load(now); // concurrent misses both load; the last one wins, same content
+            snapshot = s;
+        }
+        return s;
+    }
+
+    private Snapshot load(long now) {
+        List<CharityDTO> charities = repo.findAll(Sort.by("name", "id")).stream()
+                .map(c -> new CharityDTO(c.getId(), c.getName()))
+                .toList();
+        long version = 1;
+        for (CharityDTO c : charities) {
+            version = 31 * version + c.getId().hashCode();
+            version = 31 * version + (c.getName() != null ? c.getName().hashCode() : 0);
+        }
+        return new Snapshot(version & Long.MAX_VALUE, charities, now);
+    }
+}
@@ -0,0 +1,20 @@
+package com.geopledge.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * The application's "now". Schedule, check and evaluation code reads time from this
+ * bean instead of the system clock, so tests and the simulation runner can drive
+ * them with a fixed or virtual clock.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
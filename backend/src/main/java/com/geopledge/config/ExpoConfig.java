@@ -6,6 +6,7 @@ import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 @Configuration
 public class ExpoConfig {
@@ -14,7 +15,9 @@ public class ExpoConfig {
     @Value("${EXPO_ACCESS_TOKEN:}")
     private String accessToken;
 
+    /** Lazy: only the push test endpoint uses it, so its HTTP client is built on first push. */
     @Bean
+    @Lazy
     public ExpoPushNotificationClient expoPushNotificationClient() {
         var builder = ExpoPushNotificationClient.builder()
                 .setHttpClient(HttpClients.createDefault());
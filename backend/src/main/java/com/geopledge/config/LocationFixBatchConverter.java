@@ -0,0 +1,47 @@
+package com.geopledge.config;
+
+import com.geopledge.dto.LocationFixBatch;
+import com.geopledge.util.FixBatchCodec;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/** Reads/writes {@link LocationFixBatch} in the compact binary upload format. */
+public class LocationFixBatchConverter extends AbstractHttpMessageConverter<LocationFixBatch> {
+
+    /** Upper bound on a body: header + MAX_FIXES worst-case records. */
+    private static final int MAX_BYTES = 19 + FixBatchCodec.MAX_FIXES * 18;
+
+    public LocationFixBatchConverter() {
+        super(MediaType.parseMediaType(LocationFixBatch.MEDIA_TYPE));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return LocationFixBatch.class == clazz;
+    }
+
+    @Override
+    protected LocationFixBatch readInternal(Class<? extends LocationFixBatch> clazz,
+                                            HttpInputMessage inputMessage) throws IOException {
+        byte[] body = inputMessage.getBody().readNBytes(MAX_BYTES + 1);
+        if (body.length > MAX_BYTES) {
+            throw new HttpMessageNotReadableException("Fix batch too large", inputMessage);
+        }
+        try {
+            return FixBatchCodec.decode(ByteBuffer.wrap(body));
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Invalid fix batch: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(LocationFixBatch batch, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(FixBatchCodec.encode(batch));
+    }
+}
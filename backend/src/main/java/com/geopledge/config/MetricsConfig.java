@@ -0,0 +1,73 @@
+package com.geopledge.config;
+
+import com.geopledge.auth.security.RateLimitFilter;
+import com.geopledge.journal.FixJournal;
+import com.geopledge.service.DwellWindowEvaluator;
+import com.geopledge.service.FixAnomalyDetector;
+import com.geopledge.service.FixIngestQueue;
+import com.geopledge.service.GeofenceService;
+import com.geopledge.service.HeatmapService;
+import com.geopledge.service.PledgeEventBroadcaster;
+import com.geopledge.service.PledgeGeometry;
+import com.geopledge.service.PledgeSpatialIndex;
+import com.geopledge.service.TrackStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Gauges over the in-memory queues, buffers and caches. They are sampled on
+ * scrape, so none of the hot paths pays for them.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder geopledgeGauges(FixIngestQueue ingestQueue,
+                                       PledgeEventBroadcaster broadcaster,
+                                       GeofenceService geofenceService,
+                                       DwellWindowEvaluator dwellEvaluator,
+                                       FixAnomalyDetector anomalyDetector,
+                                       PledgeSpatialIndex spatialIndex,
+                                       PledgeGeometry geometry,
+                                       TrackStore trackStore,
+                                       HeatmapService heatmap,
+                                       FixJournal journal,
+                                       RateLimitFilter rateLimiter) {
+        return registry -> {
+            gauge(registry, "geopledge.ingest.queue.depth", "Fixes waiting in the ingest rings",
+                    ingestQueue, FixIngestQueue::depth);
+            gauge(registry, "geopledge.sse.subscribers", "Open pledge event streams",
+                    broadcaster, PledgeEventBroadcaster::subscriberCount);
+            gauge(registry, "geopledge.geofence.tracked", "Pledges decided by client geofence events",
+                    geofenceService, GeofenceService::trackedCount);
+            gauge(registry, "geopledge.dwell.windows.open", "Dwell windows awaiting a decision",
+                    dwellEvaluator, DwellWindowEvaluator::openWindows);
+            gauge(registry, "geopledge.anomaly.users.tracked", "Users with a fix anomaly track",
+                    anomalyDetector, FixAnomalyDetector::trackedUsers);
+            gauge(registry, "geopledge.spatial.index.fences", "Active fences in the spatial index",
+                    spatialIndex, PledgeSpatialIndex::size);
+            gauge(registry, "geopledge.spatial.index.cells", "Occupied spatial index grid cells",
+                    spatialIndex, PledgeSpatialIndex::cellCount);
+            gauge(registry, "geopledge.polygons.prepared", "Prepared polygon cache entries",
+                    geometry, PledgeGeometry::preparedCount);
+            gauge(registry, "geopledge.track.buffered.users", "Users with unflushed track fixes",
+                    trackStore, TrackStore::bufferedUsers);
+            gauge(registry, "geopledge.heatmap.pending.cells", "Heatmap cells with unflushed deltas",
+                    heatmap, HeatmapService::pendingCells);
+            gauge(registry, "geopledge.journal.next.sequence", "Sequence the next journalled fix gets",
+                    journal, FixJournal::nextSequence);
+            gauge(registry, "geopledge.ratelimit.buckets", "Rate limiter buckets still refilling",
+                    rateLimiter, RateLimitFilter::bucketCount);
+        };
+    }
+
+    private static <T> void gauge(MeterRegistry registry, String name, String description,
+                                  T source, ToDoubleFunction<T> value) {
+        Gauge.builder(name, source, value).description(description).register(registry);
+    }
+}
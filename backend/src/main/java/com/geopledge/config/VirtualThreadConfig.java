@@ -0,0 +1,57 @@
+package com.geopledge.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Guards for spring.threads.virtual.enabled=true, which puts Tomcat requests,
+ * {@code @Async} tasks and {@code @Scheduled} jobs on virtual threads.
+ *
+ * Every SQLite call is a native method and pins its carrier, including the
+ * busy-timeout wait for the writer lock. If every carrier sits in SQLite at once, no
+ * virtual thread runs, not even a request that never touches the database. So the
+ * pool is capped at the carrier count minus spare-carriers; callers beyond that
+ * park on Hikari's queue, which does not pin.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor jdbcCarrierGuard(@Value("${app.virtual.spare-carriers:1}") int spareCarriers) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) cap(pool, spareCarriers);
+                return bean;
+            }
+        };
+    }
+
+    /** Runs before the pool starts (Hikari starts on the first getConnection). */
+    private static void cap(HikariDataSource pool, int spareCarriers) {
+        int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors());
+        int limit = carriers - spareCarriers;
+        if (limit < 1) {
+            log.warn("Virtual threads on {} carrier(s): one SQLite lock wait stalls every request. "
+                    + "Raise -Djdk.virtualThreadScheduler.parallelism above {}", carriers, spareCarriers);
+            limit = 1;
+        }
+        /* unset sizes read -1 until the pool starts and applies its defaults */
+        int size = pool.getMaximumPoolSize() < 1 ? 10 : pool.getMaximumPoolSize();
+        if (size > limit) {
+            log.info("Virtual threads: JDBC pool capped from {} to {} connections ({} carriers, {} spare)",
+                    size, limit, carriers, spareCarriers);
+            pool.setMaximumPoolSize(limit);
+            if (pool.getMinimumIdle() > limit) pool.setMinimumIdle(limit);
+        }
+    }
+}
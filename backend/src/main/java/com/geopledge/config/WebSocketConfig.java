@@ -0,0 +1,24 @@
+package com.geopledge.config;
+
+import com.geopledge.auth.security.JwtHandshakeInterceptor;
+import com.geopledge.controller.LocationStreamHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final LocationStreamHandler locationStreamHandler;
+    private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(locationStreamHandler, "/ws/location")
+                .addInterceptors(jwtHandshakeInterceptor);
+    }
+}
@@ -0,0 +1,69 @@
+package com.geopledge.controller;
+
+import com.geopledge.auth.security.AdminGuard;
+import com.geopledge.dto.BackfillJobDTO;
+import com.geopledge.dto.BackfillRequestDTO;
+import com.geopledge.model.BackfillJob;
+import com.geopledge.service.BackfillService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@Lazy // admin-only: created on first call, not at startup
+@RequestMapping("/api/admin/backfill")
+@RequiredArgsConstructor
+public class BackfillController {
+
+    private final BackfillService backfillService;
+    private final AdminGuard adminGuard;
+
+    /**
+     * POST /api/admin/backfill
+     * Body: { "from": "…", "to": "…", "ruleVersion": 2, "radiusToleranceMeters": 25, "windowMinutes": 10 }
+     * Starts re-scoring in the background; 202 + the job to poll.
+     */
+    @PostMapping
+    public ResponseEntity<BackfillJobDTO> start(@RequestBody @Valid BackfillRequestDTO request,
+                                                Authentication auth) {
+        if (!adminGuard.isAdmin(auth)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        try {
+            return ResponseEntity.accepted().body(BackfillJobDTO.from(backfillService.start(request)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /** GET /api/admin/backfill/{id} – status and progress counters. */
+    @GetMapping("/{id}")
+    public ResponseEntity<BackfillJobDTO> progress(@PathVariable UUID id, Authentication auth) {
+        if (!adminGuard.isAdmin(auth)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return respond(backfillService.find(id));
+    }
+
+    /** POST /api/admin/backfill/{id}/pause – stops after the users in flight. */
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<BackfillJobDTO> pause(@PathVariable UUID id, Authentication auth) {
+        if (!adminGuard.isAdmin(auth)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return respond(backfillService.pause(id));
+    }
+
+    /** POST /api/admin/backfill/{id}/resume – continues from the last checkpointed user. */
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<BackfillJobDTO> resume(@PathVariable UUID id, Authentication auth) {
+        if (!adminGuard.isAdmin(auth)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return respond(backfillService.resume(id));
+    }
+
+    private static ResponseEntity<BackfillJobDTO> respond(Optional<BackfillJob> job) {
+        return job.map(j -> ResponseEntity.ok(BackfillJobDTO.from(j)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,44 @@
+package com.geopledge.controller;
+
+import com.geopledge.dto.BootstrapDTO;
+import com.geopledge.service.BootstrapService;
+import com.geopledge.util.ScheduleEtag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Clock;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/bootstrap")
+public class BootstrapController {
+
+    private final BootstrapService bootstrapService;
+    private final Clock clock;
+
+    public BootstrapController(BootstrapService bootstrapService, Clock clock) {
+        this.bootstrapService = bootstrapService;
+        this.clock = clock;
+    }
+
+    /**
+     * GET /api/bootstrap[?charityVersion=N]
+     * The user's pledges with last status and next run, the charity catalog and the
+     * user's stats in one round trip. Charities are left out when N is current. The
+     * ETag combines the pledge-list and catalog versions with the earliest next run, so
+     * an unchanged launch is a 304 without a query until a listed run comes due.
+     */
+    @GetMapping
+    public ResponseEntity<BootstrapDTO> bootstrap(@RequestParam(required = false) Long charityVersion,
+                                                  WebRequest request,
+                                                  Authentication auth) {
+        UUID userId = UUID.fromString(auth.getName());
+        if (ScheduleEtag.checkNotModified(request, bootstrapService.version(userId), clock.instant())) {
+            return null; // 304 already written
+        }
+        BootstrapDTO body = bootstrapService.load(userId, charityVersion);
+        return ResponseEntity.ok().eTag(bootstrapService.etag(body)).body(body);
+    }
+}
@@ -0,0 +1,66 @@
+package com.geopledge.controller;
+
+import com.geopledge.dto.GeofenceDTO;
+import com.geopledge.dto.GeofenceEventDTO;
+import com.geopledge.dto.GeofenceManifestDTO;
+import com.geopledge.service.GeofenceService;
+import com.geopledge.util.ScheduleEtag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/pledges")
+@RequiredArgsConstructor
+public class GeofenceController {
+
+    private final GeofenceService geofenceService;
+    private final Clock clock;
+
+    /**
+     * GET /api/pledges/geofences
+     * Fences to register with the OS. The ETag is the manifest version plus the first
+     * window's start ({@link ScheduleEtag}), so unchanged → 304 until a write or until
+     * that window opens and the listed windows move on.
+     */
+    @GetMapping("/geofences")
+    public ResponseEntity<GeofenceManifestDTO> geofences(WebRequest request, Authentication auth) {
+        UUID userId = UUID.fromString(auth.getName());
+        String version = Long.toString(geofenceService.manifestVersion(userId));
+        if (ScheduleEtag.checkNotModified(request, version, clock.instant())) {
+            return null; // 304 already written
+        }
+        GeofenceManifestDTO manifest = geofenceService.manifest(userId);
+        ScheduleEtag etag = new ScheduleEtag(Long.toString(manifest.version()), firstWindowStart(manifest));
+        return ResponseEntity.ok().eTag(etag.header()).body(manifest);
+    }
+
+    private static Instant firstWindowStart(GeofenceManifestDTO manifest) {
+        Instant first = null;
+        for (GeofenceDTO fence : manifest.geofences()) {
+            if (fence.windows().isEmpty()) continue;
+            Instant start = fence.windows().get(0).start().toInstant();
+            if (first == null || start.isBefore(first)) first = start;
+        }
+        return first;
+    }
+
+    /**
+     * POST /api/pledges/geofence-events
+     * Body: [ { "pledgeId": "…", "type": "ENTER" | "EXIT", "at": "2025-01-01T08:00:00Z" }, … ]
+     */
+    @PostMapping("/geofence-events")
+    public ResponseEntity<Void> geofenceEvents(@RequestBody @Valid List<@Valid GeofenceEventDTO> events,
+                                               Authentication auth) {
+        geofenceService.applyEvents(UUID.fromString(auth.getName()), events);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.geopledge.controller;
+
+import com.geopledge.auth.security.AdminGuard;
+import com.geopledge.service.HeatmapService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@Lazy // admin-only: created on first call, not at startup
+@RequestMapping("/api/admin/heatmap")
+@RequiredArgsConstructor
+public class HeatmapAdminController {
+
+    private final HeatmapService heatmapService;
+    private final AdminGuard adminGuard;
+
+    /**
+     * POST /api/admin/heatmap/rebuild
+     * Recomputes every heatmap counter from the live checks, e.g. after repairing data;
+     * { "cells": n } once done.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuild(Authentication auth) {
+        if (!adminGuard.isAdmin(auth)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return ResponseEntity.ok(Map.of("cells", heatmapService.rebuild()));
+    }
+}
@@ -0,0 +1,116 @@
+package com.geopledge.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geopledge.auth.security.JwtHandshakeInterceptor;
+import com.geopledge.auth.security.RateLimitFilter;
+import com.geopledge.dto.LocationFixDTO;
+import com.geopledge.dto.PledgeCheckDTO;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.service.PledgeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ws://…/ws/location – foreground location stream.
+ *
+ * Frames (the user is fixed by the handshake JWT):
+ *   binary: 16 bytes per fix, big-endian int32 lat·1e7, int32 lon·1e7, int64 epoch millis
+ *   text:   "lat,lon,epochMillis"
+ * Each fix runs through {@link PledgeService#recordFix}; any checks it writes are
+ * pushed back as a JSON array of {@link PledgeCheckDTO}.
+ *
+ * A frame costs one token from the user's POST /api/pledges/check bucket, the same as a
+ * (batch) request to that endpoint. A frame refused by the {@link RateLimitFilter} is
+ * dropped and answered with {@code {"message":"Too many requests","retryAfterSeconds":n}}.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationStreamHandler extends AbstractWebSocketHandler {
+
+    static final int FRAME_BYTES = 16;
+    private static final double E7 = 1e7;
+    private static final String RATE_LIMITED_ROUTE = "/api/pledges/check";
+
+    private final PledgeService pledgeService;
+    private final ObjectMapper objectMapper;
+    private final RateLimitFilter rateLimit;
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        ByteBuffer buf = message.getPayload();
+        if (buf.remaining() == 0 || buf.remaining() % FRAME_BYTES != 0) {
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+        if (throttled(session)) return;
+        while (buf.hasRemaining()) {
+            double lat = buf.getInt() / E7;
+            double lon = buf.getInt() / E7;
+            long at = buf.getLong();
+            if (!onFix(session, lat, lon, at)) return;
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        String[] parts = message.getPayload().split(",");
+        try {
+            if (parts.length != 3) throw new NumberFormatException();
+            if (throttled(session)) return;
+            onFix(session,
+                    Double.parseDouble(parts[0].trim()),
+                    Double.parseDouble(parts[1].trim()),
+                    Long.parseLong(parts[2].trim()));
+        } catch (NumberFormatException e) {
+            session.close(CloseStatus.BAD_DATA);
+        }
+    }
+
+    /** Takes the frame's token; if there is none, tells the client when to retry. */
+    private boolean throttled(WebSocketSession session) throws IOException {
+        UUID userId = (UUID) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID);
+        long waitNanos = rateLimit.acquire("POST", RATE_LIMITED_ROUTE, userId);
+        if (waitNanos <= 0) return false;
+        long seconds = (waitNanos + 999_999_999) / 1_000_000_000;
+        session.sendMessage(new TextMessage(
+                "{\"message\":\"Too many requests\",\"retryAfterSeconds\":" + seconds + "}"));
+        return true;
+    }
+
+    /** @return false if the session was closed */
+    private boolean onFix(WebSocketSession session, double lat, double lon, long at) throws IOException {
+        long expiresAt = (Long) session.getAttributes().get(JwtHandshakeInterceptor.EXPIRES_AT);
+        if (System.currentTimeMillis() >= expiresAt) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("token expired"));
+            return false;
+        }
+        // "NaN" parses as a double and fails every comparison, so rule it out first
+        if (!Double.isFinite(lat) || !Double.isFinite(lon)
+                || lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            session.close(CloseStatus.BAD_DATA);
+            return false;
+        }
+
+        UUID userId = (UUID) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID);
+        List<PledgeCheck> checks = pledgeService.recordFix(userId,
+                new LocationFixDTO(lat, lon, Instant.ofEpochMilli(at))).checks();
+        if (!checks.isEmpty()) {
+            List<PledgeCheckDTO> results = new ArrayList<>(checks.size());
+            for (PledgeCheck c : checks) results.add(PledgeCheckDTO.from(c));
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(results)));
+        }
+        return true;
+    }
+}
@@ -1,9 +1,15 @@
 package com.geopledge.controller;
 
+import com.geopledge.dto.LocationFixBatch;
 import com.geopledge.dto.LocationFixDTO;
+import com.geopledge.dto.NextFixHintDTO;
+import com.geopledge.service.FixIngestQueue;
 import com.geopledge.service.PledgeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,13 +21,59 @@ import java.util.UUID;
 public class PledgeCheckController {
 
     private final PledgeService pledgeService;
+    private final FixIngestQueue ingestQueue;
 
+    /**
+     * POST /api/pledges/check
+     * sync mode: evaluates the fix, then 200 + { "secondsUntilNextPledge": …, "nearestGeofenceMeters": … }
+     * async mode: 202 once queued, 429 + Retry-After when the user's partition is full.
+     */
     @PostMapping("/check")
-    public void checkPledges(@RequestBody @Valid LocationFixDTO fix,
-                             Authentication auth) {
+    public ResponseEntity<NextFixHintDTO> checkPledges(@RequestBody @Valid LocationFixDTO fix,
+                                             Authentication auth) {
 
         /* principal is the user UUID set by your JWT filter */
         UUID userId = UUID.fromString(auth.getName());
-        pledgeService.recordFix(userId, fix);
+
+        if (ingestQueue.isEnabled()) {
+            if (!ingestQueue.publish(userId, fix)) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ingestQueue.getRetryAfterSeconds()))
+                        .build();
+            }
+            return ResponseEntity.accepted().build();
+        }
+
+        return ResponseEntity.ok(pledgeService.recordFix(userId, fix).hint());
+    }
+
+    /**
+     * POST /api/pledges/check with Content-Type application/x-geopledge-fixes
+     * Same semantics as the JSON endpoint, for a whole batch of fixes (see FixBatchCodec);
+     * the hint is the one for the last fix in the batch.
+     * In async mode a 429 carries X-Fixes-Accepted: the fixes before that index were queued.
+     */
+    @PostMapping(value = "/check", consumes = LocationFixBatch.MEDIA_TYPE)
+    public ResponseEntity<NextFixHintDTO> checkPledgesBatch(@RequestBody LocationFixBatch batch,
+                                                  Authentication auth) {
+        UUID userId = UUID.fromString(auth.getName());
+
+        if (ingestQueue.isEnabled()) {
+            for (int i = 0; i < batch.size(); i++) {
+                if (!ingestQueue.publish(userId, batch.toFix(i))) {
+                    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ingestQueue.getRetryAfterSeconds()))
+                            .header("X-Fixes-Accepted", String.valueOf(i))
+                            .build();
+                }
+            }
+            return ResponseEntity.accepted().build();
+        }
+
+        NextFixHintDTO hint = NextFixHintDTO.NONE;
+        for (int i = 0; i < batch.size(); i++) {
+            hint = pledgeService.recordFix(userId, batch.toFix(i)).hint();
+        }
+        return ResponseEntity.ok(hint);
     }
 }
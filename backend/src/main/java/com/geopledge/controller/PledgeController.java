@@ -1,17 +1,26 @@
 package com.geopledge.controller;
 
 import com.geopledge.auth.model.User;
+import com.geopledge.dto.NearbyPledgeDTO;
 import com.geopledge.dto.PledgeCreateDTO;
 import com.geopledge.dto.PledgeDTO;
+import com.geopledge.service.PledgeEventBroadcaster;
 import com.geopledge.service.PledgeService;
 import com.geopledge.auth.repository.UserRepository;
+import com.geopledge.util.ScheduleEtag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,18 +29,50 @@ import java.util.UUID;
 public class PledgeController {
 
     private final PledgeService pledgeService;
+    private final PledgeEventBroadcaster broadcaster;
+    private final Clock clock;
 
     @Autowired
     public PledgeController(PledgeService pledgeService,
-                            UserRepository userRepo) {
+                            PledgeEventBroadcaster broadcaster,
+                            UserRepository userRepo,
+                            Clock clock) {
         this.pledgeService = pledgeService;
+        this.broadcaster = broadcaster;
+        this.clock = clock;
     }
 
+    /**
+     * GET /api/pledges[?sinceVersion=N]
+     * The ETag is the user's pledge-list version plus the earliest next run listed (see
+     * {@link ScheduleEtag}): a matching If-None-Match gets a 304 without touching the
+     * database until a write or that run comes due. sinceVersion returns only what
+     * changed after N (a pledge switched off since comes with active=false), and only when
+     * If-None-Match holds a still-fresh tag for version N; otherwise the unchanged pledges'
+     * next runs may have moved and the full list, active pledges only, is sent.
+     */
     @GetMapping
-    public ResponseEntity<List<PledgeDTO>> listUserPledges(Authentication auth) {
+    public ResponseEntity<List<PledgeDTO>> listUserPledges(
+            @RequestParam(required = false) Long sinceVersion,
+            WebRequest request,
+            Authentication auth) {
         UUID userId = UUID.fromString(auth.getName());
+        String version = Long.toString(pledgeService.getPledgeVersion(userId));
+        Instant now = clock.instant();
+        if (ScheduleEtag.checkNotModified(request, version, now)) {
+            return null; // 304 already written
+        }
+
+        ScheduleEtag known = ScheduleEtag.parse(request.getHeader(HttpHeaders.IF_NONE_MATCH));
+        if (sinceVersion != null && known != null
+                && known.version().equals(sinceVersion.toString()) && known.isFresh(now)) {
+            List<PledgeDTO> changed = pledgeService.getPledgesChangedSince(userId, sinceVersion);
+            // unchanged pledges keep the client's next runs, so the client's earliest still bounds the tag
+            ScheduleEtag etag = ScheduleEtag.of(version, changed).withEarliest(known.earliestRun());
+            return ResponseEntity.ok().eTag(etag.header()).body(changed);
+        }
         List<PledgeDTO> pledges = pledgeService.getPledgesForUser(userId);
-        return ResponseEntity.ok(pledges);
+        return ResponseEntity.ok().eTag(ScheduleEtag.of(version, pledges).header()).body(pledges);
     }
 
     @PostMapping
@@ -42,8 +83,52 @@ public class PledgeController {
         // principal = UUID string set by JwtAuthTokenFilter
         UUID userId = UUID.fromString(auth.getName());
 
-        // delegate straight to the service
-        PledgeDTO created = pledgeService.createPledge(userId, dto);
-        return ResponseEntity.ok(created);
+        // delegate straight to the service; a malformed polygon is the caller's fault
+        try {
+            return ResponseEntity.ok(pledgeService.createPledge(userId, dto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * DELETE /api/pledges/{id}
+     * Deactivates one of the caller's pledges: 204, or 404 if it isn't theirs.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deactivatePledge(@PathVariable UUID id, Authentication auth) {
+        return pledgeService.deactivatePledge(UUID.fromString(auth.getName()), id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * GET /api/pledges/nearby?lat=…&lon=…[&radiusMeters=2000&limit=20]
+     * The caller's active pledges whose centre lies within radiusMeters, nearest first.
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyPledgeDTO>> nearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "2000") double radiusMeters,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication auth) {
+        // "NaN" parses as a double and fails every comparison, so rule it out first
+        if (!Double.isFinite(lat) || !Double.isFinite(lon) || !Double.isFinite(radiusMeters)
+                || Math.abs(lat) > 90 || Math.abs(lon) > 180
+                || radiusMeters <= 0 || radiusMeters > 50_000 || limit <= 0 || limit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(pledgeService.getNearby(UUID.fromString(auth.getName()),
+                lat, lon, radiusMeters, limit));
+    }
+
+    /**
+     * GET /api/pledges/events
+     * Server-Sent Events: "pledge" when a pledge is created, "check" when a check is written.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(Authentication auth) {
+        return broadcaster.subscribe(UUID.fromString(auth.getName()));
     }
 }
@@ -0,0 +1,70 @@
+package com.geopledge.controller;
+
+import com.geopledge.auth.security.AdminGuard;
+import com.geopledge.jfr.JfrRecorder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+@RestController
+@Lazy // admin-only: created on first call, not at startup
+@RequestMapping("/api/admin/jfr")
+@RequiredArgsConstructor
+public class ProfilingController {
+
+    private final JfrRecorder recorder;
+    private final AdminGuard adminGuard;
+
+    /** GET /api/admin/jfr – { "running": true|false } */
+    @GetMapping
+    public ResponseEntity<Map<String, Boolean>> status(Authentication auth) {
+        if (!adminGuard.isAdmin(auth)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return ResponseEntity.ok(Map.of("running", recorder.isRunning()));
+    }
+
+    /** POST /api/admin/jfr/start – starts the bounded continuous recording (no-op if running). */
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Boolean>> start(Authentication auth) {
+        if (!adminGuard.isAdmin(auth)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return recorder.start()
+                ? ResponseEntity.ok(Map.of("running", true))
+                : ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+
+    /** POST /api/admin/jfr/stop */
+    @PostMapping("/stop")
+    public ResponseEntity<Map<String, Boolean>> stop(Authentication auth) {
+        if (!adminGuard.isAdmin(auth)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        recorder.stop();
+        return ResponseEntity.ok(Map.of("running", false));
+    }
+
+    /**
+     * GET /api/admin/jfr/dump
+     * Snapshot of the running recording as a .jfr file (open in JDK Mission Control or
+     * {@code jfr print --events geopledge.*}); 409 if nothing is recording.
+     */
+    @GetMapping("/dump")
+    public ResponseEntity<Resource> dump(Authentication auth) throws IOException {
+        if (!adminGuard.isAdmin(auth)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        Path file = recorder.dump();
+        if (file == null) return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+}
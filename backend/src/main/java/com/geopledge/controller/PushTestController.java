@@ -10,6 +10,7 @@ import com.niamedtech.expo.exposerversdk.response.TicketResponse;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,6 +21,7 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 @RestController
+@Lazy // created with the Expo client on the first test push
 @RequestMapping("/api/test")
 @RequiredArgsConstructor
 public class PushTestController {
@@ -0,0 +1,52 @@
+package com.geopledge.controller;
+
+import com.geopledge.dto.HeatmapTileDTO;
+import com.geopledge.service.HeatmapService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final HeatmapService heatmap;
+    private final CacheControl cacheControl;
+
+    public StatsController(HeatmapService heatmap,
+                           @Value("${app.heatmap.cache-seconds:60}") int cacheSeconds) {
+        this.heatmap = heatmap;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(cacheSeconds)).cachePrivate();
+    }
+
+    /**
+     * GET /api/stats/heatmap?bbox=minLon,minLat,maxLon,maxLat&zoom=12
+     * MET / VIOLATED counts per geohash cell in the viewport. The ETag is the counter
+     * generation, so revalidating an unchanged map is a 304 without a query.
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<HeatmapTileDTO> heatmap(@RequestParam String bbox,
+                                                  @RequestParam(defaultValue = "10") int zoom,
+                                                  WebRequest request) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = "\"" + heatmap.generation() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null; // 304 already written
+        }
+        try {
+            HeatmapTileDTO tile = heatmap.tile(
+                    Double.parseDouble(parts[1]), Double.parseDouble(parts[0]),
+                    Double.parseDouble(parts[3]), Double.parseDouble(parts[2]), zoom);
+            return ResponseEntity.ok().cacheControl(cacheControl).eTag(etag).body(tile);
+        } catch (IllegalArgumentException e) { // includes NumberFormatException
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
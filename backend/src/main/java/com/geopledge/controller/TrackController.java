@@ -0,0 +1,56 @@
+package com.geopledge.controller;
+
+import com.geopledge.dto.TrackPointDTO;
+import com.geopledge.service.TrackStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@RestController
+@RequestMapping("/api/track")
+public class TrackController {
+
+    private final TrackStore trackStore;
+    private final Clock clock;
+    private final Duration maxRange;
+    private final int maxPoints;
+
+    public TrackController(TrackStore trackStore,
+                           Clock clock,
+                           @Value("${app.track.max-range-days:31}") int maxRangeDays,
+                           @Value("${app.track.max-points:10000}") int maxPoints) {
+        this.trackStore = trackStore;
+        this.clock = clock;
+        this.maxRange = Duration.ofDays(maxRangeDays);
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * GET /api/track?from=2025-01-01T00:00:00Z&to=2025-01-02T00:00:00Z
+     * The caller's own stored fixes in [from, to); defaults to the last 24 hours.
+     * Decoding stops after max-points, so a long range never inflates the whole track.
+     */
+    @GetMapping
+    public ResponseEntity<List<TrackPointDTO>> track(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            Authentication auth) {
+        Instant end = to != null ? to : clock.instant();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+        if (!start.isBefore(end) || Duration.between(start, end).compareTo(maxRange) > 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try (Stream<TrackPointDTO> points = trackStore.read(UUID.fromString(auth.getName()), start, end)) {
+            return ResponseEntity.ok(points.limit(maxPoints).toList());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.geopledge.dto;
+
+import com.geopledge.model.BackfillJob;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+public record BackfillJobDTO(
+        UUID id,
+        String status,
+        ZonedDateTime from,
+        ZonedDateTime to,
+        int ruleVersion,
+        int usersTotal,
+        int usersDone,
+        long checksWritten,
+        String error,
+        ZonedDateTime updatedAt
+) {
+    public static BackfillJobDTO from(BackfillJob job) {
+        return new BackfillJobDTO(
+                job.getId(),
+                job.getStatus().name(),
+                job.getRangeFrom(),
+                job.getRangeTo(),
+                job.getRuleVersion(),
+                job.getUsersTotal(),
+                job.getUsersDone(),
+                job.getChecksWritten(),
+                job.getError(),
+                job.getUpdatedAt());
+    }
+}
@@ -0,0 +1,22 @@
+package com.geopledge.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.time.Instant;
+
+/**
+ * POST /api/admin/backfill body: re-score every slot in [from, to) under rule set
+ * {@code ruleVersion}. Optional fields default to the live point-mode rules.
+ */
+public record BackfillRequestDTO(
+        @NotNull Instant from,
+        @NotNull Instant to,
+        @NotNull @Positive Integer ruleVersion,
+        @PositiveOrZero Double radiusToleranceMeters,
+        @PositiveOrZero Integer windowMinutes,
+        @PositiveOrZero Integer minDwellSeconds,
+        Boolean missingIsViolation
+) {
+}
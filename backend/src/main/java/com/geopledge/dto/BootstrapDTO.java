@@ -0,0 +1,20 @@
+package com.geopledge.dto;
+
+import com.geopledge.charity.CharityDTO;
+
+import java.util.List;
+
+/**
+ * Everything the app loads at launch. {@code charities} is null when the client
+ * already holds catalog {@code charityVersion}.
+ */
+public record BootstrapDTO(
+        long pledgeVersion,
+        List<PledgeDTO> pledges,
+        long charityVersion,
+        List<CharityDTO> charities,
+        Stats stats
+) {
+    /** Live (non-backfill) outcomes over all of the user's pledges. */
+    public record Stats(long met, long violated, long forfeitedCents) {}
+}
@@ -0,0 +1,16 @@
+package com.geopledge.dto;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/** One circular fence for OS geofencing, with the slots at which it is evaluated. */
+public record GeofenceDTO(
+        UUID pledgeId,
+        double latitude,
+        double longitude,
+        int radiusMeters,
+        List<Window> windows
+) {
+    public record Window(ZonedDateTime start, ZonedDateTime end) {}
+}
@@ -0,0 +1,15 @@
+package com.geopledge.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** An OS geofence transition for one pledge's fence. */
+public record GeofenceEventDTO(
+        @NotNull UUID pledgeId,
+        @NotNull Type type,
+        @NotNull Instant at
+) {
+    public enum Type { ENTER, EXIT }
+}
@@ -0,0 +1,12 @@
+package com.geopledge.dto;
+
+import java.util.List;
+
+/**
+ * {@code version} is the user's pledge-list version; re-fetch when it changes or when
+ * the first listed window opens.
+ */
+public record GeofenceManifestDTO(
+        long version,
+        List<GeofenceDTO> geofences
+) {}
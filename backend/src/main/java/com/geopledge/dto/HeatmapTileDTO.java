@@ -0,0 +1,8 @@
+package com.geopledge.dto;
+
+/**
+ * Heatmap counters as parallel arrays: cell i is {@code geohash[i]} with
+ * {@code met[i]} / {@code violated[i]} checks. Only non-empty cells are listed.
+ */
+public record HeatmapTileDTO(int precision, String[] geohash, long[] met, long[] violated) {
+}
@@ -0,0 +1,37 @@
+package com.geopledge.dto;
+
+import java.time.Instant;
+
+/**
+ * A batch of location fixes held in primitive arrays (coordinates scaled by 1e7),
+ * as decoded from the compact {@value #MEDIA_TYPE} upload format.
+ */
+public final class LocationFixBatch {
+
+    public static final String MEDIA_TYPE = "application/x-geopledge-fixes";
+    public static final double SCALE = 1e7;
+
+    private final int[] latE7;
+    private final int[] lonE7;
+    private final long[] epochMillis;
+
+    public LocationFixBatch(int[] latE7, int[] lonE7, long[] epochMillis) {
+        this.latE7 = latE7;
+        this.lonE7 = lonE7;
+        this.epochMillis = epochMillis;
+    }
+
+    public int size() { return epochMillis.length; }
+
+    public double lat(int i) { return latE7[i] / SCALE; }
+    public double lon(int i) { return lonE7[i] / SCALE; }
+    public long epochMillis(int i) { return epochMillis[i]; }
+
+    public int[] latE7() { return latE7; }
+    public int[] lonE7() { return lonE7; }
+    public long[] epochMillis() { return epochMillis; }
+
+    public LocationFixDTO toFix(int i) {
+        return new LocationFixDTO(lat(i), lon(i), Instant.ofEpochMilli(epochMillis[i]));
+    }
+}
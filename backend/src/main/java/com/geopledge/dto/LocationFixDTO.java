@@ -1,9 +1,20 @@
 package com.geopledge.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
 import java.time.Instant;
 
+/** {@code accuracy} is the reported horizontal accuracy in metres, if the client has one. */
 public record LocationFixDTO(
-        double lat,
-        double lon,
-        Instant at
-) {}
\ No newline at end of file
+        @DecimalMin("-90") @DecimalMax("90") double lat,
+        @DecimalMin("-180") @DecimalMax("180") double lon,
+        @NotNull Instant at,
+        @PositiveOrZero Double accuracy
+) {
+    public LocationFixDTO(double lat, double lon, Instant at) {
+        this(lat, lon, at, null);
+    }
+}
@@ -0,0 +1,7 @@
+package com.geopledge.dto;
+
+import java.util.UUID;
+
+/** One of the caller's pledges near a point; {@code distanceMeters} is to the fence centre. */
+public record NearbyPledgeDTO(UUID id, String name, double distanceMeters, boolean inside) {
+}
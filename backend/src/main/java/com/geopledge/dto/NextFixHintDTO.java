@@ -0,0 +1,17 @@
+package com.geopledge.dto;
+
+/**
+ * Returned by POST /api/pledges/check so the client can pace its GPS.
+ * Both fields are null when the user has no active pledges; the seconds are also null
+ * when none of them is scheduled on any day.
+ *
+ * @param secondsUntilNextPledge time until fixes next count for any active pledge: its next slot,
+ *                               or in dwell mode the opening of its window (0 while one is open)
+ * @param nearestGeofenceMeters  distance from the fix to the edge of the closest geofence (0 = inside)
+ */
+public record NextFixHintDTO(
+        Long secondsUntilNextPledge,
+        Double nearestGeofenceMeters
+) {
+    public static final NextFixHintDTO NONE = new NextFixHintDTO(null, null);
+}
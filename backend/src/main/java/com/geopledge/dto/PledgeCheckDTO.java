@@ -0,0 +1,21 @@
+package com.geopledge.dto;
+
+import com.geopledge.model.PledgeCheck;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+public record PledgeCheckDTO(
+        UUID pledgeId,
+        String status,
+        ZonedDateTime scheduledFor,
+        ZonedDateTime checkedAt
+) {
+    public static PledgeCheckDTO from(PledgeCheck check) {
+        return new PledgeCheckDTO(
+                check.getPledgeId(),
+                check.getStatus().name(),
+                check.getScheduledFor(),
+                check.getCheckedAt());
+    }
+}
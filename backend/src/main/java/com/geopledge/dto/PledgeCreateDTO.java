@@ -13,6 +13,7 @@ public class PledgeCreateDTO {
     private List<Integer> daysOfWeek;
     private int timeHour;
     private int timeMinute;
+    private List<List<Double>> polygon; // optional [[lat, lon], …]; replaces the circle
 
     // Getters
     public String getName() { return name; }
@@ -24,6 +25,7 @@ public class PledgeCreateDTO {
     public List<Integer> getDaysOfWeek() { return daysOfWeek; }
     public int getTimeHour() { return timeHour; }
     public int getTimeMinute() { return timeMinute; }
+    public List<List<Double>> getPolygon() { return polygon; }
 
     // Setters
     public void setName(String name) { this.name = name; }
@@ -35,4 +37,5 @@ public class PledgeCreateDTO {
     public void setDaysOfWeek(List<Integer> daysOfWeek) { this.daysOfWeek = daysOfWeek; }
     public void setTimeHour(int timeHour) { this.timeHour = timeHour; }
     public void setTimeMinute(int timeMinute) { this.timeMinute = timeMinute; }
+    public void setPolygon(List<List<Double>> polygon) { this.polygon = polygon; }
 }
@@ -9,13 +9,16 @@ public class PledgeDTO {
     private ZonedDateTime nextScheduledRun;
     private long stakeCents;
     private String lastStatus; // "MET", "VIOLATED", or null
+    private boolean active; // false only in a delta: the pledge was switched off, drop it
 
-    public PledgeDTO(UUID id, String name, ZonedDateTime nextScheduledRun, long stakeCents, String lastStatus) {
+    public PledgeDTO(UUID id, String name, ZonedDateTime nextScheduledRun, long stakeCents, String lastStatus,
+                     boolean active) {
         this.id = id;
         this.name = name;
         this.nextScheduledRun = nextScheduledRun;
         this.stakeCents = stakeCents;
         this.lastStatus = lastStatus;
+        this.active = active;
     }
 
 
@@ -34,4 +37,7 @@ public class PledgeDTO {
     public String getLastStatus() {
         return lastStatus;
     }
+    public boolean isActive() {
+        return active;
+    }
 }
@@ -0,0 +1,7 @@
+package com.geopledge.dto;
+
+import java.time.Instant;
+
+/** One stored fix, as read back from the track store (~1 m / 1 s resolution). */
+public record TrackPointDTO(double lat, double lon, Instant at) {
+}
@@ -0,0 +1,7 @@
+package com.geopledge.event;
+
+import com.geopledge.model.Pledge;
+import com.geopledge.model.PledgeCheck;
+
+/** Published whenever an evaluator writes a check row for {@code pledge}. */
+public record PledgeCheckRecordedEvent(Pledge pledge, PledgeCheck check) {}
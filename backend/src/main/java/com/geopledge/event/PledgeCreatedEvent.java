@@ -0,0 +1,7 @@
+package com.geopledge.event;
+
+import com.geopledge.dto.PledgeDTO;
+import com.geopledge.model.Pledge;
+
+/** Published after a pledge is saved; {@code view} is what the creating client got back. */
+public record PledgeCreatedEvent(Pledge pledge, PledgeDTO view) {}
@@ -0,0 +1,6 @@
+package com.geopledge.event;
+
+import com.geopledge.model.Pledge;
+
+/** Published after a pledge is switched off; it no longer takes part in any evaluation. */
+public record PledgeDeactivatedEvent(Pledge pledge) {}
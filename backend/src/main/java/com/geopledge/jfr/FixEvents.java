@@ -0,0 +1,97 @@
+package com.geopledge.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * Flight Recorder events for the stages of {@code PledgeService.recordFix}.
+ *
+ * Users are recorded as a hash partition, never by id, so recordings can leave the
+ * box. Stack traces are off: the stage is already in the event type. With no
+ * recording running, {@code begin/commit} cost a flag check.
+ */
+public final class FixEvents {
+
+    private static final int PARTITIONS = 256;
+
+    private FixEvents() {}
+
+    /** Stable 0..255 bucket for a user, for comparing stages across recordings. */
+    public static int partition(UUID userId) {
+        return Math.floorMod(userId.hashCode(), PARTITIONS);
+    }
+
+    @Name("geopledge.FixReceived")
+    @Label("Fix Received")
+    @Description("One fix evaluated end to end")
+    @Category({"GeoPledge", "Fix Evaluation"})
+    @StackTrace(false)
+    public static class FixReceived extends Event {
+        @Label("User Partition")
+        public int userPartition;
+        @Label("Active Pledges")
+        public int pledgeCount;
+        @Label("Checks Written")
+        public int checksWritten;
+        @Label("Suspect")
+        public boolean suspect;
+    }
+
+    @Name("geopledge.PledgeLookup")
+    @Label("Pledge Lookup")
+    @Description("Loading the user's active pledges")
+    @Category({"GeoPledge", "Fix Evaluation"})
+    @StackTrace(false)
+    public static class PledgeLookup extends Event {
+        @Label("User Partition")
+        public int userPartition;
+        @Label("Pledge Count")
+        public int pledgeCount;
+    }
+
+    @Name("geopledge.ScheduleMatch")
+    @Label("Schedule Match")
+    @Description("Whether one pledge has a slot at the fix time")
+    @Category({"GeoPledge", "Fix Evaluation"})
+    @StackTrace(false)
+    public static class ScheduleMatch extends Event {
+        @Label("User Partition")
+        public int userPartition;
+        @Label("Matched")
+        public boolean matched;
+    }
+
+    @Name("geopledge.DistanceEvaluation")
+    @Label("Distance Evaluation")
+    @Description("Fence containment test for one pledge")
+    @Category({"GeoPledge", "Fix Evaluation"})
+    @StackTrace(false)
+    public static class DistanceEvaluation extends Event {
+        @Label("User Partition")
+        public int userPartition;
+        @Label("Polygon")
+        public boolean polygon;
+        @Label("Outcome")
+        public String outcome;
+    }
+
+    @Name("geopledge.CheckPersist")
+    @Label("Check Persist")
+    @Description("Writing one check row and bumping the list version")
+    @Category({"GeoPledge", "Fix Evaluation"})
+    @StackTrace(false)
+    public static class CheckPersist extends Event {
+        @Label("User Partition")
+        public int userPartition;
+        @Label("Outcome")
+        public String outcome;
+        @Label("Source")
+        public String source;
+    }
+}
@@ -0,0 +1,104 @@
+package com.geopledge.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * One bounded, continuous flight recording per node: JDK events from the chosen
+ * settings plus the {@link FixEvents}, kept for at most max-age / max-size on disk.
+ * Started at boot when app.jfr.continuous is set, or on demand; {@link #dump} copies
+ * what the ring currently holds into dump-dir without stopping it.
+ */
+@Slf4j
+@Component
+public class JfrRecorder {
+
+    private static final DateTimeFormatter STAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final boolean continuous;
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Path dumpDir;
+
+    private Recording recording; // guarded by this
+
+    public JfrRecorder(@Value("${app.jfr.continuous:false}") boolean continuous,
+                       @Value("${app.jfr.settings:default}") String settings,
+                       @Value("${app.jfr.max-age-minutes:30}") int maxAgeMinutes,
+                       @Value("${app.jfr.max-size-mb:64}") int maxSizeMb,
+                       @Value("${app.jfr.dump-dir:jfr}") String dumpDir) {
+        this.continuous = continuous;
+        this.settings = settings;
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMb * 1024L * 1024L;
+        this.dumpDir = Paths.get(dumpDir);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void startIfConfigured() {
+        if (continuous) start();
+    }
+
+    public synchronized boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    /** Starts the recording unless one is already running; false if it could not start. */
+    public synchronized boolean start() {
+        if (isRunning()) return true;
+        try {
+            Recording r = new Recording(Configuration.getConfiguration(settings));
+            r.setName("geopledge");
+            r.setToDisk(true);
+            r.setMaxAge(maxAge);
+            r.setMaxSize(maxSizeBytes);
+            r.start();
+            recording = r;
+            log.info("JFR recording started ({} settings, {} / {} MB)", settings, maxAge, maxSizeBytes >> 20);
+            return true;
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            log.error("Could not start JFR recording with settings '{}'", settings, e);
+            return false;
+        }
+    }
+
+    public synchronized void stop() {
+        if (recording == null) return;
+        recording.close();
+        recording = null;
+        log.info("JFR recording stopped");
+    }
+
+    /** Writes the current contents of the running recording to a new file; null if none is running. */
+    public synchronized Path dump() throws IOException {
+        if (!isRunning()) return null;
+        Files.createDirectories(dumpDir);
+        Path file = dumpDir.resolve("geopledge-" + STAMP.format(Instant.now()) + ".jfr");
+        recording.dump(file);
+        return file;
+    }
+
+    @PreDestroy
+    void close() {
+        stop();
+    }
+}
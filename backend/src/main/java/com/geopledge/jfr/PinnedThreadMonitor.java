@@ -0,0 +1,77 @@
+package com.geopledge.jfr;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In virtual-thread mode, streams the JDK's {@code jdk.VirtualThreadPinned} events,
+ * raised when a virtual thread blocks inside a monitor (a {@code synchronized} section
+ * in a driver, Hibernate or our own code) and so holds its carrier. Each one counts
+ * into geopledge.virtual.pinned. At most one warning a minute names the first frame
+ * outside the JDK, which is usually the lock to replace.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class PinnedThreadMonitor {
+
+    private static final long WARN_EVERY_MS = 60_000;
+
+    private final Counter pinned;
+    private final Duration threshold;
+    private final AtomicLong lastWarn = new AtomicLong();
+    private RecordingStream stream;
+
+    public PinnedThreadMonitor(MeterRegistry registry,
+                               @Value("${app.virtual.pinned-threshold-ms:20}") long thresholdMs) {
+        this.pinned = Counter.builder("geopledge.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .register(registry);
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent e) {
+        pinned.increment();
+        long now = System.currentTimeMillis(), last = lastWarn.get();
+        if (now - last < WARN_EVERY_MS || !lastWarn.compareAndSet(last, now)) return;
+        log.warn("Virtual thread pinned for {} ms at {} ({} so far)",
+                e.getDuration().toMillis(), culprit(e), (long) pinned.count());
+    }
+
+    private static String culprit(RecordedEvent e) {
+        if (e.getStackTrace() == null) return "?";
+        for (RecordedFrame f : e.getStackTrace().getFrames()) {
+            String type = f.getMethod().getType().getName();
+            if (type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.")) continue;
+            return type + "." + f.getMethod().getName() + ":" + f.getLineNumber();
+        }
+        return "JDK internals";
+    }
+
+    @PreDestroy
+    void close() {
+        if (stream != null) stream.close();
+    }
+}
@@ -0,0 +1,182 @@
+package com.geopledge.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of every fix, written before it is evaluated.
+ *
+ * Records go into preallocated memory-mapped segments (see {@link JournalFormat}), so an
+ * append is a 48-byte copy plus a CRC – no syscall, no allocation. Once in the mapping a
+ * record survives a process crash; a background thread msyncs new records every
+ * sync-interval-ms (group fsync), which bounds what a power loss can take. Full segments
+ * roll over to a new file and the oldest are deleted beyond retention-segments.
+ *
+ * On startup the newest segment is scanned to its last valid record and appending
+ * resumes after it; records torn by a crash are discarded. New segments are renamed
+ * into place only once their header is on disk, so a crash while rolling over leaves
+ * a temp file to delete rather than a segment without a header. Segments can be read offline with {@link JournalReader}.
+ *
+ * A checkpoint file records the sequence before which every fix has been evaluated;
+ * on startup fixes from there on were acknowledged but maybe never evaluated, and are
+ * replayed (see {@link com.geopledge.service.FixIngestQueue}).
+ */
+@Slf4j
+@Component
+public class FixJournal {
+
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final boolean enabled;
+    private final Path dir;
+    private final long segmentBytes;
+    private final long syncIntervalMs;
+    private final int retentionSegments;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ByteBuffer scratch = JournalFormat.scratch();
+    private final CRC32C crc = new CRC32C();
+    private volatile JournalSegment active;
+    private ScheduledExecutorService syncer;
+
+    public FixJournal(@Value("${app.journal.enabled:true}") boolean enabled,
+                      @Value("${app.journal.dir:journal}") String dir,
+                      @Value("${app.journal.segment-mb:64}") int segmentMb,
+                      @Value("${app.journal.sync-interval-ms:50}") long syncIntervalMs,
+                      @Value("${app.journal.retention-segments:16}") int retentionSegments) {
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.segmentBytes = segmentMb * 1024L * 1024L;
+        this.syncIntervalMs = syncIntervalMs;
+        this.retentionSegments = Math.max(1, retentionSegments);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) return;
+        Files.createDirectories(dir);
+        JournalSegment.removeTemps(dir);
+        List<Path> segments = JournalReader.segments(dir);
+        if (segments.isEmpty()) {
+            active = JournalSegment.create(dir, 1, segmentBytes);
+        } else {
+            JournalSegment last = JournalSegment.recover(segments.get(segments.size() - 1));
+            active = last.isFull() ? roll(last) : last;
+        }
+        log.info("Fix journal at {}: next sequence {}", dir.toAbsolutePath(), active.nextSeq());
+
+        syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        syncer.scheduleWithFixedDelay(this::sync, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** @return the record's sequence number, or 0 when journaling is off */
+    public long append(UUID userId, double lat, double lon, long atMillis, double accuracy) {
+        if (!enabled) return 0;
+        lock.lock();
+        try {
+            JournalSegment seg = active;
+            if (seg.isFull()) seg = active = roll(seg);
+            long seq = seg.nextSeq();
+            JournalFormat.encodeRecord(scratch, seq,
+                    userId.getMostSignificantBits(), userId.getLeastSignificantBits(),
+                    atMillis, lat, lon, accuracy, crc);
+            seg.append(scratch);
+            return seq;
+        } catch (IOException e) {
+            throw new UncheckedIOException("fix journal rollover failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Sequence the next append will get. */
+    public long nextSequence() {
+        return enabled ? active.nextSeq() : 0;
+    }
+
+    /** Re-read journaled fixes from {@code fromSeq} on, oldest first. */
+    public void replay(long fromSeq, Consumer<JournalRecord> consumer) throws IOException {
+        sync();
+        JournalReader.read(dir, fromSeq, consumer);
+    }
+
+    /**
+     * Sequence before which every fix has been evaluated. Without a checkpoint file that is
+     * the next sequence: journals written before checkpoints existed were evaluated in line.
+     */
+    public long checkpoint() throws IOException {
+        if (!enabled) return 0;
+        Path file = dir.resolve(CHECKPOINT);
+        if (!Files.exists(file)) return nextSequence();
+        return Long.parseLong(Files.readString(file).trim());
+    }
+
+    /** Record that every fix before {@code evaluatedBefore} has been evaluated; replaces the file atomically. */
+    public void checkpoint(long evaluatedBefore) throws IOException {
+        if (!enabled) return;
+        Path temp = dir.resolve(CHECKPOINT + ".next");
+        Files.writeString(temp, Long.toString(evaluatedBefore));
+        Files.move(temp, dir.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void sync() {
+        JournalSegment seg = active;
+        try {
+            seg.force();
+        } catch (RuntimeException e) {
+            log.error("Fix journal sync failed", e);
+        }
+    }
+
+    /** Seal {@code full}, start the next segment and apply retention. Caller holds the lock (or is starting up). */
+    private JournalSegment roll(JournalSegment full) throws IOException {
+        full.close();
+        JournalSegment next = JournalSegment.create(dir, full.nextSeq(), segmentBytes);
+
+        List<Path> segments = JournalReader.segments(dir);
+        for (int i = 0; i < segments.size() - retentionSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+            log.debug("Fix journal retention: removed {}", segments.get(i).getFileName());
+        }
+        return next;
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (!enabled) return;
+        syncer.shutdown();
+        lock.lock();
+        try {
+            active.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.geopledge.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk layout of the fix journal, shared by the writer and offline readers.
+ *
+ * A segment file ({@code <firstSeq, 20 digits>.fixlog}) is one 48-byte header followed
+ * by fixed 48-byte records, all little-endian:
+ *
+ * <pre>
+ * header:  0 magic "GPJ1"  4 version  8 record size  12 capacity  16 first seq  24 created millis  44 crc32c
+ * record:  0 seq   8 user hi   16 user lo   24 at millis   32 lat e7   36 lon e7   40 accuracy (float, NaN = none)   44 crc32c
+ * </pre>
+ *
+ * The CRC covers bytes 0–43. A record is valid when its CRC matches and its sequence is
+ * the segment's first sequence plus its index; the first record that fails either test
+ * is the end of the journal.
+ */
+public final class JournalFormat {
+
+    public static final int MAGIC = 0x314A5047; // "GPJ1" little-endian
+    public static final int VERSION = 1;
+    public static final int RECORD_SIZE = 48;
+    public static final int HEADER_SIZE = 48;
+    public static final String SUFFIX = ".fixlog";
+
+    private static final int CRC_OFFSET = 44;
+    private static final double E7 = 1e7;
+
+    private JournalFormat() {}
+
+    public static String fileName(long firstSeq) {
+        return String.format("%020d%s", firstSeq, SUFFIX);
+    }
+
+    public static ByteBuffer scratch() {
+        return ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static void encodeHeader(ByteBuffer b, int capacity, long firstSeq, long createdMillis, CRC32C crc) {
+        clear(b);
+        b.putInt(0, MAGIC);
+        b.putInt(4, VERSION);
+        b.putInt(8, RECORD_SIZE);
+        b.putInt(12, capacity);
+        b.putLong(16, firstSeq);
+        b.putLong(24, createdMillis);
+        seal(b, crc);
+    }
+
+    /** Fills {@code b} (a {@link #scratch()} buffer) without allocating. */
+    public static void encodeRecord(ByteBuffer b, long seq, long userHi, long userLo,
+                                    long atMillis, double lat, double lon, double accuracy, CRC32C crc) {
+        b.putLong(0, seq);
+        b.putLong(8, userHi);
+        b.putLong(16, userLo);
+        b.putLong(24, atMillis);
+        b.putInt(32, (int) Math.round(lat * E7));
+        b.putInt(36, (int) Math.round(lon * E7));
+        b.putFloat(40, (float) accuracy);
+        seal(b, crc);
+    }
+
+    public static boolean crcValid(ByteBuffer b, CRC32C crc) {
+        crc.reset();
+        crc.update(b.array(), 0, CRC_OFFSET);
+        return b.getInt(CRC_OFFSET) == (int) crc.getValue();
+    }
+
+    public static boolean isZero(ByteBuffer b) {
+        for (int i = 0; i < RECORD_SIZE; i += 8) {
+            if (b.getLong(i) != 0) return false;
+        }
+        return true;
+    }
+
+    public static JournalRecord decodeRecord(ByteBuffer b) {
+        return new JournalRecord(
+                b.getLong(0),
+                new UUID(b.getLong(8), b.getLong(16)),
+                b.getInt(32) / E7,
+                b.getInt(36) / E7,
+                b.getLong(24),
+                b.getFloat(40));
+    }
+
+    private static void seal(ByteBuffer b, CRC32C crc) {
+        crc.reset();
+        crc.update(b.array(), 0, CRC_OFFSET);
+        b.putInt(CRC_OFFSET, (int) crc.getValue());
+    }
+
+    private static void clear(ByteBuffer b) {
+        for (int i = 0; i < RECORD_SIZE; i += 8) b.putLong(i, 0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.geopledge.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads fix journal segments without the application running.
+ *
+ * <pre>
+ * java -cp geopledge.jar -Dloader.main=com.geopledge.journal.JournalReader \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher journal [fromSeq]
+ * </pre>
+ * prints one CSV line per record: seq,userId,lat,lon,at,accuracy.
+ */
+public final class JournalReader {
+
+    private JournalReader() {}
+
+    /** Segment files in sequence order. */
+    public static List<Path> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(JournalFormat.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /** Every valid record with seq >= {@code fromSeq}, stopping at the end of each segment's valid run. */
+    public static void read(Path dir, long fromSeq, Consumer<JournalRecord> consumer) throws IOException {
+        ByteBuffer b = JournalFormat.scratch();
+        CRC32C crc = new CRC32C();
+        List<Path> segments = segments(dir);
+        for (int s = 0; s < segments.size(); s++) {
+            /* skip segments that end before fromSeq */
+            if (s + 1 < segments.size() && firstSeq(segments.get(s + 1)) <= fromSeq) continue;
+
+            try (FileChannel ch = FileChannel.open(segments.get(s), StandardOpenOption.READ)) {
+                b.clear();
+                ch.read(b, 0);
+                if (b.getInt(0) != JournalFormat.MAGIC || !JournalFormat.crcValid(b, crc)) {
+                    throw new IOException("not a fix journal segment: " + segments.get(s));
+                }
+                int capacity = b.getInt(12);
+                long first = b.getLong(16);
+
+                int start = (int) Math.max(0, Math.min(capacity, fromSeq - first));
+                for (int i = start; i < capacity; i++) {
+                    b.clear();
+                    if (ch.read(b, JournalSegment.offset(i)) < JournalFormat.RECORD_SIZE) break;
+                    if (!JournalFormat.crcValid(b, crc) || b.getLong(0) != first + i) break;
+                    consumer.accept(JournalFormat.decodeRecord(b));
+                }
+            }
+        }
+    }
+
+    private static long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - JournalFormat.SUFFIX.length()));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "journal");
+        long from = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        System.out.println("seq,userId,lat,lon,at,accuracy");
+        read(dir, from, r -> System.out.println(r.seq() + "," + r.userId() + ","
+                + r.lat() + "," + r.lon() + "," + Instant.ofEpochMilli(r.atMillis()) + ","
+                + (Float.isNaN(r.accuracy()) ? "" : r.accuracy())));
+    }
+}
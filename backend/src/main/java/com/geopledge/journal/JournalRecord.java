@@ -0,0 +1,7 @@
+package com.geopledge.journal;
+
+import java.util.UUID;
+
+/** One decoded journal entry; {@code accuracy} is NaN when the client sent none. */
+public record JournalRecord(long seq, UUID userId, double lat, double lon, long atMillis, float accuracy) {
+}
@@ -0,0 +1,170 @@
+package com.geopledge.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped, preallocated journal file. Not thread-safe: {@link FixJournal}
+ * serialises writers; {@link #force} may run concurrently from the sync thread.
+ */
+@Slf4j
+final class JournalSegment {
+
+    static final String TEMP_SUFFIX = ".tmp";
+
+    final Path path;
+    final long firstSeq;
+    final int capacity;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private volatile int count;
+    private volatile int synced;
+
+    private JournalSegment(Path path, FileChannel channel, MappedByteBuffer map,
+                           long firstSeq, int capacity, int count) {
+        this.path = path;
+        this.channel = channel;
+        this.map = map;
+        this.firstSeq = firstSeq;
+        this.capacity = capacity;
+        this.count = count;
+        this.synced = count;
+    }
+
+    /**
+     * Preallocate a segment under a temporary name, make its header durable, then rename it
+     * into place: a file with the segment name always starts with a valid header, and a
+     * crash part-way leaves only a temp file, which {@link #removeTemps} cleans up.
+     */
+    static JournalSegment create(Path dir, long firstSeq, long segmentBytes) throws IOException {
+        int capacity = (int) (Math.min(Integer.MAX_VALUE, segmentBytes) - JournalFormat.HEADER_SIZE)
+                / JournalFormat.RECORD_SIZE; // a mapping tops out at 2 GB
+        long size = JournalFormat.HEADER_SIZE + (long) capacity * JournalFormat.RECORD_SIZE;
+        Path path = dir.resolve(JournalFormat.fileName(firstSeq));
+        Path temp = dir.resolve(JournalFormat.fileName(firstSeq) + TEMP_SUFFIX);
+
+        ByteBuffer header = JournalFormat.scratch();
+        JournalFormat.encodeHeader(header, capacity, firstSeq, System.currentTimeMillis(), new CRC32C());
+        try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ch.write(header, 0);
+            ch.write(ByteBuffer.allocate(1), size - 1); // preallocate
+            ch.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(dir);
+
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new JournalSegment(path, ch, map, firstSeq, capacity, 0);
+    }
+
+    /** Delete segments a crash left half-created. */
+    static void removeTemps(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : files.filter(f -> f.getFileName().toString().endsWith(TEMP_SUFFIX)).toList()) {
+                Files.deleteIfExists(p);
+                log.warn("Journal: removed half-created segment {}", p.getFileName());
+            }
+        }
+    }
+
+    /** Make the rename durable; not every platform can open a directory, and there it is skipped. */
+    private static void forceDirectory(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            log.debug("Journal: cannot fsync directory {}", dir, e);
+        }
+    }
+
+    /**
+     * Map an existing segment and find its end: the first record whose CRC or sequence
+     * does not check out. Anything non-zero past that point is a torn or stale write
+     * and is zeroed so it can never be mistaken for a continuation later.
+     */
+    static JournalSegment recover(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, ch.size());
+        ByteBuffer b = JournalFormat.scratch();
+        CRC32C crc = new CRC32C();
+
+        map.get(0, b.array());
+        if (b.getInt(0) != JournalFormat.MAGIC || !JournalFormat.crcValid(b, crc)) {
+            ch.close();
+            throw new IOException("not a fix journal segment: " + path);
+        }
+        int capacity = b.getInt(12);
+        long firstSeq = b.getLong(16);
+
+        int count = 0;
+        while (count < capacity) {
+            map.get(offset(count), b.array());
+            if (!JournalFormat.crcValid(b, crc) || b.getLong(0) != firstSeq + count) break;
+            count++;
+        }
+
+        int zeroed = 0;
+        byte[] zero = new byte[JournalFormat.RECORD_SIZE];
+        for (int i = count; i < capacity; i++) {
+            map.get(offset(i), b.array());
+            if (!JournalFormat.isZero(b)) {
+                map.put(offset(i), zero);
+                zeroed++;
+            }
+        }
+        if (zeroed > 0) {
+            map.force();
+            log.warn("Journal {}: discarded {} torn record(s) after #{}", path.getFileName(), zeroed,
+                    firstSeq + count - 1);
+        }
+        return new JournalSegment(path, ch, map, firstSeq, capacity, count);
+    }
+
+    static int offset(int index) {
+        return JournalFormat.HEADER_SIZE + index * JournalFormat.RECORD_SIZE;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long nextSeq() {
+        return firstSeq + count;
+    }
+
+    /** Copy one encoded record (a {@link JournalFormat#scratch()} buffer) into the next slot. */
+    void append(ByteBuffer record) {
+        map.put(offset(count), record.array());
+        count++;
+    }
+
+    /** msync everything appended since the last call. */
+    void force() {
+        int upTo = count;
+        int from = synced;
+        if (upTo <= from) return;
+        map.force(offset(from), (upTo - from) * JournalFormat.RECORD_SIZE);
+        synced = upTo;
+    }
+
+    void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
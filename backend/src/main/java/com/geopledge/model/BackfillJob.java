@@ -0,0 +1,155 @@
+package com.geopledge.model;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * One re-scoring run: the slot range, the rule set it applies and how far it got.
+ * Completed users are recorded in {@link BackfillUserDone}, which is what makes a
+ * paused or interrupted job resumable.
+ */
+@Entity
+@Table(name = "backfill_jobs")
+public class BackfillJob {
+    @Id
+    @Column(name = "id", nullable = false)
+    private UUID id;
+
+    @Column(name = "range_from", nullable = false)
+    private ZonedDateTime rangeFrom;
+
+    @Column(name = "range_to", nullable = false)
+    private ZonedDateTime rangeTo;
+
+    @Column(name = "rule_version", nullable = false)
+    private int ruleVersion;
+
+    @Column(name = "radius_tolerance_meters", nullable = false)
+    private double radiusToleranceMeters;
+
+    @Column(name = "window_minutes", nullable = false)
+    private int windowMinutes;
+
+    @Column(name = "min_dwell_seconds", nullable = false)
+    private int minDwellSeconds;
+
+    @Column(name = "missing_is_violation", nullable = false)
+    private boolean missingIsViolation;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "users_total", nullable = false)
+    private int usersTotal;
+
+    @Column(name = "users_done", nullable = false)
+    private int usersDone;
+
+    @Column(name = "checks_written", nullable = false)
+    private long checksWritten;
+
+    @Column(name = "error", length = 500)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private ZonedDateTime updatedAt;
+
+    public enum Status { RUNNING, PAUSED, COMPLETED, FAILED }
+
+    // Getters and setters
+    public UUID getId() {
+        return id;
+    }
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    public ZonedDateTime getRangeFrom() {
+        return rangeFrom;
+    }
+    public void setRangeFrom(ZonedDateTime rangeFrom) {
+        this.rangeFrom = rangeFrom;
+    }
+    public ZonedDateTime getRangeTo() {
+        return rangeTo;
+    }
+    public void setRangeTo(ZonedDateTime rangeTo) {
+        this.rangeTo = rangeTo;
+    }
+    public int getRuleVersion() {
+        return ruleVersion;
+    }
+    public void setRuleVersion(int ruleVersion) {
+        this.ruleVersion = ruleVersion;
+    }
+    public double getRadiusToleranceMeters() {
+        return radiusToleranceMeters;
+    }
+    public void setRadiusToleranceMeters(double radiusToleranceMeters) {
+        this.radiusToleranceMeters = radiusToleranceMeters;
+    }
+    public int getWindowMinutes() {
+        return windowMinutes;
+    }
+    public void setWindowMinutes(int windowMinutes) {
+        this.windowMinutes = windowMinutes;
+    }
+    public int getMinDwellSeconds() {
+        return minDwellSeconds;
+    }
+    public void setMinDwellSeconds(int minDwellSeconds) {
+        this.minDwellSeconds = minDwellSeconds;
+    }
+    public boolean isMissingIsViolation() {
+        return missingIsViolation;
+    }
+    public void setMissingIsViolation(boolean missingIsViolation) {
+        this.missingIsViolation = missingIsViolation;
+    }
+    public Status getStatus() {
+        return status;
+    }
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    public int getUsersTotal() {
+        return usersTotal;
+    }
+    public void setUsersTotal(int usersTotal) {
+        this.usersTotal = usersTotal;
+    }
+    public int getUsersDone() {
+        return usersDone;
+    }
+    public void setUsersDone(int usersDone) {
+        this.usersDone = usersDone;
+    }
+    public long getChecksWritten() {
+        return checksWritten;
+    }
+    public void setChecksWritten(long checksWritten) {
+        this.checksWritten = checksWritten;
+    }
+    public String getError() {
+        return error;
+    }
+    public void setError(String error) {
+        this.error = error;
+    }
+    public ZonedDateTime getCreatedAt() {
+        return createdAt;
+    }
+    public void setCreatedAt(ZonedDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    public ZonedDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    public void setUpdatedAt(ZonedDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
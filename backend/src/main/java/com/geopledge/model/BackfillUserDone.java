@@ -0,0 +1,39 @@
+package com.geopledge.model;
+
+import jakarta.persistence.*;
+import java.util.UUID;
+
+/** Checkpoint: this user's slots are fully re-scored for this job. */
+@Entity
+@Table(name = "backfill_user_done",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"job_id", "user_id"}))
+public class BackfillUserDone {
+    @Id
+    @Column(name = "id", nullable = false)
+    private UUID id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    public BackfillUserDone() {}
+
+    public BackfillUserDone(UUID jobId, UUID userId) {
+        this.id = UUID.randomUUID();
+        this.jobId = jobId;
+        this.userId = userId;
+    }
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+    public UUID getJobId() {
+        return jobId;
+    }
+    public UUID getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,24 @@
+package com.geopledge.model;
+
+import jakarta.persistence.*;
+
+/** A running instance; it counts as alive while heartbeat_at is recent. */
+@Entity
+@Table(name = "cluster_nodes")
+public class ClusterNode {
+    @Id
+    @Column(name = "node_id", length = 64, nullable = false)
+    private String nodeId;
+
+    /** Epoch millis. */
+    @Column(name = "heartbeat_at", nullable = false)
+    private long heartbeatAt;
+
+    // Getters
+    public String getNodeId() {
+        return nodeId;
+    }
+    public long getHeartbeatAt() {
+        return heartbeatAt;
+    }
+}
@@ -0,0 +1,65 @@
+package com.geopledge.model;
+
+import jakarta.persistence.*;
+
+/**
+ * A pledge's last reported geofence transition, when several instances share the
+ * database: events may reach any instance, the owner's sweep decides from this row.
+ * Carries the pledge's schedule so the sweep can select the minute's fences directly.
+ */
+@Entity
+@Table(name = "geofence_states")
+public class GeofenceState {
+    @Id
+    @Column(name = "pledge_id", length = 36, nullable = false)
+    private String pledgeId;
+
+    @Column(name = "user_id", length = 36, nullable = false)
+    private String userId;
+
+    @Column(name = "inside", nullable = false)
+    private boolean inside;
+
+    /** The flag before the last transition, for slots decided after it. */
+    @Column(name = "inside_before", nullable = false)
+    private boolean insideBefore;
+
+    /** Epoch millis of the last transition. */
+    @Column(name = "since_at", nullable = false)
+    private long sinceAt;
+
+    @Column(name = "day_mask", nullable = false)
+    private int dayMask;
+
+    @Column(name = "time_hour", nullable = false)
+    private int timeHour;
+
+    @Column(name = "time_minute", nullable = false)
+    private int timeMinute;
+
+    // Getters
+    public String getPledgeId() {
+        return pledgeId;
+    }
+    public String getUserId() {
+        return userId;
+    }
+    public boolean isInside() {
+        return inside;
+    }
+    public boolean isInsideBefore() {
+        return insideBefore;
+    }
+    public long getSinceAt() {
+        return sinceAt;
+    }
+    public int getDayMask() {
+        return dayMask;
+    }
+    public int getTimeHour() {
+        return timeHour;
+    }
+    public int getTimeMinute() {
+        return timeMinute;
+    }
+}
@@ -0,0 +1,41 @@
+package com.geopledge.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Running MET / VIOLATED totals for one geohash cell. Every zoom level lives in the
+ * same table: the level is the length of the hash.
+ */
+@Entity
+@Table(name = "heatmap_cells")
+public class HeatmapCell {
+    @Id
+    @Column(name = "geohash", length = 12, nullable = false)
+    private String geohash;
+
+    @Column(name = "met", nullable = false)
+    private long met;
+
+    @Column(name = "violated", nullable = false)
+    private long violated;
+
+    // Getters and setters
+    public String getGeohash() {
+        return geohash;
+    }
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+    public long getMet() {
+        return met;
+    }
+    public void setMet(long met) {
+        this.met = met;
+    }
+    public long getViolated() {
+        return violated;
+    }
+    public void setViolated(long violated) {
+        this.violated = violated;
+    }
+}
@@ -0,0 +1,33 @@
+package com.geopledge.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Who runs the scheduled work for one user partition, and until when. A free
+ * partition has no owner; an owner that stops renewing loses it at expires_at.
+ */
+@Entity
+@Table(name = "partition_leases")
+public class PartitionLease {
+    @Id
+    @Column(name = "partition_no", nullable = false)
+    private int partition;
+
+    @Column(name = "owner", length = 64)
+    private String owner;
+
+    /** Epoch millis. */
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    // Getters
+    public int getPartition() {
+        return partition;
+    }
+    public String getOwner() {
+        return owner;
+    }
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -1,15 +1,16 @@
 package com.geopledge.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.Persistable;
+
 import java.time.ZonedDateTime;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
 @Table(name = "geo_pledges")
-public class Pledge {
+public class Pledge implements Persistable<UUID> {
     @Id
     @Column(name = "id", nullable = false)
     private UUID id;
@@ -55,7 +56,35 @@ public class Pledge {
     @Column(name = "updated_at", nullable = false)
     private ZonedDateTime updatedAt;
 
+    /** Per-user change counter value of the last write touching this pledge or its checks. */
+    @ColumnDefault("0")
+    @Column(name = "sync_version", nullable = false)
+    private long syncVersion;
+
+    /**
+     * Optional polygon fence (PolygonCodec). When set it replaces the circle for
+     * containment; target/radius then hold its bounding circle.
+     */
+    @Column(name = "polygon", columnDefinition = "BLOB")
+    private byte[] polygon;
+
+    /** Ids are assigned up front, so tell Spring Data which saves are inserts (no SELECT-then-merge). */
+    @Transient
+    private boolean isNew = true;
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
     // Getters and setters
+    @Override
     public UUID getId() {
         return id;
     }
@@ -128,8 +157,8 @@ public class Pledge {
         this.timeMinute = timeMinute;
     }
 
-    public Collection<Object> getDaysOfWeek() {
-        return Collections.singleton(daysOfWeek);
+    public List<Integer> getDaysOfWeek() {
+        return daysOfWeek;
     }
 
     public void setDaysOfWeek(List<Integer> daysOfWeek) {
@@ -167,4 +196,20 @@ public class Pledge {
     public void setUpdatedAt(ZonedDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getSyncVersion() {
+        return syncVersion;
+    }
+
+    public void setSyncVersion(long syncVersion) {
+        this.syncVersion = syncVersion;
+    }
+
+    public byte[] getPolygon() {
+        return polygon;
+    }
+
+    public void setPolygon(byte[] polygon) {
+        this.polygon = polygon;
+    }
 }
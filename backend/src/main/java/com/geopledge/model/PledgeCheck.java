@@ -1,12 +1,16 @@
 package com.geopledge.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.Persistable;
+
 import java.time.ZonedDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "pledge_checks")
-public class PledgeCheck {
+@Table(name = "pledge_checks",
+        indexes = @Index(name = "idx_pledge_checks_pledge_checked_at", columnList = "pledge_id, checked_at"))
+public class PledgeCheck implements Persistable<UUID> {
     @Id
     @Column(name = "id", nullable = false)
     private UUID id;
@@ -30,9 +34,58 @@ public class PledgeCheck {
     @Column(name = "checked_at", nullable = false)
     private ZonedDateTime checkedAt;
 
+    /**
+     * Which evaluator decided this check; null on rows written before it was tracked (= FIX).
+     * Converted rather than @Enumerated so no CHECK constraint is generated –
+     * ddl-auto=update would never widen it when an evaluator is added.
+     */
+    @Convert(converter = SourceConverter.class)
+    @Column(name = "source", length = 16)
+    private Source source;
+
+    /** Decided from a fix the anomaly detector flagged as implausible; held for review before charging. */
+    @ColumnDefault("0")
+    @Column(name = "suspect", nullable = false)
+    private boolean suspect;
+
+    /** Rule set a BACKFILL row was re-scored under; null on live evaluations. */
+    @Column(name = "rule_version")
+    private Integer ruleVersion;
+
+    /** Ids are assigned up front, so tell Spring Data which saves are inserts (no SELECT-then-merge). */
+    @Transient
+    private boolean isNew = true;
+
     public enum Status { MET, VIOLATED }
 
+    public enum Source { FIX, GEOFENCE, DWELL, BACKFILL }
+
+    @Converter
+    public static class SourceConverter implements AttributeConverter<Source, String> {
+        @Override
+        public String convertToDatabaseColumn(Source source) {
+            return source != null ? source.name() : null;
+        }
+
+        @Override
+        public Source convertToEntityAttribute(String value) {
+            return value != null ? Source.valueOf(value) : null;
+        }
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
     // Getters and setters
+    @Override
     public UUID getId() {
         return id;
     }
@@ -75,4 +128,22 @@ public class PledgeCheck {
     public void setCheckedAt(ZonedDateTime checkedAt) {
         this.checkedAt = checkedAt;
     }
+    public Source getSource() {
+        return source;
+    }
+    public void setSource(Source source) {
+        this.source = source;
+    }
+    public boolean isSuspect() {
+        return suspect;
+    }
+    public void setSuspect(boolean suspect) {
+        this.suspect = suspect;
+    }
+    public Integer getRuleVersion() {
+        return ruleVersion;
+    }
+    public void setRuleVersion(Integer ruleVersion) {
+        this.ruleVersion = ruleVersion;
+    }
 }
@@ -0,0 +1,125 @@
+package com.geopledge.model;
+
+import com.geopledge.util.TrackCodec;
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * One user's raw location track for one UTC day, packed with {@link TrackCodec}.
+ * The last_* columns hold the encoder state after the final fix so later fixes are
+ * appended to {@code data} without decoding it.
+ */
+@Entity
+@Table(name = "track_segments",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "epoch_day"}))
+public class TrackSegment {
+    @Id
+    @Column(name = "id", nullable = false)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "epoch_day", nullable = false)
+    private long epochDay;
+
+    @Column(name = "fix_count", nullable = false)
+    private int fixCount;
+
+    @Column(name = "first_at", nullable = false)
+    private long firstAt;
+
+    @Column(name = "last_at", nullable = false)
+    private long lastAt;
+
+    @Column(name = "last_delta", nullable = false)
+    private long lastDelta;
+
+    @Column(name = "last_lat", nullable = false)
+    private int lastLat;
+
+    @Column(name = "last_lon", nullable = false)
+    private int lastLon;
+
+    @Column(name = "data", nullable = false, columnDefinition = "BLOB")
+    private byte[] data;
+
+    /** Encoder state a fresh day starts from. */
+    public static TrackCodec.State initialState(long epochDay) {
+        return new TrackCodec.State(epochDay * 86_400L, 0, 0, 0);
+    }
+
+    /** State after the last stored fix, for appending. */
+    public TrackCodec.State tailState() {
+        return fixCount == 0
+                ? initialState(epochDay)
+                : new TrackCodec.State(lastAt, lastDelta, lastLat, lastLon);
+    }
+
+    public TrackCodec.Cursor cursor() {
+        return new TrackCodec.Cursor(data, fixCount, initialState(epochDay));
+    }
+
+    // Getters and setters
+    public UUID getId() {
+        return id;
+    }
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    public UUID getUserId() {
+        return userId;
+    }
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+    public long getEpochDay() {
+        return epochDay;
+    }
+    public void setEpochDay(long epochDay) {
+        this.epochDay = epochDay;
+    }
+    public int getFixCount() {
+        return fixCount;
+    }
+    public void setFixCount(int fixCount) {
+        this.fixCount = fixCount;
+    }
+    public long getFirstAt() {
+        return firstAt;
+    }
+    public void setFirstAt(long firstAt) {
+        this.firstAt = firstAt;
+    }
+    public long getLastAt() {
+        return lastAt;
+    }
+    public void setLastAt(long lastAt) {
+        this.lastAt = lastAt;
+    }
+    public long getLastDelta() {
+        return lastDelta;
+    }
+    public void setLastDelta(long lastDelta) {
+        this.lastDelta = lastDelta;
+    }
+    public int getLastLat() {
+        return lastLat;
+    }
+    public void setLastLat(int lastLat) {
+        this.lastLat = lastLat;
+    }
+    public int getLastLon() {
+        return lastLon;
+    }
+    public void setLastLon(int lastLon) {
+        this.lastLon = lastLon;
+    }
+    public byte[] getData() {
+        return data;
+    }
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+}
@@ -0,0 +1,27 @@
+package com.geopledge.model;
+
+import jakarta.persistence.*;
+
+/**
+ * The latest pledge-list version handed out for a user, when several instances
+ * share the database. Bumped inside the writing transaction, so a committed row
+ * never runs ahead of the writes it counts.
+ */
+@Entity
+@Table(name = "user_versions")
+public class UserVersion {
+    @Id
+    @Column(name = "user_id", length = 36, nullable = false)
+    private String userId;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Getters
+    public String getUserId() {
+        return userId;
+    }
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,20 @@
+package com.geopledge.repository;
+
+import com.geopledge.model.BackfillJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface BackfillJobRepository extends JpaRepository<BackfillJob, UUID> {
+    List<BackfillJob> findByStatus(BackfillJob.Status status);
+
+    @Modifying
+    @Query("update BackfillJob j set j.usersDone = j.usersDone + 1, " +
+            "j.checksWritten = j.checksWritten + :checks, j.updatedAt = :now where j.id = :id")
+    void recordUserDone(@Param("id") UUID id, @Param("checks") long checks, @Param("now") ZonedDateTime now);
+}
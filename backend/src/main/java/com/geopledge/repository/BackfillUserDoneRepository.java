@@ -0,0 +1,14 @@
+package com.geopledge.repository;
+
+import com.geopledge.model.BackfillUserDone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface BackfillUserDoneRepository extends JpaRepository<BackfillUserDone, UUID> {
+    @Query("select d.userId from BackfillUserDone d where d.jobId = :jobId")
+    List<UUID> findUserIdsByJobId(@Param("jobId") UUID jobId);
+}
@@ -0,0 +1,24 @@
+package com.geopledge.repository;
+
+import com.geopledge.model.ClusterNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+
+    @Modifying
+    @Query(value = "insert into cluster_nodes (node_id, heartbeat_at) values (:nodeId, :at) " +
+            "on conflict(node_id) do update set heartbeat_at = excluded.heartbeat_at", nativeQuery = true)
+    void heartbeat(@Param("nodeId") String nodeId, @Param("at") long at);
+
+    @Query("select n.nodeId from ClusterNode n where n.heartbeatAt >= :since")
+    List<String> findAliveSince(@Param("since") long since);
+
+    @Modifying
+    @Query("delete from ClusterNode n where n.heartbeatAt < :before")
+    int deleteStale(@Param("before") long before);
+}
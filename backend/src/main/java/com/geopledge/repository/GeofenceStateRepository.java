@@ -0,0 +1,25 @@
+package com.geopledge.repository;
+
+import com.geopledge.model.GeofenceState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface GeofenceStateRepository extends JpaRepository<GeofenceState, String> {
+
+    /** Records a transition unless a later one is already stored (out-of-order delivery). */
+    @Modifying
+    @Query(value = "insert into geofence_states (pledge_id, user_id, inside, inside_before, since_at, day_mask, time_hour, time_minute) " +
+            "values (:pledgeId, :userId, :inside, false, :sinceAt, :dayMask, :hour, :minute) " +
+            "on conflict(pledge_id) do update set inside_before = geofence_states.inside, " +
+            "inside = excluded.inside, since_at = excluded.since_at " +
+            "where excluded.since_at >= geofence_states.since_at", nativeQuery = true)
+    void apply(@Param("pledgeId") String pledgeId, @Param("userId") String userId,
+               @Param("inside") boolean inside, @Param("sinceAt") long sinceAt,
+               @Param("dayMask") int dayMask, @Param("hour") int hour, @Param("minute") int minute);
+
+    List<GeofenceState> findByTimeHourAndTimeMinute(int timeHour, int timeMinute);
+}
@@ -0,0 +1,20 @@
+package com.geopledge.repository;
+
+import com.geopledge.model.HeatmapCell;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface HeatmapCellRepository extends JpaRepository<HeatmapCell, String> {
+    List<HeatmapCell> findByGeohashIn(Collection<String> geohashes);
+
+    @Modifying
+    @Query(value = "insert into heatmap_cells (geohash, met, violated) values (:geohash, :met, :violated) " +
+            "on conflict(geohash) do update set met = met + excluded.met, violated = violated + excluded.violated",
+            nativeQuery = true)
+    void increment(@Param("geohash") String geohash, @Param("met") long met, @Param("violated") long violated);
+}
@@ -0,0 +1,36 @@
+package com.geopledge.repository;
+
+import com.geopledge.model.PartitionLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Every change is a conditional update, so two nodes racing for a partition
+ * cannot both win: the caller owns it only if exactly one row changed.
+ */
+public interface PartitionLeaseRepository extends JpaRepository<PartitionLease, Integer> {
+
+    @Modifying
+    @Query(value = "insert into partition_leases (partition_no, owner, expires_at) values (:partition, null, 0) " +
+            "on conflict(partition_no) do nothing", nativeQuery = true)
+    void createIfMissing(@Param("partition") int partition);
+
+    /** Takes a free or expired partition. */
+    @Modifying
+    @Query(value = "update partition_leases set owner = :owner, expires_at = :expiresAt " +
+            "where partition_no = :partition and (owner is null or expires_at < :now)", nativeQuery = true)
+    int claim(@Param("partition") int partition, @Param("owner") String owner,
+              @Param("expiresAt") long expiresAt, @Param("now") long now);
+
+    @Modifying
+    @Query(value = "update partition_leases set expires_at = :expiresAt " +
+            "where partition_no = :partition and owner = :owner", nativeQuery = true)
+    int renew(@Param("partition") int partition, @Param("owner") String owner, @Param("expiresAt") long expiresAt);
+
+    @Modifying
+    @Query(value = "update partition_leases set owner = null, expires_at = 0 " +
+            "where partition_no = :partition and owner = :owner", nativeQuery = true)
+    int release(@Param("partition") int partition, @Param("owner") String owner);
+}
@@ -2,9 +2,29 @@ package com.geopledge.repository;
 
 import com.geopledge.model.PledgeCheck;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public interface PledgeCheckRepository extends JpaRepository<PledgeCheck, UUID> {
-    PledgeCheck findTopByPledgeIdOrderByCheckedAtDesc(UUID pledgeId);
+    List<PledgeCheck> findByPledgeIdInAndRuleVersion(Collection<UUID> pledgeIds, Integer ruleVersion);
+
+    /** The most recent live (non-backfill) check of each pledge (more than one on a checkedAt tie). */
+    @Query("select c from PledgeCheck c where c.pledgeId in :pledgeIds and c.ruleVersion is null and c.checkedAt = " +
+            "(select max(c2.checkedAt) from PledgeCheck c2 where c2.pledgeId = c.pledgeId and c2.ruleVersion is null)")
+    List<PledgeCheck> findLatestByPledgeIdIn(@Param("pledgeIds") Collection<UUID> pledgeIds);
+
+    /** Live (non-backfill) counts of checks made before {@code before} as {@code [pledgeId, status, count]} rows. */
+    @Query("select c.pledgeId, c.status, count(c) from PledgeCheck c " +
+            "where c.ruleVersion is null and c.checkedAt < :before group by c.pledgeId, c.status")
+    List<Object[]> countLiveByPledgeAndStatusBefore(@Param("before") ZonedDateTime before);
+
+    /** The user's live check counts and their stakes as {@code [status, count, stakeCents]} rows. */
+    @Query("select c.status, count(c), sum(p.stakeCents) from PledgeCheck c join Pledge p on p.id = c.pledgeId " +
+            "where p.userId = :userId and c.ruleVersion is null group by c.status")
+    List<Object[]> summarizeLiveByUser(@Param("userId") UUID userId);
 }
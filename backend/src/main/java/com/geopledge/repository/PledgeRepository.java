@@ -1,12 +1,34 @@
 package com.geopledge.repository;
 
 import com.geopledge.model.Pledge;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
 
 public interface PledgeRepository extends JpaRepository<Pledge, UUID> {
+    // per-user lists are always scheduled, so daysOfWeek comes in the same query
+    @EntityGraph(attributePaths = "daysOfWeek")
     List<Pledge> findByUserId(UUID userId);
+    @EntityGraph(attributePaths = "daysOfWeek")
     List<Pledge> findByUserIdAndActiveTrue(UUID userId);
+    List<Pledge> findByActiveTrue();
+    @EntityGraph(attributePaths = "daysOfWeek")
+    List<Pledge> findByUserIdAndSyncVersionGreaterThan(UUID userId, long syncVersion);
+    List<Pledge> findByActiveTrueAndTimeHourAndTimeMinute(int timeHour, int timeMinute);
+
+    @Query("select distinct p.userId from Pledge p order by p.userId")
+    List<UUID> findDistinctUserIds();
+
+    @Query("select coalesce(max(p.syncVersion), 0) from Pledge p where p.userId = :userId")
+    long findMaxSyncVersionByUserId(@Param("userId") UUID userId);
+
+    /** Bumps only the version, so writers holding an older copy of the pledge lose nothing. */
+    @Modifying
+    @Query("update Pledge p set p.syncVersion = :version where p.id = :id")
+    int updateSyncVersion(@Param("id") UUID id, @Param("version") long version);
 }
@@ -0,0 +1,14 @@
+package com.geopledge.repository;
+
+import com.geopledge.model.TrackSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface TrackSegmentRepository extends JpaRepository<TrackSegment, UUID> {
+    Optional<TrackSegment> findByUserIdAndEpochDay(UUID userId, long epochDay);
+
+    List<TrackSegment> findByUserIdAndEpochDayBetweenOrderByEpochDay(UUID userId, long fromDay, long toDay);
+}
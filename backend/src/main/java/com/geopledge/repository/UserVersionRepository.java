@@ -0,0 +1,27 @@
+package com.geopledge.repository;
+
+import com.geopledge.model.UserVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Increments run inside the caller's write transaction; SQLite's single writer
+ * orders them, so versions commit in the order they were handed out.
+ */
+public interface UserVersionRepository extends JpaRepository<UserVersion, String> {
+
+    @Modifying
+    @Query(value = "update user_versions set version = version + 1 where user_id = :userId", nativeQuery = true)
+    int increment(@Param("userId") String userId);
+
+    /** First version for a user: {@code first}, or an increment if another writer got there first. */
+    @Modifying
+    @Query(value = "insert into user_versions (user_id, version) values (:userId, :first) " +
+            "on conflict(user_id) do update set version = version + 1", nativeQuery = true)
+    void insertOrIncrement(@Param("userId") String userId, @Param("first") long first);
+
+    @Query("select v.version from UserVersion v where v.userId = :userId")
+    Long findVersion(@Param("userId") String userId);
+}
@@ -0,0 +1,492 @@
+package com.geopledge.service;
+
+import com.geopledge.dto.BackfillRequestDTO;
+import com.geopledge.dto.TrackPointDTO;
+import com.geopledge.model.BackfillJob;
+import com.geopledge.model.BackfillUserDone;
+import com.geopledge.model.Pledge;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.repository.BackfillJobRepository;
+import com.geopledge.repository.BackfillUserDoneRepository;
+import com.geopledge.repository.PledgeCheckRepository;
+import com.geopledge.repository.PledgeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Re-scores historical slots under a new rule set (radius/edge tolerance, window, minimum dwell).
+ *
+ * Users are split across a dedicated fork-join pool; each user's fixes are streamed from
+ * the {@link TrackStore} for the range once, every scheduled slot of their pledges is
+ * scored against them, and the results are written as BACKFILL rows tagged with the
+ * rule version – live rows are never touched, and re-running a version updates its rows
+ * in place.
+ *
+ * Writes go out in batches of batch-size through one writer permit, and after each batch
+ * the worker sleeps long enough that backfill holds SQLite's single writer for at most
+ * duty-cycle of the time. A user's last batch also records the user as done, so a
+ * paused, failed or interrupted job resumes with the users it had not finished.
+ */
+@Slf4j
+@Service
+public class BackfillService {
+
+    private final BackfillJobRepository jobRepo;
+    private final BackfillUserDoneRepository doneRepo;
+    private final PledgeRepository pledgeRepo;
+    private final PledgeCheckRepository checkRepo;
+    private final TrackStore trackStore;
+    private final PledgeVersionTracker versionTracker;
+    private final PledgeGeometry geometry;
+    private final Clock clock;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final int leafUsers;
+    private final double dutyCycle;
+    private final Duration maxRange;
+
+    private final ForkJoinPool pool;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "backfill-coordinator");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Semaphore writer = new Semaphore(1);
+    private final Map<UUID, Run> running = new HashMap<>(); // guarded by lock
+    /* not synchronized: resume reads and writes the database while holding it */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public BackfillService(BackfillJobRepository jobRepo,
+                           BackfillUserDoneRepository doneRepo,
+                           PledgeRepository pledgeRepo,
+                           PledgeCheckRepository checkRepo,
+                           TrackStore trackStore,
+                           PledgeVersionTracker versionTracker,
+                           PledgeGeometry geometry,
+                           Clock clock,
+                           PlatformTransactionManager txManager,
+                           @Value("${app.backfill.parallelism:2}") int parallelism,
+                           @Value("${app.backfill.batch-size:200}") int batchSize,
+                           @Value("${app.backfill.leaf-users:16}") int leafUsers,
+                           @Value("${app.backfill.duty-cycle:0.2}") double dutyCycle,
+                           @Value("${app.backfill.max-range-days:366}") int maxRangeDays) {
+        this.jobRepo = jobRepo;
+        this.doneRepo = doneRepo;
+        this.pledgeRepo = pledgeRepo;
+        this.checkRepo = checkRepo;
+        this.trackStore = trackStore;
+        this.versionTracker = versionTracker;
+        this.geometry = geometry;
+        this.clock = clock;
+        this.tx = new TransactionTemplate(txManager);
+        this.batchSize = batchSize;
+        this.leafUsers = Math.max(1, leafUsers);
+        this.dutyCycle = Math.min(1, Math.max(0.01, dutyCycle));
+        this.maxRange = Duration.ofDays(maxRangeDays);
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    /** Jobs left RUNNING by a previous process were interrupted – park them for resume. */
+    @EventListener(ApplicationReadyEvent.class)
+    void parkInterruptedJobs() {
+        for (BackfillJob job : jobRepo.findByStatus(BackfillJob.Status.RUNNING)) {
+            job.setStatus(BackfillJob.Status.PAUSED);
+            job.setUpdatedAt(ZonedDateTime.now(clock));
+            jobRepo.save(job);
+            log.info("Backfill {} was interrupted at {}/{} users; resume to continue",
+                    job.getId(), job.getUsersDone(), job.getUsersTotal());
+        }
+    }
+
+    /** @throws IllegalArgumentException on an empty, inverted or oversized range */
+    public BackfillJob start(BackfillRequestDTO req) {
+        if (!req.from().isBefore(req.to()) || Duration.between(req.from(), req.to()).compareTo(maxRange) > 0) {
+            throw new IllegalArgumentException("invalid backfill range");
+        }
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        BackfillJob job = new BackfillJob();
+        job.setId(UUID.randomUUID());
+        job.setRangeFrom(req.from().atZone(clock.getZone()));
+        job.setRangeTo(req.to().atZone(clock.getZone()));
+        job.setRuleVersion(req.ruleVersion());
+        job.setRadiusToleranceMeters(req.radiusToleranceMeters() != null ? req.radiusToleranceMeters() : 0);
+        job.setWindowMinutes(req.windowMinutes() != null ? req.windowMinutes() : 0);
+        job.setMinDwellSeconds(req.minDwellSeconds() != null ? req.minDwellSeconds() : 0);
+        job.setMissingIsViolation(req.missingIsViolation() == null || req.missingIsViolation());
+        job.setStatus(BackfillJob.Status.PAUSED);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        jobRepo.save(job);
+        return resume(job.getId()).orElseThrow();
+    }
+
+    /** Continue a PAUSED or FAILED job from its checkpoint. */
+    public Optional<BackfillJob> resume(UUID jobId) {
+        lock.lock();
+        try {
+            return resumeLocked(jobId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<BackfillJob> resumeLocked(UUID jobId) {
+        Optional<BackfillJob> found = jobRepo.findById(jobId);
+        if (found.isEmpty() || running.containsKey(jobId)) return found;
+        BackfillJob job = found.get();
+        if (job.getStatus() == BackfillJob.Status.COMPLETED) return found;
+
+        List<UUID> users = new ArrayList<>(pledgeRepo.findDistinctUserIds());
+        Set<UUID> done = new HashSet<>(doneRepo.findUserIdsByJobId(jobId));
+        job.setUsersTotal(users.size());
+        job.setUsersDone(done.size());
+        users.removeAll(done);
+
+        job.setStatus(BackfillJob.Status.RUNNING);
+        job.setError(null);
+        job.setUpdatedAt(ZonedDateTime.now(clock));
+        jobRepo.save(job);
+
+        Run run = new Run(job);
+        running.put(jobId, run);
+        UUID[] todo = users.toArray(UUID[]::new);
+        coordinator.execute(() -> execute(run, todo));
+        log.info("Backfill {} (rules v{}) started: {} users to go", jobId, job.getRuleVersion(), todo.length);
+        return Optional.of(job);
+    }
+
+    /** Stop after the users in flight; resumable later. */
+    public Optional<BackfillJob> pause(UUID jobId) {
+        lock.lock();
+        try {
+            Run run = running.get(jobId);
+            if (run != null) run.paused = true;
+        } finally {
+            lock.unlock();
+        }
+        return jobRepo.findById(jobId);
+    }
+
+    public Optional<BackfillJob> find(UUID jobId) {
+        return jobRepo.findById(jobId);
+    }
+
+    private void execute(Run run, UUID[] users) {
+        BackfillJob.Status outcome = BackfillJob.Status.COMPLETED;
+        String error = null;
+        try {
+            pool.invoke(new Partition(run, users, 0, users.length));
+            if (run.paused) outcome = BackfillJob.Status.PAUSED;
+        } catch (RuntimeException e) {
+            log.error("Backfill {} failed", run.job.getId(), e);
+            outcome = BackfillJob.Status.FAILED;
+            error = String.valueOf(e.getMessage());
+        }
+        lock.lock();
+        try {
+            running.remove(run.job.getId());
+        } finally {
+            lock.unlock();
+        }
+        BackfillJob job = jobRepo.findById(run.job.getId()).orElseThrow();
+        job.setStatus(outcome);
+        job.setError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+        job.setUpdatedAt(ZonedDateTime.now(clock));
+        jobRepo.save(job);
+        log.info("Backfill {} {}: {}/{} users, {} checks", job.getId(), outcome,
+                job.getUsersDone(), job.getUsersTotal(), job.getChecksWritten());
+    }
+
+    /** Splits the user array in halves down to leaf-users, then scores those users in order. */
+    private final class Partition extends RecursiveAction {
+        private final Run run;
+        private final UUID[] users;
+        private final int lo, hi;
+
+        Partition(Run run, UUID[] users, int lo, int hi) {
+            this.run = run;
+            this.users = users;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > leafUsers) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Partition(run, users, lo, mid), new Partition(run, users, mid, hi));
+                return;
+            }
+            for (int i = lo; i < hi && !run.paused; i++) {
+                rescoreUser(run, users[i]);
+            }
+        }
+    }
+
+    private void rescoreUser(Run run, UUID userId) {
+        BackfillJob job = run.job;
+        List<Pledge> pledges = tx.execute(status -> {
+            List<Pledge> list = pledgeRepo.findByUserId(userId); // inactive too: slots before deactivation count
+            list.forEach(p -> Hibernate.initialize(p.getDaysOfWeek())); // read outside the session below
+            return list;
+        });
+        long windowMs = TimeUnit.MINUTES.toMillis(job.getWindowMinutes());
+        Instant from = job.getRangeFrom().toInstant();
+        Instant to = job.getRangeTo().toInstant();
+        long decidedBefore = clock.millis() - windowMs; // later slots are still open
+
+        /* 1️⃣ the user's fixes for the range (plus window slack), once */
+        Track track;
+        try (Stream<TrackPointDTO> points = trackStore.read(userId,
+                from.minusMillis(windowMs), to.plusMillis(windowMs + 60_000))) {
+            track = Track.of(points);
+        }
+
+        /* 2️⃣ rows this rule version already wrote, so a re-run updates instead of duplicating */
+        Map<String, PledgeCheck> existing = new HashMap<>();
+        if (!pledges.isEmpty()) {
+            for (PledgeCheck c : checkRepo.findByPledgeIdInAndRuleVersion(
+                    pledges.stream().map(Pledge::getId).toList(), job.getRuleVersion())) {
+                existing.put(key(c.getPledgeId(), c.getScheduledFor().toInstant()), c);
+            }
+        }
+
+        /* 3️⃣ score every scheduled slot in [from, to) */
+        List<PledgeCheck> batch = new ArrayList<>(batchSize);
+        Set<Pledge> touched = new HashSet<>();
+        long written = 0;
+        ZoneId zone = clock.getZone();
+        for (Pledge p : pledges) {
+            LocalDate last = to.atZone(zone).toLocalDate();
+            for (LocalDate d = from.atZone(zone).toLocalDate(); !d.isAfter(last); d = d.plusDays(1)) {
+                ZonedDateTime slot = d.atTime(p.getTimeHour(), p.getTimeMinute()).atZone(zone);
+                Instant slotAt = slot.toInstant();
+                if (slotAt.isBefore(from) || !slotAt.isBefore(to)) continue;
+                if (slotAt.toEpochMilli() > decidedBefore) continue;
+                if (!inLifetime(p, slotAt)) continue;
+                if (!p.getDaysOfWeek().contains(PledgeSchedule.dayIndex(slot))) continue;
+
+                PledgeCheck c = score(job, p, slot, windowMs, track,
+                        existing.get(key(p.getId(), slotAt)));
+                if (c == null) continue;
+                batch.add(c);
+                touched.add(p);
+                if (batch.size() >= batchSize) {
+                    written += flush(run, userId, batch, Set.of(), -1);
+                    batch.clear();
+                }
+            }
+        }
+        flush(run, userId, batch, touched, written + batch.size());
+    }
+
+    /**
+     * Whether the pledge was in force at the slot: not before it was created and, once
+     * deactivated, not after that (deactivation is its last update).
+     */
+    private static boolean inLifetime(Pledge p, Instant slotAt) {
+        if (slotAt.isBefore(p.getCreatedAt().toInstant())) return false;
+        return p.isActive() || !slotAt.isAfter(p.getUpdatedAt().toInstant());
+    }
+
+    /**
+     * The slot's outcome under the job's rules, reusing {@code row} when this version
+     * scored the slot before. Null when there is no evidence and missing fixes don't count.
+     */
+    private PledgeCheck score(BackfillJob job, Pledge p, ZonedDateTime slot, long windowMs,
+                                     Track track, PledgeCheck row) {
+        long slotMs = slot.toInstant().toEpochMilli();
+        long startS = (slotMs - windowMs) / 1000;
+        long endS = windowMs == 0 ? slotMs / 1000 + 59 : (slotMs + windowMs) / 1000;
+
+        long insideS = 0;
+        boolean anyFix = false, anyInside = false, prevInside = false;
+        long prevAt = 0;
+        double lat = p.getTargetLatitude(), lon = p.getTargetLongitude();
+        for (int i = track.firstAtOrAfter(startS); i < track.size && track.at[i] <= endS; i++) {
+            boolean inside = geometry.contains(p, track.lat[i], track.lon[i], job.getRadiusToleranceMeters());
+            if (inside && prevInside) insideS += track.at[i] - prevAt;
+            if (inside || !anyInside) {
+                lat = track.lat[i];
+                lon = track.lon[i];
+            }
+            anyFix = true;
+            anyInside |= inside;
+            prevInside = inside;
+            prevAt = track.at[i];
+        }
+        if (!anyFix && !job.isMissingIsViolation()) return null;
+
+        boolean met = anyInside && insideS >= job.getMinDwellSeconds();
+        PledgeCheck c = row;
+        if (c == null) {
+            c = new PledgeCheck();
+            c.setId(UUID.randomUUID());
+            c.setPledgeId(p.getId());
+            c.setScheduledFor(slot);
+            c.setSource(PledgeCheck.Source.BACKFILL);
+            c.setRuleVersion(job.getRuleVersion());
+        }
+        c.setStatus(met ? PledgeCheck.Status.MET : PledgeCheck.Status.VIOLATED);
+        c.setUserLatitude(lat);
+        c.setUserLongitude(lon);
+        // when the slot would have been decided, so re-scored rows don't jump ahead of live ones
+        c.setCheckedAt(slot.plus(Duration.ofMillis(windowMs)));
+        return c;
+    }
+
+    /**
+     * Write one batch through the single writer permit, then back off to honour the duty
+     * cycle. {@code userTotal} >= 0 marks the user's last batch: it also bumps the touched
+     * pledges' versions and checkpoints the user with that many checks.
+     */
+    private int flush(Run run, UUID userId, List<PledgeCheck> batch, Set<Pledge> touched, long userTotal) {
+        boolean userDone = userTotal >= 0;
+        if (batch.isEmpty() && !userDone) return 0;
+        int n = batch.size();
+        long busyNanos;
+        writer.acquireUninterruptibly();
+        try {
+            long t0 = System.nanoTime();
+            tx.executeWithoutResult(status -> {
+                checkRepo.saveAll(batch);
+                if (!userDone) return;
+                for (Pledge p : touched) {
+                    // the loaded pledge may be stale by now: bump the version column alone
+                    pledgeRepo.updateSyncVersion(p.getId(), versionTracker.nextVersion(userId));
+                }
+                doneRepo.save(new BackfillUserDone(run.job.getId(), userId));
+                jobRepo.recordUserDone(run.job.getId(), userTotal,
+                        ZonedDateTime.now(clock));
+            });
+            busyNanos = System.nanoTime() - t0;
+        } finally {
+            writer.release();
+        }
+        throttle(busyNanos);
+        return n;
+    }
+
+    private void throttle(long busyNanos) {
+        long idleNanos = (long) (busyNanos * (1 - dutyCycle) / dutyCycle);
+        if (idleNanos <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(idleNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String key(UUID pledgeId, Instant slot) {
+        return pledgeId + "@" + slot.getEpochSecond();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lock.lock();
+        try {
+            running.values().forEach(r -> r.paused = true);
+        } finally {
+            lock.unlock();
+        }
+        coordinator.shutdown();
+        pool.shutdown();
+    }
+
+    /** In-flight state of a job. */
+    private static final class Run {
+        final BackfillJob job;
+        volatile boolean paused;
+
+        Run(BackfillJob job) {
+            this.job = job;
+        }
+    }
+
+    /** A user's fixes for the range as sorted primitive arrays (epoch seconds). */
+    private static final class Track {
+        long[] at = new long[64];
+        double[] lat = new double[64];
+        double[] lon = new double[64];
+        int size;
+
+        static Track of(Stream<TrackPointDTO> points) {
+            Track t = new Track();
+            points.forEach(pt -> {
+                if (t.size == t.at.length) {
+                    t.at = Arrays.copyOf(t.at, t.size * 2);
+                    t.lat = Arrays.copyOf(t.lat, t.size * 2);
+                    t.lon = Arrays.copyOf(t.lon, t.size * 2);
+                }
+                t.at[t.size] = pt.at().getEpochSecond();
+                t.lat[t.size] = pt.lat();
+                t.lon[t.size] = pt.lon();
+                t.size++;
+            });
+            t.sort();
+            return t;
+        }
+
+        private void sort() {
+            for (int i = 1; i < size; i++) {
+                if (at[i] < at[i - 1]) {
+                    Integer[] idx = new Integer[size];
+                    for (int k = 0; k < size; k++) idx[k] = k;
+                    Arrays.sort(idx, (a, b) -> Long.compare(at[a], at[b]));
+                    long[] a2 = new long[size];
+                    double[] la2 = new double[size], lo2 = new double[size];
+                    for (int k = 0; k < size; k++) {
+                        a2[k] = at[idx[k]];
+                        la2[k] = lat[idx[k]];
+                        lo2[k] = lon[idx[k]];
+                    }
+                    at = a2;
+                    lat = la2;
+                    lon = lo2;
+                    return;
+                }
+            }
+        }
+
+        int firstAtOrAfter(long seconds) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (at[mid] < seconds) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.geopledge.service;
+
+import com.geopledge.charity.CharityCatalog;
+import com.geopledge.dto.BootstrapDTO;
+import com.geopledge.dto.PledgeDTO;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.repository.PledgeCheckRepository;
+import com.geopledge.util.ScheduleEtag;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assembles GET /api/bootstrap. The pledge list and the stats are independent reads,
+ * so they run side by side on a small pool while the request thread fetches the
+ * charity catalog. The pool is bounded: when it and its queue are full, the request
+ * thread runs the sub-query itself, so a launch burst degrades to sequential reads
+ * instead of piling up threads or failing.
+ */
+@Service
+public class BootstrapService {
+
+    private final PledgeService pledgeService;
+    private final PledgeCheckRepository checkRepo;
+    private final CharityCatalog charityCatalog;
+    private final ThreadPoolExecutor executor;
+
+    public BootstrapService(PledgeService pledgeService,
+                            PledgeCheckRepository checkRepo,
+                            CharityCatalog charityCatalog,
+                            @Value("${app.bootstrap.threads:4}") int threads,
+                            @Value("${app.bootstrap.queue:64}") int queue) {
+        this.pledgeService = pledgeService;
+        this.checkRepo = checkRepo;
+        this.charityCatalog = charityCatalog;
+        AtomicInteger n = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue),
+                r -> {
+                    Thread t = new Thread(r, "bootstrap-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * The versions the response would be read at now, computed without a query. The
+     * ETag adds the earliest next run (see {@link ScheduleEtag}), so a tag also goes
+     * stale when a listed run comes due.
+     */
+    public String version(UUID userId) {
+        return version(pledgeService.getPledgeVersion(userId), charityCatalog.current().version());
+    }
+
+    /** The ETag of a loaded response: the versions it was read at and its earliest run. */
+    public String etag(BootstrapDTO body) {
+        return ScheduleEtag.of(version(body.pledgeVersion(), body.charityVersion()), body.pledges()).header();
+    }
+
+    private static String version(long pledgeVersion, long charityVersion) {
+        return pledgeVersion + "-" + charityVersion;
+    }
+
+    /** @param knownCharityVersion the catalog the client already holds, or null */
+    public BootstrapDTO load(UUID userId, Long knownCharityVersion) {
+        /* read the version first: if a write lands meanwhile, the ETag lags the data, never leads it */
+        long pledgeVersion = pledgeService.getPledgeVersion(userId);
+
+        CompletableFuture<List<PledgeDTO>> pledges =
+                CompletableFuture.supplyAsync(() -> pledgeService.getPledgesForUser(userId), executor);
+        CompletableFuture<BootstrapDTO.Stats> stats =
+                CompletableFuture.supplyAsync(() -> stats(userId), executor);
+        CharityCatalog.Snapshot catalog = charityCatalog.current();
+
+        boolean sendCharities = knownCharityVersion == null || knownCharityVersion != catalog.version();
+        return new BootstrapDTO(pledgeVersion, join(pledges),
+                catalog.version(), sendCharities ? catalog.charities() : null,
+                join(stats));
+    }
+
+    private BootstrapDTO.Stats stats(UUID userId) {
+        long met = 0, violated = 0, forfeited = 0;
+        for (Object[] row : checkRepo.summarizeLiveByUser(userId)) {
+            long count = (Long) row[1];
+            if (row[0] == PledgeCheck.Status.MET) {
+                met = count;
+            } else {
+                violated = count;
+                forfeited = row[2] != null ? ((Number) row[2]).longValue() : 0;
+            }
+        }
+        return new BootstrapDTO.Stats(met, violated, forfeited);
+    }
+
+    /** Rethrows a sub-query's own exception rather than the CompletionException around it. */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
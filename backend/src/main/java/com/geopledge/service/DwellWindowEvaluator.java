@@ -0,0 +1,303 @@
+package com.geopledge.service;
+
+import com.geopledge.dto.LocationFixDTO;
+import com.geopledge.dto.TrackPointDTO;
+import com.geopledge.model.Pledge;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.repository.PledgeRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Window-based evaluation (app.evaluation.mode=dwell).
+ *
+ * Instead of needing a fix in the exact scheduled minute, each pledge slot opens a
+ * window of ±window-minutes around it. Fixes landing in the window fold into a small
+ * per-pledge state in O(1): time inside the radius and first/last inside timestamps.
+ * When the window closes the slot is decided once – MET if the user was inside for at
+ * least min-dwell-seconds, VIOLATED otherwise (including when no fix arrived at all).
+ * A late or skipped sweep tick catches up on the slot minutes it missed (up to
+ * app.evaluation.catch-up-minutes).
+ *
+ * Windows live in memory, so a slot with no window here may still have fixes that
+ * reached an earlier process: before calling it "no fix" the window is rebuilt from
+ * the {@link TrackStore}. Only a track that keeps every fix is used – dwell time from
+ * a simplified track would count only the kept points. A slot whose window opened
+ * before this process started is never decided as "no fix", since fixes lost in a
+ * crash would look the same.
+ *
+ * Only pledges of users in partitions this instance owns ({@link PartitionOwnership})
+ * are decided. With several instances a user's fixes may land on any of them, so the
+ * owner decides from the track, which holds every instance's fixes once flushed:
+ * decisions wait a grace period of one track flush after the window closes, and
+ * windows of other users are dropped. Without a full track the owner cannot see the
+ * other instances' fixes, so it only decides the slots its own fixes already met.
+ */
+@Slf4j
+@Component
+public class DwellWindowEvaluator {
+
+    private final PledgeRepository pledgeRepo;
+    private final PledgeCheckWriter checkWriter;
+    private final GeofenceService geofenceService;
+    private final PledgeGeometry geometry;
+    private final PartitionOwnership ownership;
+    private final TrackStore trackStore;
+    private final Clock clock;
+    private final long bootMs;
+    private final boolean enabled;
+    private final long windowMs;
+    private final int windowMinutes;
+    private final long minDwellMs;
+    private final boolean shared;
+    private final long graceMs;
+    private final int catchUpMinutes;
+    private ZonedDateTime lastDecided; // last slot minute swept for no-fix slots; scheduler thread only
+
+    private final Map<UUID, Window> windows = new ConcurrentHashMap<>();
+
+    public DwellWindowEvaluator(PledgeRepository pledgeRepo,
+                                PledgeCheckWriter checkWriter,
+                                GeofenceService geofenceService,
+                                PledgeGeometry geometry,
+                                PartitionOwnership ownership,
+                                TrackStore trackStore,
+                                Clock clock,
+                                @Value("${app.evaluation.mode:point}") String mode,
+                                @Value("${app.evaluation.window-minutes:10}") int windowMinutes,
+                                @Value("${app.evaluation.min-dwell-seconds:0}") long minDwellSeconds,
+                                @Value("${app.evaluation.catch-up-minutes:15}") int catchUpMinutes,
+                                @Value("${app.track.flush-ms:60000}") long trackFlushMs) {
+        this.pledgeRepo = pledgeRepo;
+        this.checkWriter = checkWriter;
+        this.geofenceService = geofenceService;
+        this.geometry = geometry;
+        this.ownership = ownership;
+        this.trackStore = trackStore;
+        this.clock = clock;
+        this.bootMs = clock.millis();
+        this.enabled = "dwell".equalsIgnoreCase(mode);
+        this.windowMinutes = windowMinutes;
+        this.windowMs = TimeUnit.MINUTES.toMillis(windowMinutes);
+        this.minDwellMs = TimeUnit.SECONDS.toMillis(minDwellSeconds);
+        this.catchUpMinutes = catchUpMinutes;
+        this.shared = ownership.isEnabled();
+        // whole minutes, since the sweep runs once a minute, plus one for the flush itself
+        this.graceMs = shared ? TimeUnit.MINUTES.toMillis((trackFlushMs + 59_999) / 60_000 + 1) : 0;
+        if (enabled && shared && !trackStore.keepsEveryFix()) {
+            log.warn("Dwell evaluation across instances needs app.track.enabled=true and simplify-meters=0: "
+                    + "slots not met by this instance's own fixes stay undecided");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int openWindows() {
+        return windows.size();
+    }
+
+    public long windowSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(windowMs);
+    }
+
+    /** Whether {@code t} falls inside one of the pledge's windows, i.e. fixes count now. */
+    public boolean isWindowOpen(Pledge p, ZonedDateTime t) {
+        return enabled && slotAround(p, t) != null;
+    }
+
+    /**
+     * Fold one fix into the pledge's open window, if the fix falls inside one.
+     * A {@code suspect} fix that lands inside the radius marks the eventual decision suspect.
+     */
+    public void observe(Pledge p, LocationFixDTO fix, ZonedDateTime t, boolean suspect) {
+        ZonedDateTime slot = slotAround(p, t);
+        if (slot == null) return;
+        long slotMs = slot.toInstant().toEpochMilli();
+        if (clock.millis() > slotMs + windowMs) return; // already decided
+
+        boolean inside = geometry.contains(p, fix.lat(), fix.lon());
+        long at = fix.at().toEpochMilli();
+
+        windows.compute(p.getId(), (id, w) -> {
+            if (w == null || w.slotMs != slotMs) w = new Window(slotMs);
+            w.add(at, inside, fix.lat(), fix.lon());
+            if (inside && suspect) w.suspect = true;
+            return w;
+        });
+    }
+
+    /** The slot whose window contains {@code t}, or null. Windows may straddle midnight. */
+    private ZonedDateTime slotAround(Pledge p, ZonedDateTime t) {
+        for (int offset = -1; offset <= 1; offset++) {
+            ZonedDateTime slot = t.toLocalDate().plusDays(offset)
+                    .atTime(p.getTimeHour(), p.getTimeMinute())
+                    .atZone(t.getZone());
+            if (!p.getDaysOfWeek().contains(PledgeSchedule.dayIndex(slot))) continue;
+            if (Math.abs(ChronoUnit.MILLIS.between(slot, t)) <= windowMs) return slot;
+        }
+        return null;
+    }
+
+    /** Every minute, decide the windows that have closed, plus any slot minute a late or skipped tick missed. */
+    @Scheduled(cron = "0 * * * * *")
+    @Transactional
+    public void closeDueWindows() {
+        if (!enabled) return;
+        ZonedDateTime now = ZonedDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES);
+        long nowMs = now.toInstant().toEpochMilli();
+        Predicate<UUID> owned = ownership.ownedUsers();
+
+        /* 1️⃣ windows that saw fixes */
+        int undecided = 0;
+        Map<UUID, Window> closed = new HashMap<>();
+        for (Map.Entry<UUID, Window> e : windows.entrySet()) {
+            Window w = e.getValue();
+            if (w.slotMs + windowMs + graceMs <= nowMs && windows.remove(e.getKey(), w)) {
+                closed.put(e.getKey(), w);
+            }
+        }
+        for (Pledge p : pledgeRepo.findAllById(closed.keySet())) {
+            Window w = closed.get(p.getId());
+            if (!p.isActive() || !owned.test(p.getUserId())) continue;
+            if (geofenceService.isTracked(p.getId())) continue;
+            if (shared) {
+                // the other instances' fixes too; the suspect flag only exists here
+                Window all = fromTrack(p, w.slotMs);
+                if (all != null) {
+                    all.suspect = w.suspect;
+                    w = all;
+                } else if (!met(w)) {
+                    undecided++; // another instance's fixes may have met it
+                    continue;
+                }
+            }
+            decide(p, w, now.getZone());
+        }
+
+        /* 2️⃣ slots whose window ended (plus the grace) without a fix seen here */
+        ZonedDateTime due = now.minusMinutes(windowMinutes).minus(graceMs, ChronoUnit.MILLIS);
+        ZonedDateTime slot = lastDecided == null ? due : lastDecided.plusMinutes(1);
+        if (slot.isBefore(due.minusMinutes(catchUpMinutes))) {
+            log.warn("Dwell sweep fell {} minutes behind; deciding only the last {}",
+                    ChronoUnit.MINUTES.between(slot, due), catchUpMinutes);
+            slot = due.minusMinutes(catchUpMinutes);
+        }
+        for (; !slot.isAfter(due); slot = slot.plusMinutes(1)) {
+            undecided += decideUnseen(slot, closed.keySet(), owned);
+            lastDecided = slot;
+        }
+        if (undecided > 0) {
+            log.info("Left {} slots up to {} undecided: no complete track, and fixes may have gone to "
+                    + "an earlier process or another instance", undecided, due);
+        }
+    }
+
+    /** Decide the slots at {@code slot} that no window here saw; @return how many were left undecided. */
+    private int decideUnseen(ZonedDateTime slot, Set<UUID> seen, Predicate<UUID> owned) {
+        long slotMs = slot.toInstant().toEpochMilli();
+        boolean openedBeforeBoot = slotMs - windowMs < bootMs;
+        int undecided = 0;
+        for (Pledge p : pledgeRepo.findByActiveTrueAndTimeHourAndTimeMinute(slot.getHour(), slot.getMinute())) {
+            if (seen.contains(p.getId())) continue;
+            if (!owned.test(p.getUserId())) continue;
+            if (!p.getDaysOfWeek().contains(PledgeSchedule.dayIndex(slot))) continue;
+            if (geofenceService.isTracked(p.getId())) continue;
+            Window w = fromTrack(p, slotMs);
+            if (w != null) {
+                decide(p, w, slot.getZone()); // fixes that went to an earlier process
+            } else if (openedBeforeBoot || (shared && !trackStore.keepsEveryFix())) {
+                undecided++;
+            } else {
+                // no position at all – record the fence centre
+                checkWriter.write(p, PledgeCheck.Status.VIOLATED,
+                        p.getTargetLatitude(), p.getTargetLongitude(),
+                        slot, PledgeCheck.Source.DWELL);
+            }
+        }
+        return undecided;
+    }
+
+    private boolean met(Window w) {
+        return w.firstInside > 0 && w.insideMs >= minDwellMs;
+    }
+
+    private void decide(Pledge p, Window w, ZoneId zone) {
+        boolean met = met(w);
+        checkWriter.write(p,
+                met ? PledgeCheck.Status.MET : PledgeCheck.Status.VIOLATED,
+                met ? w.insideLat : w.lastLat,
+                met ? w.insideLon : w.lastLon,
+                w.slot(zone), PledgeCheck.Source.DWELL, met && w.suspect);
+    }
+
+    /** The slot's window rebuilt from the full stored track, or null if there is none or no fix in it. */
+    private Window fromTrack(Pledge p, long slotMs) {
+        if (!trackStore.keepsEveryFix()) return null;
+        List<TrackPointDTO> points = trackStore.read(p.getUserId(),
+                        Instant.ofEpochMilli(slotMs - windowMs), Instant.ofEpochMilli(slotMs + windowMs + 1_000))
+                .sorted(Comparator.comparing(TrackPointDTO::at))
+                .toList();
+        if (points.isEmpty()) return null;
+        Window w = new Window(slotMs); // the track keeps no suspect flag
+        for (TrackPointDTO pt : points) {
+            w.add(pt.at().toEpochMilli(), geometry.contains(p, pt.lat(), pt.lon()), pt.lat(), pt.lon());
+        }
+        return w;
+    }
+
+    /** Incremental state of one pledge's window; only touched inside map.compute. */
+    private static final class Window {
+        final long slotMs;
+        long insideMs;
+        long firstInside;
+        long lastInside;
+        long lastFixMs;
+        boolean lastWasInside;
+        boolean suspect;
+        double lastLat, lastLon;
+        double insideLat, insideLon;
+
+        Window(long slotMs) {
+            this.slotMs = slotMs;
+        }
+
+        void add(long at, boolean inside, double lat, double lon) {
+            if (at < lastFixMs) return; // out of order – keep the state monotonic
+            if (inside && lastWasInside) insideMs += at - lastFixMs;
+            if (inside) {
+                if (firstInside == 0) firstInside = at;
+                lastInside = at;
+                insideLat = lat;
+                insideLon = lon;
+            }
+            lastFixMs = at;
+            lastWasInside = inside;
+            lastLat = lat;
+            lastLon = lon;
+        }
+
+        ZonedDateTime slot(ZoneId zone) {
+            return Instant.ofEpochMilli(slotMs).atZone(zone);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.geopledge.service;
+
+import com.geopledge.util.GeoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Inline spoofing check on the fix stream, run before a fix is evaluated.
+ *
+ * Keeps O(1) state per user – the last accepted fix, a smoothed speed and a decaying
+ * anomaly score – and compares each new fix against it without touching the database.
+ * A fix is suspect when it implies a speed no traveller reaches (max-speed-mps), when it
+ * jumps further than teleport-meters at a speed far above the user's recent motion,
+ * or while the score from recent hits stays above score-threshold.
+ *
+ * Suspect fixes never move the reference point, so a spoofed position only becomes
+ * acceptable once enough time has passed for the jump to be physically possible.
+ *
+ * Both the fix time and the accuracy come from the client, so neither is taken at its
+ * word: the time between two fixes counts for at most the time between their arrival
+ * plus max-skew-seconds (which still lets a batch of older fixes through), a fix dated
+ * more than max-skew-seconds ahead of its arrival is a hit, and the accuracy is capped
+ * at max-accuracy-factor times assumed-accuracy-meters.
+ * No allocation on the steady-state path: the per-user track is created once.
+ */
+@Slf4j
+@Component
+public class FixAnomalyDetector {
+
+    public enum Verdict { OK, SUSPECT }
+
+    public enum Action { TAG, WITHHOLD }
+
+    private static final Function<UUID, Track> NEW_TRACK = id -> new Track();
+
+    private final boolean enabled;
+    private final Action action;
+    private final double maxSpeedMps;
+    private final double groundSpeedMps;
+    private final double teleportMeters;
+    private final double teleportFactor;
+    private final double speedAlpha;
+    private final double scoreDecay;
+    private final double scoreThreshold;
+    private final double assumedAccuracy;
+    private final double maxAccuracy;
+    private final long maxSkewMs;
+    private final long idleMs;
+    private final Clock clock;
+
+    private final Map<UUID, Track> tracks = new ConcurrentHashMap<>();
+
+    public FixAnomalyDetector(@Value("${app.anomaly.enabled:true}") boolean enabled,
+                              @Value("${app.anomaly.action:tag}") String action,
+                              @Value("${app.anomaly.max-speed-mps:280}") double maxSpeedMps,
+                              @Value("${app.anomaly.ground-speed-mps:70}") double groundSpeedMps,
+                              @Value("${app.anomaly.teleport-meters:2000}") double teleportMeters,
+                              @Value("${app.anomaly.teleport-factor:4}") double teleportFactor,
+                              @Value("${app.anomaly.speed-alpha:0.3}") double speedAlpha,
+                              @Value("${app.anomaly.score-decay:0.8}") double scoreDecay,
+                              @Value("${app.anomaly.score-threshold:2}") double scoreThreshold,
+                              @Value("${app.anomaly.assumed-accuracy-meters:50}") double assumedAccuracy,
+                              @Value("${app.anomaly.max-accuracy-factor:4}") double maxAccuracyFactor,
+                              @Value("${app.anomaly.max-skew-seconds:900}") long maxSkewSeconds,
+                              @Value("${app.anomaly.idle-minutes:720}") long idleMinutes,
+                              Clock clock) {
+        this.enabled = enabled;
+        this.action = Action.valueOf(action.trim().toUpperCase());
+        this.maxSpeedMps = maxSpeedMps;
+        this.groundSpeedMps = groundSpeedMps;
+        this.teleportMeters = teleportMeters;
+        this.teleportFactor = teleportFactor;
+        this.speedAlpha = speedAlpha;
+        this.scoreDecay = scoreDecay;
+        this.scoreThreshold = scoreThreshold;
+        this.assumedAccuracy = assumedAccuracy;
+        this.maxAccuracy = assumedAccuracy * maxAccuracyFactor;
+        this.maxSkewMs = TimeUnit.SECONDS.toMillis(maxSkewSeconds);
+        this.clock = clock;
+        this.idleMs = TimeUnit.MINUTES.toMillis(idleMinutes);
+    }
+
+    public Action action() {
+        return action;
+    }
+
+    public int trackedUsers() {
+        return tracks.size();
+    }
+
+    /**
+     * Score one fix for {@code userId}, arriving now. {@code accuracyMeters} may be NaN
+     * when the client did not report it (assumed-accuracy-meters is used instead); the
+     * capped accuracy of both fixes is subtracted from the jump so a noisy-but-honest
+     * fix is not mistaken for a teleport.
+     */
+    public Verdict assess(UUID userId, double lat, double lon, long atMillis, double accuracyMeters) {
+        if (!enabled) return Verdict.OK;
+        Track t = tracks.get(userId);
+        if (t == null) t = tracks.computeIfAbsent(userId, NEW_TRACK);
+
+        synchronized (t) {
+            double accuracy = Double.isNaN(accuracyMeters) ? assumedAccuracy : Math.min(accuracyMeters, maxAccuracy);
+            long now = clock.millis();
+            t.seenMillis = now;
+            boolean future = atMillis > now + maxSkewMs;
+
+            /* 1️⃣ first fix: nothing to compare against */
+            if (t.atMillis == 0 && !future) {
+                t.accept(lat, lon, atMillis, accuracy, now);
+                return Verdict.OK;
+            }
+
+            /* 2️⃣ jump beyond what both fixes' accuracy explains, over no more time than has passed */
+            double jump = GeoUtils.haversine(t.lat, t.lon, lat, lon) - accuracy - t.accuracy;
+            long elapsed = Math.min(Math.abs(atMillis - t.atMillis), Math.abs(now - t.receivedMillis) + maxSkewMs);
+            double seconds = Math.max(elapsed, 1000) / 1000.0;
+            double speed = t.atMillis == 0 ? 0 : Math.max(jump, 0) / seconds;
+
+            /* 3️⃣ impossible speed, a sudden teleport out of recent motion, or a time yet to come */
+            boolean impossible = future || speed > maxSpeedMps;
+            boolean teleport = jump > teleportMeters
+                    && speed > groundSpeedMps
+                    && speed > teleportFactor * t.speed;
+            boolean hit = impossible || teleport;
+
+            t.score = t.score * scoreDecay + (hit ? 1 : 0);
+            if (hit) return Verdict.SUSPECT;  // keep the last trusted position
+
+            /* 4️⃣ plausible – advance the reference point (out-of-order fixes only score) */
+            if (atMillis > t.atMillis) {
+                t.speed += speedAlpha * (speed - t.speed);
+                t.accept(lat, lon, atMillis, accuracy, now);
+            }
+            return t.score >= scoreThreshold ? Verdict.SUSPECT : Verdict.OK;
+        }
+    }
+
+    /** Drop users we have not heard from in a while. */
+    @Scheduled(fixedDelayString = "${app.anomaly.sweep-ms:600000}")
+    public void evictIdle() {
+        long cutoff = clock.millis() - idleMs;
+        int before = tracks.size();
+        tracks.values().removeIf(t -> t.seenMillis < cutoff);
+        int evicted = before - tracks.size();
+        if (evicted > 0) log.debug("Evicted {} idle fix tracks", evicted);
+    }
+
+    /** Last accepted fix plus running estimates; guarded by its own monitor. */
+    private static final class Track {
+        double lat, lon, accuracy;
+        long atMillis, receivedMillis;
+        double speed;
+        double score;
+        volatile long seenMillis;
+
+        void accept(double lat, double lon, long atMillis, double accuracy, long receivedMillis) {
+            this.lat = lat;
+            this.lon = lon;
+            this.atMillis = atMillis;
+            this.accuracy = accuracy;
+            this.receivedMillis = receivedMillis;
+        }
+    }
+}
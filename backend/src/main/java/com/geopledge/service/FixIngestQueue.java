@@ -0,0 +1,218 @@
+package com.geopledge.service;
+
+import com.geopledge.dto.LocationFixDTO;
+import com.geopledge.journal.FixJournal;
+import com.geopledge.util.FixRingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Async ingestion of location fixes (app.ingest.mode=async).
+ *
+ * Fixes are partitioned by user into bounded rings, each drained in order by a
+ * single consumer thread that runs the normal {@link PledgeService#recordFix}
+ * evaluation. A full partition rejects the fix so the caller can answer 429
+ * instead of queueing without limit. On shutdown intake stops and whatever is
+ * already queued is evaluated before the consumers exit.
+ *
+ * A fix is journaled as it is queued, before the 202. Every checkpoint-ms the sequence
+ * of the oldest fix not yet evaluated goes into the journal's checkpoint (in sync mode
+ * that is the next sequence: no fix is answered before it is evaluated), and on
+ * startup everything from the checkpoint on is evaluated again before intake opens.
+ * Replay is at-least-once: fixes evaluated after the last checkpoint count twice.
+ *
+ * A fix is acknowledged before it is evaluated, so a transient database failure
+ * (SQLITE_BUSY and the like) is retried with backoff, up to max-attempts, rather than
+ * dropping it.
+ */
+@Slf4j
+@Component
+public class FixIngestQueue {
+
+    private final PledgeService pledgeService;
+    private final FixJournal journal;
+    private final FixRingBuffer.Sequencer sequencer;
+    private final boolean enabled;
+    private final int partitions;
+    private final int partitionCapacity;
+    private final int retryAfterSeconds;
+    private final long shutdownTimeoutMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    private FixRingBuffer[] rings;
+    private Thread[] consumers;
+    private volatile boolean accepting;
+    private long checkpointed;
+
+    public FixIngestQueue(PledgeService pledgeService,
+                          FixJournal journal,
+                          @Value("${app.ingest.mode:sync}") String mode,
+                          @Value("${app.ingest.partitions:4}") int partitions,
+                          @Value("${app.ingest.partition-capacity:1024}") int partitionCapacity,
+                          @Value("${app.ingest.retry-after-seconds:1}") int retryAfterSeconds,
+                          @Value("${app.ingest.shutdown-timeout-seconds:30}") int shutdownTimeoutSeconds,
+                          @Value("${app.ingest.max-attempts:5}") int maxAttempts,
+                          @Value("${app.ingest.retry-backoff-ms:50}") long retryBackoffMs) {
+        this.pledgeService = pledgeService;
+        this.journal = journal;
+        this.sequencer = journal::append;
+        this.enabled = "async".equalsIgnoreCase(mode);
+        this.partitions = partitions;
+        this.partitionCapacity = partitionCapacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.shutdownTimeoutMs = TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        replay(); // in either mode: the last run may have been async
+        if (!enabled) return;
+        rings = new FixRingBuffer[partitions];
+        consumers = new Thread[partitions];
+        for (int i = 0; i < partitions; i++) {
+            FixRingBuffer ring = new FixRingBuffer(partitionCapacity);
+            rings[i] = ring;
+            consumers[i] = new Thread(() -> consume(ring), "fix-ingest-" + i);
+            consumers[i].start();
+        }
+        accepting = true;
+        log.info("Async fix ingestion: {} partitions x {} slots", partitions, rings[0].capacity());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /** @return false when the user's partition is full or the queue is shutting down */
+    public boolean publish(UUID userId, LocationFixDTO fix) {
+        if (!accepting) return false;
+        FixRingBuffer ring = rings[Math.floorMod(userId.hashCode(), partitions)];
+        return ring.offer(userId, fix.lat(), fix.lon(), fix.at().toEpochMilli(),
+                fix.accuracy() != null ? fix.accuracy() : Double.NaN, sequencer);
+    }
+
+    /** Fixes waiting across all partitions. */
+    public int depth() {
+        if (!enabled) return 0;
+        int total = 0;
+        for (FixRingBuffer ring : rings) total += ring.size();
+        return total;
+    }
+
+    private void consume(FixRingBuffer ring) {
+        FixRingBuffer.Slot slot = new FixRingBuffer.Slot();
+        while (true) {
+            boolean got;
+            try {
+                got = ring.poll(slot, 200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!got) {
+                if (!accepting) return;   // drained after shutdown
+                continue;
+            }
+            if (!evaluate(new UUID(slot.userHi, slot.userLo), slot.lat, slot.lon, slot.epochMillis, slot.accuracy)) {
+                return; // interrupted: left pending, so the next start replays it
+            }
+            ring.done();
+        }
+    }
+
+    /** @return false only when interrupted while backing off */
+    private boolean evaluate(UUID userId, double lat, double lon, long atMillis, double accuracy) {
+        LocationFixDTO fix = new LocationFixDTO(lat, lon, Instant.ofEpochMilli(atMillis),
+                Double.isNaN(accuracy) ? null : accuracy);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                pledgeService.recordJournaledFix(userId, fix);
+                return true;
+            } catch (TransientDataAccessException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Fix evaluation for user {} still failing after {} attempts, dropped: {}",
+                            userId, attempt, e.getMessage(), e);
+                    return true;
+                }
+                log.debug("Fix evaluation for user {} failed (attempt {}), retrying: {}", userId, attempt, e.getMessage());
+                try {
+                    Thread.sleep(retryBackoffMs << (attempt - 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Fix evaluation failed for user {}: {}", userId, e.getMessage(), e);
+                return true;
+            }
+        }
+    }
+
+    /** Evaluate the fixes the last run journaled but may not have evaluated, oldest first. */
+    private void replay() throws IOException {
+        if (!journal.isEnabled()) return;
+        long from = journal.checkpoint();
+        long[] replayed = {0};
+        journal.replay(from, r -> {
+            evaluate(r.userId(), r.lat(), r.lon(), r.atMillis(), r.accuracy());
+            replayed[0]++;
+        });
+        if (replayed[0] > 0) log.info("Replayed {} journaled fixes from #{}", replayed[0], from);
+        checkpoint();
+    }
+
+    /** Sequence before which every journaled fix has been evaluated. */
+    long evaluatedBefore() {
+        long next = journal.nextSequence();
+        if (rings == null) return next; // sync mode, or replaying before the rings exist
+        long oldest = next;
+        for (FixRingBuffer ring : rings) oldest = Math.min(oldest, ring.oldestPending(next));
+        return oldest;
+    }
+
+    @Scheduled(fixedDelayString = "${app.journal.checkpoint-ms:1000}")
+    synchronized void checkpoint() {
+        if (!journal.isEnabled()) return;
+        long at = evaluatedBefore();
+        if (at == checkpointed) return;
+        try {
+            journal.checkpoint(at);
+            checkpointed = at;
+        } catch (IOException e) {
+            log.warn("Fix journal checkpoint failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (enabled) {
+            accepting = false;
+            long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+            for (Thread consumer : consumers) {
+                consumer.join(Math.max(1, deadline - System.currentTimeMillis()));
+                if (consumer.isAlive()) {
+                    log.warn("{} did not drain within the shutdown timeout", consumer.getName());
+                    consumer.interrupt();
+                }
+            }
+        }
+        checkpoint(); // whatever is still queued is replayed on the next start
+    }
+}
@@ -0,0 +1,9 @@
+package com.geopledge.service;
+
+import com.geopledge.dto.NextFixHintDTO;
+import com.geopledge.model.PledgeCheck;
+
+import java.util.List;
+
+/** What {@link PledgeService#recordFix} did with one fix. */
+public record FixOutcome(List<PledgeCheck> checks, NextFixHintDTO hint) {}
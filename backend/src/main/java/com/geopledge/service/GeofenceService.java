@@ -0,0 +1,276 @@
+package com.geopledge.service;
+
+import com.geopledge.dto.GeofenceDTO;
+import com.geopledge.dto.GeofenceEventDTO;
+import com.geopledge.dto.GeofenceManifestDTO;
+import com.geopledge.event.PledgeDeactivatedEvent;
+import com.geopledge.model.Pledge;
+import com.geopledge.model.GeofenceState;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.repository.GeofenceStateRepository;
+import com.geopledge.repository.PledgeRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Client-side geofencing: the app registers the fences from {@link #manifest} with the OS
+ * and reports ENTER/EXIT transitions instead of streaming raw GPS.
+ *
+ * The server keeps one inside/outside flag per reporting pledge, updated in O(1) per
+ * event, and a once-a-minute sweep turns that flag into a MET/VIOLATED check for every
+ * pledge whose slot is this minute. Pledges tracked here are skipped by the per-fix
+ * evaluation in {@link PledgeService#recordFix}.
+ *
+ * A late or skipped tick catches up on the minutes it missed (up to
+ * app.geofence.catch-up-minutes), deciding each from the flag as it stood at that slot.
+ *
+ * The state is in memory only; after a restart a pledge falls back to fix-based
+ * evaluation until its next transition arrives. With several instances
+ * (app.partitions.enabled=true) a user's events may reach any of them, so every
+ * transition is also written to geofence_states, and the sweep – run for users in
+ * partitions this instance owns ({@link PartitionOwnership}) – decides from there.
+ */
+@Slf4j
+@Service
+public class GeofenceService {
+
+    private final PledgeRepository pledgeRepo;
+    private final GeofenceStateRepository stateRepo;
+    private final PledgeCheckWriter checkWriter;
+    private final PledgeVersionTracker versionTracker;
+    private final PartitionOwnership ownership;
+    private final Clock clock;
+    private final boolean shared;
+    private final int manifestRuns;
+    private final int catchUpMinutes;
+
+    private final Map<UUID, FenceState> states = new ConcurrentHashMap<>();
+    private ZonedDateTime lastEvaluated; // only touched by the scheduler thread
+
+    public GeofenceService(PledgeRepository pledgeRepo,
+                           GeofenceStateRepository stateRepo,
+                           PledgeCheckWriter checkWriter,
+                           PledgeVersionTracker versionTracker,
+                           PartitionOwnership ownership,
+                           Clock clock,
+                           @Value("${app.geofence.manifest-runs:7}") int manifestRuns,
+                           @Value("${app.geofence.catch-up-minutes:15}") int catchUpMinutes) {
+        this.pledgeRepo = pledgeRepo;
+        this.stateRepo = stateRepo;
+        this.checkWriter = checkWriter;
+        this.versionTracker = versionTracker;
+        this.ownership = ownership;
+        this.clock = clock;
+        this.shared = ownership.isEnabled();
+        this.manifestRuns = manifestRuns;
+        this.catchUpMinutes = catchUpMinutes;
+    }
+
+    public long manifestVersion(UUID userId) {
+        return versionTracker.currentVersion(userId);
+    }
+
+    /** Fences for all of the user's active pledges with their next evaluation windows. */
+    public GeofenceManifestDTO manifest(UUID userId) {
+        long version = manifestVersion(userId);
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        List<GeofenceDTO> fences = new ArrayList<>();
+        for (Pledge p : pledgeRepo.findByUserIdAndActiveTrue(userId)) {
+            if (p.getPolygon() != null) continue; // OS geofences are circles – evaluated from fixes
+            List<GeofenceDTO.Window> windows = new ArrayList<>();
+            for (ZonedDateTime run : PledgeSchedule.upcomingRuns(p, now, manifestRuns)) {
+                windows.add(new GeofenceDTO.Window(run, run.plusMinutes(1)));
+            }
+            fences.add(new GeofenceDTO(p.getId(), p.getTargetLatitude(), p.getTargetLongitude(),
+                    p.getRadiusMeters(), windows));
+        }
+        return new GeofenceManifestDTO(version, fences);
+    }
+
+    /** Whether the pledge is decided by geofence events; with several instances, by any of them. */
+    public boolean isTracked(UUID pledgeId) {
+        return shared ? stateRepo.existsById(pledgeId.toString()) : states.containsKey(pledgeId);
+    }
+
+    public int trackedCount() {
+        return shared ? (int) stateRepo.count() : states.size();
+    }
+
+    /**
+     * Apply transitions in order; events for unknown or foreign pledges are ignored.
+     * With several instances they go straight to geofence_states, with no local copy
+     * that a failed write could leave behind.
+     */
+    @Transactional
+    public void applyEvents(UUID userId, List<GeofenceEventDTO> events) {
+        for (GeofenceEventDTO e : events) {
+            if (shared) {
+                applyShared(userId, e);
+                continue;
+            }
+            FenceState state = states.get(e.pledgeId());
+            if (state == null) {
+                Optional<Pledge> pledge = pledgeRepo.findById(e.pledgeId())
+                        .filter(p -> p.isActive() && p.getUserId().equals(userId) && p.getPolygon() == null);
+                if (pledge.isEmpty()) {
+                    log.debug("Ignoring geofence event for pledge {} from user {}", e.pledgeId(), userId);
+                    continue;
+                }
+                state = states.computeIfAbsent(e.pledgeId(), id -> new FenceState(pledge.get()));
+            } else if (!state.userId.equals(userId)) {
+                continue;
+            }
+            state.apply(e.type() == GeofenceEventDTO.Type.ENTER, e.at());
+        }
+    }
+
+    private void applyShared(UUID userId, GeofenceEventDTO e) {
+        Optional<Pledge> pledge = pledgeRepo.findById(e.pledgeId())
+                .filter(p -> p.isActive() && p.getUserId().equals(userId) && p.getPolygon() == null);
+        if (pledge.isEmpty()) {
+            log.debug("Ignoring geofence event for pledge {} from user {}", e.pledgeId(), userId);
+            return;
+        }
+        Pledge p = pledge.get();
+        stateRepo.apply(p.getId().toString(), userId.toString(), e.type() == GeofenceEventDTO.Type.ENTER,
+                e.at().toEpochMilli(), FenceState.dayMask(p), p.getTimeHour(), p.getTimeMinute());
+    }
+
+    /**
+     * Stop tracking, e.g. once the pledge is deactivated. A shared row stays until the
+     * pledge's next sweep finds it inactive; this runs after commit, outside a transaction.
+     */
+    public void forget(UUID pledgeId) {
+        states.remove(pledgeId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onDeactivated(PledgeDeactivatedEvent event) {
+        forget(event.pledge().getId());
+    }
+
+    /**
+     * At the top of every minute, decide the slots that fall in it, plus any minute a
+     * late or skipped tick left undecided since the last run.
+     */
+    @Scheduled(cron = "0 * * * * *")
+    @Transactional
+    public void evaluateDueSlots() {
+        ZonedDateTime current = ZonedDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES);
+        ZonedDateTime slot = lastEvaluated == null ? current : lastEvaluated.plusMinutes(1);
+        if (slot.isBefore(current.minusMinutes(catchUpMinutes))) {
+            log.warn("Geofence sweep fell {} minutes behind; deciding only the last {}",
+                    ChronoUnit.MINUTES.between(slot, current), catchUpMinutes);
+            slot = current.minusMinutes(catchUpMinutes);
+        }
+        for (; !slot.isAfter(current); slot = slot.plusMinutes(1)) {
+            evaluateSlot(slot);
+            lastEvaluated = slot;
+        }
+    }
+
+    void evaluateSlot(ZonedDateTime slot) {
+        if (shared) {
+            evaluateSharedSlot(slot);
+            return;
+        }
+        int day = PledgeSchedule.dayIndex(slot);
+        Predicate<UUID> owned = ownership.ownedUsers();
+        for (Map.Entry<UUID, FenceState> entry : states.entrySet()) {
+            FenceState s = entry.getValue();
+            if (!s.isDue(day, slot.getHour(), slot.getMinute())) continue;
+            if (!owned.test(s.userId)) continue;
+
+            Optional<Pledge> pledge = pledgeRepo.findById(entry.getKey()).filter(Pledge::isActive);
+            if (pledge.isEmpty()) {
+                states.remove(entry.getKey());
+                continue;
+            }
+            Pledge p = pledge.get();
+            PledgeCheck.Status status = s.insideAt(slot.toInstant().toEpochMilli())
+                    ? PledgeCheck.Status.MET : PledgeCheck.Status.VIOLATED;
+            // no measured position for geofence decisions – record the fence centre
+            checkWriter.write(p, status, p.getTargetLatitude(), p.getTargetLongitude(),
+                    slot, PledgeCheck.Source.GEOFENCE);
+        }
+    }
+
+    /** Like {@link #evaluateSlot}, from the flags every instance has written. */
+    private void evaluateSharedSlot(ZonedDateTime slot) {
+        int day = PledgeSchedule.dayIndex(slot);
+        long slotMs = slot.toInstant().toEpochMilli();
+        Predicate<UUID> owned = ownership.ownedUsers();
+        for (GeofenceState s : stateRepo.findByTimeHourAndTimeMinute(slot.getHour(), slot.getMinute())) {
+            if ((s.getDayMask() & (1 << day)) == 0) continue;
+            if (!owned.test(UUID.fromString(s.getUserId()))) continue;
+
+            UUID pledgeId = UUID.fromString(s.getPledgeId());
+            Optional<Pledge> pledge = pledgeRepo.findById(pledgeId).filter(Pledge::isActive);
+            if (pledge.isEmpty()) {
+                stateRepo.deleteById(s.getPledgeId());
+                continue;
+            }
+            Pledge p = pledge.get();
+            boolean inside = slotMs >= s.getSinceAt() ? s.isInside() : s.isInsideBefore();
+            checkWriter.write(p, inside ? PledgeCheck.Status.MET : PledgeCheck.Status.VIOLATED,
+                    p.getTargetLatitude(), p.getTargetLongitude(), slot, PledgeCheck.Source.GEOFENCE);
+        }
+    }
+
+    /** Inside/outside flag plus a copy of the pledge's schedule, so the sweep needs no DB reads. */
+    private static final class FenceState {
+        final UUID userId;
+        final int dayMask;
+        final int hour;
+        final int minute;
+        boolean inside;
+        long sinceMillis;
+        boolean insideBefore; // the flag before the last transition, for slots caught up late
+
+        FenceState(Pledge p) {
+            this.userId = p.getUserId();
+            this.dayMask = dayMask(p);
+            this.hour = p.getTimeHour();
+            this.minute = p.getTimeMinute();
+        }
+
+        static int dayMask(Pledge p) {
+            int mask = 0;
+            for (Integer d : p.getDaysOfWeek()) mask |= 1 << d;
+            return mask;
+        }
+
+        synchronized void apply(boolean enter, Instant at) {
+            long t = at.toEpochMilli();
+            if (t < sinceMillis) return; // stale, out-of-order delivery
+            insideBefore = inside;
+            inside = enter;
+            sinceMillis = t;
+        }
+
+        /** The flag at a past slot, as far as the last transition tells. */
+        synchronized boolean insideAt(long millis) {
+            return millis >= sinceMillis ? inside : insideBefore;
+        }
+
+        boolean isDue(int day, int h, int m) {
+            return (dayMask & (1 << day)) != 0 && hour == h && minute == m;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.geopledge.service;
+
+import com.geopledge.dto.HeatmapTileDTO;
+import com.geopledge.event.PledgeCheckRecordedEvent;
+import com.geopledge.model.HeatmapCell;
+import com.geopledge.model.Pledge;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.repository.HeatmapCellRepository;
+import com.geopledge.repository.PledgeCheckRepository;
+import com.geopledge.repository.PledgeRepository;
+import com.geopledge.util.Geohash;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * MET / VIOLATED counters per geohash cell of the pledge target, at every precision
+ * from min-precision to max-precision.
+ *
+ * Each recorded check bumps one in-memory delta per level; {@link #flush} upserts the
+ * deltas every flush-ms, so the table only ever sees one small write per touched cell.
+ * {@link #generation()} moves whenever a flush changes anything and doubles as the
+ * tile ETag. Backfill rows are not counted – the map shows what users were told live.
+ *
+ * The counters can be recomputed from the live checks ({@link #rebuild}). The rebuild
+ * replaces every cell and writes a marker row in one transaction, so at startup a
+ * missing marker – never seeded, or a seed cut short – simply means "rebuild". It
+ * counts the checks made before it started; deltas for those are dropped, later ones
+ * stay pending, so checks recorded meanwhile are counted once.
+ */
+@Slf4j
+@Service
+public class HeatmapService {
+
+    private final HeatmapCellRepository cellRepo;
+    private final PledgeCheckRepository checkRepo;
+    private final PledgeRepository pledgeRepo;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+    private final int minPrecision;
+    private final int maxPrecision;
+    private final int maxCells;
+
+    /** Cell-table row recording that the counters were rebuilt; never a geohash, so never in a tile. */
+    static final String REBUILT_MARKER = "";
+
+    private Map<String, long[]> pending = new HashMap<>(); // guarded by this
+    /* while a rebuild's query runs: its mark, and the deltas of checks made before it; guarded by this */
+    private ZonedDateTime rebuildMark;
+    private Map<String, long[]> counted;
+    /* serialises flush and rebuild; a lock, not synchronized, since both do I/O */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+
+    public HeatmapService(HeatmapCellRepository cellRepo,
+                          PledgeCheckRepository checkRepo,
+                          PledgeRepository pledgeRepo,
+                          PlatformTransactionManager txManager,
+                          Clock clock,
+                          @Value("${app.heatmap.min-precision:1}") int minPrecision,
+                          @Value("${app.heatmap.max-precision:6}") int maxPrecision,
+                          @Value("${app.heatmap.max-cells:400}") int maxCells) {
+        this.cellRepo = cellRepo;
+        this.checkRepo = checkRepo;
+        this.pledgeRepo = pledgeRepo;
+        this.tx = new TransactionTemplate(txManager);
+        this.clock = clock;
+        this.minPrecision = Math.max(1, minPrecision);
+        this.maxPrecision = Math.min(Geohash.MAX_PRECISION, Math.max(this.minPrecision, maxPrecision));
+        this.maxCells = maxCells;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /** Cells with deltas waiting for the next flush. */
+    public synchronized int pendingCells() {
+        return pending.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCheckRecorded(PledgeCheckRecordedEvent e) {
+        Pledge p = e.pledge();
+        PledgeCheck c = e.check();
+        synchronized (this) {
+            boolean seenByRebuild = rebuildMark != null && c.getCheckedAt().isBefore(rebuildMark);
+            count(seenByRebuild ? counted : pending, p.getTargetLatitude(), p.getTargetLongitude(), c.getStatus(), 1);
+        }
+    }
+
+    /**
+     * Counters for the cells covering the box: the level follows the map zoom, then
+     * steps coarser until the box fits in max-cells. Empty cells are left out.
+     *
+     * @throws IllegalArgumentException if the box is inverted or too big even at min-precision
+     */
+    public HeatmapTileDTO tile(double minLat, double minLon, double maxLat, double maxLon, int zoom) {
+        if (minLat > maxLat || minLon > maxLon) {
+            throw new IllegalArgumentException("bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        int precision = Math.max(minPrecision, Math.min(maxPrecision, (zoom + 1) / 3 + 1));
+        while (Geohash.coverCount(minLat, minLon, maxLat, maxLon, precision) > maxCells) {
+            if (--precision < minPrecision) throw new IllegalArgumentException("bbox too large");
+        }
+
+        List<HeatmapCell> cells = cellRepo.findByGeohashIn(
+                Geohash.cover(minLat, minLon, maxLat, maxLon, precision));
+        String[] hashes = new String[cells.size()];
+        long[] met = new long[cells.size()], violated = new long[cells.size()];
+        for (int i = 0; i < cells.size(); i++) {
+            hashes[i] = cells.get(i).getGeohash();
+            met[i] = cells.get(i).getMet();
+            violated[i] = cells.get(i).getViolated();
+        }
+        return new HeatmapTileDTO(precision, hashes, met, violated);
+    }
+
+    @Scheduled(fixedDelayString = "${app.heatmap.flush-ms:10000}")
+    public void flush() {
+        writeLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        Map<String, long[]> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        try {
+            tx.executeWithoutResult(s -> batch.forEach((hash, d) -> cellRepo.increment(hash, d[0], d[1])));
+            generation.incrementAndGet();
+        } catch (RuntimeException ex) {
+            /* put the deltas back so the next flush retries them */
+            synchronized (this) {
+                batch.forEach((hash, d) -> add(pending, hash, d[0], d[1]));
+            }
+            log.error("Heatmap flush of {} cells failed", batch.size(), ex);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    /** Until a rebuild has completed once – first start, or one cut short – fold in the recorded checks. */
+    @EventListener(ApplicationReadyEvent.class)
+    void seed() {
+        if (cellRepo.existsById(REBUILT_MARKER)) return;
+        log.info("Heatmap seeded from {} cells", rebuild());
+    }
+
+    /**
+     * Replace every counter with one recomputed from the live checks made before now.
+     * Deltas waiting for a flush are dropped, since their checks are already committed
+     * and so counted here, as are deltas for such checks arriving during the query.
+     *
+     * @return the number of cells written
+     */
+    public int rebuild() {
+        writeLock.lock();
+        try {
+            ZonedDateTime mark = ZonedDateTime.now(clock);
+            Map<String, long[]> dropped;
+            synchronized (this) {
+                dropped = counted = pending;
+                pending = new HashMap<>();
+                rebuildMark = mark;
+            }
+            Map<String, long[]> cells = new HashMap<>();
+            try {
+                List<Object[]> rows;
+                try {
+                    rows = checkRepo.countLiveByPledgeAndStatusBefore(mark); // without the monitor: recording goes on
+                } finally {
+                    synchronized (this) {
+                        rebuildMark = null;
+                        counted = null;
+                    }
+                }
+                Map<UUID, Pledge> pledges = pledgeRepo.findAllById(rows.stream().map(r -> (UUID) r[0]).distinct().toList())
+                        .stream().collect(Collectors.toMap(Pledge::getId, Function.identity()));
+                for (Object[] r : rows) {
+                    Pledge p = pledges.get((UUID) r[0]);
+                    if (p != null) {
+                        count(cells, p.getTargetLatitude(), p.getTargetLongitude(), (PledgeCheck.Status) r[1], (Long) r[2]);
+                    }
+                }
+                tx.executeWithoutResult(s -> {
+                    cellRepo.deleteAllInBatch();
+                    cells.forEach((hash, d) -> cellRepo.increment(hash, d[0], d[1]));
+                    cellRepo.increment(REBUILT_MARKER, 0, 0);
+                });
+            } catch (RuntimeException ex) {
+                /* the old counters stand, so the dropped deltas still belong on top of them */
+                synchronized (this) {
+                    dropped.forEach((hash, d) -> add(pending, hash, d[0], d[1]));
+                }
+                throw ex;
+            }
+            generation.incrementAndGet();
+            return cells.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void count(Map<String, long[]> into, double lat, double lon, PledgeCheck.Status status, long n) {
+        String finest = Geohash.encode(lat, lon, maxPrecision);
+        long met = status == PledgeCheck.Status.MET ? n : 0;
+        long violated = status == PledgeCheck.Status.VIOLATED ? n : 0;
+        for (int p = minPrecision; p <= maxPrecision; p++) {
+            add(into, finest.substring(0, p), met, violated);
+        }
+    }
+
+    private static void add(Map<String, long[]> into, String hash, long met, long violated) {
+        long[] d = into.computeIfAbsent(hash, h -> new long[2]);
+        d[0] += met;
+        d[1] += violated;
+    }
+}
@@ -0,0 +1,248 @@
+package com.geopledge.service;
+
+import com.geopledge.model.PartitionLease;
+import com.geopledge.repository.ClusterNodeRepository;
+import com.geopledge.repository.PartitionLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Which users' scheduled work this instance runs (app.partitions.enabled=true).
+ *
+ * Users hash into a fixed number of partitions (every instance must use the same
+ * count). Each partition is leased to one instance through partition_leases; the
+ * owner renews every renew-ms and loses it lease-seconds after it stops. Instances
+ * heartbeat into cluster_nodes, and each partition belongs to the live node that
+ * scores highest for it (rendezvous hashing), so a join or a death moves only that
+ * node's share. A partition changes hands only once its holder has released it or
+ * its lease has expired, and a holder stops treating it as owned one renew-ms before
+ * the lease can expire, so two instances never own it at the same moment.
+ *
+ * Releases on rebalance wait until the next claimer has time to take over before
+ * the next minute's sweep. A dead node's partitions are unswept until its lease
+ * expires. Lease times come from each node's clock, so clocks must agree to well
+ * within a renew interval.
+ *
+ * Only the sweeps are partitioned. Fixes and geofence events may reach any
+ * instance; the evidence the owner's sweep needs is shared through the database –
+ * fixes through the track store, geofence flags through geofence_states – so traffic
+ * needs no routing by user.
+ *
+ * Disabled, this instance owns every partition and touches no table.
+ */
+@Slf4j
+@Service
+public class PartitionOwnership {
+
+    private final PartitionLeaseRepository leaseRepo;
+    private final ClusterNodeRepository nodeRepo;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int count;
+    private final long leaseMs;
+    private final long renewMs;
+    private final String nodeId;
+
+    /** The partitions owned at the last renewal, trusted until validUntil. */
+    private record Owned(BitSet partitions, long validUntil) {}
+
+    private volatile Owned owned = new Owned(new BitSet(), 0);
+    private ScheduledExecutorService renewer;
+
+    public PartitionOwnership(PartitionLeaseRepository leaseRepo,
+                              ClusterNodeRepository nodeRepo,
+                              PlatformTransactionManager txManager,
+                              Clock clock,
+                              @Value("${app.partitions.enabled:false}") boolean enabled,
+                              @Value("${app.partitions.count:64}") int count,
+                              @Value("${app.partitions.lease-seconds:15}") int leaseSeconds,
+                              @Value("${app.partitions.renew-ms:5000}") long renewMs,
+                              @Value("${app.partitions.node-id:}") String nodeId) {
+        this.leaseRepo = leaseRepo;
+        this.nodeRepo = nodeRepo;
+        this.tx = txManager != null ? new TransactionTemplate(txManager) : null;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.count = count;
+        this.leaseMs = TimeUnit.SECONDS.toMillis(leaseSeconds);
+        this.renewMs = renewMs;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        if (enabled && renewMs * 2 >= leaseMs) {
+            throw new IllegalArgumentException("app.partitions.renew-ms must be under half of lease-seconds");
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        tx.executeWithoutResult(s -> {
+            for (int p = 0; p < count; p++) leaseRepo.createIfMissing(p);
+        });
+        renewer = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "partition-lease"));
+        // own thread: a long sweep on the scheduler must not delay renewals
+        renewer.scheduleWithFixedDelay(this::renewSafely, 0, renewMs, TimeUnit.MILLISECONDS);
+        log.info("Partition ownership: node {}, {} partitions, lease {} ms renewed every {} ms",
+                nodeId, count, leaseMs, renewMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public int partitionOf(UUID userId) {
+        return Math.floorMod(userId.hashCode(), count);
+    }
+
+    /** Whether this instance may run scheduled work for the user right now. */
+    public boolean owns(UUID userId) {
+        return !enabled || ownedNow().get(partitionOf(userId));
+    }
+
+    /**
+     * The owned users as of now, for one sweep. Holding on to it for the rest of the
+     * sweep is safe: a released partition goes to a node that sweeps the next minute.
+     */
+    public Predicate<UUID> ownedUsers() {
+        if (!enabled) return userId -> true;
+        BitSet snapshot = ownedNow();
+        return userId -> snapshot.get(partitionOf(userId));
+    }
+
+    /** Partitions currently owned, e.g. for status and tests. */
+    public BitSet ownedPartitions() {
+        if (!enabled) {
+            BitSet all = new BitSet(count);
+            all.set(0, count);
+            return all;
+        }
+        return (BitSet) ownedNow().clone();
+    }
+
+    private BitSet ownedNow() {
+        Owned o = owned;
+        return clock.millis() < o.validUntil() ? o.partitions() : new BitSet();
+    }
+
+    private void renewSafely() {
+        try {
+            renew();
+        } catch (RuntimeException e) {
+            // keep the old snapshot: it lapses on its own at validUntil
+            log.warn("Partition lease renewal failed: {}", e.getMessage());
+        }
+    }
+
+    /** One heartbeat, release, claim and renew round; package-private for tests. */
+    void renew() {
+        long now = clock.millis();
+        Owned previous = owned;
+        BitSet mine = tx.execute(s -> {
+            /* 1️⃣ heartbeat and read who is alive */
+            nodeRepo.heartbeat(nodeId, now);
+            nodeRepo.deleteStale(now - 10 * leaseMs);
+            List<String> alive = nodeRepo.findAliveSince(now - leaseMs);
+
+            /* 2️⃣ per partition: keep, hand over or claim */
+            BitSet result = new BitSet(count);
+            BitSet releasing = new BitSet(count);
+            boolean handover = handoverAllowed(now);
+            for (PartitionLease lease : leaseRepo.findAll()) {
+                int p = lease.getPartition();
+                if (p >= count) continue;
+                boolean wanted = nodeId.equals(preferredOwner(p, alive));
+                boolean held = nodeId.equals(lease.getOwner()) && lease.getExpiresAt() > now;
+                if (held && !wanted && handover) {
+                    releasing.set(p);
+                } else if (held) {
+                    if (leaseRepo.renew(p, nodeId, now + leaseMs) == 1) result.set(p);
+                } else if (wanted && leaseRepo.claim(p, nodeId, now + leaseMs, now) == 1) {
+                    result.set(p);
+                }
+            }
+
+            /* 3️⃣ stop owning before the release commits, never after */
+            if (!releasing.isEmpty()) {
+                Owned o = owned;
+                BitSet kept = (BitSet) o.partitions().clone();
+                kept.andNot(releasing);
+                owned = new Owned(kept, o.validUntil());
+                releasing.stream().forEach(p -> leaseRepo.release(p, nodeId));
+            }
+            return result;
+        });
+
+        /* 4️⃣ trust the result until one renewal before the lease could lapse */
+        owned = new Owned(mine, now + leaseMs - renewMs);
+        if (!mine.equals(previous.partitions())) {
+            log.info("Partitions owned by {}: {}/{}", nodeId, mine.cardinality(), count);
+        }
+    }
+
+    /** Hand over only when the claimer (one renewal away) gets in before the next minute's sweep. */
+    private boolean handoverAllowed(long now) {
+        long untilNextMinute = 60_000 - Math.floorMod(now, 60_000L);
+        return untilNextMinute > 2 * renewMs + 1_000;
+    }
+
+    /** Rendezvous hashing: the alive node with the highest score for the partition. */
+    static String preferredOwner(int partition, List<String> alive) {
+        String best = null;
+        long bestScore = Long.MIN_VALUE;
+        for (String node : alive) {
+            long score = mix(node.hashCode(), partition);
+            if (best == null || score > bestScore || (score == bestScore && node.compareTo(best) < 0)) {
+                best = node;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /** SplitMix64 finaliser over (a, b). */
+    private static long mix(long a, long b) {
+        long z = a * 0x9E3779B97F4A7C15L + b * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Leave cleanly: the others take over on their next renewal instead of after expiry. */
+    @PreDestroy
+    void shutdown() {
+        if (!enabled) return;
+        renewer.shutdownNow();
+        try {
+            renewer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        owned = new Owned(new BitSet(), 0);
+        try {
+            tx.executeWithoutResult(s -> {
+                for (int p = 0; p < count; p++) leaseRepo.release(p, nodeId);
+                nodeRepo.deleteById(nodeId);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not release partitions on shutdown; they free up on expiry: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.geopledge.service;
+
+import com.geopledge.event.PledgeCheckRecordedEvent;
+import com.geopledge.jfr.FixEvents;
+import com.geopledge.model.Pledge;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.repository.PledgeCheckRepository;
+import com.geopledge.repository.PledgeRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * The one place check rows get written, whichever evaluator decided them:
+ * persists the row, stamps the pledge with a new list version and publishes
+ * {@link PledgeCheckRecordedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+public class PledgeCheckWriter {
+
+    private final PledgeRepository pledgeRepo;
+    private final PledgeCheckRepository checkRepo;
+    private final PledgeVersionTracker versionTracker;
+    private final PledgeMetrics metrics;
+    private final ApplicationEventPublisher events;
+    private final Clock clock;
+
+    @Transactional
+    public PledgeCheck write(Pledge p, PledgeCheck.Status status,
+                             double userLat, double userLon,
+                             ZonedDateTime scheduledFor, PledgeCheck.Source source) {
+        return write(p, status, userLat, userLon, scheduledFor, source, false);
+    }
+
+    @Transactional
+    public PledgeCheck write(Pledge p, PledgeCheck.Status status,
+                             double userLat, double userLon,
+                             ZonedDateTime scheduledFor, PledgeCheck.Source source,
+                             boolean suspect) {
+        FixEvents.CheckPersist persist = new FixEvents.CheckPersist();
+        persist.begin();
+        PledgeCheck pc = new PledgeCheck();
+        pc.setId(UUID.randomUUID());
+        pc.setPledgeId(p.getId());
+        pc.setScheduledFor(scheduledFor);
+        pc.setStatus(status);
+        pc.setUserLatitude(userLat);
+        pc.setUserLongitude(userLon);
+        pc.setCheckedAt(ZonedDateTime.now(clock));
+        pc.setSource(source);
+        pc.setSuspect(suspect);
+        checkRepo.save(pc);
+
+        /* bump the list version so dashboards pick up the new status; the column alone,
+           since p may be stale and saving it would undo a concurrent deactivation */
+        pledgeRepo.updateSyncVersion(p.getId(), versionTracker.nextVersion(p.getUserId()));
+
+        metrics.checkRecorded(status);
+        events.publishEvent(new PledgeCheckRecordedEvent(p, pc));
+
+        persist.userPartition = FixEvents.partition(p.getUserId());
+        persist.outcome = status.name();
+        persist.source = source.name();
+        persist.commit();
+        return pc;
+    }
+}
@@ -0,0 +1,255 @@
+package com.geopledge.service;
+
+import com.geopledge.dto.PledgeCheckDTO;
+import com.geopledge.event.PledgeCheckRecordedEvent;
+import com.geopledge.event.PledgeCreatedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process pub/sub that fans pledge and check writes out to the owner's SSE streams.
+ *
+ * An idle subscriber is just an SseEmitter plus a small bounded buffer – no thread.
+ * Publishing only enqueues; a shared pool of dispatch threads does the socket writes,
+ * at most one drain in flight per subscriber. A subscriber whose buffer overflows is
+ * too slow to keep up and is evicted (the client reconnects and re-syncs via the
+ * pledge list ETag). Publishers never touch the emitter: completing it waits for a
+ * send in progress, so the evicted stream is closed by its drain, or the watchdog.
+ *
+ * A send blocks until the socket takes the bytes, so a stalled client would hold a
+ * dispatch thread until Tomcat's write timeout. A watchdog evicts any subscriber
+ * whose send has run past app.sse.send-timeout-seconds and lends the pool one extra
+ * thread until that send gives up, so the other subscribers keep flowing.
+ */
+@Slf4j
+@Component
+public class PledgeEventBroadcaster {
+
+    private final ConcurrentHashMap<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService heartbeat;
+    private final ThreadPoolExecutor platformPool; // null with virtual threads
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final long sendTimeoutNanos;
+
+    public PledgeEventBroadcaster(@Value("${app.sse.subscriber-buffer:32}") int bufferSize,
+                                  @Value("${app.sse.timeout-minutes:30}") long timeoutMinutes,
+                                  @Value("${app.sse.heartbeat-seconds:25}") long heartbeatSeconds,
+                                  @Value("${app.sse.dispatch-threads:2}") int dispatchThreads,
+                                  @Value("${app.sse.send-timeout-seconds:10}") long sendTimeoutSeconds,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.sendTimeoutNanos = TimeUnit.SECONDS.toNanos(sendTimeoutSeconds);
+        AtomicInteger n = new AtomicInteger();
+        /* virtual: a drain per busy subscriber, so one slow socket never holds up the rest */
+        this.platformPool = virtualThreads ? null : new ThreadPoolExecutor(dispatchThreads, dispatchThreads,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> daemon(r, "sse-dispatch-" + n.incrementAndGet()));
+        this.dispatcher = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-dispatch-", 1).factory())
+                : platformPool;
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "sse-heartbeat"));
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        heartbeat.scheduleWithFixedDelay(this::evictStalledSends, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /** Open a stream for the user; it receives every event published for them from now on. */
+    public SseEmitter subscribe(UUID userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber sub = new Subscriber(userId, emitter, bufferSize);
+        // add inside the map's lock, so a concurrent remove() cannot drop the set we add to
+        subscribers.compute(userId, (id, subs) -> {
+            if (subs == null) subs = ConcurrentHashMap.newKeySet();
+            subs.add(sub);
+            return subs;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(sub));
+        emitter.onTimeout(() -> remove(sub));
+        emitter.onError(e -> remove(sub));
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCheckRecorded(PledgeCheckRecordedEvent event) {
+        publish(event.pledge().getUserId(), SseEmitter.event()
+                .name("check")
+                .data(PledgeCheckDTO.from(event.check())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPledgeCreated(PledgeCreatedEvent event) {
+        publish(event.pledge().getUserId(), SseEmitter.event()
+                .name("pledge")
+                .data(event.view()));
+    }
+
+    private void publish(UUID userId, SseEmitter.SseEventBuilder builder) {
+        Set<Subscriber> subs = subscribers.get(userId);
+        if (subs == null) return;
+        Set<DataWithMediaType> event = builder.build(); // serialised once, shared by all subscribers
+        for (Subscriber sub : subs) offer(sub, event);
+    }
+
+    private void offer(Subscriber sub, Set<DataWithMediaType> event) {
+        if (sub.evicted) return;
+        if (!sub.buffer.offer(event)) {
+            log.debug("Evicting slow SSE subscriber for user {}", sub.userId);
+            sub.evicted = true;
+            remove(sub);
+            // falls through: the drain in flight, or a new one, closes it
+        }
+        if (sub.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(sub));
+        }
+    }
+
+    private void drain(Subscriber sub) {
+        do {
+            Set<DataWithMediaType> event;
+            while (!sub.evicted && (event = sub.buffer.poll()) != null) {
+                boolean failed = false;
+                sub.sendStartedNanos = System.nanoTime();
+                try {
+                    sub.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    failed = true;
+                }
+                sub.sendStartedNanos = 0;
+                if (sub.stalled) {
+                    closeStalled(sub);
+                    return;
+                }
+                if (failed) {
+                    sub.evicted = true;
+                    remove(sub);
+                }
+            }
+            if (sub.evicted) {
+                close(sub);
+                return;
+            }
+            sub.draining.set(false);
+            // re-check: an event or an eviction may have come after the last poll but before the flag cleared
+        } while ((!sub.buffer.isEmpty() || sub.evicted) && sub.draining.compareAndSet(false, true));
+    }
+
+    private void sendHeartbeats() {
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        for (Set<Subscriber> subs : subscribers.values()) {
+            for (Subscriber sub : subs) offer(sub, ping);
+        }
+    }
+
+    /**
+     * Drops subscribers stuck in one send past the deadline. The stuck thread can't be
+     * freed (the emitter is locked by the send, and Tomcat's blocking write ignores
+     * interrupts), so the platform pool gets one more thread until the send returns.
+     */
+    private void evictStalledSends() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> subs : subscribers.values()) {
+            for (Subscriber sub : subs) {
+                long started = sub.sendStartedNanos;
+                if (started == 0 || now - started <= sendTimeoutNanos || sub.stalled) continue;
+                log.warn("Evicting SSE subscriber for user {}: send stalled for over {} s",
+                        sub.userId, TimeUnit.NANOSECONDS.toSeconds(sendTimeoutNanos));
+                sub.evicted = true;
+                remove(sub);
+                lendThread();
+                sub.lent.set(true);
+                sub.stalled = true; // only set here, after lending, so the thread is never returned first
+                // the send may have returned before the flag was set; then close it from here
+                if (sub.sendStartedNanos == 0) closeStalled(sub);
+            }
+        }
+    }
+
+    /** Whoever sees the stalled send finished first – drain or watchdog – returns the thread and closes it. */
+    private void closeStalled(Subscriber sub) {
+        if (sub.lent.compareAndSet(true, false)) returnLentThread();
+        close(sub);
+    }
+
+    /** Only from the subscriber's drain, or the watchdog once no send is in progress. */
+    private static void close(Subscriber sub) {
+        if (sub.closed.compareAndSet(false, true)) sub.emitter.complete();
+    }
+
+    private synchronized void lendThread() {
+        if (platformPool == null) return;
+        platformPool.setMaximumPoolSize(platformPool.getMaximumPoolSize() + 1);
+        platformPool.setCorePoolSize(platformPool.getCorePoolSize() + 1);
+    }
+
+    private synchronized void returnLentThread() {
+        if (platformPool == null) return;
+        platformPool.setCorePoolSize(platformPool.getCorePoolSize() - 1);
+        platformPool.setMaximumPoolSize(platformPool.getMaximumPoolSize() - 1);
+    }
+
+    private void remove(Subscriber sub) {
+        // check-and-remove under the map's lock, so a subscribe() racing in keeps its set
+        subscribers.computeIfPresent(sub.userId, (id, subs) -> {
+            if (subs.remove(sub)) subscriberCount.decrementAndGet();
+            return subs.isEmpty() ? null : subs;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(subs -> subs.forEach(sub -> sub.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private static final class Subscriber {
+        final UUID userId;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Set<DataWithMediaType>> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicBoolean lent = new AtomicBoolean(); // a pool thread stands in for its stalled send
+        volatile boolean evicted; // set by whoever drops it; the emitter is completed by close()
+        volatile boolean stalled;
+        volatile long sendStartedNanos; // 0 while no send is in progress
+
+        Subscriber(UUID userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.geopledge.service;
+
+import com.geopledge.event.PledgeDeactivatedEvent;
+import com.geopledge.model.Pledge;
+import com.geopledge.util.GeoUtils;
+import com.geopledge.util.PolygonCodec;
+import com.geopledge.util.PreparedPolygon;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "Is this point inside the pledge's fence?" for every evaluator.
+ *
+ * Circles stay the fast default (one haversine). Polygon pledges are decoded and
+ * prepared into a {@link PreparedPolygon} the first time they are loaded – at startup
+ * for every active pledge via the spatial index – and cached by pledge id; polygons
+ * are immutable, so the cache only drops entries when a pledge is deactivated.
+ */
+@Component
+public class PledgeGeometry {
+
+    private final int grid;
+    private final Map<UUID, PreparedPolygon> prepared = new ConcurrentHashMap<>();
+
+    public PledgeGeometry(@Value("${app.geometry.polygon-grid:32}") int grid) {
+        this.grid = grid;
+    }
+
+    /** The prepared polygon, or null for a circle pledge. */
+    public PreparedPolygon polygonOf(Pledge p) {
+        if (p.getPolygon() == null) return null;
+        return prepared.computeIfAbsent(p.getId(),
+                id -> PreparedPolygon.of(PolygonCodec.decode(p.getPolygon()), grid));
+    }
+
+    public boolean contains(Pledge p, double lat, double lon) {
+        return contains(p, lat, lon, 0);
+    }
+
+    /** Containment with {@code toleranceMeters} of slack outside the fence. */
+    public boolean contains(Pledge p, double lat, double lon, double toleranceMeters) {
+        PreparedPolygon poly = polygonOf(p);
+        if (poly == null) {
+            return GeoUtils.haversine(lat, lon, p.getTargetLatitude(), p.getTargetLongitude())
+                    <= p.getRadiusMeters() + toleranceMeters;
+        }
+        return poly.contains(lat, lon)
+                || (toleranceMeters > 0 && poly.distanceToEdgeMeters(lat, lon) <= toleranceMeters);
+    }
+
+    public int preparedCount() {
+        return prepared.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onDeactivated(PledgeDeactivatedEvent event) {
+        prepared.remove(event.pledge().getId());
+    }
+}
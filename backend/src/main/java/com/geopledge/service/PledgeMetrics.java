@@ -0,0 +1,67 @@
+package com.geopledge.service;
+
+import com.geopledge.model.PledgeCheck;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-path meters, registered once at startup. Callers pass raw
+ * {@code System.nanoTime()} deltas and bump counters directly: no tag lookups,
+ * {@code Timer.Sample}s or lambdas per call, so recording allocates nothing.
+ */
+@Component
+public class PledgeMetrics {
+
+    private final Timer recordFix;
+    private final Timer listPledges;
+    private final Timer login;
+    private final Counter fixesIngested;
+    private final Counter pledgesEvaluated;
+    private final Counter met;
+    private final Counter violated;
+
+    public PledgeMetrics(MeterRegistry registry) {
+        this.recordFix = timer(registry, "geopledge.fix.record", "Evaluating one fix against the user's pledges");
+        this.listPledges = timer(registry, "geopledge.pledges.list", "Loading a user's pledge list");
+        this.login = timer(registry, "geopledge.auth.login", "Credential check and token issue");
+        this.fixesIngested = Counter.builder("geopledge.fixes.ingested")
+                .description("Location fixes received").register(registry);
+        this.pledgesEvaluated = Counter.builder("geopledge.pledges.evaluated")
+                .description("Active pledges a fix was evaluated against").register(registry);
+        this.met = Counter.builder("geopledge.checks.recorded").tag("status", "MET")
+                .description("Check rows written").register(registry);
+        this.violated = Counter.builder("geopledge.checks.recorded").tag("status", "VIOLATED")
+                .description("Check rows written").register(registry);
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String description) {
+        return Timer.builder(name).description(description)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void fixRecorded(long nanos) {
+        recordFix.record(nanos, TimeUnit.NANOSECONDS);
+        fixesIngested.increment();
+    }
+
+    public void pledgeEvaluated() {
+        pledgesEvaluated.increment();
+    }
+
+    public void pledgesListed(long nanos) {
+        listPledges.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void loggedIn(long nanos) {
+        login.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void checkRecorded(PledgeCheck.Status status) {
+        (status == PledgeCheck.Status.MET ? met : violated).increment();
+    }
+}
@@ -0,0 +1,57 @@
+package com.geopledge.service;
+
+import com.geopledge.model.Pledge;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schedule arithmetic for a pledge's days_of_week + time_hour:time_minute slot.
+ * Day indexes follow the client: SUN=0 … SAT=6.
+ */
+public final class PledgeSchedule {
+
+    private PledgeSchedule() {}
+
+    /** Java: MONDAY=1...SUNDAY=7 -> map Sunday to 0 */
+    public static int dayIndex(ZonedDateTime t) {
+        return t.getDayOfWeek().getValue() % 7;
+    }
+
+    /** Is {@code t} inside the pledge's scheduled HH:MM minute? */
+    public static boolean isScheduledAt(Pledge p, ZonedDateTime t) {
+        if (!p.getDaysOfWeek().contains(dayIndex(t))) return false;
+        return t.getHour() == p.getTimeHour()
+                && t.getMinute() == p.getTimeMinute();
+    }
+
+    /** Next slot strictly after {@code from}; null if the pledge has no days. */
+    public static ZonedDateTime computeNextRun(Pledge p, ZonedDateTime from) {
+        // today's slot may already be gone, so look up to a full week ahead
+        for (int offset = 0; offset <= 7; offset++) {
+            ZonedDateTime candidate = from.plusDays(offset)
+                    .withHour(p.getTimeHour())
+                    .withMinute(p.getTimeMinute())
+                    .withSecond(0)
+                    .withNano(0);
+            if (p.getDaysOfWeek().contains(dayIndex(candidate)) && candidate.isAfter(from)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /** The next {@code count} slots after {@code from}. */
+    public static List<ZonedDateTime> upcomingRuns(Pledge p, ZonedDateTime from, int count) {
+        List<ZonedDateTime> runs = new ArrayList<>(count);
+        ZonedDateTime t = from;
+        for (int i = 0; i < count; i++) {
+            ZonedDateTime next = computeNextRun(p, t);
+            if (next == null) break;
+            runs.add(next);
+            t = next;
+        }
+        return runs;
+    }
+}
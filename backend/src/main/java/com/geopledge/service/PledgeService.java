@@ -1,46 +1,144 @@
 package com.geopledge.service;
 
 import com.geopledge.dto.LocationFixDTO;
+import com.geopledge.dto.NearbyPledgeDTO;
+import com.geopledge.dto.NextFixHintDTO;
 import com.geopledge.dto.PledgeCreateDTO;
 import com.geopledge.dto.PledgeDTO;
+import com.geopledge.event.PledgeCreatedEvent;
+import com.geopledge.event.PledgeDeactivatedEvent;
+import com.geopledge.jfr.FixEvents;
+import com.geopledge.journal.FixJournal;
 import com.geopledge.model.Pledge;
 import com.geopledge.model.PledgeCheck;
 import com.geopledge.repository.PledgeRepository;
 import com.geopledge.repository.PledgeCheckRepository;
 import com.geopledge.util.GeoUtils;
+import com.geopledge.util.PolygonCodec;
+import com.geopledge.util.PreparedPolygon;
 import jakarta.transaction.Status;
 import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
-import java.time.DayOfWeek;
-import java.time.ZoneId;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+@Slf4j
 @Service
 public class PledgeService {
 
+    /** An outline enclosing less than this is a line or a point, not a place. */
+    private static final double MIN_POLYGON_AREA_M2 = 1.0;
+
     private final PledgeRepository pledgeRepo;
     private final PledgeCheckRepository checkRepo;
+    private final PledgeVersionTracker versionTracker;
+    private final PledgeCheckWriter checkWriter;
+    private final GeofenceService geofenceService;
+    private final DwellWindowEvaluator dwellEvaluator;
+    private final FixAnomalyDetector anomalyDetector;
+    private final TrackStore trackStore;
+    private final FixJournal journal;
+    private final PledgeSpatialIndex spatialIndex;
+    private final PledgeGeometry geometry;
+    private final PledgeMetrics metrics;
+    private final ApplicationEventPublisher events;
+    private final Clock clock;
 
     @Autowired
     public PledgeService(PledgeRepository pledgeRepo,
-                         PledgeCheckRepository checkRepo) {
+                         PledgeCheckRepository checkRepo,
+                         PledgeVersionTracker versionTracker,
+                         PledgeCheckWriter checkWriter,
+                         GeofenceService geofenceService,
+                         DwellWindowEvaluator dwellEvaluator,
+                         FixAnomalyDetector anomalyDetector,
+                         TrackStore trackStore,
+                         FixJournal journal,
+                         PledgeSpatialIndex spatialIndex,
+                         PledgeGeometry geometry,
+                         PledgeMetrics metrics,
+                         ApplicationEventPublisher events,
+                         Clock clock) {
         this.pledgeRepo = pledgeRepo;
         this.checkRepo = checkRepo;
+        this.versionTracker = versionTracker;
+        this.checkWriter = checkWriter;
+        this.geofenceService = geofenceService;
+        this.dwellEvaluator = dwellEvaluator;
+        this.anomalyDetector = anomalyDetector;
+        this.trackStore = trackStore;
+        this.journal = journal;
+        this.spatialIndex = spatialIndex;
+        this.geometry = geometry;
+        this.metrics = metrics;
+        this.events = events;
+        this.clock = clock;
+    }
+
+    /** Current version of the user's pledge list; changes on any pledge or check write. */
+    public long getPledgeVersion(UUID userId) {
+        return versionTracker.currentVersion(userId);
     }
 
     public List<PledgeDTO> getPledgesForUser(UUID userId) {
-        List<Pledge> pledges = pledgeRepo.findByUserId(userId);
+        long start = System.nanoTime();
+        try {
+            return toDtos(pledgeRepo.findByUserIdAndActiveTrue(userId));
+        } finally {
+            metrics.pledgesListed(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Only the pledges (and their latest statuses) written after {@code sinceVersion};
+     * ones deactivated since come with {@code active=false} so the client drops them.
+     */
+    public List<PledgeDTO> getPledgesChangedSince(UUID userId, long sinceVersion) {
+        return toDtos(pledgeRepo.findByUserIdAndSyncVersionGreaterThan(userId, sinceVersion));
+    }
+
+    /** The user's active pledges with a centre within {@code meters} of the point, nearest first. */
+    public List<NearbyPledgeDTO> getNearby(UUID userId, double lat, double lon, double meters, int limit) {
+        List<PledgeSpatialIndex.Hit> hits = spatialIndex.withinRadius(lat, lon, meters).stream()
+                .filter(h -> h.userId().equals(userId))
+                .limit(limit)
+                .toList();
+        if (hits.isEmpty()) return List.of();
+
+        Map<UUID, String> names = new HashMap<>();
+        for (Pledge p : pledgeRepo.findAllById(hits.stream().map(PledgeSpatialIndex.Hit::pledgeId).toList())) {
+            names.put(p.getId(), p.getName());
+        }
+        return hits.stream()
+                .map(h -> new NearbyPledgeDTO(h.pledgeId(), names.get(h.pledgeId()), h.meters(), h.inside()))
+                .toList();
+    }
+
+    private List<PledgeDTO> toDtos(List<Pledge> pledges) {
         List<PledgeDTO> dtos = new ArrayList<>();
-        ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault());
+        ZonedDateTime now = ZonedDateTime.now(clock);
+
+        /* latest status of every pledge in one query, not one per pledge */
+        Map<UUID, PledgeCheck> lastChecks = new HashMap<>();
+        if (!pledges.isEmpty()) {
+            for (PledgeCheck c : checkRepo.findLatestByPledgeIdIn(pledges.stream().map(Pledge::getId).toList())) {
+                lastChecks.putIfAbsent(c.getPledgeId(), c);
+            }
+        }
 
         for (Pledge p : pledges) {
-            ZonedDateTime nextRun = computeNextRun(p, now);
-            PledgeCheck lastCheck = checkRepo.findTopByPledgeIdOrderByCheckedAtDesc(p.getId());
+            ZonedDateTime nextRun = p.isActive() ? PledgeSchedule.computeNextRun(p, now) : null;
+            PledgeCheck lastCheck = lastChecks.get(p.getId());
             String lastStatus = lastCheck != null ? lastCheck.getStatus().name() : null;
 
             dtos.add(new PledgeDTO(
@@ -48,31 +146,20 @@ public class PledgeService {
                     p.getName(),
                     nextRun,
                     p.getStakeCents(),
-                    lastStatus
+                    lastStatus,
+                    p.isActive()
             ));
         }
         return dtos;
     }
 
-    private ZonedDateTime computeNextRun(Pledge p, ZonedDateTime from) {
-        // Find the next ZonedDateTime matching one of the days_of_week at time_hour:time_minute
-        for (int offset = 0; offset < 7; offset++) {
-            ZonedDateTime candidate = from.plusDays(offset)
-                    .withHour(p.getTimeHour())
-                    .withMinute(p.getTimeMinute())
-                    .withSecond(0)
-                    .withNano(0);
-            DayOfWeek dow = candidate.getDayOfWeek();
-            int dowIndex = dow.getValue() % 7; // Java: MONDAY=1...SUNDAY=7 -> map Sunday to 0
-            if (p.getDaysOfWeek().contains(dowIndex) && candidate.isAfter(from)) {
-                return candidate;
-            }
-        }
-        // Fallback: return now
-        return from;
-    }
-
+    /** @throws IllegalArgumentException on a bad schedule or polygon */
+    @Transactional
     public PledgeDTO createPledge(UUID userId, PledgeCreateDTO dto) {
+        List<Integer> days = dto.getDaysOfWeek();
+        if (days == null || days.isEmpty() || days.stream().anyMatch(d -> d == null || d < 0 || d > 6)) {
+            throw new IllegalArgumentException("daysOfWeek needs at least one day in 0..6");
+        }
         Pledge p = new Pledge();
         p.setId(UUID.randomUUID());
         p.setUserId(userId);
@@ -85,58 +172,201 @@ public class PledgeService {
         p.setDaysOfWeek(dto.getDaysOfWeek());
         p.setTimeHour(dto.getTimeHour());
         p.setTimeMinute(dto.getTimeMinute());
+        if (dto.getPolygon() != null) applyPolygon(p, dto.getPolygon());
         p.setActive(true);
-        p.setCreatedAt(ZonedDateTime.now(ZoneId.systemDefault()));
+        p.setCreatedAt(ZonedDateTime.now(clock));
         p.setUpdatedAt(p.getCreatedAt());
+        p.setSyncVersion(versionTracker.nextVersion(userId));
         pledgeRepo.save(p);
 
         // compute next run just like in getPledgesForUser
-        ZonedDateTime nextRun = computeNextRun(p, p.getCreatedAt());
-        return new PledgeDTO(p.getId(), p.getName(), nextRun, p.getStakeCents(), null);
+        ZonedDateTime nextRun = PledgeSchedule.computeNextRun(p, p.getCreatedAt());
+        PledgeDTO created = new PledgeDTO(p.getId(), p.getName(), nextRun, p.getStakeCents(), null, true);
+        events.publishEvent(new PledgeCreatedEvent(p, created));
+        return created;
+    }
+
+    /**
+     * Store the outline and replace target/radius with its bounding circle, so the
+     * spatial index and hints keep working on the circle.
+     * @throws IllegalArgumentException on fewer than 3 / too many vertices, bad coordinates,
+     *         or an outline that encloses no area once stored
+     */
+    private static void applyPolygon(Pledge p, List<List<Double>> vertices) {
+        int n = vertices.size();
+        if (n < 3 || n > PolygonCodec.MAX_VERTICES) {
+            throw new IllegalArgumentException("polygon needs 3.." + PolygonCodec.MAX_VERTICES + " vertices");
+        }
+        double[] lat = new double[n], lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            List<Double> v = vertices.get(i);
+            if (v == null || v.size() != 2 || v.get(0) == null || v.get(1) == null
+                    || Math.abs(v.get(0)) > 90 || Math.abs(v.get(1)) > 180) {
+                throw new IllegalArgumentException("bad polygon vertex " + i);
+            }
+            lat[i] = v.get(0);
+            lon[i] = v.get(1);
+        }
+        byte[] encoded = PolygonCodec.encode(lat, lon);
+
+        // judged as stored: rounding to 1e-6° can flatten a sliver
+        PreparedPolygon stored = PreparedPolygon.of(PolygonCodec.decode(encoded), 1);
+        if (stored.areaSquareMeters() < MIN_POLYGON_AREA_M2) {
+            throw new IllegalArgumentException("polygon encloses no area (collinear or repeated vertices)");
+        }
+        p.setPolygon(encoded);
+
+        double[] centre = stored.centre();
+        double radius = 0;
+        for (int i = 0; i < n; i++) {
+            radius = Math.max(radius, GeoUtils.haversine(centre[0], centre[1], lat[i], lon[i]));
+        }
+        p.setTargetLatitude(centre[0]);
+        p.setTargetLongitude(centre[1]);
+        p.setRadiusMeters((int) Math.ceil(radius));
     }
 
+    /**
+     * Switch one of the user's pledges off. Returns false when it does not exist or
+     * belongs to someone else.
+     */
     @Transactional
-    public void recordFix(UUID userId, LocationFixDTO fixUtc) {
+    public boolean deactivatePledge(UUID userId, UUID pledgeId) {
+        Pledge p = pledgeRepo.findById(pledgeId).orElse(null);
+        if (p == null || !p.getUserId().equals(userId)) return false;
+        if (!p.isActive()) return true;
+
+        p.setActive(false);
+        p.setUpdatedAt(ZonedDateTime.now(clock));
+        p.setSyncVersion(versionTracker.nextVersion(userId));
+        pledgeRepo.save(p);
+        events.publishEvent(new PledgeDeactivatedEvent(p));
+        return true;
+    }
+
+    /**
+     * Journal one fix, then evaluate it against the user's active pledges.
+     * Returns the checks it wrote plus a hint for when the next fix is worth sending.
+     */
+    @Transactional
+    public FixOutcome recordFix(UUID userId, LocationFixDTO fixUtc) {
+        /* durable before anything is decided */
+        journal.append(userId, fixUtc.lat(), fixUtc.lon(), fixUtc.at().toEpochMilli(),
+                fixUtc.accuracy() != null ? fixUtc.accuracy() : Double.NaN);
+        return evaluate(userId, fixUtc);
+    }
+
+    /** Like {@link #recordFix} for a fix that is already in the journal: queued on intake, or replayed. */
+    @Transactional
+    public FixOutcome recordJournaledFix(UUID userId, LocationFixDTO fixUtc) {
+        return evaluate(userId, fixUtc);
+    }
+
+    private FixOutcome evaluate(UUID userId, LocationFixDTO fixUtc) {
+        long start = System.nanoTime();
+        FixEvents.FixReceived received = new FixEvents.FixReceived();
+        received.begin();
+        try {
+            FixOutcome outcome = evaluateFix(userId, fixUtc, received);
+            received.checksWritten = outcome.checks().size();
+            return outcome;
+        } finally {
+            received.commit();
+            metrics.fixRecorded(System.nanoTime() - start);
+        }
+    }
+
+    private FixOutcome evaluateFix(UUID userId, LocationFixDTO fixUtc, FixEvents.FixReceived received) {
+        int partition = FixEvents.partition(userId);
+        received.userPartition = partition;
 
         ZonedDateTime now = fixUtc.at()
-                .atZone(ZoneId.systemDefault()); // localise once
+                .atZone(clock.getZone()); // localise once
+        FixEvents.PledgeLookup lookup = new FixEvents.PledgeLookup();
+        lookup.begin();
         List<Pledge> candidates = pledgeRepo.findByUserIdAndActiveTrue(userId);
+        lookup.userPartition = partition;
+        lookup.pledgeCount = received.pledgeCount = candidates.size();
+        lookup.commit();
+        List<PledgeCheck> written = new ArrayList<>();
+
+        /* raw history for audits – every fix, suspect or not */
+        trackStore.append(userId, fixUtc.lat(), fixUtc.lon(), fixUtc.at());
+
+        /* 0️⃣ Spoofing check – in memory, before anything is decided */
+        boolean suspect = anomalyDetector.assess(userId, fixUtc.lat(), fixUtc.lon(),
+                fixUtc.at().toEpochMilli(),
+                fixUtc.accuracy() != null ? fixUtc.accuracy() : Double.NaN)
+                == FixAnomalyDetector.Verdict.SUSPECT;
+        received.suspect = suspect;
+        if (suspect) {
+            log.info("Implausible fix for user {} at {}", userId, fixUtc.at());
+            if (anomalyDetector.action() == FixAnomalyDetector.Action.WITHHOLD) {
+                return new FixOutcome(written, nextFixHint(candidates, fixUtc, now));
+            }
+        }
 
         for (Pledge p : candidates) {
-            /* 1️⃣ Is this pledge “scheduled” right now? */
-            if (!isScheduledNow(p, now)) continue;
+            /* decided by client-side geofence events instead */
+            if (geofenceService.isTracked(p.getId())) continue;
+            metrics.pledgeEvaluated();
+
+            /* dwell mode: fold into the slot's window, decided when it closes */
+            if (dwellEvaluator.isEnabled()) {
+                dwellEvaluator.observe(p, fixUtc, now, suspect);
+                continue;
+            }
 
-            /* 2️⃣ Measure distance user→target */
-            double metres = GeoUtils.haversine(
-                    fixUtc.lat(), fixUtc.lon(),
-                    p.getTargetLatitude(), p.getTargetLongitude());
+            /* 1️⃣ Is this pledge “scheduled” right now? */
+            FixEvents.ScheduleMatch match = new FixEvents.ScheduleMatch();
+            match.begin();
+            match.matched = PledgeSchedule.isScheduledAt(p, now);
+            match.userPartition = partition;
+            match.commit();
+            if (!match.matched) continue;
 
-            PledgeCheck.Status status = metres <= p.getRadiusMeters()
+            /* 2️⃣ Inside the fence? (circle: distance user→target; polygon: prepared test) */
+            FixEvents.DistanceEvaluation distance = new FixEvents.DistanceEvaluation();
+            distance.begin();
+            PledgeCheck.Status status = geometry.contains(p, fixUtc.lat(), fixUtc.lon())
                     ? PledgeCheck.Status.MET : PledgeCheck.Status.VIOLATED;
+            distance.userPartition = partition;
+            distance.polygon = p.getPolygon() != null;
+            distance.outcome = status.name();
+            distance.commit();
 
-            /* 3️⃣ Persist the check row */
-            PledgeCheck pc = new PledgeCheck();
-            pc.setId(UUID.randomUUID());
-            pc.setPledgeId(p.getId());
-            pc.setScheduledFor(now);       // this HH:MM slot
-            pc.setStatus(status);
-            pc.setUserLatitude(fixUtc.lat());
-            pc.setUserLongitude(fixUtc.lon());
-            pc.setCheckedAt(ZonedDateTime.now(ZoneId.systemDefault()));
-            checkRepo.save(pc);
+            /* 3️⃣ Persist the check row (this HH:MM slot) */
+            written.add(checkWriter.write(p, status, fixUtc.lat(), fixUtc.lon(),
+                    now, PledgeCheck.Source.FIX, suspect));
 
             /* 4️⃣ Optional: charge stake on violation */
 //            if (status == Status.VIOLATED) {
 //                penaltyService.charge(userId, p);     // implement or inject later
 //            }
         }
+        return new FixOutcome(written, nextFixHint(candidates, fixUtc, now));
     }
 
-    /* helper */
-    private boolean isScheduledNow(Pledge p, ZonedDateTime t) {
-        int dow = t.getDayOfWeek().getValue() % 7;          // SUN→0
-        if (!p.getDaysOfWeek().contains(dow)) return false;
-        return t.getHour() == p.getTimeHour()
-                && t.getMinute() == p.getTimeMinute();
+    /**
+     * Seconds until fixes next count and metres to the closest geofence edge. In dwell
+     * mode fixes count from window-minutes before the slot, and 0 while a window is open.
+     */
+    private NextFixHintDTO nextFixHint(List<Pledge> active, LocationFixDTO fix, ZonedDateTime now) {
+        if (active.isEmpty()) return NextFixHintDTO.NONE;
+        long lead = dwellEvaluator.isEnabled() ? dwellEvaluator.windowSeconds() : 0;
+        long soonest = Long.MAX_VALUE;
+        double nearest = Double.MAX_VALUE;
+        for (Pledge p : active) {
+            ZonedDateTime next = PledgeSchedule.computeNextRun(p, now);
+            if (next == null) continue; // no days: never due, must not keep the client polling
+            long seconds = dwellEvaluator.isWindowOpen(p, now)
+                    ? 0 // the window around a slot that just passed still counts fixes
+                    : Math.max(0, Duration.between(now, next).getSeconds() - lead);
+            soonest = Math.min(soonest, seconds);
+            double edge = GeoUtils.haversine(fix.lat(), fix.lon(),
+                    p.getTargetLatitude(), p.getTargetLongitude()) - p.getRadiusMeters();
+            nearest = Math.min(nearest, Math.max(0, edge));
+        }
+        return new NextFixHintDTO(soonest == Long.MAX_VALUE ? null : soonest, nearest);
     }
-}
\ No newline at end of file
+}
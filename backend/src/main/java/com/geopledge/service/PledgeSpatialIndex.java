@@ -0,0 +1,365 @@
+package com.geopledge.service;
+
+import com.geopledge.event.PledgeCreatedEvent;
+import com.geopledge.event.PledgeDeactivatedEvent;
+import com.geopledge.model.Pledge;
+import com.geopledge.repository.PledgeRepository;
+import com.geopledge.util.GeoUtils;
+import com.geopledge.util.PreparedPolygon;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory fixed-grid index over every active pledge's geofence.
+ *
+ * The world is cut into cells of cell-degrees; each cell keeps parallel primitive arrays
+ * of the fences that touch it. A fence is stored in every cell its circle's bounding box
+ * overlaps (so point containment reads exactly one cell) and flagged "home" in the cell
+ * holding its centre (so radius and k-nearest queries see each fence once). Fences too
+ * big for max-cells-per-fence go to a small overflow list that every query scans.
+ * Polygon pledges are indexed by their bounding circle and refined with their
+ * {@link PreparedPolygon} for containment.
+ *
+ * Built from the database at startup and kept current from {@link PledgeCreatedEvent}
+ * and {@link PledgeDeactivatedEvent}. Readers share a read lock; updates are rare.
+ */
+@Slf4j
+@Component
+public class PledgeSpatialIndex {
+
+    /** A fence matched by a query; {@code meters} is the distance to its centre. */
+    public record Hit(UUID pledgeId, UUID userId, double meters, boolean inside) {}
+
+    /** Along a meridian, on the sphere {@link GeoUtils#haversine} measures on. */
+    private static final double METERS_PER_DEGREE = GeoUtils.EARTH_RADIUS_METERS * Math.PI / 180;
+
+    private final PledgeRepository pledgeRepo;
+    private final PledgeGeometry geometry;
+    private final double cellDeg;
+    private final int maxCellsPerFence;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<UUID, Fence> fences = new HashMap<>();
+    private final Cell overflow = new Cell();
+
+    public PledgeSpatialIndex(PledgeRepository pledgeRepo,
+                              PledgeGeometry geometry,
+                              @Value("${app.spatial.cell-degrees:0.01}") double cellDeg,
+                              @Value("${app.spatial.max-cells-per-fence:64}") int maxCellsPerFence) {
+        this.pledgeRepo = pledgeRepo;
+        this.geometry = geometry;
+        this.cellDeg = cellDeg;
+        this.maxCellsPerFence = maxCellsPerFence;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void build() {
+        List<Pledge> active = pledgeRepo.findByActiveTrue();
+        for (Pledge p : active) add(p);
+        log.info("Spatial index: {} fences in {} cells", size(), cellCount());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCreated(PledgeCreatedEvent event) {
+        add(event.pledge());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onDeactivated(PledgeDeactivatedEvent event) {
+        remove(event.pledge().getId());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return fences.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int cellCount() {
+        lock.readLock().lock();
+        try {
+            return cells.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(Pledge p) {
+        if (!p.isActive()) return;
+        Fence f = new Fence(p.getId(), p.getUserId(),
+                p.getTargetLatitude(), p.getTargetLongitude(), p.getRadiusMeters(),
+                geometry.polygonOf(p));
+        lock.writeLock().lock();
+        try {
+            removeLocked(p.getId());
+            fences.put(f.id, f);
+            f.overflow = coverCells(f.lat, f.lon, f.radius) > maxCellsPerFence;
+            if (f.overflow) {
+                overflow.add(f, true);
+                return;
+            }
+            long home = key(row(f.lat), col(f.lon));
+            forEachCovered(f, k -> cells.computeIfAbsent(k, x -> new Cell()).add(f, k == home));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID pledgeId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(pledgeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Active fences whose circle contains the point. */
+    public List<Hit> containing(double lat, double lon) {
+        List<Hit> out = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Cell c = cells.get(key(row(lat), col(lon)));
+            if (c != null) c.collect(lat, lon, Double.NaN, false, out);
+            overflow.collect(lat, lon, Double.NaN, false, out);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return out;
+    }
+
+    /** Fences whose centre is within {@code meters} of the point, nearest first. */
+    public List<Hit> withinRadius(double lat, double lon, double meters) {
+        List<Hit> out = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int r0 = row(lat - meters / METERS_PER_DEGREE), r1 = row(lat + meters / METERS_PER_DEGREE);
+            double lonSpan = lonSpan(lat, meters);
+            int c0 = col(lon - lonSpan), c1 = col(lon + lonSpan);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    Cell cell = cells.get(key(r, c));
+                    if (cell != null) cell.collect(lat, lon, meters, true, out);
+                }
+            }
+            overflow.collect(lat, lon, meters, true, out);
+        } finally {
+            lock.readLock().unlock();
+        }
+        out.sort(Comparator.comparingDouble(Hit::meters));
+        return out;
+    }
+
+    /**
+     * The {@code k} fences with the nearest centres, searched ring by ring outwards from
+     * the point's cell until everything outside the searched block is farther than the
+     * k-th hit, or than {@code maxMeters}.
+     */
+    public List<Hit> nearest(double lat, double lon, int k, double maxMeters) {
+        List<Hit> best = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            overflow.collect(lat, lon, maxMeters, true, best);
+            int r0 = row(lat), c0 = col(lon);
+            for (int ring = 0; ; ring++) {
+                for (int r = r0 - ring; r <= r0 + ring; r++) {
+                    boolean edgeRow = r == r0 - ring || r == r0 + ring;
+                    for (int c = c0 - ring; c <= c0 + ring; c += edgeRow ? 1 : 2 * ring) {
+                        Cell cell = cells.get(key(r, c));
+                        if (cell != null) cell.collect(lat, lon, maxMeters, true, best);
+                        if (ring == 0) break;
+                    }
+                }
+                double clear = clearance(lat, lon, r0, c0, ring);
+                if (clear >= maxMeters) break;
+                if (best.size() >= k) {
+                    best.sort(Comparator.comparingDouble(Hit::meters));
+                    if (best.get(k - 1).meters() <= clear) break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        best.sort(Comparator.comparingDouble(Hit::meters));
+        return best.size() > k ? new ArrayList<>(best.subList(0, k)) : best;
+    }
+
+    private void removeLocked(UUID pledgeId) {
+        Fence f = fences.remove(pledgeId);
+        if (f == null) return;
+        if (f.overflow) {
+            overflow.remove(f.id);
+            return;
+        }
+        forEachCovered(f, k -> {
+            Cell c = cells.get(k);
+            if (c != null && c.remove(f.id) && c.size == 0) cells.remove(k);
+        });
+    }
+
+    /**
+     * Metres from the point to the nearest place outside the block of cells within
+     * {@code ring} of its own: the nearer of the block's parallels, or of its meridians.
+     * Infinite once the block spans every latitude and longitude.
+     */
+    private double clearance(double lat, double lon, int r0, int c0, int ring) {
+        double south = (r0 - ring) * cellDeg, north = (r0 + ring + 1) * cellDeg;
+        double west = (c0 - ring) * cellDeg, east = (c0 + ring + 1) * cellDeg;
+        double toParallel = Math.min(south <= -90 ? Double.POSITIVE_INFINITY : (lat - south) * METERS_PER_DEGREE,
+                north >= 90 ? Double.POSITIVE_INFINITY : (north - lat) * METERS_PER_DEGREE);
+        double dLon = Math.min(west <= -180 ? Double.POSITIVE_INFINITY : lon - west,
+                east >= 180 ? Double.POSITIVE_INFINITY : east - lon);
+        double toMeridian;
+        if (dLon == Double.POSITIVE_INFINITY) {
+            toMeridian = dLon;
+        } else if (dLon >= 90) {
+            toMeridian = (90 - Math.abs(lat)) * METERS_PER_DEGREE; // nearest is the pole
+        } else {
+            // along the great circle meeting the meridian at right angles
+            toMeridian = GeoUtils.EARTH_RADIUS_METERS
+                    * Math.asin(Math.sin(Math.toRadians(dLon)) * Math.cos(Math.toRadians(lat)));
+        }
+        return Math.min(toParallel, toMeridian);
+    }
+
+    /** Half the longitude width, in degrees, of the circle of {@code meters} around a point. */
+    private static double lonSpan(double lat, double meters) {
+        double s = Math.sin(meters / GeoUtils.EARTH_RADIUS_METERS) / Math.cos(Math.toRadians(lat));
+        return s >= 1 ? 180 : Math.toDegrees(Math.asin(s));
+    }
+
+    private int coverCells(double lat, double lon, double radius) {
+        long rows = row(lat + radius / METERS_PER_DEGREE) - row(lat - radius / METERS_PER_DEGREE) + 1;
+        double lonSpan = lonSpan(lat, radius);
+        long cols = col(lon + lonSpan) - col(lon - lonSpan) + 1;
+        return (int) Math.min(Integer.MAX_VALUE, rows * cols);
+    }
+
+    private void forEachCovered(Fence f, LongConsumer action) {
+        double latSpan = f.radius / METERS_PER_DEGREE;
+        double lonSpan = lonSpan(f.lat, f.radius);
+        for (int r = row(f.lat - latSpan); r <= row(f.lat + latSpan); r++) {
+            for (int c = col(f.lon - lonSpan); c <= col(f.lon + lonSpan); c++) {
+                action.accept(key(r, c));
+            }
+        }
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor(lat / cellDeg);
+    }
+
+    private int col(double lon) {
+        return (int) Math.floor(lon / cellDeg);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    private static final class Fence {
+        final UUID id, userId;
+        final double lat, lon, radius;
+        final PreparedPolygon polygon;
+        boolean overflow;
+
+        Fence(UUID id, UUID userId, double lat, double lon, double radius, PreparedPolygon polygon) {
+            this.id = id;
+            this.userId = userId;
+            this.lat = lat;
+            this.lon = lon;
+            this.radius = radius;
+            this.polygon = polygon;
+        }
+    }
+
+    /** Parallel arrays of the fences touching one cell; swap-remove keeps them dense. */
+    private static final class Cell {
+        long[] idHi = new long[4], idLo = new long[4], userHi = new long[4], userLo = new long[4];
+        double[] lat = new double[4], lon = new double[4], radius = new double[4];
+        boolean[] home = new boolean[4];
+        PreparedPolygon[] polygon = new PreparedPolygon[4]; // null for circles
+        int size;
+
+        void add(Fence f, boolean isHome) {
+            if (size == idHi.length) grow();
+            idHi[size] = f.id.getMostSignificantBits();
+            idLo[size] = f.id.getLeastSignificantBits();
+            userHi[size] = f.userId.getMostSignificantBits();
+            userLo[size] = f.userId.getLeastSignificantBits();
+            lat[size] = f.lat;
+            lon[size] = f.lon;
+            radius[size] = f.radius;
+            home[size] = isHome;
+            polygon[size] = f.polygon;
+            size++;
+        }
+
+        boolean remove(UUID id) {
+            long hi = id.getMostSignificantBits(), lo = id.getLeastSignificantBits();
+            for (int i = 0; i < size; i++) {
+                if (idHi[i] == hi && idLo[i] == lo) {
+                    int last = --size;
+                    idHi[i] = idHi[last];
+                    idLo[i] = idLo[last];
+                    userHi[i] = userHi[last];
+                    userLo[i] = userLo[last];
+                    lat[i] = lat[last];
+                    lon[i] = lon[last];
+                    radius[i] = radius[last];
+                    home[i] = home[last];
+                    polygon[i] = polygon[last];
+                    polygon[last] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * homeOnly=false: fences containing the point. homeOnly=true: fences (counted in their
+         * home cell only) whose centre is within {@code maxMeters}.
+         */
+        void collect(double qLat, double qLon, double maxMeters, boolean homeOnly, List<Hit> out) {
+            for (int i = 0; i < size; i++) {
+                if (homeOnly && !home[i]) continue;
+                double d = GeoUtils.haversine(qLat, qLon, lat[i], lon[i]);
+                boolean inside = d <= radius[i] && (polygon[i] == null || polygon[i].contains(qLat, qLon));
+                if (homeOnly ? d <= maxMeters : inside) {
+                    out.add(new Hit(new UUID(idHi[i], idLo[i]), new UUID(userHi[i], userLo[i]), d, inside));
+                }
+            }
+        }
+
+        private void grow() {
+            int n = size * 2;
+            idHi = Arrays.copyOf(idHi, n);
+            idLo = Arrays.copyOf(idLo, n);
+            userHi = Arrays.copyOf(userHi, n);
+            userLo = Arrays.copyOf(userLo, n);
+            lat = Arrays.copyOf(lat, n);
+            lon = Arrays.copyOf(lon, n);
+            radius = Arrays.copyOf(radius, n);
+            home = Arrays.copyOf(home, n);
+            polygon = Arrays.copyOf(polygon, n);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.geopledge.service;
+
+import com.geopledge.repository.PledgeRepository;
+import com.geopledge.repository.UserVersionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user monotonic version of the pledge list. Every pledge or check write
+ * stamps the touched pledge with a fresh version, so readers can answer
+ * "has anything changed?" with a counter comparison instead of a query.
+ *
+ * Counters are seeded lazily from the highest sync_version stored for the user.
+ * A version is only published (visible to readers) once its transaction has
+ * finished and so has every version below it, so an ETag never runs ahead of the
+ * data it describes: a slow transaction holding version 5 keeps 6 unpublished
+ * even if 6 commits first. A rolled-back version counts as finished.
+ *
+ * With several instances (app.partitions.enabled=true) in-memory counters would
+ * diverge, so versions live in user_versions instead: bumped inside the writing
+ * transaction and read back from committed data, at the cost of a query per read.
+ */
+@Component
+public class PledgeVersionTracker {
+
+    private final PledgeRepository pledgeRepo;
+    private final UserVersionRepository versionRepo;
+    private final boolean shared;
+    private final ConcurrentHashMap<UUID, Counter> counters = new ConcurrentHashMap<>();
+
+    public PledgeVersionTracker(PledgeRepository pledgeRepo,
+                                UserVersionRepository versionRepo,
+                                @Value("${app.partitions.enabled:false}") boolean shared) {
+        this.pledgeRepo = pledgeRepo;
+        this.versionRepo = versionRepo;
+        this.shared = shared;
+    }
+
+    /** Latest committed version for the user. */
+    public long currentVersion(UUID userId) {
+        if (shared) {
+            Long version = versionRepo.findVersion(userId.toString());
+            return version != null ? version : pledgeRepo.findMaxSyncVersionByUserId(userId);
+        }
+        return counter(userId).published;
+    }
+
+    /**
+     * Reserve the next version for a write. Published once the transaction completes
+     * when called inside one, immediately otherwise. Shared versions need the
+     * caller's transaction.
+     */
+    public long nextVersion(UUID userId) {
+        if (shared) {
+            String key = userId.toString();
+            if (versionRepo.increment(key) == 0) {
+                versionRepo.insertOrIncrement(key, pledgeRepo.findMaxSyncVersionByUserId(userId) + 1);
+            }
+            return versionRepo.findVersion(key);
+        }
+        Counter c = counter(userId);
+        long version = c.allocated.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    c.complete(version);
+                }
+            });
+        } else {
+            c.complete(version);
+        }
+        return version;
+    }
+
+    private Counter counter(UUID userId) {
+        return counters.computeIfAbsent(userId,
+                id -> new Counter(pledgeRepo.findMaxSyncVersionByUserId(id)));
+    }
+
+    private static final class Counter {
+        final AtomicLong allocated;
+        volatile long published;
+        private final TreeSet<Long> finished = new TreeSet<>(); // above published, waiting on a lower one
+
+        Counter(long seed) {
+            this.allocated = new AtomicLong(seed);
+            this.published = seed;
+        }
+
+        /** Publishes up to the highest version with every version below it finished. */
+        synchronized void complete(long version) {
+            finished.add(version);
+            long p = published;
+            while (finished.remove(p + 1)) p++;
+            published = p;
+        }
+    }
+}
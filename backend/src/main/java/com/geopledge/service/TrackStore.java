@@ -0,0 +1,293 @@
+package com.geopledge.service;
+
+import com.geopledge.dto.TrackPointDTO;
+import com.geopledge.model.TrackSegment;
+import com.geopledge.repository.TrackSegmentRepository;
+import com.geopledge.util.TrackCodec;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Append-only raw fix history, kept for disputes and audits.
+ *
+ * Fixes are buffered per user in memory and flushed in blocks (every flush-ms, or at
+ * shutdown) onto one {@link TrackSegment} row per user per UTC day, encoded with
+ * {@link TrackCodec} – a day of 5-minute fixes costs a few hundred bytes, not 288
+ * rows. Every fix is kept by default; with simplify-meters set, each flushed block of
+ * raw fixes is simplified once (time-aware Douglas-Peucker) before it is stored, and
+ * stored fixes are never simplified again. A block that fails to write goes back into
+ * the buffer for the next flush.
+ *
+ * Reads decode lazily: {@link #read} streams the fixes of each day row on demand and
+ * finishes with whatever is still buffered.
+ */
+@Slf4j
+@Service
+public class TrackStore {
+
+    private final TrackSegmentRepository repo;
+    private final boolean enabled;
+    private final double simplifyMeters;
+
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+    /* a lock, not synchronized: the writes below must not pin a virtual thread's carrier */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public TrackStore(TrackSegmentRepository repo,
+                      @Value("${app.track.enabled:true}") boolean enabled,
+                      @Value("${app.track.simplify-meters:0}") double simplifyMeters) {
+        this.repo = repo;
+        this.enabled = enabled;
+        this.simplifyMeters = simplifyMeters;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Whether every fix is stored as received, so decisions may be rebuilt from it. */
+    public boolean keepsEveryFix() {
+        return enabled && simplifyMeters <= 0;
+    }
+
+    /** Users with fixes waiting for the next flush. */
+    public int bufferedUsers() {
+        return pending.size();
+    }
+
+    public void append(UUID userId, double lat, double lon, Instant at) {
+        if (!enabled) return;
+        Pending p = pending.computeIfAbsent(userId, id -> new Pending());
+        synchronized (p) {
+            p.add(at.getEpochSecond(), lat, lon);
+        }
+    }
+
+    /** Fixes of {@code userId} in {@code [from, to)}, oldest day first. */
+    public Stream<TrackPointDTO> read(UUID userId, Instant from, Instant to) {
+        long fromSec = from.getEpochSecond(), toSec = to.getEpochSecond();
+        List<TrackSegment> days = repo.findByUserIdAndEpochDayBetweenOrderByEpochDay(
+                userId, Math.floorDiv(fromSec, 86_400L), Math.floorDiv(toSec, 86_400L));
+
+        Stream<TrackPointDTO> stored = days.stream().flatMap(TrackStore::decode);
+        Stream<TrackPointDTO> buffered = Stream.of(userId).flatMap(this::buffered); // snapshot taken on demand
+        return Stream.concat(stored, buffered)
+                .filter(pt -> pt.at().getEpochSecond() >= fromSec && pt.at().getEpochSecond() < toSec);
+    }
+
+    private static Stream<TrackPointDTO> decode(TrackSegment segment) {
+        TrackCodec.Cursor c = segment.cursor();
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<TrackPointDTO>(
+                segment.getFixCount(), Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super TrackPointDTO> action) {
+                if (!c.next()) return false;
+                action.accept(new TrackPointDTO(c.lat(), c.lon(), Instant.ofEpochSecond(c.atSeconds())));
+                return true;
+            }
+        }, false);
+    }
+
+    private Stream<TrackPointDTO> buffered(UUID userId) {
+        Pending p = pending.get(userId);
+        if (p == null) return Stream.empty();
+        synchronized (p) {
+            List<TrackPointDTO> copy = new ArrayList<>(p.size);
+            for (int i = 0; i < p.size; i++) {
+                copy.add(new TrackPointDTO(
+                        Math.round(p.lat[i] * TrackCodec.SCALE) / TrackCodec.SCALE,
+                        Math.round(p.lon[i] * TrackCodec.SCALE) / TrackCodec.SCALE,
+                        Instant.ofEpochSecond(p.at[i])));
+            }
+            copy.sort(Comparator.comparing(TrackPointDTO::at));
+            return copy.stream();
+        }
+    }
+
+    /** Write every buffered block to its day row. */
+    @Scheduled(fixedDelayString = "${app.track.flush-ms:60000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        int users = 0, fixes = 0;
+        for (Map.Entry<UUID, Pending> e : pending.entrySet()) {
+            Pending p = e.getValue();
+            long[] at;
+            double[] lat, lon;
+            synchronized (p) {
+                if (p.size == 0) {
+                    pending.remove(e.getKey(), p); // idle since the last flush
+                    continue;
+                }
+                at = Arrays.copyOf(p.at, p.size);
+                lat = Arrays.copyOf(p.lat, p.size);
+                lon = Arrays.copyOf(p.lon, p.size);
+                p.size = 0;
+            }
+            int failed = write(e.getKey(), at, lat, lon);
+            if (failed < at.length) users++;
+            fixes += at.length - failed;
+        }
+        if (users > 0) log.debug("Flushed {} fixes for {} users to the track store", fixes, users);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    /** Writes the block day by day; a day that fails goes back to pending. Returns the fixes put back. */
+    private int write(UUID userId, long[] at, double[] lat, double[] lon) {
+        /* 1️⃣ chronological order within the block */
+        int[] order = IntStream.range(0, at.length).boxed()
+                .sorted(Comparator.comparingLong(i -> at[i]))
+                .mapToInt(Integer::intValue).toArray();
+        long[] sAt = new long[at.length];
+        double[] sLat = new double[at.length], sLon = new double[at.length];
+        for (int i = 0; i < order.length; i++) {
+            sAt[i] = at[order[i]];
+            sLat[i] = lat[order[i]];
+            sLon[i] = lon[order[i]];
+        }
+
+        /* 2️⃣ one write per UTC day the block touches */
+        int start = 0, failed = 0;
+        while (start < sAt.length) {
+            long day = Math.floorDiv(sAt[start], 86_400L);
+            int end = start;
+            while (end < sAt.length && Math.floorDiv(sAt[end], 86_400L) == day) end++;
+            try {
+                writeDay(userId, day, sAt, sLat, sLon, start, end);
+            } catch (RuntimeException ex) {
+                /* put the fixes back so the next flush retries them */
+                Pending p = pending.computeIfAbsent(userId, id -> new Pending());
+                synchronized (p) {
+                    for (int i = start; i < end; i++) p.add(sAt[i], sLat[i], sLon[i]);
+                }
+                failed += end - start;
+                log.error("Track flush failed for user {} on day {} ({} fixes kept for retry)",
+                        userId, day, end - start, ex);
+            }
+            start = end;
+        }
+        return failed;
+    }
+
+    /**
+     * Adds {@code [from, to)} to the day's row. With simplification on, only this block
+     * of raw fixes is simplified. Fixes newer than the stored tail are appended; a block
+     * reaching back before the tail is merged with the decoded day in time order and the
+     * day re-encoded as it is.
+     */
+    private void writeDay(UUID userId, long day, long[] at, double[] lat, double[] lon, int from, int to) {
+        TrackSegment seg = repo.findByUserIdAndEpochDay(userId, day).orElseGet(() -> {
+            TrackSegment s = new TrackSegment();
+            s.setId(UUID.randomUUID());
+            s.setUserId(userId);
+            s.setEpochDay(day);
+            s.setData(new byte[0]);
+            return s;
+        });
+        boolean[] keep = simplifyMeters > 0 ? TrackCodec.simplify(at, lat, lon, from, to, simplifyMeters) : null;
+
+        if (seg.getFixCount() == 0 || at[from] >= seg.getLastAt()) {
+            encode(seg, seg.tailState(), seg.getData(), seg.getFixCount(), at, lat, lon, from, to, keep);
+            return;
+        }
+
+        /* late block: stored fixes and the kept ones, merged in time order */
+        int n = seg.getFixCount() + to - from;
+        long[] mAt = new long[n];
+        double[] mLat = new double[n], mLon = new double[n];
+        TrackCodec.Cursor c = seg.cursor();
+        int j = from, k = 0;
+        boolean more = c.next();
+        while (more || j < to) {
+            if (j < to && keep != null && !keep[j]) {
+                j++;
+            } else if (more && (j == to || c.atSeconds() <= at[j])) {
+                mAt[k] = c.atSeconds();
+                mLat[k] = c.lat();
+                mLon[k] = c.lon();
+                more = c.next();
+                k++;
+            } else {
+                mAt[k] = at[j];
+                mLat[k] = lat[j];
+                mLon[k] = lon[j];
+                j++;
+                k++;
+            }
+        }
+        encode(seg, TrackSegment.initialState(day), new byte[0], 0, mAt, mLat, mLon, 0, k, null);
+    }
+
+    /** Encodes the kept fixes of {@code [from, to)} after {@code prefix}, which ends in {@code state}. */
+    private void encode(TrackSegment seg, TrackCodec.State state, byte[] prefix, int prefixCount,
+                        long[] at, double[] lat, double[] lon, int from, int to, boolean[] keep) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(prefix.length + 4 * (to - from));
+        out.writeBytes(prefix);
+        int count = prefixCount;
+        for (int i = from; i < to; i++) {
+            if (keep != null && !keep[i]) continue;
+            if (count == 0) seg.setFirstAt(at[i]);
+            TrackCodec.append(out, state, at[i], TrackCodec.scale(lat[i]), TrackCodec.scale(lon[i]));
+            count++;
+        }
+
+        seg.setData(out.toByteArray());
+        seg.setFixCount(count);
+        seg.setLastAt(state.at);
+        seg.setLastDelta(state.delta);
+        seg.setLastLat(state.lat);
+        seg.setLastLon(state.lon);
+        repo.save(seg);
+    }
+
+    /** Growable primitive buffer of not-yet-flushed fixes; guarded by its own monitor. */
+    private static final class Pending {
+        long[] at = new long[16];
+        double[] lat = new double[16];
+        double[] lon = new double[16];
+        int size;
+
+        void add(long atSeconds, double la, double lo) {
+            if (size == at.length) {
+                at = Arrays.copyOf(at, size * 2);
+                lat = Arrays.copyOf(lat, size * 2);
+                lon = Arrays.copyOf(lon, size * 2);
+            }
+            at[size] = atSeconds;
+            lat[size] = la;
+            lon[size] = lo;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.geopledge.util;
+
+import com.geopledge.dto.LocationFixBatch;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format of {@link LocationFixBatch#MEDIA_TYPE} (big-endian):
+ * <pre>
+ *   u8      format version (1)
+ *   varint  fix count
+ *   int64   base epoch millis
+ *   per fix: int32 lat·1e7, int32 lon·1e7, zigzag varint millis since the previous fix (or base)
+ * </pre>
+ * A typical 5-minute fix costs 11–12 bytes, against ~60 for the JSON form.
+ */
+public final class FixBatchCodec {
+
+    public static final int VERSION = 1;
+    public static final int MAX_FIXES = 4096;
+
+    private static final int LAT_MAX = 90_0000000;
+    private static final int LON_MAX = 180_0000000;
+
+    private FixBatchCodec() {}
+
+    public static byte[] encode(LocationFixBatch batch) {
+        int n = batch.size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(10 + n * 12);
+        out.write(VERSION);
+        Varint.writeUnsigned(out, n);
+        long base = n > 0 ? batch.epochMillis(0) : 0;
+        ByteBuffer b = ByteBuffer.allocate(8);
+        out.write(b.putLong(0, base).array(), 0, 8);
+        long prev = base;
+        for (int i = 0; i < n; i++) {
+            b.putInt(0, batch.latE7()[i]).putInt(4, batch.lonE7()[i]);
+            out.write(b.array(), 0, 8);
+            Varint.writeSigned(out, batch.epochMillis(i) - prev);
+            prev = batch.epochMillis(i);
+        }
+        return out.toByteArray();
+    }
+
+    /** @throws IllegalArgumentException on a malformed, oversized or out-of-range batch */
+    public static LocationFixBatch decode(ByteBuffer in) {
+        try {
+            int version = in.get() & 0xFF;
+            if (version != VERSION) throw new IllegalArgumentException("unsupported fix batch version " + version);
+            long count = Varint.readUnsigned(in);
+            if (count < 0 || count > MAX_FIXES) throw new IllegalArgumentException("fix batch too large: " + count);
+            int n = (int) count;
+
+            int[] lat = new int[n];
+            int[] lon = new int[n];
+            long[] at = new long[n];
+            long prev = in.getLong();
+            for (int i = 0; i < n; i++) {
+                lat[i] = in.getInt();
+                lon[i] = in.getInt();
+                if (Math.abs((long) lat[i]) > LAT_MAX || Math.abs((long) lon[i]) > LON_MAX) {
+                    throw new IllegalArgumentException("coordinate out of range at fix " + i);
+                }
+                prev += Varint.readSigned(in);
+                at[i] = prev;
+            }
+            if (in.hasRemaining()) throw new IllegalArgumentException("trailing bytes after fix batch");
+            return new LocationFixBatch(lat, lon, at);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("truncated fix batch");
+        }
+    }
+}
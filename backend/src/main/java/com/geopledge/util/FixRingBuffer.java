@@ -0,0 +1,143 @@
+package com.geopledge.util;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, preallocated ring of location fixes. Slots are parallel primitive
+ * arrays, so publishing a fix never allocates; a full ring rejects instead of growing.
+ * Many producers, one consumer.
+ *
+ * Each fix gets a sequence from a {@link Sequencer} once there is room for it and under
+ * the ring's lock, so a rejected fix never takes one and sequences rise along the ring.
+ * The consumer marks a polled fix {@link #done()}; until then it counts as pending.
+ */
+public final class FixRingBuffer {
+
+    private final int mask;
+    private final long[] userHi;
+    private final long[] userLo;
+    private final double[] lat;
+    private final double[] lon;
+    private final long[] epochMillis;
+    private final double[] accuracy;
+    private final long[] seq;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private long head; // next slot to read
+    private long tail; // next slot to write
+    private long busySeq; // polled but not done, 0 when none
+
+    /** @param capacity rounded up to the next power of two */
+    public FixRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.userHi = new long[size];
+        this.userLo = new long[size];
+        this.lat = new double[size];
+        this.lon = new double[size];
+        this.epochMillis = new long[size];
+        this.accuracy = new double[size];
+        this.seq = new long[size];
+    }
+
+    /** @param accuracyMeters NaN when unknown; @return false when the ring is full */
+    public boolean offer(UUID userId, double latitude, double longitude, long atMillis, double accuracyMeters,
+                         Sequencer sequencer) {
+        lock.lock();
+        try {
+            if (tail - head > mask) return false;
+            int i = (int) (tail & mask);
+            seq[i] = sequencer.next(userId, latitude, longitude, atMillis, accuracyMeters);
+            userHi[i] = userId.getMostSignificantBits();
+            userLo[i] = userId.getLeastSignificantBits();
+            lat[i] = latitude;
+            lon[i] = longitude;
+            epochMillis[i] = atMillis;
+            accuracy[i] = accuracyMeters;
+            tail++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Copy the oldest fix into {@code out}, waiting up to {@code timeout}; false if none arrived. */
+    public boolean poll(Slot out, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (head == tail) {
+                if (nanos <= 0) return false;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            int i = (int) (head & mask);
+            out.userHi = userHi[i];
+            out.userLo = userLo[i];
+            out.lat = lat[i];
+            out.lon = lon[i];
+            out.epochMillis = epochMillis[i];
+            out.accuracy = accuracy[i];
+            out.seq = busySeq = seq[i];
+            head++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The consumer finished the fix it last polled. */
+    public void done() {
+        lock.lock();
+        try {
+            busySeq = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Sequence of the oldest fix polled but not done or still queued; {@code otherwise} when there is none. */
+    public long oldestPending(long otherwise) {
+        lock.lock();
+        try {
+            if (busySeq != 0) return busySeq;
+            return head != tail ? seq[(int) (head & mask)] : otherwise;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return (int) (tail - head);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Reusable read cursor owned by the consumer. */
+    public static final class Slot {
+        public long userHi;
+        public long userLo;
+        public double lat;
+        public double lon;
+        public long epochMillis;
+        public double accuracy;
+        public long seq;
+    }
+
+    /** Numbers a fix the ring has room for, e.g. by journaling it; 0 leaves it unnumbered. */
+    @FunctionalInterface
+    public interface Sequencer {
+        long next(UUID userId, double lat, double lon, long atMillis, double accuracy);
+    }
+}
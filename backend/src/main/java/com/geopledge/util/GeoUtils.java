@@ -1,7 +1,7 @@
 package com.geopledge.util;
 
 public final class GeoUtils {
-    private static final double R = 6_371_000;           // earth radius (m)
+    public static final double EARTH_RADIUS_METERS = 6_371_000;
 
     private GeoUtils() {}
 
@@ -17,6 +17,6 @@ public final class GeoUtils {
                 + Math.cos(phi1) * Math.cos(phi2)
                 * Math.pow(Math.sin(delta_lambda / 2), 2);
 
-        return 2 * R * Math.asin(Math.sqrt(a));
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
     }
 }
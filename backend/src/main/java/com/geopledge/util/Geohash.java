@@ -0,0 +1,81 @@
+package com.geopledge.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Standard base-32 geohashes. A hash of precision p splits the world into a
+ * 2^ceil(5p/2) × 2^floor(5p/2) lon × lat grid, and every prefix of a hash is the
+ * enclosing cell one level up – so one encode at the finest precision yields the
+ * keys for all coarser levels.
+ */
+public final class Geohash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {}
+
+    public static String encode(double lat, double lon, int precision) {
+        double latLo = -90, latHi = 90, lonLo = -180, lonHi = 180;
+        char[] out = new char[precision];
+        boolean even = true; // even bits split longitude
+        for (int c = 0; c < precision; c++) {
+            int idx = 0;
+            for (int b = 0; b < 5; b++) {
+                idx <<= 1;
+                if (even) {
+                    double mid = (lonLo + lonHi) / 2;
+                    if (lon >= mid) { idx |= 1; lonLo = mid; } else lonHi = mid;
+                } else {
+                    double mid = (latLo + latHi) / 2;
+                    if (lat >= mid) { idx |= 1; latLo = mid; } else latHi = mid;
+                }
+                even = !even;
+            }
+            out[c] = BASE32[idx];
+        }
+        return new String(out);
+    }
+
+    /** Cell height in degrees at {@code precision}. */
+    public static double cellLat(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    /** Cell width in degrees at {@code precision}. */
+    public static double cellLon(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+
+    /** How many cells {@link #cover} would return, without building them. */
+    public static long coverCount(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        long rows = index(maxLat, -90, cellLat(precision), 5 * precision / 2)
+                - index(minLat, -90, cellLat(precision), 5 * precision / 2) + 1;
+        long cols = index(maxLon, -180, cellLon(precision), (5 * precision + 1) / 2)
+                - index(minLon, -180, cellLon(precision), (5 * precision + 1) / 2) + 1;
+        return rows * cols;
+    }
+
+    /** Every cell at {@code precision} that intersects the box, row by row from the south-west. */
+    public static List<String> cover(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        double dLat = cellLat(precision), dLon = cellLon(precision);
+        int latBits = 5 * precision / 2, lonBits = (5 * precision + 1) / 2;
+        long r0 = index(minLat, -90, dLat, latBits), r1 = index(maxLat, -90, dLat, latBits);
+        long c0 = index(minLon, -180, dLon, lonBits), c1 = index(maxLon, -180, dLon, lonBits);
+
+        List<String> cells = new ArrayList<>((int) ((r1 - r0 + 1) * (c1 - c0 + 1)));
+        for (long r = r0; r <= r1; r++) {
+            for (long c = c0; c <= c1; c++) {
+                cells.add(encode(-90 + (r + 0.5) * dLat, -180 + (c + 0.5) * dLon, precision));
+            }
+        }
+        return cells;
+    }
+
+    private static long index(double v, double origin, double step, int bits) {
+        long i = (long) Math.floor((v - origin) / step);
+        return Math.max(0, Math.min((1L << bits) - 1, i));
+    }
+}
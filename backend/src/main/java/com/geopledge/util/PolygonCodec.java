@@ -0,0 +1,56 @@
+package com.geopledge.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact polygon vertices: varint count, then zigzag-varint deltas of lat/lon in
+ * 1e-6° (~0.1 m). A typical campus outline of a few dozen vertices fits in ~100 bytes.
+ */
+public final class PolygonCodec {
+
+    public static final int MAX_VERTICES = 256;
+    private static final double E6 = 1e6;
+
+    private PolygonCodec() {}
+
+    public static byte[] encode(double[] lat, double[] lon) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + lat.length * 4);
+        Varint.writeUnsigned(out, lat.length);
+        long prevLat = 0, prevLon = 0;
+        for (int i = 0; i < lat.length; i++) {
+            long la = Math.round(lat[i] * E6), lo = Math.round(lon[i] * E6);
+            Varint.writeSigned(out, la - prevLat);
+            Varint.writeSigned(out, lo - prevLon);
+            prevLat = la;
+            prevLon = lo;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return {lat[], lon[]}
+     * @throws IllegalArgumentException on a truncated or padded outline, or a bad vertex count
+     */
+    public static double[][] decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            long count = Varint.readUnsigned(in);
+            if (count < 3 || count > MAX_VERTICES) throw new IllegalArgumentException("bad polygon vertex count " + count);
+            int n = (int) count;
+            double[] lat = new double[n], lon = new double[n];
+            long la = 0, lo = 0;
+            for (int i = 0; i < n; i++) {
+                la += Varint.readSigned(in);
+                lo += Varint.readSigned(in);
+                lat[i] = la / E6;
+                lon[i] = lo / E6;
+            }
+            if (in.hasRemaining()) throw new IllegalArgumentException("trailing bytes after polygon");
+            return new double[][]{lat, lon};
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("truncated polygon");
+        }
+    }
+}
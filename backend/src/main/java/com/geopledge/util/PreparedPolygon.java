@@ -0,0 +1,152 @@
+package com.geopledge.util;
+
+/**
+ * A polygon geofence ready for fast containment tests.
+ *
+ * Its bounding box is cut into a uniform grid; every cell is classified once as INSIDE,
+ * OUTSIDE or BOUNDARY (an edge crosses it). A test is then a bbox check plus one cell
+ * lookup, and only points in BOUNDARY cells fall back to a full ray-cast. Coordinates
+ * are treated as planar lat/lon, which is accurate at geofence scale.
+ */
+public final class PreparedPolygon {
+
+    private static final byte OUTSIDE = 0, INSIDE = 1, BOUNDARY = 2;
+
+    private final double[] lat, lon;
+    private final double minLat, maxLat, minLon, maxLon;
+    private final int grid;
+    private final double cellLat, cellLon;
+    private final byte[] cells;
+
+    private PreparedPolygon(double[] lat, double[] lon, int grid) {
+        this.lat = lat;
+        this.lon = lon;
+        double a = Double.MAX_VALUE, b = -Double.MAX_VALUE, c = Double.MAX_VALUE, d = -Double.MAX_VALUE;
+        for (int i = 0; i < lat.length; i++) {
+            a = Math.min(a, lat[i]);
+            b = Math.max(b, lat[i]);
+            c = Math.min(c, lon[i]);
+            d = Math.max(d, lon[i]);
+        }
+        this.minLat = a;
+        this.maxLat = b;
+        this.minLon = c;
+        this.maxLon = d;
+        this.grid = grid;
+        this.cellLat = Math.max(b - a, 1e-12) / grid;
+        this.cellLon = Math.max(d - c, 1e-12) / grid;
+        this.cells = new byte[grid * grid];
+        classify();
+    }
+
+    public static PreparedPolygon of(double[][] vertices, int grid) {
+        return new PreparedPolygon(vertices[0], vertices[1], Math.max(1, grid));
+    }
+
+    public boolean contains(double la, double lo) {
+        if (la < minLat || la > maxLat || lo < minLon || lo > maxLon) return false;
+        int r = Math.min(grid - 1, (int) ((la - minLat) / cellLat));
+        int c = Math.min(grid - 1, (int) ((lo - minLon) / cellLon));
+        byte state = cells[r * grid + c];
+        return state == BOUNDARY ? rayCast(la, lo) : state == INSIDE;
+    }
+
+    /** Approximate distance in metres from the point to the nearest edge. */
+    public double distanceToEdgeMeters(double la, double lo) {
+        double kx = Math.cos(Math.toRadians(la)) * 111_320, ky = 110_540;
+        double best = Double.MAX_VALUE;
+        for (int i = 0, j = lat.length - 1; i < lat.length; j = i++) {
+            double ax = (lon[j] - lo) * kx, ay = (lat[j] - la) * ky;
+            double bx = (lon[i] - lo) * kx, by = (lat[i] - la) * ky;
+            double dx = bx - ax, dy = by - ay;
+            double len = dx * dx + dy * dy;
+            double t = len == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / len));
+            double px = ax + t * dx, py = ay + t * dy;
+            best = Math.min(best, px * px + py * py);
+        }
+        return Math.sqrt(best);
+    }
+
+    /**
+     * Approximate enclosed area in square metres (shoelace over every edge). Zero for
+     * collinear outlines; lobes of a self-crossing outline wound opposite ways cancel.
+     */
+    public double areaSquareMeters() {
+        double kx = Math.cos(Math.toRadians((minLat + maxLat) / 2)) * 111_320, ky = 110_540;
+        double twice = 0;
+        for (int i = 0, j = lat.length - 1; i < lat.length; j = i++) {
+            twice += (lon[j] - minLon) * (lat[i] - minLat) - (lon[i] - minLon) * (lat[j] - minLat);
+        }
+        return Math.abs(twice) / 2 * kx * ky;
+    }
+
+    public int vertexCount() {
+        return lat.length;
+    }
+
+    public double[] centre() {
+        double la = 0, lo = 0;
+        for (int i = 0; i < lat.length; i++) {
+            la += lat[i];
+            lo += lon[i];
+        }
+        return new double[]{la / lat.length, lo / lat.length};
+    }
+
+    /** Even-odd rule over every edge; the reference {@link #contains} must agree with. */
+    boolean rayCast(double la, double lo) {
+        boolean inside = false;
+        for (int i = 0, j = lat.length - 1; i < lat.length; j = i++) {
+            if ((lat[i] > la) != (lat[j] > la)
+                    && lo < (lon[j] - lon[i]) * (la - lat[i]) / (lat[j] - lat[i]) + lon[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private void classify() {
+        /* 1️⃣ cells an edge passes through */
+        for (int i = 0, j = lat.length - 1; i < lat.length; j = i++) {
+            int r0 = row(Math.min(lat[i], lat[j])), r1 = row(Math.max(lat[i], lat[j]));
+            int c0 = col(Math.min(lon[i], lon[j])), c1 = col(Math.max(lon[i], lon[j]));
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    if (cells[r * grid + c] != BOUNDARY && edgeCrossesCell(j, i, r, c)) {
+                        cells[r * grid + c] = BOUNDARY;
+                    }
+                }
+            }
+        }
+        /* 2️⃣ every other cell is wholly in or out – its centre decides */
+        for (int r = 0; r < grid; r++) {
+            for (int c = 0; c < grid; c++) {
+                if (cells[r * grid + c] == BOUNDARY) continue;
+                cells[r * grid + c] = rayCast(minLat + (r + 0.5) * cellLat, minLon + (c + 0.5) * cellLon)
+                        ? INSIDE : OUTSIDE;
+            }
+        }
+    }
+
+    /** Segment/rectangle overlap: the bboxes overlap (given) and the corners straddle the line. */
+    private boolean edgeCrossesCell(int a, int b, int r, int c) {
+        double y0 = minLat + r * cellLat, y1 = y0 + cellLat;
+        double x0 = minLon + c * cellLon, x1 = x0 + cellLon;
+        double dx = lon[b] - lon[a], dy = lat[b] - lat[a];
+        double s1 = side(dx, dy, a, x0, y0), s2 = side(dx, dy, a, x1, y0);
+        double s3 = side(dx, dy, a, x0, y1), s4 = side(dx, dy, a, x1, y1);
+        return !((s1 > 0 && s2 > 0 && s3 > 0 && s4 > 0) || (s1 < 0 && s2 < 0 && s3 < 0 && s4 < 0));
+    }
+
+    private double side(double dx, double dy, int a, double x, double y) {
+        return dx * (y - lat[a]) - dy * (x - lon[a]);
+    }
+
+    private int row(double la) {
+        return Math.max(0, Math.min(grid - 1, (int) ((la - minLat) / cellLat)));
+    }
+
+    private int col(double lo) {
+        return Math.max(0, Math.min(grid - 1, (int) ((lo - minLon) / cellLon)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.geopledge.util;
+
+import com.geopledge.dto.PledgeDTO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+
+/**
+ * ETag of a response that carries next-run times. Such a response goes stale in two
+ * ways: a write changes its version, or the clock passes its earliest run and that
+ * run moves on. The tag is {@code "<version>@<epoch second of the earliest run>"}
+ * ({@code "<version>"} when nothing is scheduled), so whether a client's copy is
+ * still current is decided from the tag alone, without loading anything.
+ */
+public record ScheduleEtag(String version, Instant earliestRun) {
+
+    public static ScheduleEtag of(String version, Collection<PledgeDTO> pledges) {
+        return new ScheduleEtag(version, earliestRun(pledges));
+    }
+
+    /** The first tag in an If-None-Match header, or null if there is none we could have issued. */
+    public static ScheduleEtag parse(String ifNoneMatch) {
+        if (ifNoneMatch == null) return null;
+        String tag = ifNoneMatch.split(",")[0].trim();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) return null;
+        tag = tag.substring(1, tag.length() - 1);
+        int at = tag.indexOf('@');
+        if (at < 0) return new ScheduleEtag(tag, null);
+        try {
+            return new ScheduleEtag(tag.substring(0, at), Instant.ofEpochSecond(Long.parseLong(tag.substring(at + 1))));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a 304 if the client's tag is still current: same version, earliest run not
+     * yet reached. Returns whether it did.
+     */
+    public static boolean checkNotModified(WebRequest request, String version, Instant now) {
+        ScheduleEtag known = parse(request.getHeader(HttpHeaders.IF_NONE_MATCH));
+        return known != null && known.version().equals(version) && known.isFresh(now)
+                && request.checkNotModified(known.header());
+    }
+
+    /** Whether no listed run has come due yet, so the times in the client's copy still hold. */
+    public boolean isFresh(Instant now) {
+        return earliestRun == null || now.isBefore(earliestRun);
+    }
+
+    /** This tag with the earliest run capped at {@code other}'s, e.g. after merging a delta. */
+    public ScheduleEtag withEarliest(Instant other) {
+        if (other == null || (earliestRun != null && !other.isBefore(earliestRun))) return this;
+        return new ScheduleEtag(version, other);
+    }
+
+    public String header() {
+        return "\"" + version + (earliestRun != null ? "@" + earliestRun.getEpochSecond() : "") + "\"";
+    }
+
+    private static Instant earliestRun(Collection<PledgeDTO> pledges) {
+        Instant earliest = null;
+        for (PledgeDTO p : pledges) {
+            ZonedDateTime next = p.getNextScheduledRun();
+            if (next != null && (earliest == null || next.toInstant().isBefore(earliest))) {
+                earliest = next.toInstant();
+            }
+        }
+        // whole seconds in the tag: round down so the tag never outlives the run
+        return earliest != null ? Instant.ofEpochSecond(earliest.getEpochSecond()) : null;
+    }
+}
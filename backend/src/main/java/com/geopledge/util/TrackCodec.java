@@ -0,0 +1,129 @@
+package com.geopledge.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Packed track encoding: coordinates scaled to 1e-5° (~1 m), timestamps in seconds.
+ *
+ * Each fix is three zigzag varints – delta-of-delta time, delta lat, delta lon – against
+ * a running {@link State}. A regular reporting cadence makes the time term 0 and a
+ * stationary or slowly moving user keeps the coordinate terms small, so most fixes
+ * cost 3–4 bytes. The state after the last fix is stored next to the bytes, which is
+ * what lets new fixes be appended without re-reading the block.
+ */
+public final class TrackCodec {
+
+    public static final double SCALE = 1e5;
+
+    private TrackCodec() {}
+
+    public static int scale(double degrees) {
+        return (int) Math.round(degrees * SCALE);
+    }
+
+    /** Running encoder/decoder state. */
+    public static final class State {
+        public long at;      // epoch seconds of the previous fix
+        public long delta;   // seconds between the previous two fixes
+        public int lat;
+        public int lon;
+
+        public State(long at, long delta, int lat, int lon) {
+            this.at = at;
+            this.delta = delta;
+            this.lat = lat;
+            this.lon = lon;
+        }
+    }
+
+    public static void append(ByteArrayOutputStream out, State s, long atSeconds, int lat, int lon) {
+        long delta = atSeconds - s.at;
+        Varint.writeSigned(out, delta - s.delta);
+        Varint.writeSigned(out, lat - s.lat);
+        Varint.writeSigned(out, lon - s.lon);
+        s.at = atSeconds;
+        s.delta = delta;
+        s.lat = lat;
+        s.lon = lon;
+    }
+
+    /** Decodes one fix per {@link #next()}; nothing is materialised up front. */
+    public static final class Cursor {
+        private final ByteBuffer in;
+        private final State s;
+        private int remaining;
+
+        public Cursor(byte[] data, int count, State initial) {
+            this.in = ByteBuffer.wrap(data);
+            this.s = initial;
+            this.remaining = count;
+        }
+
+        public boolean next() {
+            if (remaining == 0) return false;
+            remaining--;
+            s.delta += Varint.readSigned(in);
+            s.at += s.delta;
+            s.lat += (int) Varint.readSigned(in);
+            s.lon += (int) Varint.readSigned(in);
+            return true;
+        }
+
+        public long atSeconds() {
+            return s.at;
+        }
+
+        public double lat() {
+            return s.lat / SCALE;
+        }
+
+        public double lon() {
+            return s.lon / SCALE;
+        }
+    }
+
+    /**
+     * Douglas-Peucker over {@code [from, to)} using the time-synchronised distance: a fix
+     * is dropped only if interpolating between the kept neighbours *at its timestamp*
+     * lands within {@code toleranceMeters}, so the simplified track still says when the
+     * user was where. Endpoints are always kept.
+     *
+     * @return keep-mask indexed like the input arrays
+     */
+    public static boolean[] simplify(long[] at, double[] lat, double[] lon,
+                                     int from, int to, double toleranceMeters) {
+        boolean[] keep = new boolean[to];
+        if (to - from <= 2) {
+            for (int i = from; i < to; i++) keep[i] = true;
+            return keep;
+        }
+        keep[from] = keep[to - 1] = true;
+        int[] stack = new int[2 * (to - from)];
+        int sp = 0;
+        stack[sp++] = from;
+        stack[sp++] = to - 1;
+        while (sp > 0) {
+            int b = stack[--sp], a = stack[--sp];
+            double worst = -1;
+            int split = -1;
+            for (int i = a + 1; i < b; i++) {
+                double f = at[b] == at[a] ? 0 : (double) (at[i] - at[a]) / (at[b] - at[a]);
+                double d = GeoUtils.haversine(lat[i], lon[i],
+                        lat[a] + f * (lat[b] - lat[a]), lon[a] + f * (lon[b] - lon[a]));
+                if (d > worst) {
+                    worst = d;
+                    split = i;
+                }
+            }
+            if (worst > toleranceMeters) {
+                keep[split] = true;
+                stack[sp++] = a;
+                stack[sp++] = split;
+                stack[sp++] = split;
+                stack[sp++] = b;
+            }
+        }
+        return keep;
+    }
+}
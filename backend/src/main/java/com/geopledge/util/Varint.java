@@ -0,0 +1,45 @@
+package com.geopledge.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/** LEB128 varints with zigzag for signed values. */
+public final class Varint {
+
+    private Varint() {}
+
+    public static void writeUnsigned(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    public static void writeSigned(ByteArrayOutputStream out, long value) {
+        writeUnsigned(out, zigzag(value));
+    }
+
+    public static long readUnsigned(ByteBuffer in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            if (shift == 63 && (b & 0x7E) != 0) throw new IllegalArgumentException("varint overflows 64 bits");
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalArgumentException("varint longer than 10 bytes");
+    }
+
+    public static long readSigned(ByteBuffer in) {
+        return unzigzag(readUnsigned(in));
+    }
+
+    public static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    public static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,12 @@
+-- Schema as Hibernate's ddl-auto=update created it before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate).
+
+create table charity (id blob not null, name varchar(255), primary key (id));
+
+create table geo_pledges (id blob not null, is_active boolean not null, charity_id blob not null, created_at timestamp not null, name varchar(255), radius_meters integer not null, stake_cents bigint not null, target_latitude float not null, target_longitude float not null, time_hour integer not null, time_minute integer not null, updated_at timestamp not null, user_id blob not null, primary key (id));
+
+create table geo_pledges_days_of_week (pledge_id blob not null, day_index integer);
+
+create table pledge_checks (id blob not null, checked_at timestamp not null, pledge_id blob not null, scheduled_for timestamp not null, status varchar(255) not null check (status in ('MET','VIOLATED')), user_latitude float not null, user_longitude float not null, primary key (id));
+
+create table users (id char(36) not null, email varchar(255) not null unique, expo_push_token varchar(255), password varchar(255) not null, primary key (id));
@@ -0,0 +1,22 @@
+-- Columns and tables added on top of the baseline: pledge versions and polygons, check
+-- provenance, the track store, the heatmap and backfill jobs.
+
+alter table geo_pledges add column sync_version bigint default 0 not null;
+
+alter table geo_pledges add column polygon BLOB;
+
+alter table pledge_checks add column source varchar(16);
+
+alter table pledge_checks add column suspect boolean default 0 not null;
+
+alter table pledge_checks add column rule_version integer;
+
+create index idx_pledge_checks_pledge_checked_at on pledge_checks (pledge_id, checked_at);
+
+create table track_segments (id blob not null, data BLOB not null, epoch_day bigint not null, first_at bigint not null, fix_count integer not null, last_at bigint not null, last_delta bigint not null, last_lat integer not null, last_lon integer not null, user_id blob not null, primary key (id));
+
+create table heatmap_cells (geohash varchar(12) not null, met bigint not null, violated bigint not null, primary key (geohash));
+
+create table backfill_jobs (id blob not null, checks_written bigint not null, created_at timestamp not null, error varchar(500), min_dwell_seconds integer not null, missing_is_violation boolean not null, radius_tolerance_meters float not null, range_from timestamp not null, range_to timestamp not null, rule_version integer not null, status varchar(255) not null check (status in ('RUNNING','PAUSED','COMPLETED','FAILED')), updated_at timestamp not null, users_done integer not null, users_total integer not null, window_minutes integer not null, primary key (id));
+
+create table backfill_user_done (id blob not null, job_id blob not null, user_id blob not null, primary key (id));
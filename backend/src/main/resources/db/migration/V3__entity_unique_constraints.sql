@@ -0,0 +1,6 @@
+-- Declared on BackfillUserDone and TrackSegment. Hibernate's SQLite dialect cannot add
+-- table constraints after create, so databases that got these tables from ddl-auto lack them.
+
+create unique index uk_backfill_user_done_job_user on backfill_user_done (job_id, user_id);
+
+create unique index uk_track_segments_user_day on track_segments (user_id, epoch_day);
@@ -0,0 +1,5 @@
+-- Partition ownership across instances (PartitionOwnership).
+
+create table partition_leases (partition_no integer not null, owner varchar(64), expires_at bigint not null, primary key (partition_no));
+
+create table cluster_nodes (node_id varchar(64) not null, heartbeat_at bigint not null, primary key (node_id));
@@ -0,0 +1,3 @@
+-- Pledge-list versions shared by all instances (PledgeVersionTracker, app.partitions.enabled=true).
+
+create table user_versions (user_id varchar(36) not null, version bigint not null, primary key (user_id));
@@ -0,0 +1,5 @@
+-- Geofence inside/outside flags shared by all instances (GeofenceService, app.partitions.enabled=true).
+
+create table geofence_states (pledge_id varchar(36) not null, user_id varchar(36) not null, inside boolean not null, inside_before boolean not null, since_at bigint not null, day_mask integer not null, time_hour integer not null, time_minute integer not null, primary key (pledge_id));
+
+create index idx_geofence_states_time on geofence_states (time_hour, time_minute);
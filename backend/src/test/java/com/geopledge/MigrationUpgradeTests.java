@@ -0,0 +1,134 @@
+package com.geopledge;
+
+import com.geopledge.model.Pledge;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.repository.PledgeCheckRepository;
+import com.geopledge.repository.PledgeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A database from before migrations – the schema Hibernate's ddl-auto=update built for
+ * the first release, with data in it – must come up under the current build: Flyway
+ * baselines it at V1, applies V2 onwards, and Hibernate's validation accepts the result.
+ */
+class MigrationUpgradeTests {
+
+    /** As ddl-auto=update created it at the first release; deliberately not read from V1. */
+    private static final String[] RELEASE_SCHEMA = {
+            "create table charity (id blob not null, name varchar(255), primary key (id))",
+            "create table geo_pledges (id blob not null, is_active boolean not null, charity_id blob not null, "
+                    + "created_at timestamp not null, name varchar(255), radius_meters integer not null, "
+                    + "stake_cents bigint not null, target_latitude float not null, target_longitude float not null, "
+                    + "time_hour integer not null, time_minute integer not null, updated_at timestamp not null, "
+                    + "user_id blob not null, primary key (id))",
+            "create table geo_pledges_days_of_week (pledge_id blob not null, day_index integer)",
+            "create table pledge_checks (id blob not null, checked_at timestamp not null, pledge_id blob not null, "
+                    + "scheduled_for timestamp not null, status varchar(255) not null check (status in ('MET','VIOLATED')), "
+                    + "user_latitude float not null, user_longitude float not null, primary key (id))",
+            "create table users (id char(36) not null, email varchar(255) not null unique, "
+                    + "expo_push_token varchar(255), password varchar(255) not null, primary key (id))",
+    };
+
+    private static final UUID USER = UUID.fromString("6f1c2b1e-0000-4000-8000-000000000001");
+    private static final UUID CHARITY = UUID.fromString("6f1c2b1e-0000-4000-8000-000000000002");
+    private static final UUID PLEDGE = UUID.fromString("6f1c2b1e-0000-4000-8000-000000000003");
+    private static final UUID CHECK = UUID.fromString("6f1c2b1e-0000-4000-8000-000000000004");
+
+    private ConfigurableApplicationContext ctx;
+    private String url;
+
+    @AfterEach
+    void close() throws Exception {
+        if (ctx != null) ctx.close();
+        if (url != null) Files.deleteIfExists(Path.of(url.substring("jdbc:sqlite:".length())));
+    }
+
+    @Test
+    void releaseDatabaseUpgradesWithItsData() throws Exception {
+        url = "jdbc:sqlite:" + Files.createTempFile("geopledge-upgrade-", ".db");
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (Connection c = DriverManager.getConnection(url)) {
+            try (Statement s = c.createStatement()) {
+                for (String ddl : RELEASE_SCHEMA) s.executeUpdate(ddl);
+            }
+            insert(c, "insert into users (id, email, password) values (?, ?, ?)",
+                    USER.toString(), "old@example.com", "hash");
+            insert(c, "insert into charity (id, name) values (?, ?)", bytes(CHARITY), "Charity A");
+            insert(c, "insert into geo_pledges (id, is_active, charity_id, created_at, name, radius_meters, stake_cents, "
+                            + "target_latitude, target_longitude, time_hour, time_minute, updated_at, user_id) "
+                            + "values (?, 1, ?, ?, 'Gym', 100, 500, 52.52, 13.405, 7, 30, ?, ?)",
+                    bytes(PLEDGE), bytes(CHARITY), now, now, bytes(USER));
+            insert(c, "insert into geo_pledges_days_of_week (pledge_id, day_index) values (?, 1), (?, 3)",
+                    bytes(PLEDGE), bytes(PLEDGE));
+            insert(c, "insert into pledge_checks (id, checked_at, pledge_id, scheduled_for, status, "
+                            + "user_latitude, user_longitude) values (?, ?, ?, ?, 'MET', 52.52, 13.405)",
+                    bytes(CHECK), now, bytes(PLEDGE), now);
+        }
+
+        ctx = new SpringApplicationBuilder(SpringBootAPI.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--app.journal.enabled=false");
+
+        assertEquals(List.of("1", "2", "3", "4", "5", "6"), appliedVersions());
+
+        Pledge p = ctx.getBean(PledgeRepository.class).findByUserId(USER).get(0);
+        assertEquals(PLEDGE, p.getId());
+        assertEquals(List.of(1, 3), p.getDaysOfWeek());
+        assertEquals(0, p.getSyncVersion());
+        assertNull(p.getPolygon());
+
+        PledgeCheck check = ctx.getBean(PledgeCheckRepository.class).findById(CHECK).orElseThrow();
+        assertEquals(PledgeCheck.Status.MET, check.getStatus());
+        assertNull(check.getSource());
+        assertNull(check.getRuleVersion());
+        assertFalse(check.isSuspect());
+    }
+
+    private List<String> appliedVersions() throws SQLException {
+        try (Connection c = DriverManager.getConnection(url);
+             Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery("select version from flyway_schema_history "
+                     + "where success = 1 order by installed_rank")) {
+            List<String> versions = new ArrayList<>();
+            while (rs.next()) versions.add(rs.getString(1));
+            return versions;
+        }
+    }
+
+    private static void insert(Connection c, String sql, Object... args) throws SQLException {
+        try (PreparedStatement s = c.prepareStatement(sql)) {
+            for (int i = 0; i < args.length; i++) s.setObject(i + 1, args[i]);
+            s.executeUpdate();
+        }
+    }
+
+    /** UUIDs in blob columns, as Hibernate binds them: 16 bytes, most significant first. */
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
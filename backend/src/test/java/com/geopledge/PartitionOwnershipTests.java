@@ -0,0 +1,150 @@
+package com.geopledge;
+
+import com.geopledge.service.PartitionOwnership;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Two application contexts in one JVM sharing a file database, the way two instances
+ * share one in production. Every poll asserts that no partition is owned twice.
+ *
+ * A crashed node ("ghost") holds the even partitions from the start: nobody may take
+ * them until its lease runs out. Then the live nodes split everything, and when one
+ * leaves the other takes over its share.
+ */
+class PartitionOwnershipTests {
+
+    private static final int COUNT = 16;
+    private static final long TIMEOUT_MS = 20_000;
+
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private String url;
+
+    @AfterEach
+    void closeAll() throws Exception {
+        contexts.forEach(ConfigurableApplicationContext::close);
+        if (url != null) Files.deleteIfExists(Path.of(url.substring("jdbc:sqlite:".length())));
+    }
+
+    @Test
+    void partitionsAreOwnedOnceAndMoveWithTheCluster() throws Exception {
+        url = "jdbc:sqlite:" + Files.createTempFile("geopledge-partitions-", ".db");
+        Flyway.configure().dataSource(url, null, null).load().migrate();
+        long ghostUntil = Long.MAX_VALUE;
+        sql("insert into cluster_nodes (node_id, heartbeat_at) values ('ghost', 0)");
+        for (int p = 0; p < COUNT; p++) {
+            sql("insert into partition_leases (partition_no, owner, expires_at) values (" + p + ", "
+                    + (p % 2 == 0 ? "'ghost', " + ghostUntil : "null, 0") + ")");
+        }
+
+        /* 1️⃣ alone next to the ghost: only the free half */
+        PartitionOwnership a = start("node-a");
+        awaitOwnership(() -> a.ownedPartitions().equals(odd()), a);
+
+        /* 2️⃣ a second node joins: the free half splits, the ghost's half stays unowned */
+        PartitionOwnership b = start("node-b");
+        awaitOwnership(() -> union(a, b).equals(odd())
+                && !b.ownedPartitions().isEmpty() && !a.ownedPartitions().isEmpty(), a, b);
+
+        /* 3️⃣ the ghost's lease runs out: nobody takes its partitions before, both share them after */
+        long expiry = System.currentTimeMillis() + 1_500;
+        sql("update partition_leases set expires_at = " + expiry + " where owner = 'ghost'");
+        awaitOwnership(() -> {
+            BitSet all = union(a, b);
+            if (System.currentTimeMillis() < expiry) {
+                all.and(even());
+                assertTrue(all.isEmpty(), "ghost partitions taken before its lease expired: " + all);
+                return false;
+            }
+            return all.cardinality() == COUNT;
+        }, a, b);
+        assertFalse(a.ownedPartitions().isEmpty());
+        assertFalse(b.ownedPartitions().isEmpty());
+
+        /* 4️⃣ a node leaves: the other one takes everything */
+        contexts.remove(0).close();
+        awaitOwnership(() -> b.ownedPartitions().cardinality() == COUNT, b);
+        assertEquals(COUNT, b.ownedPartitions().cardinality());
+    }
+
+    private PartitionOwnership start(String nodeId) {
+        ConfigurableApplicationContext ctx = new SpringApplicationBuilder(SpringBootAPI.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.geopledge.service.PartitionOwnership=INFO",
+                "--app.journal.enabled=false",
+                "--app.partitions.enabled=true",
+                "--app.partitions.count=" + COUNT,
+                "--app.partitions.lease-seconds=2",
+                "--app.partitions.renew-ms=200",
+                "--app.partitions.node-id=" + nodeId);
+        contexts.add(ctx);
+        return ctx.getBean(PartitionOwnership.class);
+    }
+
+    /** Polls until the condition holds, failing on the first partition owned by two nodes. */
+    private static void awaitOwnership(BooleanSupplier done, PartitionOwnership... nodes) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            for (int i = 0; i < nodes.length; i++) {
+                for (int j = i + 1; j < nodes.length; j++) {
+                    BitSet both = nodes[i].ownedPartitions();
+                    both.and(nodes[j].ownedPartitions());
+                    assertTrue(both.isEmpty(), "owned by two nodes: " + both);
+                }
+            }
+            if (done.getAsBoolean()) return;
+            Thread.sleep(20);
+        }
+        List<BitSet> owned = new ArrayList<>();
+        for (PartitionOwnership n : nodes) owned.add(n.ownedPartitions());
+        fail("ownership did not settle: " + owned);
+    }
+
+    private static BitSet union(PartitionOwnership a, PartitionOwnership b) {
+        BitSet all = a.ownedPartitions();
+        all.or(b.ownedPartitions());
+        return all;
+    }
+
+    private static BitSet odd() {
+        BitSet s = new BitSet(COUNT);
+        for (int p = 1; p < COUNT; p += 2) s.set(p);
+        return s;
+    }
+
+    private static BitSet even() {
+        BitSet s = new BitSet(COUNT);
+        for (int p = 0; p < COUNT; p += 2) s.set(p);
+        return s;
+    }
+
+    private void sql(String statement) throws SQLException {
+        try (Connection c = DriverManager.getConnection(url);
+             PreparedStatement s = c.prepareStatement(statement)) {
+            s.executeUpdate();
+        }
+    }
+}
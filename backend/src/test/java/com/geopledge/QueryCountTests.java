@@ -0,0 +1,185 @@
+package com.geopledge;
+
+import com.geopledge.auth.security.JwtUtils;
+import com.geopledge.charity.Charity;
+import com.geopledge.charity.CharityRepository;
+import com.geopledge.model.Pledge;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.repository.PledgeCheckRepository;
+import com.geopledge.repository.PledgeRepository;
+import com.geopledge.support.QueryCapture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact JDBC statement counts per endpoint against a realistically sized database.
+ * A per-row lookup (N+1) or a lazy collection touched in a loop shows up as dozens
+ * of extra statements and fails here long before it is noticeable in production.
+ * If a count changes on purpose, update it together with the code that changed it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:${java.io.tmpdir}/geopledge-query-count-${random.uuid}.db",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.geopledge.support.QueryCapture",
+        "app.ingest.mode=sync",
+        "app.evaluation.mode=point",
+        "app.journal.enabled=false"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryCountTests {
+
+    /* seed sizes: the user under test plus a crowd of other users sharing the tables */
+    private static final int USER_PLEDGES = 50;
+    private static final int OTHER_USERS = 100;
+    private static final int PLEDGES_PER_OTHER_USER = 5;
+    private static final int CHECKS_PER_PLEDGE = 20;
+    private static final int CHARITIES = 200;
+
+    /** The user's one pledge scheduled at this minute; the others are twelve hours away. */
+    private static final ZonedDateTime FIX_AT = ZonedDateTime.now(ZoneId.systemDefault())
+            .withHour(9).withMinute(30).withSecond(0).withNano(0);
+
+    @Autowired MockMvc mvc;
+    @Autowired JwtUtils jwtUtils;
+    @Autowired PledgeRepository pledgeRepo;
+    @Autowired PledgeCheckRepository checkRepo;
+    @Autowired CharityRepository charityRepo;
+
+    private final UUID userId = UUID.randomUUID();
+    private UUID charityId;
+    private String token;
+
+    @BeforeAll
+    void seed() throws Exception {
+        List<Charity> charities = IntStream.range(0, CHARITIES)
+                .mapToObj(i -> new Charity(null, "Charity " + i))
+                .toList();
+        charityId = charityRepo.saveAll(charities).get(0).getId();
+
+        List<Pledge> pledges = new ArrayList<>();
+        for (int i = 0; i < USER_PLEDGES; i++) {
+            pledges.add(pledge(userId, i == 0 ? FIX_AT.getHour() : (FIX_AT.getHour() + 12) % 24));
+        }
+        for (int u = 0; u < OTHER_USERS; u++) {
+            UUID other = UUID.randomUUID();
+            for (int i = 0; i < PLEDGES_PER_OTHER_USER; i++) pledges.add(pledge(other, FIX_AT.getHour()));
+        }
+        pledgeRepo.saveAll(pledges);
+
+        List<PledgeCheck> checks = new ArrayList<>();
+        for (Pledge p : pledges) {
+            for (int d = 1; d <= CHECKS_PER_PLEDGE; d++) {
+                checks.add(check(p, FIX_AT.minusDays(d), d % 3 == 0));
+            }
+        }
+        checkRepo.saveAll(checks);
+
+        token = "Bearer " + jwtUtils.generateJwtToken(userId);
+
+        /* first request seeds the user's version counter; every count below is steady state */
+        mvc.perform(authed(get("/api/pledges"))).andExpect(status().isOk());
+    }
+
+    @Test
+    void dashboard() throws Exception {
+        assertStatements(2, () -> mvc.perform(authed(get("/api/pledges"))).andExpect(status().isOk()));
+    }
+
+    @Test
+    void check() throws Exception {
+        String fix = "{\"lat\":40.75,\"lon\":-73.99,\"at\":\"" + FIX_AT.toInstant() + "\"}";
+        assertStatements(3, () -> mvc.perform(authed(post("/api/pledges/check"))
+                        .contentType(MediaType.APPLICATION_JSON).content(fix))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void createPledge() throws Exception {
+        String body = "{\"name\":\"Library\",\"charityId\":\"" + charityId + "\"," +
+                "\"targetLatitude\":40.75,\"targetLongitude\":-73.99,\"radiusMeters\":100," +
+                "\"stakeCents\":500,\"daysOfWeek\":[1,3,5],\"timeHour\":7,\"timeMinute\":0}";
+        assertStatements(4, () -> mvc.perform(authed(post("/api/pledges"))
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void charityList() throws Exception {
+        assertStatements(1, () -> mvc.perform(authed(get("/api/charities"))).andExpect(status().isOk()));
+    }
+
+    /** A warm launch revalidates: a 304 from the in-memory versions alone. */
+    @Test
+    void bootstrapRevalidation() throws Exception {
+        /* every third seeded check is VIOLATED; the check() test only adds a MET */
+        String etag = mvc.perform(authed(get("/api/bootstrap"))).andExpect(status().isOk())
+                .andExpect(jsonPath("$.pledges.length()").value(USER_PLEDGES))
+                .andExpect(jsonPath("$.stats.violated").value(USER_PLEDGES * (CHECKS_PER_PLEDGE / 3)))
+                .andExpect(jsonPath("$.stats.forfeitedCents").value(USER_PLEDGES * (CHECKS_PER_PLEDGE / 3) * 500))
+                .andReturn().getResponse().getHeader("ETag");
+        assertStatements(0, () -> mvc.perform(authed(get("/api/bootstrap")).header("If-None-Match", etag))
+                .andExpect(status().isNotModified()));
+    }
+
+    private MockHttpServletRequestBuilder authed(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", token);
+    }
+
+    private static void assertStatements(int expected, QueryCapture.ThrowingRunnable block) throws Exception {
+        List<String> statements = QueryCapture.during(block);
+        assertEquals(expected, statements.size(),
+                () -> "statements issued:\n  " + String.join("\n  ", statements));
+    }
+
+    private Pledge pledge(UUID owner, int hour) {
+        Pledge p = new Pledge();
+        p.setId(UUID.randomUUID());
+        p.setUserId(owner);
+        p.setName("Gym");
+        p.setTargetLatitude(40.75);
+        p.setTargetLongitude(-73.99);
+        p.setRadiusMeters(100);
+        p.setStakeCents(500);
+        p.setCharityId(charityId);
+        p.setDaysOfWeek(new ArrayList<>(List.of(0, 1, 2, 3, 4, 5, 6)));
+        p.setTimeHour(hour);
+        p.setTimeMinute(FIX_AT.getMinute());
+        p.setActive(true);
+        p.setCreatedAt(FIX_AT.minusDays(CHECKS_PER_PLEDGE + 1));
+        p.setUpdatedAt(p.getCreatedAt());
+        return p;
+    }
+
+    private static PledgeCheck check(Pledge p, ZonedDateTime slot, boolean violated) {
+        PledgeCheck c = new PledgeCheck();
+        c.setId(UUID.randomUUID());
+        c.setPledgeId(p.getId());
+        c.setScheduledFor(slot);
+        c.setStatus(violated ? PledgeCheck.Status.VIOLATED : PledgeCheck.Status.MET);
+        c.setUserLatitude(p.getTargetLatitude());
+        c.setUserLongitude(p.getTargetLongitude());
+        c.setCheckedAt(slot);
+        c.setSource(PledgeCheck.Source.FIX);
+        return c;
+    }
+}
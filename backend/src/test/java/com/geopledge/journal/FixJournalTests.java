@@ -0,0 +1,169 @@
+package com.geopledge.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Crash recovery of the fix journal. A crash is simulated by closing the journal and
+ * then damaging its files the way an interrupted write would, before opening it again.
+ */
+class FixJournalTests {
+
+    private static final UUID USER = UUID.fromString("00000000-0000-0000-0000-000000000042");
+
+    @TempDir
+    Path dir;
+
+    private FixJournal journal;
+
+    @AfterEach
+    void closeJournal() throws IOException {
+        if (journal != null) journal.close();
+    }
+
+    @Test
+    void tornLastRecordIsDiscardedAndAppendingResumesInItsPlace() throws IOException {
+        reopen();
+        append(5);
+        stop();
+
+        Path segment = onlySegment();
+        overwrite(segment, JournalSegment.offset(4) + 40, new byte[8]); // half of record #5 made it
+        overwrite(segment, JournalSegment.offset(7), new byte[]{1, 2, 3}); // stale bytes further on
+
+        reopen();
+        assertEquals(5, journal.nextSequence());
+        assertEquals(List.of(1L, 2L, 3L, 4L), seqs(0));
+        assertTrue(isZero(segment, JournalSegment.offset(7)), "bytes past the end are zeroed");
+
+        assertEquals(5, append(1));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), seqs(0));
+    }
+
+    @Test
+    void recordLostBeforeSyncEndsTheJournalThere() throws IOException {
+        reopen();
+        append(5);
+        stop();
+
+        Path segment = onlySegment();
+        overwrite(segment, JournalSegment.offset(2), new byte[JournalFormat.RECORD_SIZE]); // #3 never reached disk
+
+        reopen();
+        assertEquals(3, journal.nextSequence());
+        assertEquals(List.of(1L, 2L), seqs(0));
+        assertTrue(isZero(segment, JournalSegment.offset(3)), "records after the gap are dropped");
+    }
+
+    @Test
+    void halfCreatedSegmentIsRemovedOnOpen() throws IOException {
+        reopen();
+        append(3);
+        stop();
+
+        /* a crash while rolling over: the next segment's header was never written */
+        Path temp = dir.resolve(JournalFormat.fileName(4) + JournalSegment.TEMP_SUFFIX);
+        Files.write(temp, new byte[JournalFormat.HEADER_SIZE + JournalFormat.RECORD_SIZE]);
+
+        reopen();
+        assertFalse(Files.exists(temp));
+        assertEquals(4, append(1));
+        assertEquals(List.of(1L, 2L, 3L, 4L), seqs(0));
+    }
+
+    @Test
+    void fullSegmentRollsOverAndReadsContinueAcrossSegments() throws IOException {
+        reopen();
+        append(1);
+        int capacity = capacity();
+        append(capacity + 2); // fills the first segment, two into the second
+        stop();
+
+        List<Path> segments = JournalReader.segments(dir);
+        assertEquals(2, segments.size());
+        assertEquals(JournalFormat.fileName(capacity + 1), segments.get(1).getFileName().toString());
+
+        reopen();
+        assertEquals(capacity + 4, journal.nextSequence());
+        assertEquals(LongStream.rangeClosed(capacity - 1, capacity + 3).boxed().toList(), seqs(capacity - 1));
+    }
+
+    @Test
+    void checkpointSurvivesReopenAndDefaultsToTheNextSequence() throws IOException {
+        reopen();
+        append(5);
+        assertEquals(6, journal.checkpoint(), "a journal without checkpoint was evaluated as it was written");
+
+        journal.checkpoint(3);
+        reopen();
+        assertEquals(3, journal.checkpoint());
+        assertEquals(List.of(3L, 4L, 5L), seqs(journal.checkpoint()));
+    }
+
+    private void stop() throws IOException {
+        journal.close();
+        journal = null;
+    }
+
+    private void reopen() throws IOException {
+        if (journal != null) stop();
+        journal = new FixJournal(true, dir.toString(), 1, 60_000, 4);
+        journal.open();
+    }
+
+    /** Appends {@code n} fixes; returns the first one's sequence. */
+    private long append(int n) {
+        long first = 0;
+        for (int i = 0; i < n; i++) {
+            long seq = journal.append(USER, 52.5 + i * 1e-5, 13.4, 1_700_000_000_000L + i * 1000L, 5);
+            if (i == 0) first = seq;
+        }
+        return first;
+    }
+
+    private List<Long> seqs(long fromSeq) throws IOException {
+        List<Long> seqs = new ArrayList<>();
+        JournalReader.read(dir, fromSeq, r -> seqs.add(r.seq()));
+        return seqs;
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = JournalReader.segments(dir);
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    private int capacity() throws IOException {
+        return (int) ((Files.size(onlySegment()) - JournalFormat.HEADER_SIZE) / JournalFormat.RECORD_SIZE);
+    }
+
+    private static void overwrite(Path file, long offset, byte[] bytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(bytes), offset);
+        }
+    }
+
+    private static boolean isZero(Path file, long offset) throws IOException {
+        ByteBuffer b = JournalFormat.scratch();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ch.read(b, offset);
+        }
+        return JournalFormat.isZero(b);
+    }
+}
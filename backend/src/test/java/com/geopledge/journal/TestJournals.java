@@ -0,0 +1,21 @@
+package com.geopledge.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/** Opens and closes a journal the way the container would, for tests outside this package. */
+public final class TestJournals {
+
+    private TestJournals() {}
+
+    /** 1 MB segments, no background sync during a test. */
+    public static FixJournal open(Path dir) throws IOException {
+        FixJournal journal = new FixJournal(true, dir.toString(), 1, 60_000, 4);
+        journal.open();
+        return journal;
+    }
+
+    public static void close(FixJournal journal) throws IOException {
+        journal.close();
+    }
+}
@@ -0,0 +1,364 @@
+package com.geopledge.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a running instance with a fleet of synthetic phones.
+ *
+ * <pre>
+ * mvn -Pload test-compile exec:java -Dload.users=2000 -Dload.speedup=60 -Dload.seed=7
+ * </pre>
+ *
+ * 1. Setup: every device signs up, logs in and creates 1–3 pledges through the real
+ *    API; herd-fraction of them get a slot at herd-at (08:00), the rest are spread
+ *    over the day.
+ * 2. Replay: simulated time runs from start for minutes, speedup× faster than the
+ *    wall clock. Each device posts fixes to /api/pledges/check with {@code at} in
+ *    simulated time and follows the server's hint like location_tracker.ts, so the
+ *    pre-08:00 wake-up and the per-minute polling around the slot form the herd.
+ * 3. Report: throughput, latency percentiles (HdrHistogram, measured from the
+ *    intended send time, so a stalled server can't hide its queueing), error and
+ *    429 rates, and – scraped from /actuator/prometheus – connection-pool waits as
+ *    the database-lock contention signal. A fix that finds concurrency requests
+ *    already in flight waits its turn in a queue rather than being dropped, so the
+ *    wait counts against the server; any still queued at the end count as timeouts.
+ *
+ * Same seed, same users, schedules, routes and fix times. Start from an empty
+ * database: reruns against old data find the accounts taken and the pledges doubled.
+ * The server's time zone must match load.zone. Start it with
+ * app.ratelimit.enabled=false: every device signs up from this one address, and
+ * speedup multiplies each device's fix rate.
+ */
+public final class FleetLoadGenerator {
+
+    record Config(URI baseUrl, int users, long seed, double speedup, LocalTime start, int minutes,
+                  LocalTime herdAt, double herdFraction, int concurrency, int setupConcurrency,
+                  double lat, double lon, double spreadKm, ZoneId zone, URI metricsUrl) {
+
+        static Config fromSystemProperties() {
+            return new Config(
+                    URI.create(prop("url", "http://localhost:8080")),
+                    Integer.parseInt(prop("users", "200")),
+                    Long.parseLong(prop("seed", "42")),
+                    Double.parseDouble(prop("speedup", "60")),
+                    LocalTime.parse(prop("start", "07:30")),
+                    Integer.parseInt(prop("minutes", "60")),
+                    LocalTime.parse(prop("herd-at", "08:00")),
+                    Double.parseDouble(prop("herd-fraction", "0.6")),
+                    Integer.parseInt(prop("concurrency", "256")),
+                    Integer.parseInt(prop("setup-concurrency", "4")),
+                    Double.parseDouble(prop("lat", "40.75")),
+                    Double.parseDouble(prop("lon", "-73.99")),
+                    Double.parseDouble(prop("spread-km", "15")),
+                    ZoneId.of(prop("zone", ZoneId.systemDefault().getId())),
+                    URI.create(prop("metrics-url", "http://localhost:8081/actuator/prometheus")));
+        }
+
+        private static String prop(String name, String def) {
+            return System.getProperty("load." + name, def);
+        }
+    }
+
+    private static final Duration HERD_HALF_WIDTH = Duration.ofMinutes(10);
+    private static final String PASSWORD = "load-test-password";
+
+    private final Config config;
+    private final HttpClient client;
+    private final ObjectMapper json = new ObjectMapper();
+    private final LoadStats stats = new LoadStats();
+    private final ServerMetrics serverMetrics;
+    private final ZonedDateTime day;
+
+    private FleetLoadGenerator(Config config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.serverMetrics = new ServerMetrics(client, config.metricsUrl());
+        this.day = ZonedDateTime.now(config.zone()).truncatedTo(ChronoUnit.DAYS);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.fromSystemProperties();
+        System.out.println("load: " + config);
+        new FleetLoadGenerator(config).run();
+    }
+
+    private void run() throws Exception {
+        List<SimulatedDevice> devices = createFleet();
+
+        long setupStart = System.nanoTime();
+        setUp(devices);
+        double setupSeconds = (System.nanoTime() - setupStart) / 1e9;
+        for (String op : List.of("signup", "login", "create")) stats.op(op).wallSeconds = setupSeconds;
+        System.out.printf("setup: %d devices in %.1f s%n", devices.size(), setupSeconds);
+
+        Map<String, Double> before = serverMetrics.scrape();
+        replay(devices);
+        Map<String, Double> after = serverMetrics.scrape();
+
+        System.out.println();
+        stats.print(System.out);
+        serverMetrics.print(System.out, before, after);
+    }
+
+    /* ---------- fleet ---------- */
+
+    private List<SimulatedDevice> createFleet() {
+        Random rnd = new Random(config.seed());
+        List<SimulatedDevice> devices = new ArrayList<>(config.users());
+        double spread = config.spreadKm() * 1000 / 2;
+        for (int i = 0; i < config.users(); i++) {
+            double[] home = SimulatedDevice.offset(config.lat(), config.lon(),
+                    rnd.nextGaussian() * spread, rnd.nextGaussian() * spread);
+            SimulatedDevice d = new SimulatedDevice(i, rnd.nextLong(), home[0], home[1]);
+
+            int pledges = 1 + rnd.nextInt(3);
+            for (int k = 0; k < pledges; k++) {
+                LocalTime at = k == 0 && rnd.nextDouble() < config.herdFraction()
+                        ? config.herdAt()
+                        : LocalTime.of(6 + rnd.nextInt(16), 5 * rnd.nextInt(12));
+                double[] target = SimulatedDevice.offset(home[0], home[1],
+                        rnd.nextGaussian() * 3000, rnd.nextGaussian() * 3000);
+                d.slots.add(new SimulatedDevice.Slot(at.getHour(), at.getMinute(),
+                        target[0], target[1], rnd.nextDouble() < 0.8));
+            }
+            devices.add(d);
+        }
+        return devices;
+    }
+
+    /* ---------- setup through the public API ---------- */
+
+    private void setUp(List<SimulatedDevice> devices) throws Exception {
+        /* the first device also fetches a charity id for everyone's pledges */
+        register(devices.get(0), null);
+        String charityId = firstCharity(devices.get(0).token);
+
+        /* setup isn't what's measured: keep it gentle enough for SQLite's single writer */
+        ExecutorService pool = Executors.newFixedThreadPool(config.setupConcurrency());
+        for (SimulatedDevice d : devices.subList(1, devices.size())) {
+            pool.submit(() -> {
+                try {
+                    register(d, charityId);
+                } catch (Exception e) {
+                    System.err.println("setup failed for device " + d.index + ": " + e);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        if (charityId != null) createPledges(devices.get(0), charityId);
+    }
+
+    private void register(SimulatedDevice d, String charityId) throws Exception {
+        String email = "load-" + config.seed() + "-" + d.index + "@example.test";
+        String credentials = json.writeValueAsString(Map.of("email", email, "password", PASSWORD));
+
+        call("signup", post("/api/auth/signup", null, credentials)); // 4xx on a rerun: account exists
+        HttpResponse<String> login = call("login", post("/api/auth/login", null, credentials));
+        if (login == null || login.statusCode() != 200) return;
+        d.token = json.readTree(login.body()).path("token").asText();
+
+        if (charityId != null) createPledges(d, charityId);
+    }
+
+    private void createPledges(SimulatedDevice d, String charityId) throws Exception {
+        if (d.token == null) return;
+        int n = 0;
+        for (SimulatedDevice.Slot s : d.slots) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("name", "Load " + d.index + "-" + n++);
+            body.put("charityId", charityId);
+            body.put("targetLatitude", s.lat());
+            body.put("targetLongitude", s.lon());
+            body.put("radiusMeters", 100 + d.random.nextInt(150));
+            body.put("stakeCents", 500);
+            body.put("daysOfWeek", List.of(0, 1, 2, 3, 4, 5, 6));
+            body.put("timeHour", s.hour());
+            body.put("timeMinute", s.minute());
+            call("create", post("/api/pledges", d.token, json.writeValueAsString(body)));
+        }
+    }
+
+    private String firstCharity(String token) throws Exception {
+        if (token == null) throw new IllegalStateException("could not log in the first device - is the server up?");
+        HttpResponse<String> res = client.send(get("/api/charities", token), HttpResponse.BodyHandlers.ofString());
+        JsonNode list = json.readTree(res.body());
+        // pledges don't enforce the charity reference, so an empty catalogue still works
+        return list.isArray() && !list.isEmpty() ? list.get(0).path("id").asText() : UUID.randomUUID().toString();
+    }
+
+    private HttpResponse<String> call(String op, HttpRequest request) {
+        LoadStats.Op o = stats.op(op);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> res = client.send(request, HttpResponse.BodyHandlers.ofString());
+            o.record(System.nanoTime() - start, res.statusCode());
+            return res;
+        } catch (IOException e) {
+            o.ioErrors.increment();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /* ---------- fix replay ---------- */
+
+    private void replay(List<SimulatedDevice> devices) throws InterruptedException {
+        long simStart = day.with(config.start()).toInstant().toEpochMilli();
+        long simEnd = simStart + Duration.ofMinutes(config.minutes()).toMillis();
+        long herdAt = day.with(config.herdAt()).toInstant().toEpochMilli();
+        long herdFrom = herdAt - HERD_HALF_WIDTH.toMillis(), herdTo = herdAt + HERD_HALF_WIDTH.toMillis();
+
+        long herdSimMs = Math.max(0, Math.min(simEnd, herdTo) - Math.max(simStart, herdFrom));
+        stats.op("fix/herd").wallSeconds = herdSimMs / config.speedup() / 1000;
+        stats.op("fix/steady").wallSeconds = (simEnd - simStart - herdSimMs) / config.speedup() / 1000;
+
+        PriorityBlockingQueue<SimulatedDevice> due =
+                new PriorityBlockingQueue<>(devices.size(), Comparator.comparingLong(d -> d.nextFixAt));
+        for (SimulatedDevice d : devices) {
+            if (d.token == null) continue;
+            d.nextFixAt = simStart + (long) (d.random.nextDouble() * SimulatedDevice.BASE_INTERVAL_MS);
+            due.add(d);
+        }
+
+        Semaphore inFlight = new Semaphore(config.concurrency());
+        ConcurrentLinkedQueue<QueuedFix> queued = new ConcurrentLinkedQueue<>();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(serverMetrics::sample, 0, 1, TimeUnit.SECONDS);
+
+        System.out.printf("replay: %s -> %s simulated, %.0fx (%.0f s wall)%n",
+                config.start(), config.start().plusMinutes(config.minutes()), config.speedup(),
+                (simEnd - simStart) / config.speedup() / 1000);
+        long realStart = System.nanoTime();
+        while (true) {
+            long simNow = simStart + (long) ((System.nanoTime() - realStart) / 1e6 * config.speedup());
+            if (simNow >= simEnd) break;
+            sendQueued(queued, inFlight, due); // older than anything due now
+            SimulatedDevice d;
+            while ((d = due.peek()) != null && d.nextFixAt <= simNow) {
+                due.poll();
+                long intended = realStart + (long) ((d.nextFixAt - simStart) / config.speedup() * 1e6);
+                String op = d.nextFixAt >= herdFrom && d.nextFixAt < herdTo ? "fix/herd" : "fix/steady";
+                QueuedFix fix = new QueuedFix(d, stats.op(op), intended);
+                if (queued.isEmpty() && inFlight.tryAcquire()) {
+                    sendFix(fix, inFlight, due);
+                } else {
+                    fix.op().queued.increment();
+                    queued.add(fix);
+                }
+            }
+            LockSupport.parkNanos(1_000_000);
+        }
+
+        /* send what is still queued, then let the requests in flight finish */
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!queued.isEmpty() && System.nanoTime() < deadline) {
+            sendQueued(queued, inFlight, due);
+            LockSupport.parkNanos(1_000_000);
+        }
+        for (QueuedFix fix; (fix = queued.poll()) != null; ) {
+            fix.op().recordFailure(System.nanoTime() - fix.intendedNanos());
+        }
+        inFlight.tryAcquire(config.concurrency(), 60, TimeUnit.SECONDS);
+        sampler.shutdownNow();
+    }
+
+    /** A fix that was due while the generator was at its in-flight cap. */
+    private record QueuedFix(SimulatedDevice device, LoadStats.Op op, long intendedNanos) {}
+
+    /** Sends queued fixes, oldest first, while there is room in flight. */
+    private void sendQueued(ConcurrentLinkedQueue<QueuedFix> queued, Semaphore inFlight,
+                            PriorityBlockingQueue<SimulatedDevice> due) {
+        while (!queued.isEmpty() && inFlight.tryAcquire()) {
+            sendFix(queued.poll(), inFlight, due); // only this thread polls
+        }
+    }
+
+    /** Sends one fix; the caller holds an in-flight permit, released when it completes. */
+    private void sendFix(QueuedFix fix, Semaphore inFlight, PriorityBlockingQueue<SimulatedDevice> due) {
+        SimulatedDevice d = fix.device();
+        LoadStats.Op op = fix.op();
+        long intendedNanos = fix.intendedNanos();
+        long at = d.nextFixAt;
+        double[] pos = d.position(day, at);
+        String body = "{\"lat\":" + pos[0] + ",\"lon\":" + pos[1] + ",\"accuracy\":" + (5 + d.random.nextInt(20))
+                + ",\"at\":\"" + Instant.ofEpochMilli(at) + "\"}";
+
+        client.sendAsync(post("/api/pledges/check", d.token, body), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((res, err) -> {
+                    try {
+                        if (err != null) {
+                            op.recordFailure(System.nanoTime() - intendedNanos);
+                        } else {
+                            op.record(System.nanoTime() - intendedNanos, res.statusCode());
+                            if (res.statusCode() == 200) d.applyHint(secondsUntilNext(res.body()));
+                        }
+                        d.scheduleAfter(day, at);
+                        due.add(d);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+    }
+
+    private Long secondsUntilNext(String body) {
+        try {
+            JsonNode n = json.readTree(body).path("secondsUntilNextPledge");
+            return n.isNumber() ? n.asLong() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /* ---------- requests ---------- */
+
+    private HttpRequest post(String path, String token, String body) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(config.baseUrl().resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b.build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(config.baseUrl().resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+}
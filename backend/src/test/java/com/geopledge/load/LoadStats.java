@@ -0,0 +1,78 @@
+package com.geopledge.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Latency histograms (µs, 3 significant digits) and outcome counters per operation. */
+final class LoadStats {
+
+    private static final long MAX_MICROS = 120_000_000L;
+
+    static final class Op {
+        final Histogram latency = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder throttled = new LongAdder();   // 429 / 503
+        final LongAdder clientErrors = new LongAdder(); // other 4xx
+        final LongAdder serverErrors = new LongAdder(); // 5xx
+        final LongAdder ioErrors = new LongAdder();     // timeouts, refused, resets
+        final LongAdder queued = new LongAdder();       // sent late: generator at max in-flight
+        volatile double wallSeconds;
+
+        void record(long latencyNanos, int status) {
+            latency.recordValue(Math.min(MAX_MICROS, Math.max(1, latencyNanos / 1000)));
+            if (status >= 200 && status < 300) ok.increment();
+            else if (status == 429 || status == 503) throttled.increment();
+            else if (status >= 500) serverErrors.increment();
+            else clientErrors.increment();
+        }
+
+        /** A request that failed or never went out: an I/O error, with its wait so far as latency. */
+        void recordFailure(long latencyNanos) {
+            latency.recordValue(Math.min(MAX_MICROS, Math.max(1, latencyNanos / 1000)));
+            ioErrors.increment();
+        }
+
+        long total() {
+            return ok.sum() + throttled.sum() + clientErrors.sum() + serverErrors.sum() + ioErrors.sum();
+        }
+    }
+
+    private final Map<String, Op> ops = new LinkedHashMap<>();
+
+    synchronized Op op(String name) {
+        return ops.computeIfAbsent(name, n -> new Op());
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-12s %8s %9s %7s %7s %7s %7s %8s %8s %8s %8s%n",
+                "op", "requests", "req/s", "err%", "429%", "queued",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        ops.forEach((name, op) -> {
+            long total = op.total();
+            if (total == 0) return;
+            Histogram h = op.latency;
+            out.printf("%-12s %8d %9.1f %6.2f%% %6.2f%% %7d %7.1f %8.1f %8.1f %8.1f %8.1f%n",
+                    name, total,
+                    op.wallSeconds > 0 ? total / op.wallSeconds : 0,
+                    pct(op.clientErrors.sum() + op.serverErrors.sum() + op.ioErrors.sum(), total),
+                    pct(op.throttled.sum(), total),
+                    op.queued.sum(),
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)),
+                    ms(h.getMaxValue()));
+        });
+    }
+
+    private static double pct(long part, long total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+}
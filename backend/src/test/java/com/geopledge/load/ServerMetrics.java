@@ -0,0 +1,102 @@
+package com.geopledge.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The server's side of the run, from /actuator/prometheus. SQLite has one writer,
+ * so lock contention shows up as callers queueing for a pooled connection: pending
+ * threads and acquire time are the signal, timeouts the failure.
+ */
+final class ServerMetrics {
+
+    private static final List<String> NAMES = List.of(
+            "hikaricp_connections_pending",
+            "hikaricp_connections_acquire_seconds_count",
+            "hikaricp_connections_acquire_seconds_sum",
+            "hikaricp_connections_acquire_seconds_max",
+            "hikaricp_connections_timeout_total",
+            "geopledge_ingest_queue_depth");
+
+    private final HttpClient client;
+    private final URI uri;
+    private volatile double maxPending;
+    private volatile double maxAcquireSeconds;
+    private volatile double maxQueueDepth;
+    private volatile boolean available = true;
+    private volatile String unavailableReason = "not scraped";
+
+    ServerMetrics(HttpClient client, URI uri) {
+        this.client = client;
+        this.uri = uri;
+    }
+
+    /**
+     * Sums of the watched series (across tags); empty if the endpoint isn't there or
+     * this scrape failed. A slow scrape under load is skipped, not fatal.
+     */
+    Map<String, Double> scrape() {
+        Map<String, Double> values = new HashMap<>();
+        if (!available) return values;
+        try {
+            HttpResponse<String> res = client.send(
+                    HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5))
+                            .header("Accept", "text/plain").GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (res.statusCode() != 200) {
+                available = false;
+                unavailableReason = "HTTP " + res.statusCode();
+                return values;
+            }
+            for (String line : res.body().split("\n")) {
+                if (line.startsWith("#")) continue;
+                for (String name : NAMES) {
+                    if (line.startsWith(name) && (line.charAt(name.length()) == '{' || line.charAt(name.length()) == ' ')) {
+                        double v = Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                        values.merge(name, v, Double::sum);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            unavailableReason = e.toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return values;
+    }
+
+    /** Once a second during the replay: the peaks a before/after diff would miss. */
+    void sample() {
+        Map<String, Double> v = scrape();
+        maxPending = Math.max(maxPending, v.getOrDefault("hikaricp_connections_pending", 0.0));
+        maxAcquireSeconds = Math.max(maxAcquireSeconds, v.getOrDefault("hikaricp_connections_acquire_seconds_max", 0.0));
+        maxQueueDepth = Math.max(maxQueueDepth, v.getOrDefault("geopledge_ingest_queue_depth", 0.0));
+    }
+
+    void print(PrintStream out, Map<String, Double> before, Map<String, Double> after) {
+        out.println();
+        if (!available || before.isEmpty() || after.isEmpty()) {
+            out.println("db contention: n/a (" + uri + ": " + unavailableReason + ")");
+            return;
+        }
+        double acquires = delta(before, after, "hikaricp_connections_acquire_seconds_count");
+        double acquireSeconds = delta(before, after, "hikaricp_connections_acquire_seconds_sum");
+        out.printf("db contention: %.0f connection acquires, mean wait %.2f ms, max wait %.1f ms, "
+                        + "max threads waiting %.0f, acquire timeouts %.0f%n",
+                acquires, acquires > 0 ? acquireSeconds / acquires * 1000 : 0, maxAcquireSeconds * 1000,
+                maxPending, delta(before, after, "hikaricp_connections_timeout_total"));
+        out.printf("ingest queue: max depth %.0f%n", maxQueueDepth);
+    }
+
+    private static double delta(Map<String, Double> before, Map<String, Double> after, String name) {
+        return after.getOrDefault(name, 0.0) - before.getOrDefault(name, 0.0);
+    }
+}
@@ -0,0 +1,91 @@
+package com.geopledge.load;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * One phone running {@code GeoPledge/utils/location_tracker.ts}: it sends a fix,
+ * reads the server's hint and picks its next interval the same way
+ * {@code applyHint} does. Position comes from a daily routine: at home, travelling
+ * to a pledge target shortly before the slot, and (if compliant) staying there a
+ * while. All randomness comes from the device's own seeded {@link Random}.
+ */
+final class SimulatedDevice {
+
+    static final long MIN_INTERVAL_MS = 60_000;
+    static final long BASE_INTERVAL_MS = 5 * 60_000;
+    static final long MAX_INTERVAL_MS = 60 * 60_000;
+    static final long LEAD_S = 10 * 60;
+    private static final long TRAVEL_MS = 10 * 60_000;
+    private static final long ARRIVE_BEFORE_MS = 5 * 60_000;
+    private static final long STAY_MS = 30 * 60_000;
+    private static final double METERS_PER_DEG = 111_320;
+
+    record Slot(int hour, int minute, double lat, double lon, boolean compliant) {}
+
+    final int index;
+    final Random random;
+    final double homeLat, homeLon;
+    final List<Slot> slots = new ArrayList<>();
+    String token;
+
+    long intervalMs = BASE_INTERVAL_MS;
+    long nextFixAt; // simulated epoch millis
+
+    SimulatedDevice(int index, long seed, double homeLat, double homeLon) {
+        this.index = index;
+        this.random = new Random(seed);
+        this.homeLat = homeLat;
+        this.homeLon = homeLon;
+    }
+
+    /** Where the phone is at simulated time {@code t} on {@code day}, with GPS noise. */
+    double[] position(ZonedDateTime day, long t) {
+        double lat = homeLat, lon = homeLon;
+        for (Slot s : slots) {
+            long slot = day.withHour(s.hour()).withMinute(s.minute()).toInstant().toEpochMilli();
+            long arrive = slot - ARRIVE_BEFORE_MS, leave = arrive - TRAVEL_MS;
+            if (t < leave || t > slot + STAY_MS) continue;
+            double[] dest = s.compliant() ? new double[]{s.lat(), s.lon()} : offset(s.lat(), s.lon(), 600, 0);
+            double f = Math.min(1, (t - leave) / (double) TRAVEL_MS);
+            lat = homeLat + (dest[0] - homeLat) * f;
+            lon = homeLon + (dest[1] - homeLon) * f;
+            break;
+        }
+        return offset(lat, lon, random.nextGaussian() * 8, random.nextGaussian() * 8);
+    }
+
+    /** True while travelling: the 50 m distance filter would fire more often than the timer. */
+    boolean moving(ZonedDateTime day, long t) {
+        for (Slot s : slots) {
+            long slot = day.withHour(s.hour()).withMinute(s.minute()).toInstant().toEpochMilli();
+            long arrive = slot - ARRIVE_BEFORE_MS;
+            if (t >= arrive - TRAVEL_MS && t < arrive) return true;
+        }
+        return false;
+    }
+
+    /** {@code applyHint}: sleep until shortly before the next slot, poll fast once it is close. */
+    void applyHint(Long secondsUntilNextPledge) {
+        if (secondsUntilNextPledge == null) return;
+        long untilLeadMs = (secondsUntilNextPledge - LEAD_S) * 1000;
+        intervalMs = untilLeadMs <= 0
+                ? MIN_INTERVAL_MS
+                : Math.min(MAX_INTERVAL_MS, Math.max(BASE_INTERVAL_MS, untilLeadMs));
+    }
+
+    /** Next fix after one at {@code sentAt}: the interval, shortened while moving, ±10% OS batching jitter. */
+    void scheduleAfter(ZonedDateTime day, long sentAt) {
+        long interval = moving(day, sentAt) ? Math.min(intervalMs, MIN_INTERVAL_MS) : intervalMs;
+        nextFixAt = sentAt + (long) (interval * (0.9 + 0.2 * random.nextDouble()));
+    }
+
+    static double[] offset(double lat, double lon, double northMeters, double eastMeters) {
+        return new double[]{
+                lat + northMeters / METERS_PER_DEG,
+                lon + eastMeters / (METERS_PER_DEG * Math.cos(Math.toRadians(lat)))
+        };
+    }
+}
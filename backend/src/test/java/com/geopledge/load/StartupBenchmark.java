@@ -0,0 +1,167 @@
+package com.geopledge.load;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from {@code java} launch until /actuator/health answers 200, for each step of
+ * the fast-start build. Runs in the verify phase of the fast-start profile:
+ *
+ * <pre>
+ * mvn -Pfast-start verify -Dstartup.runs=5
+ * </pre>
+ *
+ * Variants, each against its own database in a temp directory:
+ * - default:      the fat jar with the default profile (SQL logging, Hibernate schema validation)
+ * - prod:         the fat jar with --spring.profiles.active=prod
+ * - prod+aot:     the extracted jar with -Dspring.aot.enabled=true
+ * - prod+aot+cds: the same plus the class-data-sharing archive from the training run
+ * - prod+aot+cds+c1: the same with -XX:TieredStopAtLevel=1. On one CPU, C2 compiling
+ *   the startup code competes with the startup itself; C1 alone gives up some peak
+ *   throughput instead
+ * A variant whose jar or archive is missing is skipped. Every variant gets one untimed
+ * run first, which applies the migrations and warms the page cache, the way a pod
+ * restart finds an existing database.
+ *
+ * Children run on this JVM's java, the one the CDS archive was trained on. CPU is the
+ * child's user + system time at the moment it became healthy, JIT threads included.
+ */
+public final class StartupBenchmark {
+
+    record Config(Path dir, String jar, int runs, int timeoutSeconds) {
+
+        static Config fromSystemProperties() {
+            return new Config(
+                    Path.of(prop("dir", "target")),
+                    prop("jar", "backend-0.0.1-SNAPSHOT.jar"),
+                    Integer.parseInt(prop("runs", "5")),
+                    Integer.parseInt(prop("timeout-seconds", "180")));
+        }
+
+        private static String prop(String name, String def) {
+            return System.getProperty("startup." + name, def);
+        }
+    }
+
+    record Variant(String name, Path jar, List<String> jvmArgs, List<Path> requires, List<String> appArgs) {}
+
+    record Sample(long wallMs, long cpuMs) {}
+
+    private final Config config;
+    private final String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    private StartupBenchmark(Config config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.fromSystemProperties();
+        System.out.println("startup: " + config + ", java " + Runtime.version());
+        new StartupBenchmark(config).run();
+    }
+
+    private void run() throws Exception {
+        Path fat = config.dir().resolve(config.jar());
+        Path extracted = config.dir().resolve("app").resolve(config.jar());
+        Path archive = config.dir().resolve("app").resolve("app.jsa");
+        List<String> prod = List.of("--spring.profiles.active=prod");
+        List<Variant> variants = List.of(
+                new Variant("default", fat, List.of(), List.of(fat), List.of()),
+                new Variant("prod", fat, List.of(), List.of(fat), prod),
+                new Variant("prod+aot", extracted, List.of("-Dspring.aot.enabled=true"), List.of(extracted), prod),
+                new Variant("prod+aot+cds", extracted,
+                        List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive.toAbsolutePath()),
+                        List.of(extracted, archive), prod),
+                new Variant("prod+aot+cds+c1", extracted,
+                        List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive.toAbsolutePath(),
+                                "-XX:TieredStopAtLevel=1"),
+                        List.of(extracted, archive), prod));
+
+        System.out.printf("%-16s %5s %9s %9s %9s %9s%n", "variant", "runs", "min ms", "p50 ms", "max ms", "cpu p50");
+        for (Variant v : variants) {
+            if (!v.requires().stream().allMatch(Files::exists)) {
+                System.out.printf("%-16s skipped, missing %s%n", v.name(), v.requires());
+                continue;
+            }
+            Path work = Files.createTempDirectory("geopledge-startup-");
+            time(v, work); // migrate + warm up
+            long[] wall = new long[config.runs()], cpu = new long[config.runs()];
+            for (int i = 0; i < wall.length; i++) {
+                Sample s = time(v, work);
+                wall[i] = s.wallMs();
+                cpu[i] = s.cpuMs();
+            }
+            Arrays.sort(wall);
+            Arrays.sort(cpu);
+            if (wall.length > 0) {
+                int mid = wall.length / 2;
+                System.out.printf("%-16s %5d %9d %9d %9d %9d%n", v.name(), wall.length,
+                        wall[0], wall[mid], wall[wall.length - 1], cpu[mid]);
+            }
+        }
+    }
+
+    /** One cold start in {@code work}; the app is stopped once healthy. */
+    private Sample time(Variant v, Path work) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> cmd = new ArrayList<>(List.of(java));
+        cmd.addAll(v.jvmArgs());
+        cmd.addAll(List.of("-jar", v.jar().toAbsolutePath().toString(),
+                "--server.port=" + port,
+                "--management.server.port=" + port, // health on the API port, one port to poll
+                "--spring.datasource.url=jdbc:sqlite:" + work.resolve("startup.db")));
+        cmd.addAll(v.appArgs());
+        Path log = work.resolve("app.log");
+        Process p = new ProcessBuilder(cmd)
+                .directory(work.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(config.timeoutSeconds());
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        try {
+            while (System.nanoTime() < deadline && p.isAlive()) {
+                try {
+                    if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long wall = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        long cpu = p.info().totalCpuDuration().map(Duration::toMillis).orElse(-1L);
+                        return new Sample(wall, cpu);
+                    }
+                } catch (IOException notListening) {
+                    // not up yet
+                }
+                Thread.sleep(20);
+            }
+            List<String> lines = Files.readAllLines(log);
+            throw new IllegalStateException(v.name() + (p.isAlive() ? " not healthy in time" : " exited")
+                    + ", log tail:\n" + String.join("\n", lines.subList(Math.max(0, lines.size() - 20), lines.size())));
+        } finally {
+            p.destroy();
+            if (!p.waitFor(30, TimeUnit.SECONDS)) p.destroyForcibly().waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket s = new ServerSocket(0)) {
+            return s.getLocalPort();
+        }
+    }
+}
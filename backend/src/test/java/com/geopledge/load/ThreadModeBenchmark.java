@@ -0,0 +1,205 @@
+package com.geopledge.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geopledge.SpringBootAPI;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform thread pool vs virtual threads under SQLite lock contention, in one JVM.
+ *
+ * <pre>
+ * mvn -Pload test-compile exec:java -Dload.main=com.geopledge.load.ThreadModeBenchmark -Dbench.writers=200
+ * </pre>
+ *
+ * For each mode the app starts on a random port with a fresh database. A side
+ * connection then holds SQLite's writer lock (BEGIN IMMEDIATE) for hold-ms out of
+ * every hold-ms + gap-ms, the way a long write or a backfill batch would. Two groups
+ * of clients run against it:
+ * - writers create pledges, so each request waits on the lock for a pooled connection
+ *   and then in SQLite's busy handler;
+ * - pollers revalidate the pledge list with If-None-Match, a 304 served from memory
+ *   that needs neither a connection nor the lock.
+ * With a fixed pool of tomcat-threads, blocked writers take every worker and the
+ * pollers queue behind them. With virtual threads the writers only hold the JDBC
+ * pool. The poll row in each table shows the difference.
+ *
+ * Clients run a closed loop: one request in flight each, latency measured from send.
+ */
+public final class ThreadModeBenchmark {
+
+    record Config(List<String> modes, int tomcatThreads, int writers, int pollers, int seconds,
+                  long holdMs, long gapMs) {
+
+        static Config fromSystemProperties() {
+            return new Config(
+                    List.of(prop("modes", "platform,virtual").split(",")),
+                    Integer.parseInt(prop("tomcat-threads", "50")),
+                    Integer.parseInt(prop("writers", "200")),
+                    Integer.parseInt(prop("pollers", "20")),
+                    Integer.parseInt(prop("seconds", "20")),
+                    Long.parseLong(prop("hold-ms", "1000")),
+                    Long.parseLong(prop("gap-ms", "100")));
+        }
+
+        private static String prop(String name, String def) {
+            return System.getProperty("bench." + name, def);
+        }
+    }
+
+    private static final String PASSWORD = "bench-password";
+
+    private final Config config;
+    private final ObjectMapper json = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private ThreadModeBenchmark(Config config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.fromSystemProperties();
+        System.out.println("bench: " + config + ", carriers "
+                + Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors()));
+        ThreadModeBenchmark bench = new ThreadModeBenchmark(config);
+        for (String mode : config.modes()) bench.run(mode.trim());
+        System.exit(0);
+    }
+
+    private void run(String mode) throws Exception {
+        boolean virtual = "virtual".equals(mode);
+        Path db = Files.createTempFile("geopledge-bench-", ".db");
+        /* command-line args, so they win over application.properties */
+        ConfigurableApplicationContext ctx = new SpringApplicationBuilder(SpringBootAPI.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=jdbc:sqlite:" + db,
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--server.tomcat.threads.max=" + config.tomcatThreads(),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--app.journal.enabled=false",
+                "--app.jfr.continuous=false");
+        try {
+            URI base = URI.create("http://localhost:" + ctx.getEnvironment().getProperty("local.server.port"));
+            String writer = token(base, "writer"), poller = token(base, "poller");
+            String body = "{\"name\":\"Bench\",\"charityId\":\"" + UUID.randomUUID() + "\","
+                    + "\"targetLatitude\":40.75,\"targetLongitude\":-73.99,\"radiusMeters\":100,"
+                    + "\"stakeCents\":500,\"daysOfWeek\":[1,3,5],\"timeHour\":7,\"timeMinute\":0}";
+            String etag = client.send(get(base, poller, null), HttpResponse.BodyHandlers.discarding())
+                    .headers().firstValue("ETag").orElseThrow();
+
+            LoadStats stats = new LoadStats();
+            LoadStats.Op writes = stats.op("write"), polls = stats.op("poll");
+            long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.seconds());
+            List<Thread> threads = new ArrayList<>();
+            threads.add(Thread.ofPlatform().daemon().start(() -> holdWriterLock(db, until)));
+            for (int i = 0; i < config.writers(); i++) {
+                threads.add(Thread.ofVirtual().start(() -> loop(writes, until, () -> post(base, writer, body))));
+            }
+            for (int i = 0; i < config.pollers(); i++) {
+                threads.add(Thread.ofVirtual().start(() -> loop(polls, until, () -> get(base, poller, etag))));
+            }
+            for (Thread t : threads) t.join();
+            writes.wallSeconds = polls.wallSeconds = config.seconds();
+
+            int pool = ctx.getBean(HikariDataSource.class).getMaximumPoolSize();
+            System.out.printf("%n%s threads (%s, JDBC pool %d):%n", mode,
+                    virtual ? "Tomcat on virtual threads" : config.tomcatThreads() + " Tomcat workers", pool);
+            stats.print(System.out);
+        } finally {
+            ctx.close();
+            Files.deleteIfExists(db);
+        }
+    }
+
+    /** Closed loop until the deadline; 304 counts as success for a poll. */
+    private void loop(LoadStats.Op op, long until, RequestFactory request) {
+        while (System.nanoTime() < until) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> res = client.send(request.create(), HttpResponse.BodyHandlers.discarding());
+                op.record(System.nanoTime() - start, res.statusCode() == 304 ? 200 : res.statusCode());
+            } catch (IOException e) {
+                op.ioErrors.increment();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /** The contention: SQLite's single writer lock, held from outside the app. */
+    private void holdWriterLock(Path db, long until) {
+        try (Connection c = DriverManager.getConnection("jdbc:sqlite:" + db);
+             Statement s = c.createStatement()) {
+            while (System.nanoTime() < until) {
+                s.execute("BEGIN IMMEDIATE");
+                Thread.sleep(config.holdMs());
+                s.execute("COMMIT");
+                Thread.sleep(config.gapMs());
+            }
+        } catch (SQLException e) {
+            System.err.println("lock holder failed: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String token(URI base, String name) throws Exception {
+        String credentials = json.writeValueAsString(Map.of("email", name + "@bench.test", "password", PASSWORD));
+        client.send(post(base, null, credentials, "/api/auth/signup"), HttpResponse.BodyHandlers.discarding());
+        HttpResponse<String> login = client.send(post(base, null, credentials, "/api/auth/login"),
+                HttpResponse.BodyHandlers.ofString());
+        return json.readTree(login.body()).path("token").asText();
+    }
+
+    private HttpRequest post(URI base, String token, String body) {
+        return post(base, token, body, "/api/pledges");
+    }
+
+    private HttpRequest post(URI base, String token, String body, String path) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(base.resolve(path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b.build();
+    }
+
+    private HttpRequest get(URI base, String token, String etag) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(base.resolve("/api/pledges"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Authorization", "Bearer " + token)
+                .GET();
+        if (etag != null) b.header("If-None-Match", etag);
+        return b.build();
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        HttpRequest create();
+    }
+}
@@ -0,0 +1,193 @@
+package com.geopledge.service;
+
+import com.geopledge.dto.LocationFixDTO;
+import com.geopledge.model.Pledge;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.repository.GeofenceStateRepository;
+import com.geopledge.repository.PledgeCheckRepository;
+import com.geopledge.repository.PledgeRepository;
+import com.geopledge.support.InMemoryTrackSegments;
+import com.geopledge.support.Stubs;
+import com.geopledge.support.VirtualClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Window decisions of {@link DwellWindowEvaluator}, driven by a virtual clock and one
+ * sweep per minute. "Instances" are evaluators with their own track store buffers
+ * over one shared track table, as several processes over one database.
+ */
+class DwellWindowEvaluatorTests {
+
+    private static final ZonedDateTime SLOT = ZonedDateTime.of(2026, 3, 2, 9, 0, 0, 0, ZoneOffset.UTC);
+    private static final double LAT = 52.52, LON = 13.405;
+
+    private final VirtualClock clock = new VirtualClock(SLOT.minusHours(1).toInstant(), ZoneOffset.UTC);
+    private final InMemoryTrackSegments tracks = new InMemoryTrackSegments();
+    private final List<PledgeCheck> checks = new ArrayList<>();
+    private final Pledge pledge = pledge();
+
+    private final PledgeRepository pledgeRepo = Stubs.of(PledgeRepository.class, Map.of(
+            "findAllById", args -> {
+                List<Pledge> found = new ArrayList<>();
+                for (Object id : (Iterable<?>) args[0]) if (pledge.getId().equals(id)) found.add(pledge);
+                return found;
+            },
+            "findByActiveTrueAndTimeHourAndTimeMinute", args ->
+                    pledge.isActive() && pledge.getTimeHour() == (Integer) args[0]
+                            && pledge.getTimeMinute() == (Integer) args[1] ? List.of(pledge) : List.of(),
+            "findMaxSyncVersionByUserId", args -> 0L,
+            "updateSyncVersion", args -> 1,
+            "save", args -> args[0]));
+    private final PledgeCheckRepository checkRepo = Stubs.of(PledgeCheckRepository.class, Map.of(
+            "save", args -> {
+                checks.add((PledgeCheck) args[0]);
+                return args[0];
+            }));
+
+    @Test
+    void fixesInsideForTheWholeWindowMeetTheSlot() {
+        Instance solo = new Instance(false, true, 0);
+        for (int m = -8; m <= 8; m += 2) solo.fix(m, true);
+        sweepUntil(SLOT.plusMinutes(15), solo);
+        assertDecided(PledgeCheck.Status.MET);
+    }
+
+    @Test
+    void noFixAtAllViolatesTheSlot() {
+        Instance solo = new Instance(false, true, 0);
+        sweepUntil(SLOT.plusMinutes(15), solo);
+        assertDecided(PledgeCheck.Status.VIOLATED);
+    }
+
+    @Test
+    void lateTickStillDecidesASlotWithoutFixes() {
+        Instance solo = new Instance(false, true, 0);
+        sweepUntil(SLOT.plusMinutes(5), solo);
+        clock.set(SLOT.plusMinutes(14).toInstant()); // ticks at +10 to +13 never ran
+        solo.dwell.closeDueWindows();
+        assertDecided(PledgeCheck.Status.VIOLATED);
+        sweepUntil(SLOT.plusMinutes(30), solo);
+        assertDecided(PledgeCheck.Status.VIOLATED);
+    }
+
+    @Test
+    void catchUpGoesBackOnlyCatchUpMinutes() {
+        Instance solo = new Instance(false, true, 0);
+        sweepUntil(SLOT.plusMinutes(5), solo);
+        clock.set(SLOT.plusMinutes(40).toInstant());
+        solo.dwell.closeDueWindows();
+        assertTrue(checks.isEmpty(), "slot is 30 minutes overdue, past the 15 minute catch-up: " + checks);
+    }
+
+    @Test
+    void ownerDecidesFromFixesThatWentToAnotherInstance() {
+        Instance owner = new Instance(true, true, 0), other = new Instance(true, false, 0);
+        owner.fix(-9, false); // the owner only saw the user arrive
+        for (int m = -8; m <= 8; m++) other.fix(m, true);
+        sweepUntil(SLOT.plusMinutes(15), owner, other);
+        assertDecided(PledgeCheck.Status.MET);
+    }
+
+    @Test
+    void ownerWithoutAnyFixOfItsOwnStillDecidesFromTheTrack() {
+        Instance owner = new Instance(true, true, 0), other = new Instance(true, false, 0);
+        for (int m = -8; m <= 8; m++) other.fix(m, true);
+        sweepUntil(SLOT.plusMinutes(15), owner, other);
+        assertDecided(PledgeCheck.Status.MET);
+    }
+
+    @Test
+    void simplifiedTrackIsNoEvidenceForAViolation() {
+        Instance owner = new Instance(true, true, 10), other = new Instance(true, false, 10);
+        owner.fix(-9, false);
+        for (int m = -8; m <= 8; m++) other.fix(m, true);
+        sweepUntil(SLOT.plusMinutes(15), owner, other);
+        assertTrue(checks.isEmpty(), "undecided rather than forfeited: " + checks);
+    }
+
+    @Test
+    void simplifiedTrackStillLetsTheOwnersOwnFixesMeetTheSlot() {
+        Instance owner = new Instance(true, true, 10), other = new Instance(true, false, 10);
+        for (int m = -8; m <= 8; m++) owner.fix(m, true);
+        sweepUntil(SLOT.plusMinutes(15), owner, other);
+        assertDecided(PledgeCheck.Status.MET);
+    }
+
+    private void assertDecided(PledgeCheck.Status status) {
+        assertEquals(1, checks.size(), "one decision: " + checks);
+        assertEquals(status, checks.get(0).getStatus());
+        assertEquals(SLOT, checks.get(0).getScheduledFor());
+    }
+
+    /** Each instance flushes its track and sweeps once a minute, as the schedulers would. */
+    private void sweepUntil(ZonedDateTime end, Instance... instances) {
+        ZonedDateTime t = ZonedDateTime.now(clock).withSecond(0).withNano(0);
+        while (!t.isAfter(end)) {
+            clock.set(t.toInstant());
+            for (Instance i : instances) i.track.flush();
+            for (Instance i : instances) i.dwell.closeDueWindows();
+            t = t.plusMinutes(1);
+        }
+    }
+
+    private final class Instance {
+        final TrackStore track;
+        final DwellWindowEvaluator dwell;
+        final PledgeGeometry geometry = new PledgeGeometry(32);
+
+        Instance(boolean shared, boolean owner, double simplifyMeters) {
+            PledgeMetrics metrics = new PledgeMetrics(new SimpleMeterRegistry());
+            PledgeVersionTracker versions = new PledgeVersionTracker(pledgeRepo, null, false);
+            PledgeCheckWriter writer = new PledgeCheckWriter(pledgeRepo, checkRepo, versions, metrics, e -> {}, clock);
+            PartitionOwnership ownership = new PartitionOwnership(null, null, null, clock, shared, 64, 15, 5000, "n") {
+                @Override
+                public Predicate<UUID> ownedUsers() {
+                    return userId -> owner;
+                }
+            };
+            GeofenceStateRepository states = Stubs.of(GeofenceStateRepository.class, Map.of(
+                    "existsById", args -> false));
+            GeofenceService geofences = new GeofenceService(pledgeRepo, states, writer, versions, ownership, clock, 7, 15);
+            this.track = new TrackStore(tracks.repository, true, simplifyMeters);
+            this.dwell = new DwellWindowEvaluator(pledgeRepo, writer, geofences, geometry, ownership, track, clock,
+                    "dwell", 10, 300, 15, 60_000);
+        }
+
+        /** A fix {@code minute} minutes from the slot, inside the fence or 1 km away, as PledgeService hands it on. */
+        void fix(int minute, boolean inside) {
+            Instant at = SLOT.plusMinutes(minute).toInstant();
+            double lat = inside ? LAT : LAT + 0.01;
+            clock.set(at);
+            dwell.observe(pledge, new LocationFixDTO(lat, LON, at, 5.0), at.atZone(ZoneOffset.UTC), false);
+            track.append(pledge.getUserId(), lat, LON, at);
+        }
+    }
+
+    private static Pledge pledge() {
+        Pledge p = new Pledge();
+        p.setId(UUID.fromString("00000000-0000-0000-0000-000000000481"));
+        p.setUserId(UUID.fromString("00000000-0000-0000-0000-000000000482"));
+        p.setActive(true);
+        p.setTargetLatitude(LAT);
+        p.setTargetLongitude(LON);
+        p.setRadiusMeters(100);
+        p.setDaysOfWeek(List.of(0, 1, 2, 3, 4, 5, 6));
+        p.setTimeHour(SLOT.getHour());
+        p.setTimeMinute(SLOT.getMinute());
+        return p;
+    }
+}
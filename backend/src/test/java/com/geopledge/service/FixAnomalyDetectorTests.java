@@ -0,0 +1,87 @@
+package com.geopledge.service;
+
+import com.geopledge.service.FixAnomalyDetector.Verdict;
+import com.geopledge.support.VirtualClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FixAnomalyDetectorTests {
+
+    private static final UUID USER = UUID.fromString("00000000-0000-0000-0000-000000000034");
+    private static final double HOME_LAT = 52.52, HOME_LON = 13.405;
+    private static final double VENUE_LAT = 53.42, VENUE_LON = 13.405; // 100 km north
+
+    private final VirtualClock clock = new VirtualClock(Instant.parse("2026-03-02T08:00:00Z"), ZoneOffset.UTC);
+    private final FixAnomalyDetector detector =
+            new FixAnomalyDetector(true, "tag", 280, 70, 2000, 4, 0.3, 0.8, 2, 50, 4, 900, 720, clock);
+
+    @Test
+    void idleTracksAreEvictedByTheInjectedClock() {
+        assertEquals(Verdict.OK, live(HOME_LAT, HOME_LON, 10));
+        clock.advance(Duration.ofHours(11));
+        detector.evictIdle();
+        assertEquals(1, detector.trackedUsers());
+        clock.advance(Duration.ofHours(2));
+        detector.evictIdle();
+        assertEquals(0, detector.trackedUsers());
+    }
+
+    @Test
+    void walkingIsPlausible() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Verdict.OK, live(HOME_LAT + i * 0.001, HOME_LON, 10)); // ~110 m a minute
+        }
+    }
+
+    @Test
+    void hugeReportedAccuracyDoesNotExplainAJump() {
+        assertEquals(Verdict.OK, live(HOME_LAT, HOME_LON, 10));
+        assertEquals(Verdict.SUSPECT, live(VENUE_LAT, VENUE_LON, 1e7));
+    }
+
+    @Test
+    void spacedTimestampsDoNotMakeAJumpPlausible() {
+        assertEquals(Verdict.OK, live(HOME_LAT, HOME_LON, 10));
+        clock.advance(Duration.ofMinutes(1));
+        // claims to be taken three hours after the last fix, which arrived a minute ago
+        long claimed = clock.millis() - 60_000 + Duration.ofHours(3).toMillis();
+        assertEquals(Verdict.SUSPECT, detector.assess(USER, VENUE_LAT, VENUE_LON, claimed, 10));
+    }
+
+    @Test
+    void backdatedReferenceDoesNotMakeAJumpPlausible() {
+        long hoursAgo = clock.millis() - Duration.ofHours(3).toMillis();
+        assertEquals(Verdict.OK, detector.assess(USER, HOME_LAT, HOME_LON, hoursAgo, 10));
+        clock.advance(Duration.ofMinutes(1));
+        assertEquals(Verdict.SUSPECT, detector.assess(USER, VENUE_LAT, VENUE_LON, clock.millis(), 10));
+    }
+
+    @Test
+    void fixFromTheFutureIsSuspect() {
+        long ahead = clock.millis() + Duration.ofHours(1).toMillis();
+        assertEquals(Verdict.SUSPECT, detector.assess(USER, HOME_LAT, HOME_LON, ahead, 10));
+    }
+
+    @Test
+    void batchOfOlderFixesArrivingTogetherIsPlausible() {
+        /* an hour's drive at 25 m/s, five-minute fixes, uploaded at once when back online */
+        clock.advance(Duration.ofHours(1));
+        long start = clock.millis() - Duration.ofHours(1).toMillis();
+        for (int i = 0; i <= 12; i++) {
+            double lat = HOME_LAT + i * 25 * 300 / 111_195.0;
+            assertEquals(Verdict.OK, detector.assess(USER, lat, HOME_LON, start + i * 300_000L, 20), "fix " + i);
+        }
+    }
+
+    /** A fix taken now, arriving a minute after the previous one. */
+    private Verdict live(double lat, double lon, double accuracy) {
+        clock.advance(Duration.ofMinutes(1));
+        return detector.assess(USER, lat, lon, clock.millis(), accuracy);
+    }
+}
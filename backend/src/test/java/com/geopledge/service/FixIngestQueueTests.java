@@ -0,0 +1,181 @@
+package com.geopledge.service;
+
+import com.geopledge.dto.LocationFixDTO;
+import com.geopledge.journal.FixJournal;
+import com.geopledge.journal.TestJournals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Async intake and the journal: a fix is journaled before it is acknowledged, and what
+ * a crashed run acknowledged but never evaluated is evaluated on the next start.
+ * A "crash" leaves the consumer stuck and the queue never shut down.
+ */
+class FixIngestQueueTests {
+
+    private static final UUID USER = UUID.fromString("00000000-0000-0000-0000-000000000042");
+
+    @TempDir
+    Path dir;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<FixJournal> journals = new CopyOnWriteArrayList<>();
+    private final List<FixIngestQueue> queues = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        release.countDown();
+        for (FixIngestQueue q : queues) q.shutdown();
+        for (FixJournal j : journals) closeJournal(j);
+    }
+
+    @Test
+    void acknowledgedFixesAreReplayedAfterACrash() throws Exception {
+        FixJournal journal = openJournal();
+        Recorder stuck = new Recorder(release);
+        FixIngestQueue queue = start(stuck, journal, 8);
+        for (int i = 0; i < 3; i++) assertTrue(queue.publish(USER, fix(i)));
+        assertTrue(stuck.started.await(5, TimeUnit.SECONDS));
+        queue.checkpoint();
+        assertEquals(1, journal.checkpoint(), "nothing evaluated yet");
+
+        closeJournal(journal); // the process dies here
+        Recorder next = new Recorder(null);
+        start(next, openJournal(), 8);
+
+        assertEquals(List.of(0L, 1000L, 2000L), next.atMillis());
+    }
+
+    @Test
+    void evaluatedFixesAreNotReplayed() throws Exception {
+        FixJournal journal = openJournal();
+        Recorder recorder = new Recorder(null);
+        FixIngestQueue queue = start(recorder, journal, 8);
+        for (int i = 0; i < 3; i++) assertTrue(queue.publish(USER, fix(i)));
+        recorder.awaitCount(3);
+        queue.checkpoint();
+        assertEquals(4, journal.checkpoint());
+        queue.publish(USER, fix(3));
+        recorder.awaitCount(4);
+
+        closeJournal(journal); // dies before the next checkpoint
+        Recorder next = new Recorder(null);
+        start(next, openJournal(), 8);
+
+        assertEquals(List.of(3000L), next.atMillis(), "only what came after the checkpoint, at least once");
+    }
+
+    @Test
+    void rejectedFixIsNotJournaled() throws Exception {
+        FixJournal journal = openJournal();
+        Recorder stuck = new Recorder(release);
+        FixIngestQueue queue = start(stuck, journal, 2);
+        assertTrue(queue.publish(USER, fix(0)));
+        assertTrue(stuck.started.await(5, TimeUnit.SECONDS)); // #1 is out of the ring
+        assertTrue(queue.publish(USER, fix(1)));
+        assertTrue(queue.publish(USER, fix(2)));
+
+        assertFalse(queue.publish(USER, fix(3)), "ring is full: 429");
+        assertEquals(4, journal.nextSequence());
+    }
+
+    @Test
+    void transientFailureIsRetried() throws Exception {
+        Recorder busy = new Recorder(null);
+        busy.failures.set(2); // SQLITE_BUSY twice, then through
+        FixIngestQueue queue = start(busy, openJournal(), 8);
+        assertTrue(queue.publish(USER, fix(0)));
+        busy.awaitCount(1);
+        assertEquals(3, busy.attempts.get());
+    }
+
+    @Test
+    void retriesAreBounded() throws Exception {
+        Recorder busy = new Recorder(null);
+        busy.failures.set(3);
+        FixIngestQueue queue = start(busy, openJournal(), 8);
+        assertTrue(queue.publish(USER, fix(0)));
+        assertTrue(queue.publish(USER, fix(1)));
+        busy.awaitCount(1); // #1 dropped after its 3 attempts, #2 goes through
+        assertEquals(List.of(1000L), busy.atMillis());
+        assertEquals(4, busy.attempts.get());
+    }
+
+    private FixIngestQueue start(PledgeService service, FixJournal journal, int capacity) throws IOException {
+        FixIngestQueue queue = new FixIngestQueue(service, journal, "async", 1, capacity, 1, 1, 3, 1);
+        queue.start();
+        queues.add(queue);
+        return queue;
+    }
+
+    private FixJournal openJournal() throws IOException {
+        FixJournal journal = TestJournals.open(dir);
+        journals.add(journal);
+        return journal;
+    }
+
+    private void closeJournal(FixJournal journal) throws IOException {
+        if (journals.remove(journal)) TestJournals.close(journal);
+    }
+
+    private static LocationFixDTO fix(int i) {
+        return new LocationFixDTO(52.5, 13.4, Instant.ofEpochMilli(i * 1000L), 5.0);
+    }
+
+    /** Records what it is asked to evaluate; with a latch, stays stuck in the first fix until released. */
+    private static final class Recorder extends PledgeService {
+        final List<Long> evaluated = new CopyOnWriteArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger attempts = new AtomicInteger();
+        private final CountDownLatch release;
+
+        Recorder(CountDownLatch release) {
+            super(null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+            this.release = release;
+        }
+
+        @Override
+        public FixOutcome recordJournaledFix(UUID userId, LocationFixDTO fix) {
+            started.countDown();
+            attempts.incrementAndGet();
+            if (failures.getAndDecrement() > 0) throw new CannotAcquireLockException("[SQLITE_BUSY] database is locked");
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+            evaluated.add(fix.at().toEpochMilli());
+            return null;
+        }
+
+        List<Long> atMillis() {
+            return List.copyOf(evaluated);
+        }
+
+        void awaitCount(int n) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (evaluated.size() < n && System.currentTimeMillis() < deadline) Thread.sleep(5);
+            assertEquals(n, evaluated.size());
+        }
+    }
+}
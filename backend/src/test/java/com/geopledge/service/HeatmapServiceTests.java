@@ -0,0 +1,132 @@
+package com.geopledge.service;
+
+import com.geopledge.event.PledgeCheckRecordedEvent;
+import com.geopledge.model.Pledge;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.repository.HeatmapCellRepository;
+import com.geopledge.repository.PledgeCheckRepository;
+import com.geopledge.repository.PledgeRepository;
+import com.geopledge.support.Stubs;
+import com.geopledge.support.VirtualClock;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counting each check exactly once across a {@link HeatmapService#rebuild}, with checks
+ * recorded while its query runs: one before its mark (the query saw it) and one after.
+ */
+class HeatmapServiceTests {
+
+    private static final Instant NOW = Instant.parse("2026-03-02T09:00:00Z");
+
+    private final VirtualClock clock = new VirtualClock(NOW, ZoneOffset.UTC);
+    private final Pledge pledge = pledge();
+    private final Map<String, long[]> cells = new HashMap<>();
+    private final List<PledgeCheck> liveChecks = new ArrayList<>();
+    private Runnable duringQuery = () -> {};
+
+    private final HeatmapService heatmap = new HeatmapService(
+            Stubs.of(HeatmapCellRepository.class, Map.of(
+                    "deleteAllInBatch", args -> {
+                        cells.clear();
+                        return null;
+                    },
+                    "increment", args -> {
+                        long[] d = cells.computeIfAbsent((String) args[0], h -> new long[2]);
+                        d[0] += (Long) args[1];
+                        d[1] += (Long) args[2];
+                        return null;
+                    })),
+            Stubs.of(PledgeCheckRepository.class, Map.of(
+                    "countLiveByPledgeAndStatusBefore", args -> {
+                        duringQuery.run();
+                        ZonedDateTime before = (ZonedDateTime) args[0];
+                        long n = liveChecks.stream().filter(c -> c.getCheckedAt().isBefore(before)).count();
+                        return List.<Object[]>of(new Object[]{pledge.getId(), PledgeCheck.Status.MET, n});
+                    })),
+            Stubs.of(PledgeRepository.class, Map.of(
+                    "findAllById", args -> List.of(pledge))),
+            Stubs.of(PlatformTransactionManager.class, Map.<String, Function<Object[], Object>>of(
+                    "getTransaction", args -> new SimpleTransactionStatus(),
+                    "commit", args -> null,
+                    "rollback", args -> null)),
+            clock, 1, 2, 400);
+
+    @Test
+    void checksRecordedDuringARebuildAreCountedOnce() {
+        record(NOW.minusSeconds(60)); // delta still pending when the rebuild starts
+        duringQuery = () -> {
+            assertEquals(0, otherThread(heatmap::pendingCells)); // the monitor is free during the query
+            record(NOW.minusSeconds(1)); // committed before the query read: counted by it
+            record(NOW.plusSeconds(1));  // after the mark: stays a delta
+        };
+
+        heatmap.rebuild();
+        heatmap.flush();
+
+        assertArrayEquals(new long[]{3, 0}, cells.get("u3"));
+        assertArrayEquals(new long[]{3, 0}, cells.get("u"));
+    }
+
+    @Test
+    void deltasOfAFailedRebuildAreKept() {
+        record(NOW.minusSeconds(60));
+        duringQuery = () -> {
+            record(NOW.minusSeconds(1));
+            throw new IllegalStateException("database is locked");
+        };
+        try {
+            heatmap.rebuild();
+        } catch (IllegalStateException expected) {
+            // the old counters stand
+        }
+        heatmap.flush();
+
+        assertArrayEquals(new long[]{2, 0}, cells.get("u3"));
+    }
+
+    private void record(Instant checkedAt) {
+        PledgeCheck c = new PledgeCheck();
+        c.setId(UUID.randomUUID());
+        c.setPledgeId(pledge.getId());
+        c.setStatus(PledgeCheck.Status.MET);
+        c.setCheckedAt(checkedAt.atZone(ZoneOffset.UTC));
+        liveChecks.add(c);
+        heatmap.onCheckRecorded(new PledgeCheckRecordedEvent(pledge, c));
+    }
+
+    private static int otherThread(IntSupplier call) {
+        try {
+            return CompletableFuture.supplyAsync(call::getAsInt).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError("blocked on the heatmap monitor", e);
+        }
+    }
+
+    private static Pledge pledge() {
+        Pledge p = new Pledge();
+        p.setId(UUID.fromString("00000000-0000-0000-0000-000000000401"));
+        p.setUserId(UUID.fromString("00000000-0000-0000-0000-000000000402"));
+        p.setTargetLatitude(52.52);
+        p.setTargetLongitude(13.405);
+        p.setRadiusMeters(100);
+        return p;
+    }
+}
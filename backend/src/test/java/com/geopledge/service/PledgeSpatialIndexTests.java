@@ -0,0 +1,227 @@
+package com.geopledge.service;
+
+import com.geopledge.model.Pledge;
+import com.geopledge.util.GeoUtils;
+import com.geopledge.util.PolygonCodec;
+import com.geopledge.util.PreparedPolygon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link PledgeSpatialIndex} against a brute-force scan of every fence: containment,
+ * radius and k-nearest queries must return exactly what the scan returns, for fences
+ * straddling cell edges, fences just under and just over the overflow limit, polygons,
+ * high latitudes, and after removals and re-adds.
+ */
+class PledgeSpatialIndexTests {
+
+    private static final double CELL_DEG = 0.01;
+    private static final int MAX_CELLS = 64;
+    private static final double EARTH_R = 6_371_000;
+
+    private final PledgeGeometry geometry = new PledgeGeometry(32);
+    private final PledgeSpatialIndex index = new PledgeSpatialIndex(null, geometry, CELL_DEG, MAX_CELLS);
+    private final Map<UUID, Pledge> live = new LinkedHashMap<>();
+    private final Random rnd = new Random(38);
+
+    @Test
+    void queriesMatchABruteForceScan() {
+        double[][] spots = {{40.75, -73.99}, {0.0, 0.0}, {-33.87, 151.21}, {69.65, 18.96}};
+        for (double[] s : spots) {
+            for (int i = 0; i < 150; i++) add(randomFence(s[0], s[1]));
+        }
+        assertEquals(live.size(), index.size());
+        assertQueriesMatch(spots, 3_000);
+
+        /* removals, and re-adds that move a fence */
+        List<UUID> ids = new ArrayList<>(live.keySet());
+        for (int i = 0; i < ids.size(); i += 3) {
+            index.remove(ids.get(i));
+            live.remove(ids.get(i));
+        }
+        for (int i = 1; i < ids.size(); i += 7) {
+            Pledge p = live.get(ids.get(i));
+            if (p == null) continue;
+            p.setTargetLatitude(p.getTargetLatitude() + 0.013);
+            p.setRadiusMeters(p.getRadiusMeters() * 2);
+            index.add(p);
+        }
+        assertEquals(live.size(), index.size());
+        assertQueriesMatch(spots, 3_000);
+
+        /* deactivated pledges are never indexed; removing every fence empties every cell */
+        Pledge off = randomFence(40.75, -73.99);
+        off.setActive(false);
+        index.add(off);
+        for (UUID id : new ArrayList<>(live.keySet())) {
+            index.remove(id);
+            live.remove(id);
+        }
+        assertEquals(0, index.size());
+        assertEquals(0, index.cellCount());
+    }
+
+    @Test
+    void fencesAtTheOverflowLimitAreFoundEitherWay() {
+        /* radii around the one where the covered block reaches MAX_CELLS cells */
+        for (int radius = 3_000; radius <= 6_000; radius += 25) {
+            add(circle(40.75 + rnd.nextDouble() * CELL_DEG, -73.99 + rnd.nextDouble() * CELL_DEG, radius));
+        }
+        assertQueriesMatch(new double[][]{{40.75, -73.99}}, 2_000);
+    }
+
+    private void assertQueriesMatch(double[][] spots, int perSpot) {
+        List<Pledge> fences = new ArrayList<>(live.values());
+        for (double[] s : spots) {
+            for (int i = 0; i < perSpot; i++) {
+                double[] q = query(s[0], s[1], fences);
+                String at = " at " + q[0] + "," + q[1];
+
+                assertEquals(bruteContaining(q[0], q[1]), ids(index.containing(q[0], q[1])), "containing" + at);
+
+                double meters = 50 + rnd.nextDouble() * 3_000;
+                List<PledgeSpatialIndex.Hit> within = index.withinRadius(q[0], q[1], meters);
+                assertEquals(bruteWithin(q[0], q[1], meters), ids(within), "withinRadius " + meters + at);
+                assertSorted(within);
+
+                int k = 1 + rnd.nextInt(10);
+                double max = 200 + rnd.nextDouble() * 5_000;
+                assertNearestMatches(q[0], q[1], k, max, index.nearest(q[0], q[1], k, max), at);
+            }
+        }
+    }
+
+    /** Ties at the k-th distance may resolve either way; everything closer must be there. */
+    private void assertNearestMatches(double lat, double lon, int k, double max,
+                                      List<PledgeSpatialIndex.Hit> got, String at) {
+        List<Double> expected = live.values().stream()
+                .map(p -> centreDistance(p, lat, lon))
+                .filter(d -> d <= max)
+                .sorted()
+                .limit(k)
+                .toList();
+        assertEquals(expected, got.stream().map(PledgeSpatialIndex.Hit::meters).toList(),
+                "nearest " + k + " within " + max + at);
+        if (!got.isEmpty()) {
+            double kth = got.get(got.size() - 1).meters();
+            Set<UUID> closer = new HashSet<>();
+            for (Pledge p : live.values()) if (centreDistance(p, lat, lon) < kth) closer.add(p.getId());
+            assertTrue(ids(got).containsAll(closer), "nearest misses a closer fence" + at);
+        }
+    }
+
+    private static void assertSorted(List<PledgeSpatialIndex.Hit> hits) {
+        for (int i = 1; i < hits.size(); i++) assertTrue(hits.get(i - 1).meters() <= hits.get(i).meters());
+    }
+
+    private Set<UUID> bruteContaining(double lat, double lon) {
+        Set<UUID> out = new HashSet<>();
+        for (Pledge p : live.values()) {
+            PreparedPolygon poly = geometry.polygonOf(p);
+            if (centreDistance(p, lat, lon) <= p.getRadiusMeters() && (poly == null || poly.contains(lat, lon))) {
+                out.add(p.getId());
+            }
+        }
+        return out;
+    }
+
+    private Set<UUID> bruteWithin(double lat, double lon, double meters) {
+        Set<UUID> out = new HashSet<>();
+        for (Pledge p : live.values()) if (centreDistance(p, lat, lon) <= meters) out.add(p.getId());
+        return out;
+    }
+
+    private static Set<UUID> ids(List<PledgeSpatialIndex.Hit> hits) {
+        Set<UUID> out = new HashSet<>();
+        for (PledgeSpatialIndex.Hit h : hits) assertTrue(out.add(h.pledgeId()), "reported twice: " + h.pledgeId());
+        return out;
+    }
+
+    private static double centreDistance(Pledge p, double lat, double lon) {
+        return GeoUtils.haversine(lat, lon, p.getTargetLatitude(), p.getTargetLongitude());
+    }
+
+    /**
+     * A query point: anywhere near the spot, on a cell edge, or a hair inside or outside
+     * some fence's circle, where a too-small covered block would drop the fence.
+     */
+    private double[] query(double lat, double lon, List<Pledge> fences) {
+        switch (rnd.nextInt(3)) {
+            case 0:
+                return new double[]{lat + (rnd.nextDouble() - 0.5) * 0.1, lon + (rnd.nextDouble() - 0.5) * 0.1};
+            case 1: {
+                double la = Math.floor((lat + (rnd.nextDouble() - 0.5) * 0.1) / CELL_DEG) * CELL_DEG;
+                return new double[]{la, lon + (rnd.nextDouble() - 0.5) * 0.1};
+            }
+            default: {
+                Pledge p = fences.get(rnd.nextInt(fences.size()));
+                double bearing = rnd.nextInt(8) * Math.PI / 4 + (rnd.nextBoolean() ? 0 : rnd.nextDouble() * 1e-3);
+                return destination(p.getTargetLatitude(), p.getTargetLongitude(), bearing,
+                        p.getRadiusMeters() * (1 + (rnd.nextDouble() - 0.5) * 1e-6));
+            }
+        }
+    }
+
+    private Pledge randomFence(double lat, double lon) {
+        double la = lat + (rnd.nextDouble() - 0.5) * 0.08, lo = lon + (rnd.nextDouble() - 0.5) * 0.08;
+        if (rnd.nextInt(5) == 0) la = Math.round(la / CELL_DEG) * CELL_DEG; // centred on a cell edge
+        if (rnd.nextInt(5) == 0) return polygon(la, lo, 0.0005 + rnd.nextDouble() * 0.004);
+        int radius = rnd.nextInt(10) == 0 ? 3_000 + rnd.nextInt(4_000) : 10 + rnd.nextInt(1_500);
+        if (rnd.nextInt(4) == 0) { // northern or southern tip a hair across a cell edge
+            double edge = Math.round(la / CELL_DEG) * CELL_DEG, reach = Math.toDegrees(radius / EARTH_R);
+            la = rnd.nextBoolean() ? edge - reach * (1 - 5e-4) : edge + reach * (1 - 5e-4);
+        }
+        return circle(la, lo, radius);
+    }
+
+    private static Pledge circle(double lat, double lon, int radius) {
+        Pledge p = new Pledge();
+        p.setId(UUID.randomUUID());
+        p.setUserId(UUID.randomUUID());
+        p.setActive(true);
+        p.setTargetLatitude(lat);
+        p.setTargetLongitude(lon);
+        p.setRadiusMeters(radius);
+        return p;
+    }
+
+    /** A concave "L" outline with its bounding circle, as PledgeService stores it. */
+    private static Pledge polygon(double lat, double lon, double size) {
+        double[] la = {lat, lat + size, lat + size, lat + size / 3, lat + size / 3, lat};
+        double[] lo = {lon, lon, lon + size / 3, lon + size / 3, lon + size, lon + size};
+        double[][] stored = PolygonCodec.decode(PolygonCodec.encode(la, lo));
+        double[] centre = PreparedPolygon.of(stored, 1).centre();
+        double radius = 0;
+        for (int i = 0; i < la.length; i++) {
+            radius = Math.max(radius, GeoUtils.haversine(centre[0], centre[1], stored[0][i], stored[1][i]));
+        }
+        Pledge p = circle(centre[0], centre[1], (int) Math.ceil(radius));
+        p.setPolygon(PolygonCodec.encode(la, lo));
+        return p;
+    }
+
+    private void add(Pledge p) {
+        live.put(p.getId(), p);
+        index.add(p);
+    }
+
+    private static double[] destination(double lat, double lon, double bearing, double meters) {
+        double d = meters / EARTH_R, phi = Math.toRadians(lat), lambda = Math.toRadians(lon);
+        double phi2 = Math.asin(Math.sin(phi) * Math.cos(d) + Math.cos(phi) * Math.sin(d) * Math.cos(bearing));
+        double lambda2 = lambda + Math.atan2(Math.sin(bearing) * Math.sin(d) * Math.cos(phi),
+                Math.cos(d) - Math.sin(phi) * Math.sin(phi2));
+        return new double[]{Math.toDegrees(phi2), Math.toDegrees(lambda2)};
+    }
+}
@@ -0,0 +1,91 @@
+package com.geopledge.service;
+
+import com.geopledge.dto.TrackPointDTO;
+import com.geopledge.support.InMemoryTrackSegments;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrackStoreTests {
+
+    private static final UUID USER = UUID.fromString("00000000-0000-0000-0000-000000000035");
+    private static final long DAY_START = 20_000L * 86_400L;
+
+    private final InMemoryTrackSegments db = new InMemoryTrackSegments();
+
+    @Test
+    void everyFixIsKeptByDefault() {
+        TrackStore store = new TrackStore(db.repository, true, 0);
+        for (int flush = 0; flush < 3; flush++) {
+            for (int i = 0; i < 10; i++) stationary(store, flush * 10 + i);
+            store.flush();
+        }
+        assertEquals(30, readDay(store).size());
+        assertEquals(30, db.day(USER, 20_000L).orElseThrow().getFixCount());
+    }
+
+    @Test
+    void storedFixesAreNeverSimplifiedAgain() {
+        TrackStore store = new TrackStore(db.repository, true, 10);
+        for (int i = 0; i < 10; i++) stationary(store, i);
+        store.flush();
+        assertEquals(2, readDay(store).size(), "a stationary block keeps its endpoints");
+
+        /* later flushes of the same place add their own endpoints and drop none of the earlier ones */
+        for (int flush = 1; flush < 5; flush++) {
+            for (int i = 0; i < 10; i++) stationary(store, flush * 10 + i);
+            store.flush();
+        }
+        List<TrackPointDTO> day = readDay(store);
+        assertEquals(10, day.size());
+        for (int flush = 0; flush < 5; flush++) {
+            assertEquals(at(flush * 10), day.get(2 * flush).at());
+            assertEquals(at(flush * 10 + 9), day.get(2 * flush + 1).at());
+        }
+    }
+
+    @Test
+    void lateBlockIsMergedInTimeOrder() {
+        TrackStore store = new TrackStore(db.repository, true, 0);
+        for (int i = 10; i < 20; i++) stationary(store, i);
+        store.flush();
+        for (int i = 0; i < 10; i++) stationary(store, i); // a device that was offline catches up
+        store.flush();
+
+        List<TrackPointDTO> day = readDay(store);
+        assertEquals(20, day.size());
+        for (int i = 0; i < 20; i++) assertEquals(at(i), day.get(i).at());
+    }
+
+    @Test
+    void failedFlushKeepsTheFixesForTheNext() {
+        TrackStore store = new TrackStore(db.repository, true, 0);
+        for (int i = 0; i < 5; i++) stationary(store, i);
+        db.failSaves(true);
+        store.flush();
+        assertTrue(db.day(USER, 20_000L).isEmpty());
+        assertEquals(5, readDay(store).size(), "still readable from the buffer");
+
+        db.failSaves(false);
+        store.flush();
+        assertEquals(5, db.day(USER, 20_000L).orElseThrow().getFixCount());
+        assertEquals(5, readDay(store).size(), "written once, not also still buffered");
+    }
+
+    private static void stationary(TrackStore store, int i) {
+        store.append(USER, 52.52, 13.405, at(i));
+    }
+
+    private static Instant at(int i) {
+        return Instant.ofEpochSecond(DAY_START + 300L * i);
+    }
+
+    private static List<TrackPointDTO> readDay(TrackStore store) {
+        return store.read(USER, Instant.ofEpochSecond(DAY_START), Instant.ofEpochSecond(DAY_START + 86_400)).toList();
+    }
+}
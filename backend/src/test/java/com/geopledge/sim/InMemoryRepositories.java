@@ -0,0 +1,51 @@
+package com.geopledge.sim;
+
+import com.geopledge.model.Pledge;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.repository.PledgeCheckRepository;
+import com.geopledge.repository.PledgeRepository;
+import com.geopledge.support.Stubs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Repository stand-ins over a {@link SyntheticFleet}, implementing just the queries the
+ * fix, schedule and sweep paths issue (see {@link Stubs}).
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {}
+
+    static PledgeRepository pledges(SyntheticFleet fleet) {
+        return Stubs.of(PledgeRepository.class, Map.of(
+                "findByUserIdAndActiveTrue", args -> fleet.byUser.getOrDefault((UUID) args[0], List.of()),
+                "findByActiveTrueAndTimeHourAndTimeMinute",
+                args -> fleet.bySlot.get((Integer) args[0] * 60 + (Integer) args[1]),
+                "findAllById", args -> {
+                    List<Pledge> found = new ArrayList<>();
+                    for (Object id : (Iterable<?>) args[0]) {
+                        Pledge p = fleet.byId((UUID) id);
+                        if (p != null) found.add(p);
+                    }
+                    return found;
+                },
+                "findById", args -> Optional.ofNullable(fleet.byId((UUID) args[0])),
+                "findMaxSyncVersionByUserId", args -> 0L,
+                "updateSyncVersion", args -> 1,
+                "save", args -> args[0]));
+    }
+
+    /** Check rows go to {@code sink} instead of a table. */
+    static PledgeCheckRepository checks(Consumer<PledgeCheck> sink) {
+        return Stubs.of(PledgeCheckRepository.class, Map.of(
+                "save", args -> {
+                    sink.accept((PledgeCheck) args[0]);
+                    return args[0];
+                }));
+    }
+}
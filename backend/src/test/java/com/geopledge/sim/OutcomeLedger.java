@@ -0,0 +1,118 @@
+package com.geopledge.sim;
+
+import com.geopledge.model.Pledge;
+import com.geopledge.model.PledgeCheck;
+import com.geopledge.service.PledgeSchedule;
+
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks every written row against what its owner actually did at that slot, and
+ * tallies the slots that should have produced a row but didn't. One bit per
+ * (pledge, day) catches duplicate decisions without keeping the rows.
+ */
+final class OutcomeLedger {
+
+    private final SyntheticFleet fleet;
+    private final ZoneId zone;
+    private final long firstDay;
+    private final int days;
+    private final boolean absentIsViolation;
+    private final AtomicLongArray decided;
+
+    final LongAdder met = new LongAdder();
+    final LongAdder violated = new LongAdder();
+    final LongAdder suspect = new LongAdder();
+    final LongAdder wrong = new LongAdder();      // status differs from the owner's behaviour
+    final LongAdder unexpected = new LongAdder(); // a row for a slot that should have none
+    final LongAdder duplicates = new LongAdder();
+
+    long expectedMet, expectedViolated, absent;
+
+    /** @param absentIsViolation dwell mode decides slots without fixes; point mode writes nothing */
+    OutcomeLedger(SyntheticFleet fleet, ZonedDateTime start, int days, boolean absentIsViolation) {
+        this.fleet = fleet;
+        this.zone = start.getZone();
+        this.firstDay = start.toLocalDate().toEpochDay();
+        this.days = days;
+        this.absentIsViolation = absentIsViolation;
+        this.decided = new AtomicLongArray((int) (((long) fleet.pledges.length * days + 63) / 64));
+        expect(start, start.plusDays(days));
+    }
+
+    private void expect(ZonedDateTime from, ZonedDateTime to) {
+        for (Pledge p : fleet.pledges) {
+            int index = SyntheticFleet.indexOf(p);
+            for (int d = 0; d < days; d++) {
+                ZonedDateTime slot = LocalDate.ofEpochDay(firstDay + d)
+                        .atTime(p.getTimeHour(), p.getTimeMinute()).atZone(zone);
+                if (slot.isBefore(from) || !slot.isBefore(to)) continue;
+                if (!p.getDaysOfWeek().contains(PledgeSchedule.dayIndex(slot))) continue;
+                switch (fleet.intent(index, firstDay + d)) {
+                    case COMPLY -> expectedMet++;
+                    case VIOLATE -> expectedViolated++;
+                    case ABSENT -> absent++;
+                }
+            }
+        }
+        if (absentIsViolation) expectedViolated += absent;
+    }
+
+    /** Called for every row the evaluators write, from any thread. */
+    void record(PledgeCheck c) {
+        (c.getStatus() == PledgeCheck.Status.MET ? met : violated).increment();
+        if (c.isSuspect()) suspect.increment();
+
+        Pledge p = fleet.byId(c.getPledgeId());
+        long day = c.getScheduledFor().withZoneSameInstant(zone).toLocalDate().toEpochDay() - firstDay;
+        if (p == null || day < 0 || day >= days) {
+            unexpected.increment();
+            return;
+        }
+        SyntheticFleet.Intent intent = fleet.intent(SyntheticFleet.indexOf(p), firstDay + day);
+        if (intent == SyntheticFleet.Intent.ABSENT && !absentIsViolation) {
+            unexpected.increment();
+            return;
+        }
+        if (!mark((long) SyntheticFleet.indexOf(p) * days + day)) {
+            duplicates.increment();
+            return;
+        }
+        PledgeCheck.Status want = intent == SyntheticFleet.Intent.COMPLY
+                ? PledgeCheck.Status.MET : PledgeCheck.Status.VIOLATED;
+        if (c.getStatus() != want) wrong.increment();
+    }
+
+    /** False if the bit was already set. */
+    private boolean mark(long bit) {
+        int word = (int) (bit >>> 6);
+        long mask = 1L << (bit & 63);
+        while (true) {
+            long old = decided.get(word);
+            if ((old & mask) != 0) return false;
+            if (decided.compareAndSet(word, old, old | mask)) return true;
+        }
+    }
+
+    long missing() {
+        long distinct = met.sum() + violated.sum() - unexpected.sum() - duplicates.sum();
+        return expectedMet + expectedViolated - distinct;
+    }
+
+    boolean correct() {
+        return wrong.sum() == 0 && unexpected.sum() == 0 && duplicates.sum() == 0 && missing() == 0;
+    }
+
+    void print(PrintStream out) {
+        out.printf("outcomes: expected %d MET / %d VIOLATED (%d slots without fixes)%n",
+                expectedMet, expectedViolated, absent);
+        out.printf("          written  %d MET / %d VIOLATED (%d suspect)%n", met.sum(), violated.sum(), suspect.sum());
+        out.printf("          wrong status %d, unexpected %d, duplicates %d, missing %d -> %s%n",
+                wrong.sum(), unexpected.sum(), duplicates.sum(), missing(), correct() ? "OK" : "MISMATCH");
+    }
+}
@@ -0,0 +1,269 @@
+package com.geopledge.sim;
+
+import com.geopledge.dto.LocationFixDTO;
+import com.geopledge.journal.FixJournal;
+import com.geopledge.model.Pledge;
+import com.geopledge.repository.PledgeCheckRepository;
+import com.geopledge.repository.PledgeRepository;
+import com.geopledge.service.DwellWindowEvaluator;
+import com.geopledge.service.FixAnomalyDetector;
+import com.geopledge.service.GeofenceService;
+import com.geopledge.service.PledgeCheckWriter;
+import com.geopledge.service.PledgeGeometry;
+import com.geopledge.service.PledgeMetrics;
+import com.geopledge.service.PartitionOwnership;
+import com.geopledge.service.PledgeSchedule;
+import com.geopledge.service.PledgeService;
+import com.geopledge.service.PledgeSpatialIndex;
+import com.geopledge.service.PledgeVersionTracker;
+import com.geopledge.service.TrackStore;
+import com.geopledge.support.VirtualClock;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Replays a virtual week against the real schedule and evaluation engines, as fast as
+ * the CPU allows.
+ *
+ * <pre>
+ * MAVEN_OPTS=-Xmx4g mvn -Psim test-compile exec:java -Dsim.pledges=10000,100000,1000000 -Dsim.mode=dwell
+ * </pre>
+ *
+ * Each size gets a fresh {@link PledgeService}, {@link DwellWindowEvaluator},
+ * {@link GeofenceService} and {@link PledgeCheckWriter}. They are wired by hand over
+ * in-memory repositories and a {@link VirtualClock}, with the journal and track store
+ * off. Minute by minute, the clock steps through [start, start + days). Fixes sent in
+ * that minute go through {@code recordFix} in parallel; a user has at most one fix per
+ * minute. The once-a-minute sweeps run on the calling thread, as the scheduler would.
+ *
+ * Owners send a fix 2 minutes before, during and 1 minute after each slot, from inside
+ * the fence (comply), well outside it (violate), or not at all (absent). Written rows
+ * are checked against that behaviour. The report gives outcome counts and the
+ * correctness verdict, schedule-engine cost per pledge, recordFix latency percentiles,
+ * sweep times, and wall time per virtual week for every size, so runs at growing sizes
+ * read as a scaling curve.
+ */
+public final class ScheduleSimulation {
+
+    record Config(List<Integer> pledges, long seed, LocalDateTime start, int days, String mode,
+                  int windowMinutes, int threads, double herdFraction, double comply, double violate,
+                  double lat, double lon, double spreadKm, ZoneId zone) {
+
+        static Config fromSystemProperties() {
+            return new Config(
+                    Arrays.stream(prop("pledges", "1000000").split(",")).map(String::trim).map(Integer::parseInt).toList(),
+                    Long.parseLong(prop("seed", "42")),
+                    LocalDateTime.parse(prop("start", "2026-01-05T00:00")), // a Monday
+                    Integer.parseInt(prop("days", "7")),
+                    prop("mode", "dwell"),
+                    Integer.parseInt(prop("window-minutes", "10")),
+                    Integer.parseInt(prop("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                    Double.parseDouble(prop("herd-fraction", "0.4")),
+                    Double.parseDouble(prop("comply", "0.7")),
+                    Double.parseDouble(prop("violate", "0.2")),
+                    Double.parseDouble(prop("lat", "40.75")),
+                    Double.parseDouble(prop("lon", "-73.99")),
+                    Double.parseDouble(prop("spread-km", "30")),
+                    ZoneId.of(prop("zone", "UTC")));
+        }
+
+        private static String prop(String name, String def) {
+            return System.getProperty("sim." + name, def);
+        }
+
+        boolean dwell() {
+            return "dwell".equalsIgnoreCase(mode);
+        }
+    }
+
+    /** One size's numbers for the closing scaling table. */
+    record Result(int pledges, int users, long fixes, double wallSeconds, double nextRunNs, double matchNs,
+                  long fixP50, long fixP99, long sweepP99, long sweepMax, boolean correct) {}
+
+    /** Fixes are sent at these offsets from the slot, in minutes. */
+    private static final int[] FIX_OFFSETS = {-2, 0, 1};
+
+    private final Config config;
+    private final PrintStream out = System.out;
+
+    private ScheduleSimulation(Config config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) {
+        Config config = Config.fromSystemProperties();
+        System.out.println("sim: " + config);
+        /* synthetic owners teleport between fences; per-fix INFO lines would swamp the report */
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        ScheduleSimulation sim = new ScheduleSimulation(config);
+        List<Result> results = new ArrayList<>();
+        for (int size : config.pledges()) results.add(sim.run(size));
+        sim.printScaling(results);
+        if (!results.stream().allMatch(Result::correct)) System.exit(1);
+    }
+
+    private Result run(int size) {
+        ZonedDateTime start = config.start().atZone(config.zone());
+        ZonedDateTime end = start.plusDays(config.days());
+        out.printf("%n=== %d pledges, %s mode, %d days from %s ===%n", size, config.mode(), config.days(), start);
+
+        /* 1️⃣ fleet and engines */
+        long t0 = System.nanoTime();
+        SyntheticFleet fleet = new SyntheticFleet(size, config.seed(), config.herdFraction(),
+                config.comply(), config.violate(), config.lat(), config.lon(), config.spreadKm(),
+                start.minusDays(1));
+        OutcomeLedger ledger = new OutcomeLedger(fleet, start, config.days(), config.dwell());
+        // "booted" before the first window opens, so no slot is left undecided as straddling startup
+        VirtualClock clock = new VirtualClock(start.minusMinutes(config.windowMinutes()).toInstant(), config.zone());
+        Engines engines = new Engines(fleet, ledger, clock, config);
+        out.printf("setup: %d users in %.1f s%n", fleet.users(), (System.nanoTime() - t0) / 1e9);
+
+        /* 2️⃣ schedule engine on its own: every pledge's next run and slot match */
+        double nextRunNs = perPledge(fleet, p -> PledgeSchedule.computeNextRun(p, start));
+        double matchNs = perPledge(fleet, p -> PledgeSchedule.isScheduledAt(p, start.plusHours(8)));
+        out.printf("schedule: computeNextRun %.0f ns/pledge, isScheduledAt %.0f ns/pledge%n", nextRunNs, matchNs);
+
+        /* 3️⃣ the virtual week */
+        Histogram fixNanos = new ConcurrentHistogram(10_000_000_000L, 3);
+        Histogram sweepNanos = new Histogram(600_000_000_000L, 3);
+        ForkJoinPool pool = new ForkJoinPool(config.threads());
+        long fixes = 0;
+        int busiest = 0;
+        ZonedDateTime sweepFrom = start.plusMinutes(config.dwell() ? config.windowMinutes() : 0);
+        ZonedDateTime stop = end.plusMinutes(Math.max(FIX_OFFSETS[FIX_OFFSETS.length - 1],
+                config.dwell() ? config.windowMinutes() : 0) + 1);
+        long wall0 = System.nanoTime();
+        for (ZonedDateTime minute = start; minute.isBefore(stop); minute = minute.plusMinutes(1)) {
+            clock.set(minute.toInstant());
+            if (!minute.isBefore(sweepFrom)) {
+                long s = System.nanoTime();
+                engines.sweep();
+                sweepNanos.recordValue(Math.max(1, System.nanoTime() - s));
+            }
+
+            List<Fix> batch = fixesIn(fleet, minute, start, end);
+            if (batch.isEmpty()) continue;
+            fixes += batch.size();
+            busiest = Math.max(busiest, batch.size());
+            /* fixes arriving during the minute, processed by its end */
+            clock.set(minute.plusSeconds(59).toInstant());
+            pool.submit(() -> batch.parallelStream().forEach(f -> {
+                long s = System.nanoTime();
+                engines.service.recordFix(f.pledge().getUserId(), f.fix());
+                fixNanos.recordValue(Math.max(1, System.nanoTime() - s));
+            })).join();
+        }
+        double wall = (System.nanoTime() - wall0) / 1e9;
+        pool.shutdown();
+
+        /* 4️⃣ report */
+        double virtualSeconds = Duration.between(start, stop).getSeconds();
+        out.printf("fixes: %d in %.1f s wall (%.0f/s), busiest minute %d; recordFix p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f ms%n",
+                fixes, wall, fixes / wall, busiest,
+                fixNanos.getValueAtPercentile(50) / 1e3, fixNanos.getValueAtPercentile(99) / 1e3,
+                fixNanos.getValueAtPercentile(99.9) / 1e3, fixNanos.getMaxValue() / 1e6);
+        out.printf("sweeps: %d minutes; p50 %.2f ms, p99 %.2f ms, max %.1f ms; %d windows left open%n",
+                sweepNanos.getTotalCount(), sweepNanos.getValueAtPercentile(50) / 1e6,
+                sweepNanos.getValueAtPercentile(99) / 1e6, sweepNanos.getMaxValue() / 1e6,
+                engines.dwell.openWindows());
+        out.printf("virtual time: %.0f s in %.1f s wall (%.0fx real time)%n", virtualSeconds, wall, virtualSeconds / wall);
+        ledger.print(out);
+
+        return new Result(size, fleet.users(), fixes, wall, nextRunNs, matchNs,
+                fixNanos.getValueAtPercentile(50), fixNanos.getValueAtPercentile(99),
+                sweepNanos.getValueAtPercentile(99), sweepNanos.getMaxValue(), ledger.correct());
+    }
+
+    record Fix(Pledge pledge, LocationFixDTO fix) {}
+
+    /** Every fix sent during {@code minute}: for each offset, the pledges whose slot lies that far back. */
+    private List<Fix> fixesIn(SyntheticFleet fleet, ZonedDateTime minute, ZonedDateTime start, ZonedDateTime end) {
+        List<Fix> batch = new ArrayList<>();
+        for (int offset : FIX_OFFSETS) {
+            ZonedDateTime slot = minute.minusMinutes(offset);
+            if (slot.isBefore(start) || !slot.isBefore(end)) continue;
+            int day = PledgeSchedule.dayIndex(slot);
+            long epochDay = slot.toLocalDate().toEpochDay();
+            for (Pledge p : fleet.bySlot.get(slot.getHour() * 60 + slot.getMinute())) {
+                if (!p.getDaysOfWeek().contains(day)) continue;
+                SyntheticFleet.Intent intent = fleet.intent(SyntheticFleet.indexOf(p), epochDay);
+                if (intent == SyntheticFleet.Intent.ABSENT) continue;
+                double[] at = fleet.position(p, epochDay, intent);
+                batch.add(new Fix(p, new LocationFixDTO(at[0], at[1],
+                        minute.plusSeconds(fleet.second(p, epochDay, offset)).toInstant(), 10.0)));
+            }
+        }
+        return batch;
+    }
+
+    private static double perPledge(SyntheticFleet fleet, Function<Pledge, Object> op) {
+        Object sink = null;
+        for (int i = 0; i < Math.min(fleet.pledges.length, 100_000); i++) sink = op.apply(fleet.pledges[i]); // warm-up
+        long t0 = System.nanoTime();
+        for (Pledge p : fleet.pledges) sink = op.apply(p);
+        double ns = (double) (System.nanoTime() - t0) / fleet.pledges.length;
+        if (sink == null) throw new IllegalStateException();
+        return ns;
+    }
+
+    private void printScaling(List<Result> results) {
+        out.printf("%n%10s %9s %11s %8s %11s %11s %10s %10s %12s %12s %8s%n",
+                "pledges", "users", "fixes", "wall s", "nextRun ns", "match ns",
+                "fix p50 us", "fix p99 us", "sweep p99 ms", "sweep max ms", "outcome");
+        for (Result r : results) {
+            out.printf("%10d %9d %11d %8.1f %11.0f %11.0f %10.1f %10.1f %12.2f %12.1f %8s%n",
+                    r.pledges(), r.users(), r.fixes(), r.wallSeconds(), r.nextRunNs(), r.matchNs(),
+                    r.fixP50() / 1e3, r.fixP99() / 1e3, r.sweepP99() / 1e6, r.sweepMax() / 1e6,
+                    r.correct() ? "OK" : "MISMATCH");
+        }
+    }
+
+    /** The production services, constructed the way Spring would with the simulation's collaborators. */
+    private static final class Engines {
+        final PledgeService service;
+        final DwellWindowEvaluator dwell;
+        final GeofenceService geofences;
+
+        Engines(SyntheticFleet fleet, OutcomeLedger ledger, VirtualClock clock, Config config) {
+            PledgeRepository pledgeRepo = InMemoryRepositories.pledges(fleet);
+            PledgeCheckRepository checkRepo = InMemoryRepositories.checks(ledger::record);
+            ApplicationEventPublisher events = event -> {};
+            PledgeMetrics metrics = new PledgeMetrics(new SimpleMeterRegistry());
+            PledgeVersionTracker versions = new PledgeVersionTracker(pledgeRepo, null, false);
+            PledgeCheckWriter writer = new PledgeCheckWriter(pledgeRepo, checkRepo, versions, metrics, events, clock);
+            PledgeGeometry geometry = new PledgeGeometry(32);
+            PartitionOwnership single = new PartitionOwnership(null, null, null, clock, false, 64, 15, 5000, "sim");
+            this.geofences = new GeofenceService(pledgeRepo, null, writer, versions, single, clock, 7, 15);
+            this.dwell = new DwellWindowEvaluator(pledgeRepo, writer, geofences, geometry, single,
+                    new TrackStore(null, false, 0), clock, config.mode(), config.windowMinutes(), 0, 15, 60_000);
+            FixAnomalyDetector anomaly = new FixAnomalyDetector(true, "tag", 280, 70, 2000, 4, 0.3, 0.8, 2, 50, 4, 900, 720, clock);
+            this.service = new PledgeService(pledgeRepo, checkRepo, versions, writer, geofences, dwell, anomaly,
+                    new TrackStore(null, false, 0),
+                    new FixJournal(false, "journal", 64, 50, 16),
+                    new PledgeSpatialIndex(pledgeRepo, geometry, 0.01, 64),
+                    geometry, metrics, events, clock);
+        }
+
+        /** What the schedulers run at the top of each minute. */
+        void sweep() {
+            geofences.evaluateDueSlots();
+            dwell.closeDueWindows();
+        }
+    }
+}
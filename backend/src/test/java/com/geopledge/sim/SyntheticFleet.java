@@ -0,0 +1,146 @@
+package com.geopledge.sim;
+
+import com.geopledge.model.Pledge;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * A seeded, in-memory population of pledges and the behaviour of their owners.
+ *
+ * Ids carry their array index ({@code new UUID(tag, index)}), so lookups by id need
+ * no map. A user's pledges sit at least an hour apart, so one fix is never near
+ * two slots. Whether an owner complies, violates or sends nothing at a given slot
+ * is a pure function of (seed, pledge, day). The runner uses it both to
+ * generate fixes and to check the outcomes, without storing a week of intents.
+ */
+final class SyntheticFleet {
+
+    enum Intent { COMPLY, VIOLATE, ABSENT }
+
+    private static final long PLEDGE_TAG = 0x5113_0000_0000_4000L;
+    private static final long USER_TAG = 0x5115_0000_0000_4000L;
+    private static final double METERS_PER_DEG = 111_320;
+
+    /** Every non-empty subset of the week, shared by the pledges that use it. */
+    private static final List<List<Integer>> DAY_SETS = new ArrayList<>();
+
+    static {
+        for (int mask = 0; mask < 128; mask++) {
+            List<Integer> days = new ArrayList<>();
+            for (int d = 0; d < 7; d++) if ((mask & (1 << d)) != 0) days.add(d);
+            DAY_SETS.add(List.copyOf(days));
+        }
+    }
+
+    final Pledge[] pledges;
+    final Map<UUID, List<Pledge>> byUser = new HashMap<>();
+    /** Pledges by slot minute of day (hour * 60 + minute). */
+    final List<List<Pledge>> bySlot = new ArrayList<>(24 * 60);
+    private final long seed;
+    private final double comply, violate;
+
+    SyntheticFleet(int count, long seed, double herdFraction, double comply, double violate,
+                   double lat, double lon, double spreadKm, ZonedDateTime createdAt) {
+        this.pledges = new Pledge[count];
+        this.seed = seed;
+        this.comply = comply;
+        this.violate = violate;
+        for (int i = 0; i < 24 * 60; i++) bySlot.add(new ArrayList<>());
+
+        Random rnd = new Random(seed);
+        UUID charity = new UUID(0, 0);
+        double spread = spreadKm * 1000 / 2;
+        int user = 0;
+        for (int i = 0; i < count; user++) {
+            UUID owner = new UUID(USER_TAG, user);
+            List<Pledge> own = new ArrayList<>(3);
+            boolean[] hours = new boolean[24];
+            for (int n = 1 + rnd.nextInt(3); n > 0 && i < count; n--, i++) {
+                Pledge p = new Pledge();
+                p.setId(new UUID(PLEDGE_TAG, i));
+                p.setUserId(owner);
+                p.setName("Sim");
+                p.setTargetLatitude(lat + rnd.nextGaussian() * spread / METERS_PER_DEG);
+                p.setTargetLongitude(lon + rnd.nextGaussian() * spread
+                        / (METERS_PER_DEG * Math.cos(Math.toRadians(lat))));
+                p.setRadiusMeters(75 + rnd.nextInt(176));
+                p.setStakeCents(500);
+                p.setCharityId(charity);
+                p.setDaysOfWeek(DAY_SETS.get(1 + rnd.nextInt(127)));
+
+                /* the 08:00 herd, else a free hour between 06:00 and 22:00 on a quarter */
+                boolean herd = own.isEmpty() && rnd.nextDouble() < herdFraction;
+                int hour = herd ? 8 : -1;
+                while (hour < 0 || hours[hour]) hour = 6 + rnd.nextInt(17);
+                hours[hour] = true;
+                p.setTimeHour(hour);
+                p.setTimeMinute(herd ? 0 : 15 * rnd.nextInt(4));
+
+                p.setActive(true);
+                p.setCreatedAt(createdAt);
+                p.setUpdatedAt(createdAt);
+                pledges[i] = p;
+                own.add(p);
+                bySlot.get(p.getTimeHour() * 60 + p.getTimeMinute()).add(p);
+            }
+            byUser.put(owner, List.copyOf(own));
+        }
+    }
+
+    int users() {
+        return byUser.size();
+    }
+
+    /** The pledge behind a synthetic id, or null for ids this fleet didn't issue. */
+    Pledge byId(UUID id) {
+        if (id.getMostSignificantBits() != PLEDGE_TAG) return null;
+        long i = id.getLeastSignificantBits();
+        return i >= 0 && i < pledges.length ? pledges[(int) i] : null;
+    }
+
+    static int indexOf(Pledge p) {
+        return (int) p.getId().getLeastSignificantBits();
+    }
+
+    /** What the owner of pledge {@code index} does at its slot on {@code epochDay}. */
+    Intent intent(int index, long epochDay) {
+        double u = (mix(index, epochDay) >>> 11) * 0x1.0p-53;
+        return u < comply ? Intent.COMPLY : u < comply + violate ? Intent.VIOLATE : Intent.ABSENT;
+    }
+
+    /**
+     * Where the owner reports from around that slot: well inside the circle when
+     * complying, 300 m beyond twice the radius when not.
+     */
+    double[] position(Pledge p, long epochDay, Intent intent) {
+        long h = mix(indexOf(p), ~epochDay);
+        double bearing = (h & 0xFFFF) / 65536.0 * 2 * Math.PI;
+        double meters = intent == Intent.COMPLY
+                ? ((h >>> 16) & 0xFFFF) / 65536.0 * p.getRadiusMeters() * 0.5
+                : p.getRadiusMeters() * 2 + 300;
+        return new double[]{
+                p.getTargetLatitude() + meters * Math.cos(bearing) / METERS_PER_DEG,
+                p.getTargetLongitude() + meters * Math.sin(bearing)
+                        / (METERS_PER_DEG * Math.cos(Math.toRadians(p.getTargetLatitude())))
+        };
+    }
+
+    /** Second within the minute a fix is sent, 0..59. */
+    int second(Pledge p, long epochDay, int offsetMinutes) {
+        return (int) Long.remainderUnsigned(mix(indexOf(p) + 31L * offsetMinutes, epochDay ^ 0x5EC), 60);
+    }
+
+    /** SplitMix64 finaliser over (seed, a, b). */
+    private long mix(long a, long b) {
+        long z = seed + a * 0x9E3779B97F4A7C15L + b * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
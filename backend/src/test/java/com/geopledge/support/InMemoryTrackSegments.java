@@ -0,0 +1,48 @@
+package com.geopledge.support;
+
+import com.geopledge.model.TrackSegment;
+import com.geopledge.repository.TrackSegmentRepository;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link TrackSegmentRepository} over a map, implementing the queries
+ * {@code TrackStore} issues (see {@link Stubs}). Rows are stored by reference, like
+ * entities in a persistence context. {@link #failSaves} makes writes throw, as a
+ * locked or unreachable database would.
+ */
+public final class InMemoryTrackSegments {
+
+    private final Map<UUID, TrackSegment> rows = new ConcurrentHashMap<>();
+    private volatile boolean failSaves;
+
+    public final TrackSegmentRepository repository = Stubs.of(TrackSegmentRepository.class, Map.of(
+            "findByUserIdAndEpochDay", args -> rows.values().stream()
+                    .filter(s -> s.getUserId().equals(args[0]) && s.getEpochDay() == (Long) args[1])
+                    .findFirst(),
+            "findByUserIdAndEpochDayBetweenOrderByEpochDay", args -> rows.values().stream()
+                    .filter(s -> s.getUserId().equals(args[0])
+                            && s.getEpochDay() >= (Long) args[1] && s.getEpochDay() <= (Long) args[2])
+                    .sorted(Comparator.comparingLong(TrackSegment::getEpochDay))
+                    .toList(),
+            "save", args -> {
+                if (failSaves) throw new IllegalStateException("database is locked");
+                TrackSegment s = (TrackSegment) args[0];
+                rows.put(s.getId(), s);
+                return s;
+            }));
+
+    public void failSaves(boolean fail) {
+        failSaves = fail;
+    }
+
+    public Optional<TrackSegment> day(UUID userId, long epochDay) {
+        return rows.values().stream()
+                .filter(s -> s.getUserId().equals(userId) && s.getEpochDay() == epochDay)
+                .findFirst();
+    }
+}
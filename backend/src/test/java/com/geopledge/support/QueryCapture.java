@@ -0,0 +1,49 @@
+package com.geopledge.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records every SQL statement Hibernate prepares on the current thread while a
+ * capture is open. Register it with
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ *
+ * Capture is thread-local, so statements issued by schedulers and listeners on
+ * other threads never leak into a test's count.
+ */
+public class QueryCapture implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = CAPTURED.get();
+        if (statements != null) statements.add(sql);
+        return sql;
+    }
+
+    /** Runs {@code block} and returns the statements it issued, in order. */
+    public static List<String> during(ThrowingRunnable block) throws Exception {
+        List<String> statements = new ArrayList<>();
+        List<String> outer = CAPTURED.get();
+        CAPTURED.set(statements);
+        try {
+            block.run();
+        } finally {
+            if (outer != null) {
+                outer.addAll(statements);
+                CAPTURED.set(outer);
+            } else {
+                CAPTURED.remove();
+            }
+        }
+        return statements;
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,31 @@
+package com.geopledge.support;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/** Interface stand-ins for tests that construct services without Spring. */
+public final class Stubs {
+
+    private Stubs() {}
+
+    /**
+     * A {@code type} (usually a repository) implementing just {@code methods}, by name.
+     * Anything else throws, so a new call on the tested path fails loudly instead of
+     * silently returning nothing.
+     */
+    public static <R> R of(Class<R> type, Map<String, Function<Object[], Object>> methods) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Function<Object[], Object> impl = methods.get(method.getName());
+            if (impl != null) return impl.apply(args);
+            return switch (method.getName()) {
+                case "toString" -> "Stub" + type.getSimpleName();
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == args[0];
+                default -> throw new UnsupportedOperationException(
+                        type.getSimpleName() + "." + method.getName() + " is not stubbed");
+            };
+        });
+        return type.cast(proxy);
+    }
+}
@@ -0,0 +1,66 @@
+package com.geopledge.support;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * A clock that only moves when told to. Hand it to the services in place of the
+ * {@code Clock} bean to replay schedules at any speed.
+ */
+public final class VirtualClock extends Clock {
+
+    private final ZoneId zone;
+    private volatile long millis;
+
+    public VirtualClock(Instant start, ZoneId zone) {
+        this.millis = start.toEpochMilli();
+        this.zone = zone;
+    }
+
+    public void set(Instant t) {
+        millis = t.toEpochMilli();
+    }
+
+    public void advance(Duration d) {
+        millis += d.toMillis();
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /** Shares the time source; the copy moves with this clock. */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        VirtualClock outer = this;
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return zone;
+            }
+
+            @Override
+            public Clock withZone(ZoneId z) {
+                return outer.withZone(z);
+            }
+
+            @Override
+            public Instant instant() {
+                return outer.instant();
+            }
+        };
+    }
+}
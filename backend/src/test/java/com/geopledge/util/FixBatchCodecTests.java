@@ -0,0 +1,104 @@
+package com.geopledge.util;
+
+import com.geopledge.dto.LocationFixBatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixBatchCodecTests {
+
+    private static final long T0 = 1_760_000_000_000L;
+
+    @Test
+    void roundTripsIncludingOutOfOrderAndExtremeFixes() {
+        LocationFixBatch batch = new LocationFixBatch(
+                new int[]{525200000, -900000000, 900000000, 0},
+                new int[]{134050000, -1800000000, 1800000000, 1},
+                new long[]{T0, T0 + 300_000, T0 - 60_000, T0 - 60_000}); // time may go backwards
+        LocationFixBatch back = FixBatchCodec.decode(ByteBuffer.wrap(FixBatchCodec.encode(batch)));
+        assertArrayEquals(batch.latE7(), back.latE7());
+        assertArrayEquals(batch.lonE7(), back.lonE7());
+        assertArrayEquals(batch.epochMillis(), back.epochMillis());
+    }
+
+    @Test
+    void emptyBatchRoundTrips() {
+        LocationFixBatch empty = new LocationFixBatch(new int[0], new int[0], new long[0]);
+        byte[] data = FixBatchCodec.encode(empty);
+        assertEquals(1 + 1 + 8, data.length);
+        assertEquals(0, FixBatchCodec.decode(ByteBuffer.wrap(data)).size());
+    }
+
+    @Test
+    void regularFixesCostTwelveBytesOrLess() {
+        int n = 100;
+        int[] lat = new int[n], lon = new int[n];
+        long[] at = new long[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = 525200000 + i;
+            lon[i] = 134050000;
+            at[i] = T0 + i * 300_000L;
+        }
+        byte[] data = FixBatchCodec.encode(new LocationFixBatch(lat, lon, at));
+        assertTrue(data.length <= 10 + n * 12, "size " + data.length);
+    }
+
+    @Test
+    void everyTruncationIsRejected() {
+        byte[] data = FixBatchCodec.encode(new LocationFixBatch(
+                new int[]{1, 2, 3}, new int[]{4, 5, 6}, new long[]{T0, T0 + 1000, T0 + 2000}));
+        for (int len = 0; len < data.length; len++) {
+            byte[] cut = Arrays.copyOf(data, len);
+            assertThrows(IllegalArgumentException.class, () -> FixBatchCodec.decode(ByteBuffer.wrap(cut)),
+                    "truncated to " + len);
+        }
+    }
+
+    @Test
+    void countThatDisagreesWithThePayloadIsRejected() {
+        byte[] data = FixBatchCodec.encode(new LocationFixBatch(
+                new int[]{1, 2}, new int[]{3, 4}, new long[]{T0, T0 + 1000}));
+
+        byte[] more = data.clone();
+        more[1] = 3; // claims a third fix that is not there
+        assertThrows(IllegalArgumentException.class, () -> FixBatchCodec.decode(ByteBuffer.wrap(more)));
+
+        byte[] fewer = data.clone();
+        fewer[1] = 1; // the second fix becomes trailing garbage
+        assertThrows(IllegalArgumentException.class, () -> FixBatchCodec.decode(ByteBuffer.wrap(fewer)));
+    }
+
+    @Test
+    void oversizedCountIsRejectedBeforeAllocating() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(FixBatchCodec.VERSION);
+        Varint.writeUnsigned(out, FixBatchCodec.MAX_FIXES + 1);
+        out.writeBytes(new byte[8]);
+        assertThrows(IllegalArgumentException.class, () -> FixBatchCodec.decode(ByteBuffer.wrap(out.toByteArray())));
+
+        ByteArrayOutputStream negative = new ByteArrayOutputStream();
+        negative.write(FixBatchCodec.VERSION);
+        Varint.writeUnsigned(negative, -1); // above Long.MAX_VALUE as unsigned
+        assertThrows(IllegalArgumentException.class, () -> FixBatchCodec.decode(ByteBuffer.wrap(negative.toByteArray())));
+    }
+
+    @Test
+    void unknownVersionAndOutOfRangeCoordinatesAreRejected() {
+        byte[] data = FixBatchCodec.encode(new LocationFixBatch(new int[]{1}, new int[]{2}, new long[]{T0}));
+        byte[] v2 = data.clone();
+        v2[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> FixBatchCodec.decode(ByteBuffer.wrap(v2)));
+
+        byte[] badLat = FixBatchCodec.encode(new LocationFixBatch(new int[]{900000001}, new int[]{0}, new long[]{T0}));
+        assertThrows(IllegalArgumentException.class, () -> FixBatchCodec.decode(ByteBuffer.wrap(badLat)));
+        byte[] badLon = FixBatchCodec.encode(new LocationFixBatch(new int[]{0}, new int[]{Integer.MIN_VALUE}, new long[]{T0}));
+        assertThrows(IllegalArgumentException.class, () -> FixBatchCodec.decode(ByteBuffer.wrap(badLon)));
+    }
+}
@@ -0,0 +1,55 @@
+package com.geopledge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolygonCodecTests {
+
+    @Test
+    void roundTripsToTheMicrodegree() {
+        double[] lat = {40.748817, 40.749512, 40.748100, -33.856784, 89.999999};
+        double[] lon = {-73.985428, -73.984001, -73.983333, 151.215297, -179.999999};
+        double[][] back = PolygonCodec.decode(PolygonCodec.encode(lat, lon));
+        assertArrayEquals(lat, back[0], 1e-7);
+        assertArrayEquals(lon, back[1], 1e-7);
+    }
+
+    @Test
+    void nearbyVerticesEncodeCompactly() {
+        int n = 40;
+        double[] lat = new double[n], lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            double a = 2 * Math.PI * i / n;
+            lat[i] = 40.75 + 0.002 * Math.sin(a);
+            lon[i] = -73.99 + 0.002 * Math.cos(a);
+        }
+        byte[] data = PolygonCodec.encode(lat, lon);
+        assertTrue(data.length <= 10 + (n - 1) * 4 + 1, "size " + data.length);
+    }
+
+    @Test
+    void badVertexCountsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PolygonCodec.decode(PolygonCodec.encode(new double[]{1, 2}, new double[]{1, 2})));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Varint.writeUnsigned(out, PolygonCodec.MAX_VERTICES + 1);
+        assertThrows(IllegalArgumentException.class, () -> PolygonCodec.decode(out.toByteArray()));
+    }
+
+    @Test
+    void truncatedOrPaddedDataIsRejected() {
+        byte[] data = PolygonCodec.encode(new double[]{1, 1.001, 1.002}, new double[]{2, 2.001, 2});
+        for (int len = 0; len < data.length; len++) {
+            byte[] cut = Arrays.copyOf(data, len);
+            assertThrows(IllegalArgumentException.class, () -> PolygonCodec.decode(cut), "truncated to " + len);
+        }
+        byte[] padded = Arrays.copyOf(data, data.length + 1);
+        assertThrows(IllegalArgumentException.class, () -> PolygonCodec.decode(padded));
+    }
+}
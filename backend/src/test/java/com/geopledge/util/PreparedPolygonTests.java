@@ -0,0 +1,149 @@
+package com.geopledge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The grid in {@link PreparedPolygon} is only a shortcut: for any point, {@code contains}
+ * must give exactly what a plain ray-cast over every edge gives.
+ */
+class PreparedPolygonTests {
+
+    private static final int[] GRIDS = {1, 2, 7, 32, 64};
+    private static final int POINTS = 20_000;
+
+    @Test
+    void convexPolygonsAgreeWithRayCast() {
+        Random rnd = new Random(1);
+        for (int k = 0; k < 20; k++) {
+            int n = 3 + rnd.nextInt(30);
+            double[] lat = new double[n], lon = new double[n];
+            for (int i = 0; i < n; i++) {
+                double a = 2 * Math.PI * i / n;
+                lat[i] = 40.75 + 0.002 * Math.sin(a);
+                lon[i] = -73.99 + 0.003 * Math.cos(a);
+            }
+            assertAgrees(lat, lon, rnd);
+        }
+    }
+
+    @Test
+    void concaveAndSelfIntersectingPolygonsAgreeWithRayCast() {
+        Random rnd = new Random(2);
+        /* star-shaped outlines with random radii: deeply concave */
+        for (int k = 0; k < 30; k++) {
+            int n = 5 + rnd.nextInt(60);
+            double[] lat = new double[n], lon = new double[n];
+            for (int i = 0; i < n; i++) {
+                double a = 2 * Math.PI * i / n, r = 0.0002 + 0.002 * rnd.nextDouble();
+                lat[i] = 51.5 + r * Math.sin(a);
+                lon[i] = -0.12 + r * Math.cos(a);
+            }
+            assertAgrees(lat, lon, rnd);
+        }
+        /* vertices in random order: edges cross each other */
+        for (int k = 0; k < 30; k++) {
+            int n = 3 + rnd.nextInt(20);
+            double[] lat = new double[n], lon = new double[n];
+            for (int i = 0; i < n; i++) {
+                lat[i] = -33.86 + 0.004 * rnd.nextDouble();
+                lon[i] = 151.2 + 0.004 * rnd.nextDouble();
+            }
+            assertAgrees(lat, lon, rnd);
+        }
+        /* a U shape whose notch is narrower than a grid cell */
+        assertAgrees(new double[]{0, 0, 1, 1, 0.001, 0.001, 1, 1},
+                new double[]{0, 1, 1, 0.5005, 0.5005, 0.4995, 0.4995, 0}, rnd);
+    }
+
+    @Test
+    void degeneratePolygonsAgreeWithRayCast() {
+        Random rnd = new Random(3);
+        assertAgrees(new double[]{10, 10, 10}, new double[]{20, 20.001, 20.002}, rnd); // flat in lat
+        assertAgrees(new double[]{10, 10.001, 10.002}, new double[]{20, 20, 20}, rnd); // flat in lon
+        assertAgrees(new double[]{10, 10.001, 10.002}, new double[]{20, 20.001, 20.002}, rnd); // diagonal line
+        assertAgrees(new double[]{10, 10, 10}, new double[]{20, 20, 20}, rnd); // a single point
+        assertAgrees(new double[]{10, 10, 10.001, 10.001, 10.001, 10},
+                new double[]{20, 20, 20, 20.001, 20.001, 20.001}, rnd); // repeated vertices
+        assertAgrees(new double[]{10, 10.001, 10.001, 10.0005, 10.0005, 10},
+                new double[]{20, 20, 20.001, 20.001, 20.003, 20.001}, rnd); // a zero-width spike
+    }
+
+    @Test
+    void areaIsZeroForCollinearOutlinesOnly() {
+        // 0.001° x 0.001° at the equator: ~111 m x ~111 m
+        double square = PreparedPolygon.of(new double[][]{{0, 0, 0.001, 0.001}, {0, 0.001, 0.001, 0}}, 1)
+                .areaSquareMeters();
+        assertEquals(110.54 * 111.32, square, 1.0);
+        assertEquals(0, PreparedPolygon.of(new double[][]{{10, 10.001, 10.002}, {20, 20.001, 20.002}}, 1)
+                .areaSquareMeters(), 1e-6);
+        assertEquals(0, PreparedPolygon.of(new double[][]{{10, 10, 10}, {20, 20, 20}}, 1)
+                .areaSquareMeters(), 1e-6);
+        double sliver = PreparedPolygon.of(new double[][]{{10, 10.001, 10.0005}, {20, 20, 20.000001}}, 1)
+                .areaSquareMeters();
+        assertTrue(sliver > 1 && sliver < 100, "sliver " + sliver);
+    }
+
+    /**
+     * Random points over the bounding box and a margin around it, plus points on the
+     * grid lines, on vertices and on (or a hair off) the edges, where a rounding slip
+     * in the cell classification would show up.
+     */
+    private static void assertAgrees(double[] lat, double[] lon, Random rnd) {
+        double minLat = min(lat), maxLat = max(lat), minLon = min(lon), maxLon = max(lon);
+        double hLat = Math.max(maxLat - minLat, 1e-6), hLon = Math.max(maxLon - minLon, 1e-6);
+        int n = lat.length;
+        for (int grid : GRIDS) {
+            PreparedPolygon poly = PreparedPolygon.of(new double[][]{lat, lon}, grid);
+            for (int k = 0; k < POINTS; k++) {
+                double la, lo;
+                switch (k % 4) {
+                    case 0 -> {
+                        la = minLat - 0.1 * hLat + 1.2 * hLat * rnd.nextDouble();
+                        lo = minLon - 0.1 * hLon + 1.2 * hLon * rnd.nextDouble();
+                    }
+                    case 1 -> { // on a grid line in one axis
+                        la = minLat + rnd.nextInt(grid + 1) * (hLat / grid);
+                        lo = minLon + hLon * rnd.nextDouble();
+                        if (rnd.nextBoolean()) {
+                            double t = la;
+                            la = minLat + hLat * rnd.nextDouble();
+                            lo = minLon + (t - minLat) / hLat * hLon;
+                        }
+                    }
+                    case 2 -> { // on an edge, or just off it
+                        int i = rnd.nextInt(n), j = (i + 1) % n;
+                        double t = rnd.nextDouble(), eps = (rnd.nextInt(3) - 1) * 1e-9 * rnd.nextDouble();
+                        la = lat[i] + t * (lat[j] - lat[i]) + eps;
+                        lo = lon[i] + t * (lon[j] - lon[i]) - eps;
+                    }
+                    default -> { // at a vertex, or a ulp away
+                        int i = rnd.nextInt(n);
+                        la = lat[i];
+                        lo = lon[i];
+                        if (rnd.nextBoolean()) la = rnd.nextBoolean() ? Math.nextUp(la) : Math.nextDown(la);
+                        if (rnd.nextBoolean()) lo = rnd.nextBoolean() ? Math.nextUp(lo) : Math.nextDown(lo);
+                    }
+                }
+                assertEquals(poly.rayCast(la, lo), poly.contains(la, lo),
+                        "grid " + grid + ", point " + la + "," + lo + ", " + n + " vertices");
+            }
+        }
+    }
+
+    private static double min(double[] a) {
+        double m = Double.MAX_VALUE;
+        for (double v : a) m = Math.min(m, v);
+        return m;
+    }
+
+    private static double max(double[] a) {
+        double m = -Double.MAX_VALUE;
+        for (double v : a) m = Math.max(m, v);
+        return m;
+    }
+}
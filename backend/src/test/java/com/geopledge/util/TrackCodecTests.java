@@ -0,0 +1,102 @@
+package com.geopledge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrackCodecTests {
+
+    private static final long DAY_START = 20_000L * 86_400L;
+
+    @Test
+    void appendedFixesDecodeInOrder() {
+        Random rnd = new Random(7);
+        int n = 500;
+        long[] at = new long[n];
+        int[] lat = new int[n], lon = new int[n];
+        long t = DAY_START;
+        for (int i = 0; i < n; i++) {
+            t += rnd.nextInt(3) == 0 ? rnd.nextInt(3_600) : 300; // mostly regular, some gaps
+            at[i] = t;
+            lat[i] = 5_252_000 + rnd.nextInt(20_001) - 10_000;
+            lon[i] = -7_399_000 + rnd.nextInt(20_001) - 10_000;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TrackCodec.State s = new TrackCodec.State(DAY_START, 0, 0, 0);
+        for (int i = 0; i < n; i++) TrackCodec.append(out, s, at[i], lat[i], lon[i]);
+
+        TrackCodec.Cursor c = new TrackCodec.Cursor(out.toByteArray(), n, new TrackCodec.State(DAY_START, 0, 0, 0));
+        for (int i = 0; i < n; i++) {
+            assertTrue(c.next());
+            assertEquals(at[i], c.atSeconds());
+            assertEquals(lat[i] / TrackCodec.SCALE, c.lat(), 1e-9);
+            assertEquals(lon[i] / TrackCodec.SCALE, c.lon(), 1e-9);
+        }
+        assertFalse(c.next());
+    }
+
+    @Test
+    void appendingLaterFromTheStoredTailMatchesOneEncoding() {
+        ByteArrayOutputStream whole = new ByteArrayOutputStream();
+        TrackCodec.State s = new TrackCodec.State(DAY_START, 0, 0, 0);
+        for (int i = 0; i < 10; i++) TrackCodec.append(whole, s, DAY_START + i * 300L, i, -i);
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        TrackCodec.State a = new TrackCodec.State(DAY_START, 0, 0, 0);
+        for (int i = 0; i < 4; i++) TrackCodec.append(first, a, DAY_START + i * 300L, i, -i);
+        TrackCodec.State tail = new TrackCodec.State(a.at, a.delta, a.lat, a.lon); // as stored on the row
+        for (int i = 4; i < 10; i++) TrackCodec.append(first, tail, DAY_START + i * 300L, i, -i);
+
+        assertEquals(java.util.Arrays.toString(whole.toByteArray()), java.util.Arrays.toString(first.toByteArray()));
+    }
+
+    @Test
+    void regularStationaryFixesCostThreeBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TrackCodec.State s = new TrackCodec.State(DAY_START, 0, 0, 0);
+        TrackCodec.append(out, s, DAY_START + 300, 5_252_000, 1_340_500);
+        TrackCodec.append(out, s, DAY_START + 600, 5_252_000, 1_340_500);
+        int before = out.size();
+        for (int i = 3; i <= 100; i++) TrackCodec.append(out, s, DAY_START + i * 300L, 5_252_000, 1_340_500);
+        assertEquals(3 * 98, out.size() - before);
+    }
+
+    @Test
+    void simplifyKeepsEndpointsAndTimedDetours() {
+        /* constant-speed straight line with one detour 200 m off it at i = 5 */
+        int n = 11;
+        long[] at = new long[n];
+        double[] lat = new double[n], lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            at[i] = DAY_START + i * 60L;
+            lat[i] = 52.5;
+            lon[i] = 13.4 + i * 0.001;
+        }
+        lat[5] += 200 / 111_320.0;
+
+        boolean[] keep = TrackCodec.simplify(at, lat, lon, 0, n, 10);
+        assertTrue(keep[0] && keep[n - 1] && keep[5]);
+        int kept = 0;
+        for (boolean k : keep) if (k) kept++;
+        assertTrue(kept <= 5, "kept " + kept);
+
+        /* same positions, but a pause: the time-aware distance keeps where the user waited */
+        long[] paused = at.clone();
+        for (int i = 3; i < n; i++) paused[i] += 1_800;
+        lat[5] = 52.5;
+        boolean[] keepPaused = TrackCodec.simplify(paused, lat, lon, 0, n, 10);
+        assertTrue(keepPaused[2] || keepPaused[3], "the pause is kept");
+    }
+
+    @Test
+    void simplifyOfTwoOrFewerKeepsEverything() {
+        boolean[] keep = TrackCodec.simplify(new long[]{1, 2}, new double[]{0, 1}, new double[]{0, 1}, 0, 2, 1_000_000);
+        assertTrue(keep[0] && keep[1]);
+    }
+}
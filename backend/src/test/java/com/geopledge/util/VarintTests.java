@@ -0,0 +1,84 @@
+package com.geopledge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VarintTests {
+
+    private static final long[] EDGES = {
+            0, 1, -1, 63, -64, 64, -65, 127, 128, -128, 8191, -8192,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+            Long.MAX_VALUE - 1, Long.MIN_VALUE + 1
+    };
+
+    @Test
+    void zigzagMapsSmallMagnitudesToSmallCodes() {
+        assertEquals(0, Varint.zigzag(0));
+        assertEquals(1, Varint.zigzag(-1));
+        assertEquals(2, Varint.zigzag(1));
+        assertEquals(-2, Varint.zigzag(Long.MAX_VALUE)); // 0xFFFF…FE
+        assertEquals(-1, Varint.zigzag(Long.MIN_VALUE)); // 0xFFFF…FF
+        for (long v : EDGES) assertEquals(v, Varint.unzigzag(Varint.zigzag(v)), "value " + v);
+    }
+
+    @Test
+    void signedValuesRoundTripAtTheEdges() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (long v : EDGES) Varint.writeSigned(out, v);
+        ByteBuffer in = ByteBuffer.wrap(out.toByteArray());
+        for (long v : EDGES) assertEquals(v, Varint.readSigned(in), "value " + v);
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void encodedLengthGrowsBySevenBits() {
+        assertArrayEquals(new byte[]{0x00}, unsigned(0));
+        assertArrayEquals(new byte[]{0x7F}, unsigned(127));
+        assertArrayEquals(new byte[]{(byte) 0x80, 0x01}, unsigned(128));
+        assertEquals(10, unsigned(-1).length); // all 64 bits set
+        assertEquals(1, signed(-64).length);
+        assertEquals(2, signed(64).length);
+    }
+
+    @Test
+    void truncatedVarintUnderflows() {
+        ByteBuffer in = ByteBuffer.wrap(new byte[]{(byte) 0x80, (byte) 0x80});
+        assertThrows(BufferUnderflowException.class, () -> Varint.readUnsigned(in));
+    }
+
+    @Test
+    void varintLongerThanTenBytesIsRejected() {
+        byte[] data = new byte[11];
+        Arrays.fill(data, (byte) 0x80);
+        assertThrows(IllegalArgumentException.class, () -> Varint.readUnsigned(ByteBuffer.wrap(data)));
+    }
+
+    @Test
+    void tenthByteBeyondSixtyFourBitsIsRejected() {
+        byte[] max = unsigned(-1);
+        assertEquals(-1, Varint.readUnsigned(ByteBuffer.wrap(max)));
+        max[9] = 0x02; // bit 64 would be silently dropped
+        assertThrows(IllegalArgumentException.class, () -> Varint.readUnsigned(ByteBuffer.wrap(max)));
+    }
+
+    private static byte[] unsigned(long v) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Varint.writeUnsigned(out, v);
+        return out.toByteArray();
+    }
+
+    private static byte[] signed(long v) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Varint.writeSigned(out, v);
+        return out.toByteArray();
+    }
+}